@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of the direct buffers of the same size, owned by an {@link NIOEventLoop}, so it is not
+ * thread-safe: acquire and release the buffers in the loop only.
+ * <p>
+ * The direct buffers are read from and written to the sockets without a copy, but are expensive
+ * to allocate and to free, so they are reused instead.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class ByteBufferPool {
+
+  /**
+   * the size of the pooled buffers
+   */
+  public static final int DEFAULT_BUFFER_SIZE = Math.max(64,
+      Integer.getInteger("photon.nio.bufferSize", 8192));
+
+  /**
+   * the maximum number of the free buffers kept by a pool, the others are left to the GC
+   */
+  public static final int DEFAULT_MAX_POOLED = Math.max(0,
+      Integer.getInteger("photon.nio.maxPooledBuffers", 1024));
+
+  private final int bufferSize;
+  private final int maxPooled;
+  private final ArrayDeque<ByteBuffer> free;
+  private long allocated;
+  private long acquired;
+
+  public ByteBufferPool() {
+    this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED);
+  }
+
+  public ByteBufferPool(int bufferSize, int maxPooled) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("bufferSize: " + bufferSize + " (expected: > 0)");
+    }
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+    this.free = new ArrayDeque<>(Math.min(maxPooled, 64));
+  }
+
+  /**
+   * @return a cleared buffer of {@link #bufferSize()}
+   */
+  public ByteBuffer acquire() {
+    acquired++;
+    // LIFO, the buffer used last is the most likely to be in the cache still
+    ByteBuffer buffer = free.pollLast();
+    if (buffer == null) {
+      allocated++;
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * give back a buffer acquired from the pool, which must not be used any more
+   */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+      return;
+    }
+    if (free.size() < maxPooled) {
+      free.addLast(buffer);
+    }
+  }
+
+  public int bufferSize() {
+    return bufferSize;
+  }
+
+  @Override
+  public String toString() {
+    return "ByteBufferPool{"
+        + "bufferSize=" + bufferSize
+        + ", free=" + free.size()
+        + ", allocated=" + allocated
+        + ", acquired=" + acquired
+        + '}';
+  }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue of multi producers and a single consumer, on an array whose capacity
+ * is a power of 2.
+ * <p>
+ * The producers claim a slot by a CAS of the producer index, then store the element into it; the
+ * consumer, only the event loop, takes the elements without any CAS. The indexes are padded
+ * against the false sharing, as the producers write the one, and the consumer writes the other.
+ * <p>
+ * {@link #poll()}, {@link #peek()} and {@link #clear()} must be called by the consumer only, the
+ * iterator is weakly consistent.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @see <a href="https://github.com/JCTools/JCTools">JCTools MpscArrayQueue</a>
+ */
+public class MpscArrayQueue<E> extends MpscArrayQueueConsumerIndex<E> {
+
+  long p1, p2, p3, p4, p5, p6, p7;
+  long p8, p9, p10, p11, p12, p13, p14;
+
+  public MpscArrayQueue(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    final long mask = this.mask;
+    long producerLimit = this.producerLimit;
+    long pIndex;
+    do {
+      pIndex = this.producerIndex;
+      if (pIndex >= producerLimit) {
+        // the cached limit is reached, see how far the consumer has gone
+        producerLimit = this.consumerIndex + mask + 1;
+        if (pIndex >= producerLimit) {
+          // full
+          return false;
+        }
+        PRODUCER_LIMIT_UPDATER.lazySet(this, producerLimit);
+      }
+    } while (!PRODUCER_INDEX_UPDATER.compareAndSet(this, pIndex, pIndex + 1));
+    // the slot is claimed, the consumer spins until the element is visible
+    buffer.lazySet((int) (pIndex & mask), e);
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    final long cIndex = this.consumerIndex;
+    final int offset = (int) (cIndex & mask);
+    E e = buffer.get(offset);
+    if (e == null) {
+      if (cIndex == this.producerIndex) {
+        return null;
+      }
+      // a producer has claimed the slot, but not stored the element yet
+      do {
+        e = buffer.get(offset);
+      } while (e == null);
+    }
+    buffer.lazySet(offset, null);
+    CONSUMER_INDEX_UPDATER.lazySet(this, cIndex + 1);
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    final long cIndex = this.consumerIndex;
+    final int offset = (int) (cIndex & mask);
+    E e = buffer.get(offset);
+    if (e == null) {
+      if (cIndex == this.producerIndex) {
+        return null;
+      }
+      do {
+        e = buffer.get(offset);
+      } while (e == null);
+    }
+    return e;
+  }
+
+  @Override
+  public int size() {
+    // read the consumer index twice, so that the size is never negative
+    long after = this.consumerIndex;
+    for (; ; ) {
+      final long before = after;
+      final long pIndex = this.producerIndex;
+      after = this.consumerIndex;
+      if (before == after) {
+        return (int) Math.min(pIndex - after, Integer.MAX_VALUE);
+      }
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.consumerIndex == this.producerIndex;
+  }
+
+  public int capacity() {
+    return (int) (mask + 1);
+  }
+
+  /**
+   * A weakly consistent iterator, which may be used by any thread. It returns the elements between
+   * the consumer and the producer indexes at its creation, skips those polled meanwhile, and may
+   * return an element offered after its creation into a slot it has not reached yet. {@link
+   * Iterator#remove()} is not supported.
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new WeakIterator();
+  }
+
+  @Override
+  public String toString() {
+    return "MpscArrayQueue{capacity=" + capacity() + ", size=" + size() + '}';
+  }
+
+  private final class WeakIterator implements Iterator<E> {
+
+    private final long pIndex = producerIndex;
+    private long nextIndex = consumerIndex;
+    private E nextElement = nextElement();
+
+    @Override
+    public boolean hasNext() {
+      return nextElement != null;
+    }
+
+    @Override
+    public E next() {
+      final E e = nextElement;
+      if (e == null) {
+        throw new NoSuchElementException();
+      }
+      nextElement = nextElement();
+      return e;
+    }
+
+    private E nextElement() {
+      while (nextIndex < pIndex) {
+        // null if it is polled already, or claimed but not stored yet
+        final E e = buffer.get((int) (nextIndex++ & mask));
+        if (e != null) {
+          return e;
+        }
+      }
+      return null;
+    }
+  }
+
+}
+
+abstract class MpscArrayQueuePad0<E> extends AbstractQueue<E> {
+
+  long p1, p2, p3, p4, p5, p6, p7;
+  long p8, p9, p10, p11, p12, p13, p14;
+
+  /**
+   * the updater of a volatile long field, typed by the generic class which declares it
+   */
+  @SuppressWarnings("unchecked")
+  static <T> AtomicLongFieldUpdater<T> longUpdater(Class<?> declaringClass, String fieldName) {
+    return (AtomicLongFieldUpdater<T>) AtomicLongFieldUpdater.newUpdater(declaringClass, fieldName);
+  }
+}
+
+abstract class MpscArrayQueueBuffer<E> extends MpscArrayQueuePad0<E> {
+
+  protected final long mask;
+  protected final AtomicReferenceArray<E> buffer;
+
+  MpscArrayQueueBuffer(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("capacity: " + capacity + " (expected: >= 2)");
+    }
+    final int actualCapacity = capacity > (1 << 30) ? 1 << 30
+        : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = actualCapacity - 1;
+    this.buffer = new AtomicReferenceArray<>(actualCapacity);
+  }
+}
+
+abstract class MpscArrayQueueProducerIndex<E> extends MpscArrayQueueBuffer<E> {
+
+  long p1, p2, p3, p4, p5, p6, p7;
+  long p8, p9, p10, p11, p12, p13, p14;
+
+  protected static final AtomicLongFieldUpdater<MpscArrayQueueProducerIndex<?>> PRODUCER_INDEX_UPDATER = longUpdater(
+      MpscArrayQueueProducerIndex.class, "producerIndex");
+
+  protected volatile long producerIndex;
+
+  MpscArrayQueueProducerIndex(int capacity) {
+    super(capacity);
+  }
+}
+
+abstract class MpscArrayQueueProducerLimit<E> extends MpscArrayQueueProducerIndex<E> {
+
+  long p1, p2, p3, p4, p5, p6, p7;
+  long p8, p9, p10, p11, p12, p13, p14;
+
+  protected static final AtomicLongFieldUpdater<MpscArrayQueueProducerLimit<?>> PRODUCER_LIMIT_UPDATER = longUpdater(
+      MpscArrayQueueProducerLimit.class, "producerLimit");
+
+  /**
+   * a cached bound of the producer index, the producers read the consumer index only beyond it
+   */
+  protected volatile long producerLimit;
+
+  MpscArrayQueueProducerLimit(int capacity) {
+    super(capacity);
+    this.producerLimit = mask + 1;
+  }
+}
+
+abstract class MpscArrayQueueConsumerIndex<E> extends MpscArrayQueueProducerLimit<E> {
+
+  long p1, p2, p3, p4, p5, p6, p7;
+  long p8, p9, p10, p11, p12, p13, p14;
+
+  protected static final AtomicLongFieldUpdater<MpscArrayQueueConsumerIndex<?>> CONSUMER_INDEX_UPDATER = longUpdater(
+      MpscArrayQueueConsumerIndex.class, "consumerIndex");
+
+  protected volatile long consumerIndex;
+
+  MpscArrayQueueConsumerIndex(int capacity) {
+    super(capacity);
+  }
+}
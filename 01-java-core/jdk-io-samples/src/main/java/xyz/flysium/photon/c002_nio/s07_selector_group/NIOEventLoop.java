@@ -25,14 +25,25 @@
 package xyz.flysium.photon.c002_nio.s07_selector_group;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import xyz.flysium.photon.c002_nio.s07_selector_group.task.NIOTask;
@@ -47,10 +58,55 @@ public class NIOEventLoop implements Executor {
 
   protected static final Logger logger = LoggerFactory.getLogger(NIOEventLoop.class);
 
-  private Selector selector;
+  /**
+   * keep the <code>HashSet</code> of the selected keys of the JDK
+   */
+  private static final boolean DISABLE_KEY_SET_OPTIMIZATION = Boolean
+      .getBoolean("photon.nio.noKeySetOptimization");
+
+  /**
+   * the number of the selects in a row which return nothing before the selector is rebuilt, to
+   * work around the epoll spin bug of the JDK, 0 to disable it
+   */
+  private static final int SELECTOR_AUTO_REBUILD_THRESHOLD = Math.max(0,
+      Integer.getInteger("photon.nio.selectorAutoRebuildThreshold", 512));
+
+  /**
+   * the capacity of the default task queue, beyond which the tasks are rejected
+   */
+  private static final int MAX_PENDING_TASKS = Math.max(16,
+      Integer.getInteger("photon.nio.maxPendingTasks", 1 << 16));
+
+  private static final AtomicLong NEXT_SCHEDULED_TASK_ID = new AtomicLong();
+
+  private final SelectorProvider provider;
+  private final SelectStrategy selectStrategy;
+  private volatile Selector selector;
+  private SelectedSelectionKeySet selectedKeys;
+
+  /**
+   * false only while the loop may block in the select, so that only the first of the tasks
+   * executed meanwhile wakes it up
+   */
+  private final AtomicBoolean awake = new AtomicBoolean(true);
+  private int prematureSelects;
+
+  private final ByteBufferPool bufferPool = new ByteBufferPool();
 
   private final Executor executor;
-  private final BlockingQueue<Runnable> taskQueue;
+  private final Queue<Runnable> taskQueue;
+  /**
+   * the tasks of the loop itself, such as scheduling and the rebuild of the selector, which are
+   * not bounded by the capacity of the task queue, so that they are never rejected while the loop
+   * is running
+   */
+  private final Queue<Runnable> internalTaskQueue = new ConcurrentLinkedQueue<>();
+  /**
+   * the delayed tasks, accessed in the loop only
+   */
+  private final PriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue = new PriorityQueue<>();
+  private final SelectStrategy.SelectSupplier selectNowSupplier = () -> selectNow();
+  private final BooleanSupplier hasTasksSupplier = () -> hasTasks();
 
   private Thread thread;
   private static final int ST_NOT_STARTED = 1;
@@ -64,17 +120,98 @@ public class NIOEventLoop implements Executor {
 
   private volatile int ioRatio = 50;
 
-  public NIOEventLoop(Executor executor, BlockingQueue<Runnable> taskQueue) {
+  public NIOEventLoop(Executor executor) {
+    this(executor, newTaskQueue());
+  }
+
+  /**
+   * @param taskQueue the queue of the tasks, which is polled by the loop only, see {@link
+   *                  #newTaskQueue()}
+   */
+  public NIOEventLoop(Executor executor, Queue<Runnable> taskQueue) {
+    this(executor, taskQueue, SelectorProviders.provider(), SelectStrategies.blocking());
+  }
+
+  public NIOEventLoop(Executor executor, Queue<Runnable> taskQueue,
+      SelectorProvider provider, SelectStrategy selectStrategy) {
     this.executor = executor;
     this.taskQueue = taskQueue;
+    this.provider = provider;
+    this.selectStrategy = selectStrategy;
     try {
       // 创建Selector选择器
-      this.selector = Selector.open();
+      this.selector = openSelector();
     } catch (IOException e) {
       logger.error(e.getMessage(), e);
     }
   }
 
+  /**
+   * the default task queue, a lock-free queue of multi producers and the loop as the single
+   * consumer, whose capacity is <code>-Dphoton.nio.maxPendingTasks</code>, 65536 by default
+   */
+  public static Queue<Runnable> newTaskQueue() {
+    return new MpscArrayQueue<>(MAX_PENDING_TASKS);
+  }
+
+  /**
+   * open a selector, whose selected keys are in an array if the JDK allows to replace them
+   *
+   * @see io.netty.channel.nio.NioEventLoop
+   */
+  private Selector openSelector() throws IOException {
+    final Selector unwrappedSelector = provider.openSelector();
+    if (DISABLE_KEY_SET_OPTIMIZATION) {
+      this.selectedKeys = null;
+      return unwrappedSelector;
+    }
+    final SelectedSelectionKeySet keySet = new SelectedSelectionKeySet();
+    try {
+      Class<?> selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl", false,
+          ClassLoader.getSystemClassLoader());
+      if (!selectorImplClass.isAssignableFrom(unwrappedSelector.getClass())) {
+        this.selectedKeys = null;
+        return unwrappedSelector;
+      }
+      Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+      Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+      // on JDK 9+ it needs --add-opens java.base/sun.nio.ch=ALL-UNNAMED
+      selectedKeysField.setAccessible(true);
+      publicSelectedKeysField.setAccessible(true);
+      selectedKeysField.set(unwrappedSelector, keySet);
+      publicSelectedKeysField.set(unwrappedSelector, keySet);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      logger.debug("failed to instrument the selected key set of " + unwrappedSelector + ": " + e);
+      // the key set of the old selector, if it is rebuilt, is not filled any more
+      this.selectedKeys = null;
+      return unwrappedSelector;
+    }
+    this.selectedKeys = keySet;
+    return unwrappedSelector;
+  }
+
+  public SelectorProvider selectorProvider() {
+    return provider;
+  }
+
+  /**
+   * the pooled buffers of the loop, use them in the loop only
+   */
+  public ByteBufferPool bufferPool() {
+    return bufferPool;
+  }
+
+  public SelectStrategy getSelectStrategy() {
+    return selectStrategy;
+  }
+
+  /**
+   * whether the selected keys are in an array instead of a <code>HashSet</code>
+   */
+  public boolean isKeySetOptimized() {
+    return selectedKeys != null;
+  }
+
   public int getIoRatio() {
     return ioRatio;
   }
@@ -102,8 +239,108 @@ public class NIOEventLoop implements Executor {
     wakeup(inEventLoop);
   }
 
-  private void wakeup(boolean inEventLoop) {
+  /**
+   * execute a task of the loop itself, which is rejected only if the loop is shut down
+   */
+  private void executeInternal(Runnable command) {
+    if (isShutdown()) {
+      reject();
+    }
+    internalTaskQueue.add(command);
+
+    boolean inEventLoop = inEventLoop(Thread.currentThread());
     if (!inEventLoop) {
+      startThread();
+    }
+
+    wakeup(inEventLoop);
+  }
+
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    checkNotNull(command, unit);
+    return schedule(new ScheduledFutureTask<Void>(this, command, nextScheduledTaskId(),
+        deadlineNanos(unit.toNanos(delay)), 0));
+  }
+
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    checkNotNull(callable, unit);
+    return schedule(new ScheduledFutureTask<>(this, callable, nextScheduledTaskId(),
+        deadlineNanos(unit.toNanos(delay))));
+  }
+
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+      TimeUnit unit) {
+    checkNotNull(command, unit);
+    if (period <= 0) {
+      throw new IllegalArgumentException("period: " + period + " (expected: > 0)");
+    }
+    return schedule(new ScheduledFutureTask<Void>(this, command, nextScheduledTaskId(),
+        deadlineNanos(unit.toNanos(initialDelay)), unit.toNanos(period)));
+  }
+
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+      long delay, TimeUnit unit) {
+    checkNotNull(command, unit);
+    if (delay <= 0) {
+      throw new IllegalArgumentException("delay: " + delay + " (expected: > 0)");
+    }
+    return schedule(new ScheduledFutureTask<Void>(this, command, nextScheduledTaskId(),
+        deadlineNanos(unit.toNanos(initialDelay)), -unit.toNanos(delay)));
+  }
+
+  private static void checkNotNull(Object command, TimeUnit unit) {
+    if (command == null) {
+      throw new NullPointerException("command");
+    }
+    if (unit == null) {
+      throw new NullPointerException("unit");
+    }
+  }
+
+  private static long nextScheduledTaskId() {
+    return NEXT_SCHEDULED_TASK_ID.getAndIncrement();
+  }
+
+  private static long deadlineNanos(long delayNanos) {
+    long deadlineNanos = nanoTime() + Math.max(0, delayNanos);
+    // Guard against overflow
+    return deadlineNanos < 0 ? Long.MAX_VALUE : deadlineNanos;
+  }
+
+  private <V> ScheduledFuture<V> schedule(ScheduledFutureTask<V> task) {
+    if (inEventLoop(Thread.currentThread())) {
+      scheduledTaskQueue.add(task);
+    } else {
+      // the loop wakes up, and selects again with the new deadline
+      executeInternal(() -> scheduledTaskQueue.add(task));
+    }
+    return task;
+  }
+
+  /**
+   * schedule the next run of a periodic task, in the loop
+   */
+  void scheduleNext(ScheduledFutureTask<?> task) {
+    if (!task.isCancelled() && !isShutdown()) {
+      scheduledTaskQueue.add(task);
+    }
+  }
+
+  void removeScheduled(ScheduledFutureTask<?> task) {
+    if (inEventLoop(Thread.currentThread())) {
+      scheduledTaskQueue.remove(task);
+    } else if (!isShutdown()) {
+      try {
+        executeInternal(() -> scheduledTaskQueue.remove(task));
+      } catch (RejectedExecutionException ignore) {
+        // shut down meanwhile, it is discarded as cancelled when it is due anyway
+      }
+    }
+  }
+
+  private void wakeup(boolean inEventLoop) {
+    // the loop is not blocked, or another task has woken it up already
+    if (!inEventLoop && awake.compareAndSet(false, true)) {
       selector.wakeup();
     }
   }
@@ -194,9 +431,20 @@ public class NIOEventLoop implements Executor {
         // 1. select
         int strategy = 0;
         try {
-          strategy = hasTasks() ? selector.selectNow() : selector.select();
-        } catch (Exception e) {
+          strategy = selectStrategy.calculateStrategy(selectNowSupplier, hasTasksSupplier);
+          switch (strategy) {
+            case SelectStrategy.CONTINUE:
+              continue;
+            case SelectStrategy.SELECT:
+              strategy = select();
+              break;
+            default:
+          }
+        } catch (IOException e) {
+          // the selector may be broken
           logger.warn(e.getMessage(), e);
+          rebuildSelector();
+          continue;
         }
         // 2. handle selection keys， 3. run tasks
         final int ioRatio = this.ioRatio;
@@ -228,8 +476,130 @@ public class NIOEventLoop implements Executor {
     }
   }
 
+  private int selectNow() throws IOException {
+    return selector.selectNow();
+  }
+
+  /**
+   * block in the select until the next scheduled task is due, unless a task comes in before it
+   * blocks
+   */
+  private int select() throws IOException {
+    awake.set(false);
+    final long timeoutMillis = selectTimeoutMillis();
+    final long selectStart = nanoTime();
+    // a task executed before the flag was reset does not wake up the selector
+    int selected;
+    if (hasTasks() || timeoutMillis == 0) {
+      selected = selector.selectNow();
+    } else if (timeoutMillis < 0) {
+      selected = selector.select();
+    } else {
+      selected = selector.select(timeoutMillis);
+    }
+    boolean wokenUp = awake.getAndSet(true);
+
+    if (selected > 0 || wokenUp || hasTasks() || timeoutMillis == 0
+        || (timeoutMillis > 0
+        && nanoTime() - selectStart >= TimeUnit.MILLISECONDS.toNanos(timeoutMillis))) {
+      prematureSelects = 0;
+    } else if (Thread.interrupted()) {
+      // an interrupted thread never blocks in the select
+      logger.debug("selector.select() returned prematurely because the thread was interrupted");
+      prematureSelects = 0;
+    } else if (SELECTOR_AUTO_REBUILD_THRESHOLD > 0
+        && ++prematureSelects >= SELECTOR_AUTO_REBUILD_THRESHOLD) {
+      // nothing to do, the epoll spin bug
+      logger.warn("selector.select() returned prematurely " + prematureSelects
+          + " times in a row, rebuild the selector " + selector);
+      rebuildSelector();
+      prematureSelects = 0;
+      selected = selector.selectNow();
+    }
+    return selected;
+  }
+
+  /**
+   * @return the milliseconds until the next scheduled task is due, rounded up, 0 if it is due
+   * already, or -1 if there is none
+   */
+  private long selectTimeoutMillis() {
+    ScheduledFutureTask<?> task = scheduledTaskQueue.peek();
+    if (task == null) {
+      return -1;
+    }
+    long delayNanos = task.deadlineNanos() - nanoTime();
+    if (delayNanos <= 0) {
+      return 0;
+    }
+    // selector.select(0) would block without a timeout
+    return (delayNanos + 999_999L) / 1_000_000L;
+  }
+
+  /**
+   * Replace the selector by a new one, and move the channels to it, in the event loop.
+   *
+   * @see io.netty.channel.nio.NioEventLoop#rebuildSelector()
+   */
+  public void rebuildSelector() {
+    if (!inEventLoop(Thread.currentThread())) {
+      executeInternal(this::rebuildSelector);
+      return;
+    }
+    final Selector oldSelector = selector;
+    final Selector newSelector;
+    try {
+      newSelector = openSelector();
+    } catch (IOException e) {
+      logger.warn("failed to create a new selector", e);
+      return;
+    }
+    int moved = 0;
+    for (SelectionKey key : oldSelector.keys()) {
+      Object attachment = key.attachment();
+      try {
+        SelectableChannel channel = key.channel();
+        if (!key.isValid() || channel.keyFor(newSelector) != null) {
+          continue;
+        }
+        int interestOps = key.interestOps();
+        key.cancel();
+        SelectionKey newKey = channel.register(newSelector, interestOps, attachment);
+        if (attachment instanceof NIOTask) {
+          ((NIOTask) attachment).setSelectionKey(newKey);
+        }
+        moved++;
+      } catch (IOException | RuntimeException e) {
+        logger.warn("failed to move a channel to the new selector", e);
+        NIOChannelUtil.close(key.channel());
+      }
+    }
+    selector = newSelector;
+    try {
+      oldSelector.close();
+    } catch (IOException e) {
+      logger.warn("failed to close the old selector", e);
+    }
+    logger.info("moved " + moved + " channel(s) to the new selector " + newSelector);
+  }
+
   private void processSelectionKeys() throws IOException {
-    processSelectedKeysPlain(selector.selectedKeys());
+    if (selectedKeys != null) {
+      processSelectedKeysOptimized();
+    } else {
+      processSelectedKeysPlain(selector.selectedKeys());
+    }
+  }
+
+  private void processSelectedKeysOptimized() {
+    final SelectedSelectionKeySet selectedKeys = this.selectedKeys;
+    for (int i = 0; i < selectedKeys.size; ++i) {
+      final SelectionKey key = selectedKeys.keys[i];
+      // null out entry in the array to allow to have it GC'ed once the Channel close
+      selectedKeys.keys[i] = null;
+      processSelectedKey(key);
+    }
+    selectedKeys.reset(0);
   }
 
   private void processSelectedKeysPlain(Set<SelectionKey> selectedKeys) {
@@ -241,34 +611,40 @@ public class NIOEventLoop implements Executor {
       SelectionKey key = keyIterator.next();
       keyIterator.remove();
 
-      if (!key.isValid()) {
-        continue;
-      }
-      Object attachment = key.attachment();
+      processSelectedKey(key);
+    }
+  }
 
-      if (attachment instanceof NIOTask) {
-        NIOTask task = (NIOTask) attachment;
+  private void processSelectedKey(SelectionKey key) {
+    if (!key.isValid()) {
+      return;
+    }
+    Object attachment = key.attachment();
 
-        safeExecute(task);
-      }
+    if (attachment instanceof NIOTask) {
+      NIOTask task = (NIOTask) attachment;
+
+      safeExecute(task);
     }
   }
 
   // reference time
   private static final long START_TIME = System.nanoTime();
 
-  private static long nanoTime() {
+  static long nanoTime() {
     return System.nanoTime() - START_TIME;
   }
 
   protected boolean hasTasks() {
-    return !taskQueue.isEmpty();
+    return !taskQueue.isEmpty() || !internalTaskQueue.isEmpty();
   }
 
   /**
    * @see io.netty.channel.nio.NioEventLoop
    */
   private void runAllTasks() throws InterruptedException, IOException {
+    runInternalTasks();
+    runScheduledTasks();
     for (; ; ) {
       Runnable task = taskQueue.poll();
       if (task == null) {
@@ -283,6 +659,8 @@ public class NIOEventLoop implements Executor {
    * @see io.netty.channel.nio.NioEventLoop
    */
   private void runAllTasks(long timeoutNanos) throws InterruptedException, IOException {
+    runInternalTasks();
+    runScheduledTasks();
     Runnable task = taskQueue.poll();
     if (task == null) {
       return;
@@ -311,6 +689,40 @@ public class NIOEventLoop implements Executor {
     }
   }
 
+  /**
+   * run the tasks of the loop itself, all of them, as they are short
+   */
+  private void runInternalTasks() {
+    for (; ; ) {
+      Runnable task = internalTaskQueue.poll();
+      if (task == null) {
+        break;
+      }
+
+      safeExecute(task);
+    }
+  }
+
+  /**
+   * run the scheduled tasks which are due
+   */
+  private void runScheduledTasks() {
+    if (scheduledTaskQueue.isEmpty()) {
+      return;
+    }
+    final long now = nanoTime();
+    for (; ; ) {
+      ScheduledFutureTask<?> task = scheduledTaskQueue.peek();
+      if (task == null || task.deadlineNanos() > now) {
+        break;
+      }
+      scheduledTaskQueue.poll();
+      if (!task.isCancelled()) {
+        safeExecute(task);
+      }
+    }
+  }
+
   protected static void safeExecute(NIOTask task) {
     try {
       task.run();
@@ -24,8 +24,8 @@
 
 package xyz.flysium.photon.c002_nio.s07_selector_group;
 
+import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,12 +52,32 @@ public class NIOEventLoopGroup {
   }
 
   public NIOEventLoopGroup(int threads, Executor executor) {
+    this(threads, executor, SelectorProviders.provider(), SelectStrategies.blocking());
+  }
+
+  public NIOEventLoopGroup(int threads, String namePrefix, SelectorProvider provider,
+      SelectStrategy selectStrategy) {
+    this(threads, new ThreadPerTaskExecutor(new CustomizableThreadFactory(namePrefix)), provider,
+        selectStrategy);
+  }
+
+  /**
+   * @param provider       the provider of the selectors, see {@link SelectorProviders}
+   * @param selectStrategy how to select when there are tasks or not, see {@link SelectStrategies}
+   */
+  public NIOEventLoopGroup(int threads, Executor executor, SelectorProvider provider,
+      SelectStrategy selectStrategy) {
     selects = new NIOEventLoop[threads];
     for (int i = 0; i < threads; i++) {
-      selects[i] = new NIOEventLoop(executor, new LinkedBlockingQueue<>());
+      selects[i] = new NIOEventLoop(executor, NIOEventLoop.newTaskQueue(), provider,
+          selectStrategy);
     }
   }
 
+  public NIOEventLoop[] eventLoops() {
+    return selects.clone();
+  }
+
   public NIOServerBootStrap getBootStrap() {
     return bootStrap;
   }
@@ -30,12 +30,17 @@ import java.net.SocketOption;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.spi.SelectorProvider;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.c002_nio.s07_selector_group.pipeline.ChannelPipeline;
 import xyz.flysium.photon.c002_nio.s07_selector_group.task.ServerAcceptor;
 
 /**
@@ -64,6 +69,18 @@ public class NIOServerBootStrap {
 
   private static final int SOMAXCONN = NetUtil.getSomaxconn();
 
+  /**
+   * the capacity of the queue of the default business executor, beyond which the channels are
+   * closed
+   */
+  private static final int BUSINESS_QUEUE_CAPACITY = 10_000;
+  private static final int BUSINESS_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+  private Supplier<? extends ChannelPipeline<?, ?>> childPipeline = ChannelPipeline::echo;
+  private Executor childExecutor = new ThreadPoolExecutor(BUSINESS_THREADS, BUSINESS_THREADS,
+      60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(BUSINESS_QUEUE_CAPACITY),
+      new CustomizableThreadFactory("nio-business-"));
+
   public NIOServerBootStrap group(NIOEventLoopGroup group) {
     return group(group, group);
   }
@@ -96,6 +113,27 @@ public class NIOServerBootStrap {
     return this;
   }
 
+  /**
+   * @param childPipeline create the pipeline of each accepted channel
+   */
+  public NIOServerBootStrap childPipeline(
+      Supplier<? extends ChannelPipeline<?, ?>> childPipeline) {
+    if (childPipeline == null) {
+      throw new NullPointerException("childPipeline");
+    }
+    this.childPipeline = childPipeline;
+    return this;
+  }
+
+  /**
+   * @param childExecutor the executor of the business, to call the handlers of the pipelines, or
+   *                      null to call them in the event loops, then they must not block
+   */
+  public NIOServerBootStrap childExecutor(Executor childExecutor) {
+    this.childExecutor = childExecutor;
+    return this;
+  }
+
   public NIOServerBootStrap bind(int port) throws IOException {
     ServerSocketChannel server = ServerSocketChannel.open();
     // 设置非阻塞模式
@@ -135,10 +173,20 @@ public class NIOServerBootStrap {
   public String toString() {
     return "NIOBootstrap{"
         + "backlog=" + getOption(NIOExtendSocketOptions.SERVER_BACKLOG)
-        + ", selectorProvider=" + SelectorProvider.provider().getClass().getCanonicalName()
+        + ", selectorProvider=" + selectorProviderName()
         + '}';
   }
 
+  private String selectorProviderName() {
+    // the groups are not set yet
+    if (workerGroup == null) {
+      return null;
+    }
+    final NIOEventLoop[] loops = workerGroup.eventLoops();
+    return loops.length == 0 ? null
+        : loops[0].selectorProvider().getClass().getCanonicalName();
+  }
+
   <T> T getOption(SocketOption<T> name) {
     return (T) options.get(name);
   }
@@ -156,6 +204,14 @@ public class NIOServerBootStrap {
     return (T) childOptions.get(name);
   }
 
+  public ChannelPipeline<?, ?> newChildPipeline() {
+    return childPipeline.get();
+  }
+
+  public Executor getChildExecutor() {
+    return childExecutor;
+  }
+
   public Map<SocketOption, Object> getChildOptions() {
     return Collections.unmodifiableMap(childOptions);
   }
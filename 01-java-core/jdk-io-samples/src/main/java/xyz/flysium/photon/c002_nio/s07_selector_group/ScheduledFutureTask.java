@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A delayed or periodic task of an {@link NIOEventLoop}, which runs it in the loop.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @see io.netty.util.concurrent.ScheduledFutureTask
+ */
+final class ScheduledFutureTask<V> extends FutureTask<V> implements
+    RunnableScheduledFuture<V> {
+
+  private final NIOEventLoop loop;
+  /**
+   * the order of the tasks with the same deadline
+   */
+  private final long id;
+  private long deadlineNanos;
+  /**
+   * 0 not periodic, &gt; 0 at fixed rate, &lt; 0 with fixed delay
+   */
+  private final long periodNanos;
+
+  ScheduledFutureTask(NIOEventLoop loop, Callable<V> callable, long id, long deadlineNanos) {
+    super(callable);
+    this.loop = loop;
+    this.id = id;
+    this.deadlineNanos = deadlineNanos;
+    this.periodNanos = 0;
+  }
+
+  ScheduledFutureTask(NIOEventLoop loop, Runnable runnable, long id, long deadlineNanos,
+      long periodNanos) {
+    super(runnable, null);
+    this.loop = loop;
+    this.id = id;
+    this.deadlineNanos = deadlineNanos;
+    this.periodNanos = periodNanos;
+  }
+
+  long deadlineNanos() {
+    return deadlineNanos;
+  }
+
+  @Override
+  public long getDelay(TimeUnit unit) {
+    return unit.convert(deadlineNanos - NIOEventLoop.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public int compareTo(Delayed o) {
+    if (this == o) {
+      return 0;
+    }
+    ScheduledFutureTask<?> that = (ScheduledFutureTask<?>) o;
+    if (deadlineNanos != that.deadlineNanos) {
+      return deadlineNanos < that.deadlineNanos ? -1 : 1;
+    }
+    return Long.compare(id, that.id);
+  }
+
+  @Override
+  public boolean isPeriodic() {
+    return periodNanos != 0;
+  }
+
+  @Override
+  public void run() {
+    if (!isPeriodic()) {
+      super.run();
+    } else if (runAndReset()) {
+      // schedule the next run, unless it is cancelled or failed
+      if (periodNanos > 0) {
+        deadlineNanos += periodNanos;
+      } else {
+        deadlineNanos = NIOEventLoop.nanoTime() - periodNanos;
+      }
+      loop.scheduleNext(this);
+    }
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean canceled = super.cancel(mayInterruptIfRunning);
+    if (canceled) {
+      loop.removeScheduled(this);
+    }
+    return canceled;
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+/**
+ * The built-in {@link SelectStrategy}s.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class SelectStrategies {
+
+  /**
+   * the times to poll of {@link #busySpin(int)} by {@link #of(String)}
+   */
+  public static final int DEFAULT_SPINS = 256;
+
+  private SelectStrategies() {
+  }
+
+  private static final SelectStrategy BLOCKING = (selectNow, hasTasks) ->
+    hasTasks.getAsBoolean() ? selectNow.get() : SelectStrategy.SELECT;
+
+  private static final SelectStrategy SELECT_NOW = (selectNow, hasTasks) -> selectNow.get();
+
+  /**
+   * Block in the select while there is no task, the default one, which costs no CPU when it is
+   * idle.
+   */
+  public static SelectStrategy blocking() {
+    return BLOCKING;
+  }
+
+  /**
+   * Never block, poll the selector on each loop, which has the lowest latency, and keeps a CPU busy
+   * even when it is idle.
+   */
+  public static SelectStrategy selectNow() {
+    return SELECT_NOW;
+  }
+
+  /**
+   * Poll the selector up to the given times before blocking in it, which serves a burst of events
+   * without the cost of a wakeup, and costs no CPU when it is idle for long.
+   *
+   * @param spins the times to poll
+   */
+  public static SelectStrategy busySpin(int spins) {
+    if (spins <= 0) {
+      throw new IllegalArgumentException("spins: " + spins + " (expected: > 0)");
+    }
+    return (selectNow, hasTasks) -> {
+      for (int i = 0; i < spins; i++) {
+        int selected = selectNow.get();
+        if (selected > 0 || hasTasks.getAsBoolean()) {
+          return selected;
+        }
+      }
+      return SelectStrategy.SELECT;
+    };
+  }
+
+  /**
+   * The strategy by its name, <code>blocking</code>, <code>selectNow</code> or
+   * <code>busySpin</code>.
+   */
+  public static SelectStrategy of(String name) {
+    switch (name) {
+      case "blocking":
+        return blocking();
+      case "selectNow":
+        return selectNow();
+      case "busySpin":
+        return busySpin(DEFAULT_SPINS);
+      default:
+        throw new IllegalArgumentException("unknown select strategy: " + name);
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How {@link NIOEventLoop} selects in each loop, see {@link SelectStrategies} for the built-in
+ * ones.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @see io.netty.channel.SelectStrategy
+ */
+public interface SelectStrategy {
+
+  /**
+   * block in a select until a channel is ready or the loop is woken up by a task
+   */
+  int SELECT = -1;
+
+  /**
+   * skip the I/O and loop again
+   */
+  int CONTINUE = -2;
+
+  /**
+   * @param selectNow a non-blocking select, which returns the number of the ready channels
+   * @param hasTasks  whether there are tasks to run
+   * @return the number of the ready channels if it has selected, or {@link #SELECT} or
+   * {@link #CONTINUE}
+   * @throws IOException if the select fails
+   */
+  int calculateStrategy(SelectSupplier selectNow, BooleanSupplier hasTasks) throws IOException;
+
+  /**
+   * a select of the event loop
+   */
+  @FunctionalInterface
+  interface SelectSupplier {
+
+    int get() throws IOException;
+  }
+
+}
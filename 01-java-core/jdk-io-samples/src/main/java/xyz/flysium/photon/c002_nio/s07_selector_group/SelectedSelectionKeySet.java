@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+import java.nio.channels.SelectionKey;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The selected keys of a selector in an array, which replaces the <code>HashSet</code> of the JDK,
+ * so that selecting and iterating the keys produce no garbage.
+ * <p>
+ * It only supports what the selector and {@link NIOEventLoop} do with it, the selector never adds
+ * a key twice between two resets.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @see io.netty.channel.nio.SelectedSelectionKeySet
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+  SelectionKey[] keys;
+  int size;
+
+  SelectedSelectionKeySet() {
+    keys = new SelectionKey[1024];
+  }
+
+  @Override
+  public boolean add(SelectionKey o) {
+    if (o == null) {
+      return false;
+    }
+    keys[size++] = o;
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size << 1);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return false;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<SelectionKey> iterator() {
+    return new Iterator<SelectionKey>() {
+      private int idx;
+
+      @Override
+      public boolean hasNext() {
+        return idx < size;
+      }
+
+      @Override
+      public SelectionKey next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return keys[idx++];
+      }
+    };
+  }
+
+  /**
+   * forget the keys from the index on
+   */
+  void reset(int start) {
+    Arrays.fill(keys, start, size, null);
+    size = 0;
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group;
+
+import java.nio.channels.spi.SelectorProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link SelectorProvider}s of the event loops.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class SelectorProviders {
+
+  static final Logger logger = LoggerFactory.getLogger(SelectorProviders.class);
+
+  private static final String EPOLL_PROVIDER = "sun.nio.ch.EPollSelectorProvider";
+
+  private SelectorProviders() {
+  }
+
+  /**
+   * The provider of the JVM, which may be chosen by the system property
+   * <code>java.nio.channels.spi.SelectorProvider</code>.
+   */
+  public static SelectorProvider provider() {
+    return SelectorProvider.provider();
+  }
+
+  /**
+   * The epoll provider of the JDK on Linux, which costs O(ready channels) per select rather than
+   * O(registered channels) as <code>poll</code>, or the default one if it is not available, e.g.
+   * not on Linux, or without <code>--add-exports java.base/sun.nio.ch=ALL-UNNAMED</code> on JDK
+   * 9+.
+   */
+  public static SelectorProvider epoll() {
+    SelectorProvider provider = SelectorProvider.provider();
+    if (EPOLL_PROVIDER.equals(provider.getClass().getName())) {
+      return provider;
+    }
+    try {
+      return (SelectorProvider) Class.forName(EPOLL_PROVIDER).getDeclaredConstructor()
+          .newInstance();
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      logger.warn("epoll is not available, use " + provider.getClass().getName() + ": " + e);
+      return provider;
+    }
+  }
+
+  /**
+   * whether the provider selects by epoll
+   */
+  public static boolean isEpoll(SelectorProvider provider) {
+    return EPOLL_PROVIDER.equals(provider.getClass().getName());
+  }
+
+}
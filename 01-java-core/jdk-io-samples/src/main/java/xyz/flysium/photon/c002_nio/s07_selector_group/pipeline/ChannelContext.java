@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+import java.net.SocketAddress;
+
+/**
+ * A channel to the handlers, which may be called by any thread.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public interface ChannelContext {
+
+  /**
+   * Encode the message and write it, in the event loop of the channel, without blocking: the
+   * bytes which the socket does not accept yet are queued, and written when it is writable.
+   *
+   * @param msg the outbound message, of the type of the {@link MessageEncoder}
+   */
+  void write(Object msg);
+
+  /**
+   * close the channel once the messages written before are flushed
+   */
+  void close();
+
+  boolean isActive();
+
+  SocketAddress remoteAddress();
+
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+/**
+ * The chain of a channel: decoder -&gt; handler -&gt; encoder.
+ *
+ * @param <I> the type of the inbound messages
+ * @param <O> the type of the outbound messages
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class ChannelPipeline<I, O> {
+
+  private final MessageDecoder<I> decoder;
+  private final MessageHandler<I> handler;
+  private final MessageEncoder<O> encoder;
+
+  public ChannelPipeline(MessageDecoder<I> decoder, MessageHandler<I> handler,
+      MessageEncoder<O> encoder) {
+    if (decoder == null || handler == null || encoder == null) {
+      throw new NullPointerException("decoder, handler and encoder are required");
+    }
+    this.decoder = decoder;
+    this.handler = handler;
+    this.encoder = encoder;
+  }
+
+  /**
+   * the line-based echo of the sample, see {@link EchoHandler}
+   */
+  public static ChannelPipeline<String, String> echo() {
+    return new ChannelPipeline<>(new LineDecoder(), new EchoHandler(), new LineEncoder());
+  }
+
+  public MessageDecoder<I> decoder() {
+    return decoder;
+  }
+
+  public MessageHandler<I> handler() {
+    return handler;
+  }
+
+  public MessageEncoder<O> encoder() {
+    return encoder;
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer each line with <code>recv-&gt;</code> and the line, and close the channel on
+ * <code>quit</code>.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class EchoHandler implements MessageHandler<String> {
+
+  private final long businessMillis;
+
+  public EchoHandler() {
+    this(0);
+  }
+
+  /**
+   * @param businessMillis the time the business takes, blocking the thread calling the handler
+   */
+  public EchoHandler(long businessMillis) {
+    this.businessMillis = businessMillis;
+  }
+
+  @Override
+  public void handle(ChannelContext ctx, String msg) throws Exception {
+    // 模拟业务逻辑处理时间耗时, 在业务线程中而不是 Selector 线程
+    if (businessMillis > 0) {
+      TimeUnit.MILLISECONDS.sleep(businessMillis);
+    }
+    if ("quit".equalsIgnoreCase(msg)) {
+      ctx.write("bye");
+      ctx.close();
+      return;
+    }
+    ctx.write("recv->" + msg);
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decode the lines ending with <code>\n</code> or <code>\r\n</code>, without the line ending.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class LineDecoder implements MessageDecoder<String> {
+
+  private final Charset charset;
+
+  public LineDecoder() {
+    this(StandardCharsets.UTF_8);
+  }
+
+  public LineDecoder(Charset charset) {
+    this.charset = charset;
+  }
+
+  @Override
+  public String decode(ByteBuffer in) {
+    final int start = in.position();
+    final int limit = in.limit();
+    for (int i = start; i < limit; i++) {
+      if (in.get(i) == '\n') {
+        int end = i;
+        if (end > start && in.get(end - 1) == '\r') {
+          end--;
+        }
+        // decode in place, the buffer may be direct
+        ByteBuffer line = in.duplicate();
+        line.limit(end);
+        in.position(i + 1);
+        return charset.decode(line).toString();
+      }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encode the strings as lines ending with <code>\n</code>, into the outbound buffers directly.
+ * <p>
+ * It is stateful, so use one per channel.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class LineEncoder implements MessageEncoder<String> {
+
+  private final CharsetEncoder encoder;
+  /**
+   * the room for a surrogate pair at least, which overflows a buffer with less
+   */
+  private final int minWritable;
+
+  public LineEncoder() {
+    this(StandardCharsets.UTF_8);
+  }
+
+  public LineEncoder(Charset charset) {
+    this.encoder = charset.newEncoder();
+    this.minWritable = (int) Math.ceil(encoder.maxBytesPerChar()) * 2;
+  }
+
+  @Override
+  public void encode(String msg, OutboundBuffer out) throws CharacterCodingException {
+    CharBuffer chars = CharBuffer.wrap(msg);
+    encoder.reset();
+    for (; ; ) {
+      CoderResult result = encoder.encode(chars, out.writable(), true);
+      if (result.isUnderflow()) {
+        break;
+      }
+      if (result.isOverflow()) {
+        out.writable(minWritable);
+        continue;
+      }
+      result.throwException();
+    }
+    while (encoder.flush(out.writable(minWritable)).isOverflow()) {
+      out.writable(minWritable);
+    }
+    out.put((byte) '\n');
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decode the inbound bytes into a message.
+ *
+ * @param <I> the type of the inbound messages
+ * @author Sven Augustus
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface MessageDecoder<I> {
+
+  /**
+   * Decode a message from the bytes read so far, between the position and the limit.
+   *
+   * @param in the bytes read, the position of which is moved over the bytes of the message
+   * @return the message, or null if the bytes of a whole message are not read yet
+   * @throws IOException if the bytes are not valid, then the channel is closed
+   */
+  I decode(ByteBuffer in) throws IOException;
+
+}
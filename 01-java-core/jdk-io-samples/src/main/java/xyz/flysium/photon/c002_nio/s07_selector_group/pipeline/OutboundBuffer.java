@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c002_nio.s07_selector_group.pipeline;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import xyz.flysium.photon.c002_nio.s07_selector_group.ByteBufferPool;
+
+/**
+ * The outbound bytes of a channel, in the pooled buffers of its event loop, which are not written
+ * to the socket yet. Use it in the event loop only.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class OutboundBuffer {
+
+  /**
+   * the maximum buffers of a gathering write
+   */
+  private static final int MAX_GATHERING_BUFFERS = 16;
+
+  private final ByteBufferPool pool;
+  /**
+   * the buffers of the encoded messages, ready to be read
+   */
+  private final ArrayDeque<ByteBuffer> committed = new ArrayDeque<>();
+  private final ByteBuffer[] gathering = new ByteBuffer[MAX_GATHERING_BUFFERS];
+  /**
+   * the buffer of the message being encoded, ready to be written
+   */
+  private ByteBuffer tail;
+  /**
+   * the position of the committed bytes not written yet in the tail, if it is reopened
+   */
+  private int tailReadPosition;
+  private long pendingBytes;
+
+  public OutboundBuffer(ByteBufferPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * @return a buffer with room for one byte at least, to put the bytes of the message into
+   */
+  public ByteBuffer writable() {
+    return writable(1);
+  }
+
+  /**
+   * @param minWritable the bytes to put, at most the size of the pooled buffers
+   * @return a buffer with room for the bytes, to put the bytes of the message into
+   */
+  public ByteBuffer writable(int minWritable) {
+    if (minWritable > pool.bufferSize()) {
+      throw new IllegalArgumentException(
+          "minWritable: " + minWritable + " (expected: <= " + pool.bufferSize() + ")");
+    }
+    if (tail != null && tail.remaining() < minWritable) {
+      commitTail();
+    }
+    if (tail == null) {
+      tail = reopenLast(minWritable);
+    }
+    if (tail == null) {
+      tail = pool.acquire();
+    }
+    return tail;
+  }
+
+  public void put(byte b) {
+    writable().put(b);
+  }
+
+  public void put(byte[] src, int offset, int length) {
+    while (length > 0) {
+      ByteBuffer buffer = writable();
+      int n = Math.min(length, buffer.remaining());
+      buffer.put(src, offset, n);
+      offset += n;
+      length -= n;
+    }
+  }
+
+  /**
+   * the message is encoded, so its bytes may be written
+   */
+  public void commit() {
+    if (tail != null) {
+      commitTail();
+    }
+  }
+
+  /**
+   * append to the room of the last committed buffer, so the small messages share the buffers
+   */
+  private ByteBuffer reopenLast(int minWritable) {
+    ByteBuffer last = committed.peekLast();
+    if (last == null || last.capacity() - last.limit() < minWritable) {
+      return null;
+    }
+    committed.pollLast();
+    pendingBytes -= last.remaining();
+    tailReadPosition = last.position();
+    last.position(last.limit());
+    last.limit(last.capacity());
+    return last;
+  }
+
+  private void commitTail() {
+    tail.limit(tail.position());
+    tail.position(tailReadPosition);
+    tailReadPosition = 0;
+    if (tail.hasRemaining()) {
+      pendingBytes += tail.remaining();
+      committed.addLast(tail);
+    } else {
+      pool.release(tail);
+    }
+    tail = null;
+  }
+
+  /**
+   * @return whether there is no committed bytes to write
+   */
+  public boolean isEmpty() {
+    return committed.isEmpty();
+  }
+
+  /**
+   * @return the committed bytes not written yet
+   */
+  public long pendingBytes() {
+    return pendingBytes;
+  }
+
+  /**
+   * Write the committed bytes by gathering writes, until the socket does not accept more.
+   *
+   * @return true if all of them are written
+   */
+  public boolean writeTo(GatheringByteChannel channel) throws IOException {
+    while (!committed.isEmpty()) {
+      int count = 0;
+      for (ByteBuffer buffer : committed) {
+        gathering[count++] = buffer;
+        if (count == MAX_GATHERING_BUFFERS) {
+          break;
+        }
+      }
+      final long written;
+      try {
+        written = channel.write(gathering, 0, count);
+      } finally {
+        Arrays.fill(gathering, 0, count, null);
+      }
+      pendingBytes -= written;
+      int released = 0;
+      while (!committed.isEmpty() && !committed.peekFirst().hasRemaining()) {
+        pool.release(committed.pollFirst());
+        released++;
+      }
+      if (released < count) {
+        // Send-Q 满了，等待 OP_WRITE
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * give back all the buffers to the pool, dropping the bytes not written
+   */
+  public void release() {
+    for (ByteBuffer buffer : committed) {
+      pool.release(buffer);
+    }
+    committed.clear();
+    pool.release(tail);
+    tail = null;
+    tailReadPosition = 0;
+    pendingBytes = 0;
+  }
+
+}
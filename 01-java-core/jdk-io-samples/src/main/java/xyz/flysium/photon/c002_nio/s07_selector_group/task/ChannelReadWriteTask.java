@@ -24,29 +24,102 @@
 
 package xyz.flysium.photon.c002_nio.s07_selector_group.task;
 
-import java.io.ByteArrayOutputStream;
-import java.io.EOFException;
 import java.io.IOException;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
-import java.util.concurrent.TimeUnit;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import xyz.flysium.photon.c002_nio.s07_selector_group.ByteBufferPool;
 import xyz.flysium.photon.c002_nio.s07_selector_group.NIOChannelUtil;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOEventLoop;
+import xyz.flysium.photon.c002_nio.s07_selector_group.pipeline.ChannelContext;
+import xyz.flysium.photon.c002_nio.s07_selector_group.pipeline.ChannelPipeline;
+import xyz.flysium.photon.c002_nio.s07_selector_group.pipeline.OutboundBuffer;
 
 /**
- * NIO SocketChannel Task
+ * NIO SocketChannel Task, which runs the {@link ChannelPipeline} of the channel:
+ * <li>read into a pooled buffer of the event loop, and decode the messages</li>
+ * <li>handle the messages by the executor of the business, so the selector is never blocked</li>
+ * <li>encode the responses into the outbound buffers, which are written until the socket is full,
+ * and then on OP_WRITE</li>
+ * <li>stop reading, so that the peer is slowed down by TCP, while the messages to the executor or
+ * the bytes to the socket are above their high water marks, until they are below the low ones</li>
  *
  * @author Sven Augustus
  * @version 1.0
  */
-public class ChannelReadWriteTask implements NIOTask {
+public class ChannelReadWriteTask implements NIOTask, ChannelContext {
+
+  /**
+   * the reads of a readiness event, so that a busy channel does not starve the others
+   */
+  private static final int MAX_READS_PER_EVENT = 16;
+
+  /**
+   * the messages queued to the executor beyond which the reads are paused,
+   * <code>-Dphoton.nio.inboundHighWaterMark</code>, and resumed once half of them are handled
+   */
+  private static final int INBOUND_HIGH_WATER_MARK = Math.max(2,
+      Integer.getInteger("photon.nio.inboundHighWaterMark", 256));
+  private static final int INBOUND_LOW_WATER_MARK = INBOUND_HIGH_WATER_MARK / 2;
+
+  /**
+   * the bytes not written to the socket beyond which the reads are paused,
+   * <code>-Dphoton.nio.outboundHighWaterMark</code>, and resumed once half of them are written
+   */
+  private static final long OUTBOUND_HIGH_WATER_MARK = Math.max(2,
+      Long.getLong("photon.nio.outboundHighWaterMark", 64 * 1024));
+  private static final long OUTBOUND_LOW_WATER_MARK = OUTBOUND_HIGH_WATER_MARK / 2;
 
   private final SocketChannel client;
+  private final NIOEventLoop loop;
+  private final ByteBufferPool pool;
+  private final ChannelPipeline<Object, Object> pipeline;
+  private final Executor executor;
+  private final OutboundBuffer outbound;
   private SelectionKey selectionKey;
+  /**
+   * the bytes read but not decoded yet, null if none, so an idle channel holds no buffer
+   */
+  private ByteBuffer cumulation;
+  private boolean closeAfterFlush;
+  private volatile boolean active = true;
+
+  /**
+   * the messages to the executor, handled one at a time
+   */
+  private final Queue<Object> inbound = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inboundSize = new AtomicInteger();
+  private final AtomicBoolean handling = new AtomicBoolean();
+  /**
+   * set by the loop above the high water mark of the inbound messages, reset by the executor below
+   * the low one
+   */
+  private final AtomicBoolean inboundPaused = new AtomicBoolean();
+  /**
+   * above the high water mark of the outbound bytes, accessed in the loop only
+   */
+  private boolean unwritable;
 
-  public ChannelReadWriteTask(SocketChannel client) {
+  /**
+   * @param executor the executor of the business, or null to handle the messages in the loop
+   */
+  @SuppressWarnings("unchecked")
+  public ChannelReadWriteTask(SocketChannel client, NIOEventLoop loop,
+      ChannelPipeline<?, ?> pipeline, Executor executor) {
     this.client = client;
+    this.loop = loop;
+    this.pool = loop.bufferPool();
+    this.pipeline = (ChannelPipeline<Object, Object>) pipeline;
+    this.executor = executor;
+    this.outbound = new OutboundBuffer(pool);
   }
 
   public SelectionKey getSelectionKey() {
@@ -54,6 +127,7 @@ public class ChannelReadWriteTask implements NIOTask {
     return selectionKey;
   }
 
+  @Override
   public void setSelectionKey(SelectionKey selectionKey) {
     assert selectionKey != null;
     assert selectionKey.channel() == client;
@@ -62,103 +136,319 @@ public class ChannelReadWriteTask implements NIOTask {
 
   @Override
   public void run() {
-    ByteBuffer buffer = ByteBuffer.allocate(8092);
+    final SelectionKey key = getSelectionKey();
+    try {
+      final int readyOps = key.readyOps();
+      if ((readyOps & SelectionKey.OP_WRITE) != 0) {
+        flush();
+      }
+      if ((readyOps & SelectionKey.OP_READ) != 0 && key.isValid()) {
+        read();
+      }
+    } catch (CancelledKeyException e) {
+      doClose();
+    } catch (IOException e) {
+      logger.debug("read or write client: " + NIOChannelUtil.getRemoteAddress(client)
+          + " failed: " + e);
+      doClose();
+    }
+  }
+
+  private void read() throws IOException {
+    if (!isReadable()) {
+      // paused after the select
+      return;
+    }
     if (logger.isDebugEnabled()) {
       logger.debug("ready read from client: " + NIOChannelUtil.getRemoteAddress(client));
     }
-
-    buffer.clear();
+    ByteBuffer in = cumulation != null ? cumulation : pool.acquire();
+    cumulation = null;
+    boolean eof = false;
     try {
-      for (; ; ) {
-        int readCount = client.read(buffer);
-        if (readCount > 0) {
-          logger.debug("readied from client: " + NIOChannelUtil.getRemoteAddress(client)
-              + ", count: " + readCount);
-          String request = null;
-          try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            baos.write(buffer.array(), 0, readCount);
-            request = baos.toString();
-          }
-          logger.debug("readied from client: " + NIOChannelUtil.getRemoteAddress(client)
-              + ", data: " + request);
-
-          // FIXME 模拟业务逻辑处理时间耗时
-          try {
-            TimeUnit.SECONDS.sleep(1);
-          } catch (InterruptedException e) {
-            logger.error(e.getMessage(), e);
-          }
-
-          // 写入响应内容
-          buffer.clear();
-          buffer.put(("recv->" + request).getBytes());
-
-          doWrite(buffer);
-
-          break;
-        } else if (readCount == 0) {
-          logger.debug("readied nothing from client: " + NIOChannelUtil.getRemoteAddress(client)
-              + " ! ");
+      for (int i = 0; i < MAX_READS_PER_EVENT && active && isReadable(); i++) {
+        int readCount = client.read(in);
+        if (readCount < 0) {
+          eof = true;
           break;
-        } else {
-          logger.warn("readied -1 from client: " + NIOChannelUtil.getRemoteAddress(client)
-              + " ! ");
-          NIOChannelUtil.closeClient(client);
+        }
+        if (readCount == 0) {
           break;
         }
+        in.flip();
+        decode(in);
+        in.compact();
+        if (!in.hasRemaining() && isReadable()) {
+          throw new IOException("message too long, more than " + in.capacity() + " bytes");
+        }
       }
-    } catch (ClosedChannelException e) {
-      NIOChannelUtil.closeClient(client);
-    } catch (IOException e) {
-      logger.error(e.getMessage(), e);
+    } finally {
+      if (in.position() == 0 || !active) {
+        pool.release(in);
+      } else {
+        cumulation = in;
+      }
+    }
+    if (eof) {
+      logger.debug("readied -1 from client: " + NIOChannelUtil.getRemoteAddress(client));
+      doClose();
     }
   }
 
-  private void doWrite(ByteBuffer buffer) throws IOException {
-    int writePos = doWriteInternal(buffer);
+  private void decode(ByteBuffer in) throws IOException {
+    // the bytes left once paused are decoded when it is resumed
+    while (in.hasRemaining() && active && isReadable()) {
+      Object msg = pipeline.decoder().decode(in);
+      if (msg == null) {
+        break;
+      }
+      fireRead(msg);
+    }
+  }
 
-    incompleteWrite(writePos > 0);
+  private void fireRead(Object msg) {
+    if (executor == null) {
+      handle(msg);
+      return;
+    }
+    inbound.offer(msg);
+    if (inboundSize.incrementAndGet() >= INBOUND_HIGH_WATER_MARK
+        && inboundPaused.compareAndSet(false, true)) {
+      if (inboundSize.get() <= INBOUND_LOW_WATER_MARK && inboundPaused.compareAndSet(true, false)) {
+        // handled meanwhile, before the executor could see the pause
+      } else {
+        clearOpRead();
+      }
+    }
+    if (handling.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::handleInbound);
+      } catch (RejectedExecutionException e) {
+        handling.set(false);
+        logger.warn("business overloaded, close client: " + NIOChannelUtil
+            .getRemoteAddress(client));
+        doClose();
+      }
+    }
   }
 
-  private int doWriteInternal(ByteBuffer buffer) throws IOException {
-    if (logger.isDebugEnabled()) {
-      logger.debug("ready write to client: " + NIOChannelUtil.getRemoteAddress(client));
+  /**
+   * handle the messages in order, in one thread of the executor at a time
+   */
+  private void handleInbound() {
+    for (; ; ) {
+      Object msg;
+      while ((msg = inbound.poll()) != null) {
+        if (inboundSize.decrementAndGet() <= INBOUND_LOW_WATER_MARK
+            && inboundPaused.compareAndSet(true, false)) {
+          resumeReading();
+        }
+        handle(msg);
+      }
+      handling.set(false);
+      // a message offered after the poll, but before the flag is reset
+      if (inbound.isEmpty() || !handling.compareAndSet(false, true)) {
+        return;
+      }
     }
-    buffer.flip();
+  }
 
-    if (!buffer.hasRemaining()) {
-      return -1;
+  private void handle(Object msg) {
+    if (!active) {
+      return;
     }
-    while (buffer.hasRemaining()) {
-      int writeCount = client.write(buffer);
-      if (writeCount < 0) {
-        throw new EOFException();
-      }
-      // 处理 Send-Q 满了，暂时无法写出的情况
-      if (writeCount == 0) {
-        // 解决处理 Send-Q 满了，暂时无法写出的情况，避免导致 CPU 100%
-        doWriteEnd(buffer);
-        return writeCount;
+    try {
+      pipeline.handler().handle(this, msg);
+    } catch (Exception e) {
+      logger.warn("handle message from client: " + NIOChannelUtil.getRemoteAddress(client)
+          + " failed", e);
+      close();
+    }
+  }
+
+  @Override
+  public void write(Object msg) {
+    if (loop.inEventLoop(Thread.currentThread())) {
+      doWrite(msg);
+    } else {
+      executeInLoop(() -> doWrite(msg));
+    }
+  }
+
+  /**
+   * execute in the loop, waiting for the room of its task queue, so that the business threads
+   * writing faster than the loop are slowed down
+   */
+  private void executeInLoop(Runnable task) {
+    for (; ; ) {
+      try {
+        loop.execute(task);
+        return;
+      } catch (RejectedExecutionException e) {
+        if (loop.isShutdown()) {
+          throw e;
+        }
+        Thread.yield();
       }
     }
-    doWriteEnd(buffer);
-    return 0;
   }
 
-  private void doWriteEnd(ByteBuffer buffer) {
-    buffer.clear();
+  private void doWrite(Object msg) {
+    if (!active || closeAfterFlush) {
+      return;
+    }
+    try {
+      pipeline.encoder().encode(msg, outbound);
+      outbound.commit();
+      // wait for OP_WRITE, if the socket was full
+      if ((getSelectionKey().interestOps() & SelectionKey.OP_WRITE) == 0) {
+        flush();
+      }
+      if (!unwritable && outbound.pendingBytes() > OUTBOUND_HIGH_WATER_MARK) {
+        // the peer does not read, read no more requests from it
+        unwritable = true;
+        clearOpRead();
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("write to client: " + NIOChannelUtil.getRemoteAddress(client) + " failed", e);
+      doClose();
+    }
   }
 
-  protected final void incompleteWrite(boolean setOpWrite) {
-    // Did not write completely.
-    if (setOpWrite) {
+  private void flush() throws IOException {
+    if (logger.isDebugEnabled()) {
+      logger.debug("ready write to client: " + NIOChannelUtil.getRemoteAddress(client)
+          + ", pending: " + outbound.pendingBytes());
+    }
+    if (outbound.writeTo(client)) {
+      clearOpWrite();
+      if (closeAfterFlush) {
+        doClose();
+      }
+    } else {
+      // 处理 Send-Q 满了，暂时无法写出的情况, 避免导致 CPU 100%
       setOpWrite();
+    }
+    if (unwritable && outbound.pendingBytes() <= OUTBOUND_LOW_WATER_MARK) {
+      unwritable = false;
+      doResumeReading();
+    }
+  }
+
+  /**
+   * whether the reads are not paused by a water mark
+   */
+  private boolean isReadable() {
+    return !unwritable && !inboundPaused.get();
+  }
+
+  /**
+   * resume the reads from the executor
+   */
+  private void resumeReading() {
+    if (active) {
+      executeInLoop(this::doResumeReading);
+    }
+  }
+
+  /**
+   * decode the bytes left in the cumulation when it was paused, then read again
+   */
+  private void doResumeReading() {
+    if (!active || !isReadable()) {
+      return;
+    }
+    // taken while decoding, as a message handled in the loop may resume it again
+    final ByteBuffer in = cumulation;
+    cumulation = null;
+    if (in != null) {
+      in.flip();
+      try {
+        decode(in);
+        in.compact();
+        if (!in.hasRemaining() && isReadable()) {
+          throw new IOException("message too long, more than " + in.capacity() + " bytes");
+        }
+      } catch (IOException e) {
+        logger.debug("decode from client: " + NIOChannelUtil.getRemoteAddress(client)
+            + " failed: " + e);
+        pool.release(in);
+        doClose();
+        return;
+      }
+      if (in.position() == 0 || !active) {
+        pool.release(in);
+      } else {
+        cumulation = in;
+      }
+    }
+    // the decoded messages may pause it again
+    if (active && isReadable()) {
+      setOpRead();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (loop.inEventLoop(Thread.currentThread())) {
+      closeAfterFlush();
     } else {
-      clearOpWrite();
-      // TODO flush ?
+      executeInLoop(this::closeAfterFlush);
+    }
+  }
 
-      // TODO 这里读写一次就关闭连接了, 注释掉则不由服务器主动关闭
-      NIOChannelUtil.closeClient(client);
+  private void closeAfterFlush() {
+    if (!active) {
+      return;
+    }
+    closeAfterFlush = true;
+    if (outbound.isEmpty()) {
+      doClose();
+    }
+  }
+
+  private void doClose() {
+    if (!active) {
+      return;
+    }
+    active = false;
+    NIOChannelUtil.closeClient(client);
+    outbound.release();
+    pool.release(cumulation);
+    cumulation = null;
+    inbound.clear();
+    inboundSize.set(0);
+  }
+
+  @Override
+  public boolean isActive() {
+    return active;
+  }
+
+  @Override
+  public SocketAddress remoteAddress() {
+    return NIOChannelUtil.getRemoteAddress(client);
+  }
+
+  protected final void setOpRead() {
+    final SelectionKey key = getSelectionKey();
+    if (!key.isValid()) {
+      return;
+    }
+    final int interestOps = key.interestOps();
+    if ((interestOps & SelectionKey.OP_READ) == 0) {
+      key.interestOps(interestOps | SelectionKey.OP_READ);
+    }
+  }
+
+  protected final void clearOpRead() {
+    final SelectionKey key = getSelectionKey();
+    if (!key.isValid()) {
+      return;
+    }
+    final int interestOps = key.interestOps();
+    if ((interestOps & SelectionKey.OP_READ) != 0) {
+      key.interestOps(interestOps & ~SelectionKey.OP_READ);
     }
   }
 
@@ -24,6 +24,7 @@
 
 package xyz.flysium.photon.c002_nio.s07_selector_group.task;
 
+import java.nio.channels.SelectionKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,4 +42,10 @@ public interface NIOTask {
    * run
    */
   void run();
+
+  /**
+   * the key the task is attached to, which changes when the selector is rebuilt
+   */
+  default void setSelectionKey(SelectionKey selectionKey) {
+  }
 }
@@ -29,9 +29,11 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.RejectedExecutionException;
 import xyz.flysium.photon.c002_nio.s07_selector_group.NIOChannelUtil;
 import xyz.flysium.photon.c002_nio.s07_selector_group.NIOEventLoop;
 import xyz.flysium.photon.c002_nio.s07_selector_group.NIOEventLoopGroup;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOServerBootStrap;
 
 /**
  * Acceptor
@@ -54,40 +56,57 @@ public class ServerAcceptor implements NIOTask {
   public void run() {
     try {
       SocketChannel client = server.accept();
+      if (client == null) {
+        // the connection is reset before it is accepted
+        return;
+      }
       if (logger.isDebugEnabled()) {
         logger.debug("accept new client：" + NIOChannelUtil.getRemoteAddress(client));
       }
 
       NIOEventLoop loop = group.choose();
-      loop.execute(() -> {
-        try {
-          // 设置非阻塞模式
-          client.configureBlocking(false);
-          // 设置TCP Socket参数
-          group.getBootStrap().getChildOptions().forEach((option, value) -> {
-            try {
-              client.setOption(option, value);
-            } catch (UnsupportedOperationException ignore) {
-              // TODO ignore
-            } catch (IOException e) {
-              logger.warn(e.getMessage(), e);
-            }
-          });
-          // 注册读操作 , 以进行下一步的读操作
-          final ChannelReadWriteTask readerTask = new ChannelReadWriteTask(client);
-          SelectionKey key = client.register(loop.unwrappedSelector(),
-              SelectionKey.OP_READ, readerTask);
-          readerTask.setSelectionKey(key);
-
-        } catch (ClosedChannelException e) {
-          NIOChannelUtil.closeClient(client);
-        } catch (IOException e) {
-          logger.error(e.getMessage(), e);
-        }
-      });
+      try {
+        register(loop, client);
+      } catch (RejectedExecutionException e) {
+        // the task queue of the loop is full, or it is shut down, nobody else owns the client
+        logger.warn("reject new client：" + NIOChannelUtil.getRemoteAddress(client) + ", " + e
+            .getMessage());
+        NIOChannelUtil.closeClient(client);
+      }
     } catch (IOException e) {
       logger.error(e.getMessage(), e);
     }
   }
 
+  private void register(NIOEventLoop loop, SocketChannel client) {
+    loop.execute(() -> {
+      try {
+        // 设置非阻塞模式
+        client.configureBlocking(false);
+        // 设置TCP Socket参数
+        group.getBootStrap().getChildOptions().forEach((option, value) -> {
+          try {
+            client.setOption(option, value);
+          } catch (UnsupportedOperationException ignore) {
+            // TODO ignore
+          } catch (IOException e) {
+            logger.warn(e.getMessage(), e);
+          }
+        });
+        // 注册读操作 , 以进行下一步的读操作
+        final NIOServerBootStrap bootStrap = group.getBootStrap();
+        final ChannelReadWriteTask readerTask = new ChannelReadWriteTask(client, loop,
+            bootStrap.newChildPipeline(), bootStrap.getChildExecutor());
+        SelectionKey key = client.register(loop.unwrappedSelector(),
+            SelectionKey.OP_READ, readerTask);
+        readerTask.setSelectionKey(key);
+
+      } catch (ClosedChannelException e) {
+        NIOChannelUtil.closeClient(client);
+      } catch (IOException e) {
+        logger.error(e.getMessage(), e);
+      }
+    });
+  }
+
 }
@@ -171,6 +171,7 @@ public class T10_0_C10KClient {
   private final int port;
   private final String bindLocalIp;
   private final int bindLocalPort;
+  private SocketChannel channel;
 
   public T10_0_C10KClient(String host, int port, String bindLocalIp, int bindLocalPort) {
     this.host = host;
@@ -182,6 +183,7 @@ public class T10_0_C10KClient {
   public boolean connect() {
     try {
       SocketChannel client = SocketChannel.open();
+      this.channel = client;
 
       if (!"".equals(bindLocalIp) && bindLocalPort > 0) {
         client.bind(new InetSocketAddress(bindLocalIp, bindLocalPort));
@@ -194,4 +196,11 @@ public class T10_0_C10KClient {
     return false;
   }
 
+  /**
+   * the channel opened by {@link #connect()}, or null if it was not called
+   */
+  public SocketChannel getChannel() {
+    return channel;
+  }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c020_networking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOEventLoop;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOEventLoopGroup;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOExtendSocketOptions;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOServerBootStrap;
+import xyz.flysium.photon.c002_nio.s07_selector_group.SelectStrategies;
+import xyz.flysium.photon.c002_nio.s07_selector_group.SelectStrategy;
+import xyz.flysium.photon.c002_nio.s07_selector_group.SelectorProviders;
+import xyz.flysium.photon.c002_nio.s07_selector_group.pipeline.ChannelPipeline;
+
+/**
+ * C10K benchmark of the event loops of {@link T10_34_EpollMultiTheadingGroupServer}, in one JVM:
+ * <li>1. connect the clients by {@link T10_0_C10KClient}, until all of them are registered by the
+ * workers</li>
+ * <li>2. send a line by each client, and read the echo of the {@link ChannelPipeline#echo()}</li>
+ * <li>3. execute tasks on the workers from other threads, which wake up the selectors</li>
+ * <li>4. close all the clients at once, until the workers have no more channel</li>
+ * <p>
+ * Usage:
+ * <pre>
+ *     java T10_37_SelectorGroupC10KBenchmark [clients=5000] [blocking|selectNow|busySpin] [epoll]
+ *     # keep the HashSet of the JDK for the selected keys, to compare with
+ *     -Dphoton.nio.noKeySetOptimization=true
+ *     # JDK 9+, to replace the selected keys, and to create the epoll provider
+ *     --add-opens java.base/sun.nio.ch=ALL-UNNAMED
+ * </pre>
+ * Mind the limit of the open files, <code>ulimit -n</code>, which is twice the clients at least.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class T10_37_SelectorGroupC10KBenchmark {
+
+  private static final int PORT = T10_0_C10KClient.SERVER_PORT + 7;
+  private static final int WORKERS = 3;
+  private static final int SUBMITTERS = 4;
+  private static final int TASKS_PER_SUBMITTER = 500_000;
+
+  public static void main(String[] args) throws Exception {
+    final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    final SelectStrategy strategy = SelectStrategies.of(args.length > 1 ? args[1] : "blocking");
+    final SelectorProvider provider = args.length > 2 && "epoll".equals(args[2])
+        ? SelectorProviders.epoll() : SelectorProviders.provider();
+    ((Logger) LoggerFactory.getLogger("xyz.flysium.photon.c002_nio")).setLevel(Level.ERROR);
+
+    NIOEventLoopGroup bossGroup = new NIOEventLoopGroup(1, "nio-boss-", provider, strategy);
+    NIOEventLoopGroup workerGroup = new NIOEventLoopGroup(WORKERS, "nio-worker-", provider,
+        strategy);
+    NIOServerBootStrap bootstrap = new NIOServerBootStrap()
+        .group(bossGroup, workerGroup)
+        .option(NIOExtendSocketOptions.SERVER_BACKLOG, 4096)
+        .bind(PORT);
+    final NIOEventLoop[] workers = workerGroup.eventLoops();
+    System.out.println(bootstrap + ", selectStrategy=" + args0(args, 1, "blocking")
+        + ", keySetOptimized=" + workers[0].isKeySetOptimized());
+
+    // 1. connect
+    List<T10_0_C10KClient> connected = new ArrayList<>(clients);
+    long start = System.nanoTime();
+    for (int i = 0; i < clients; i++) {
+      T10_0_C10KClient client = new T10_0_C10KClient("127.0.0.1", PORT, "", 0);
+      if (client.connect()) {
+        connected.add(client);
+      } else {
+        close(client);
+      }
+    }
+    waitForChannels(workers, connected.size());
+    report("connect", connected.size(), "clients", System.nanoTime() - start);
+
+    // 2. echo
+    start = System.nanoTime();
+    for (int i = 0; i < connected.size(); i++) {
+      writeLine(connected.get(i).getChannel(), "ping " + i);
+    }
+    for (int i = 0; i < connected.size(); i++) {
+      String response = readLine(connected.get(i).getChannel());
+      if (!("recv->ping " + i).equals(response)) {
+        throw new IllegalStateException("unexpected response of client " + i + ": " + response);
+      }
+    }
+    report("echo", connected.size(), "lines", System.nanoTime() - start);
+
+    // 3. wake up
+    final LongAdder executed = new LongAdder();
+    final CountDownLatch latch = new CountDownLatch(SUBMITTERS * TASKS_PER_SUBMITTER);
+    final Runnable task = () -> {
+      executed.increment();
+      latch.countDown();
+    };
+    start = System.nanoTime();
+    for (int s = 0; s < SUBMITTERS; s++) {
+      final NIOEventLoop worker = workers[s % workers.length];
+      new Thread(() -> {
+        for (int i = 0; i < TASKS_PER_SUBMITTER; i++) {
+          execute(worker, task);
+        }
+      }, "submitter-" + s).start();
+    }
+    latch.await();
+    report("execute", executed.sum(), "tasks", System.nanoTime() - start);
+
+    // 4. close
+    start = System.nanoTime();
+    for (T10_0_C10KClient client : connected) {
+      close(client);
+    }
+    waitForChannels(workers, 0);
+    report("close", connected.size(), "clients", System.nanoTime() - start);
+
+    System.exit(0);
+  }
+
+  /**
+   * retry until the bounded task queue of the loop has room again
+   */
+  static void execute(NIOEventLoop loop, Runnable task) {
+    for (; ; ) {
+      try {
+        loop.execute(task);
+        return;
+      } catch (RejectedExecutionException e) {
+        Thread.yield();
+      }
+    }
+  }
+
+  private static String args0(String[] args, int index, String defaultValue) {
+    return args.length > index ? args[index] : defaultValue;
+  }
+
+  /**
+   * wait until the workers have the number of the channels, counted in the event loops
+   */
+  private static void waitForChannels(NIOEventLoop[] workers, int expected)
+      throws InterruptedException {
+    for (; ; ) {
+      int channels = 0;
+      for (NIOEventLoop worker : workers) {
+        CompletableFuture<Integer> count = new CompletableFuture<>();
+        worker.execute(() -> count.complete(worker.unwrappedSelector().keys().size()));
+        channels += count.join();
+      }
+      if (channels == expected) {
+        return;
+      }
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+  }
+
+  private static void writeLine(SocketChannel channel, String line) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static String readLine(SocketChannel channel) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    ByteBuffer buffer = ByteBuffer.allocate(1);
+    for (; ; ) {
+      buffer.clear();
+      if (channel.read(buffer) < 0) {
+        throw new EOFException();
+      }
+      byte b = buffer.get(0);
+      if (b == '\n') {
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+      }
+      line.write(b);
+    }
+  }
+
+  private static void close(T10_0_C10KClient client) {
+    SocketChannel channel = client.getChannel();
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private static void report(String phase, long count, String unit, long nanos) {
+    double millis = nanos / 1_000_000.0;
+    System.out.println(String.format("%-8s %8d %-8s cost=%10.2fms speed=%12.2f op/s", phase,
+        count, unit, millis, count * 1000.0 / millis));
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.c020_networking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.c002_nio.s07_selector_group.MpscArrayQueue;
+import xyz.flysium.photon.c002_nio.s07_selector_group.NIOEventLoop;
+import xyz.flysium.photon.c002_nio.s07_selector_group.ThreadPerTaskExecutor;
+import xyz.flysium.photon.c002_nio.s07_selector_group.CustomizableThreadFactory;
+
+/**
+ * Benchmark of the task queue of {@link NIOEventLoop} under many producers:
+ * <li>1. the queues alone, a single consumer polling them</li>
+ * <li>2. the queues as the task queue of a loop, the producers executing tasks on it</li>
+ * <li>3. the lateness of the scheduled tasks of a loop</li>
+ * <p>
+ * Usage:
+ * <pre>
+ *     java T10_38_EventLoopTaskQueueBenchmark [tasks per producer=1000000] [producers=1,4,16]
+ * </pre>
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class T10_38_EventLoopTaskQueueBenchmark {
+
+  private static final int CAPACITY = 1 << 16;
+  private static final int SCHEDULED_TASKS = 100_000;
+  private static final int SCHEDULED_MAX_DELAY_MILLIS = 200;
+
+  private static final String[] QUEUES = {"MpscArrayQueue", "LinkedBlockingQueue",
+      "ConcurrentLinkedQueue"};
+
+  public static void main(String[] args) throws Exception {
+    final int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    final int[] producers = args.length > 1
+        ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+        : new int[]{1, 4, 16};
+    ((Logger) LoggerFactory.getLogger("xyz.flysium.photon.c002_nio")).setLevel(Level.ERROR);
+
+    // 1. queue
+    for (int p : producers) {
+      for (String name : QUEUES) {
+        // warm up
+        offerAndPoll(newQueue(name), p, tasks / 10);
+        long nanos = offerAndPoll(newQueue(name), p, tasks);
+        report("queue", name, p, (long) p * tasks, nanos);
+      }
+    }
+
+    // 2. loop
+    for (int p : producers) {
+      for (String name : QUEUES) {
+        NIOEventLoop loop = newLoop(() -> newQueue(name));
+        // warm up
+        executeOnLoop(loop, p, tasks / 10);
+        long nanos = executeOnLoop(loop, p, tasks);
+        report("loop", name, p, (long) p * tasks, nanos);
+      }
+    }
+
+    // 3. schedule
+    scheduleOnLoop(newLoop(NIOEventLoop::newTaskQueue));
+
+    System.exit(0);
+  }
+
+  private static Queue<Runnable> newQueue(String name) {
+    switch (name) {
+      case "MpscArrayQueue":
+        return new MpscArrayQueue<>(CAPACITY);
+      case "LinkedBlockingQueue":
+        return new LinkedBlockingQueue<>(CAPACITY);
+      default:
+        return new ConcurrentLinkedQueue<>();
+    }
+  }
+
+  private static NIOEventLoop newLoop(Supplier<Queue<Runnable>> taskQueue) {
+    return new NIOEventLoop(new ThreadPerTaskExecutor(new CustomizableThreadFactory("nio-")),
+        taskQueue.get());
+  }
+
+  private static long offerAndPoll(Queue<Runnable> queue, int producers, int tasks)
+      throws InterruptedException {
+    final Runnable task = () -> {
+    };
+    final long total = (long) producers * tasks;
+    final CountDownLatch ready = new CountDownLatch(producers + 1);
+    final CountDownLatch start = new CountDownLatch(1);
+    for (int p = 0; p < producers; p++) {
+      new Thread(() -> {
+        await(ready, start);
+        for (int i = 0; i < tasks; i++) {
+          while (!queue.offer(task)) {
+            Thread.yield();
+          }
+        }
+      }, "producer-" + p).start();
+    }
+    ready.countDown();
+    ready.await();
+    long begin = System.nanoTime();
+    start.countDown();
+    for (long polled = 0; polled < total; ) {
+      if (queue.poll() != null) {
+        polled++;
+      } else {
+        Thread.yield();
+      }
+    }
+    return System.nanoTime() - begin;
+  }
+
+  private static long executeOnLoop(NIOEventLoop loop, int producers, int tasks)
+      throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(1);
+    final long total = (long) producers * tasks;
+    final long[] executed = {0};
+    // run in the loop only
+    final Runnable task = () -> {
+      if (++executed[0] == total) {
+        done.countDown();
+      }
+    };
+    final CountDownLatch ready = new CountDownLatch(producers + 1);
+    final CountDownLatch start = new CountDownLatch(1);
+    for (int p = 0; p < producers; p++) {
+      new Thread(() -> {
+        await(ready, start);
+        for (int i = 0; i < tasks; i++) {
+          T10_37_SelectorGroupC10KBenchmark.execute(loop, task);
+        }
+      }, "producer-" + p).start();
+    }
+    ready.countDown();
+    ready.await();
+    long begin = System.nanoTime();
+    start.countDown();
+    done.await();
+    return System.nanoTime() - begin;
+  }
+
+  /**
+   * schedule the tasks with random delays, and measure how late they run
+   */
+  private static void scheduleOnLoop(NIOEventLoop loop) throws InterruptedException {
+    final long[] lateness = new long[SCHEDULED_TASKS];
+    final CountDownLatch done = new CountDownLatch(SCHEDULED_TASKS);
+    for (int i = 0; i < SCHEDULED_TASKS; i++) {
+      final int index = i;
+      final long delayNanos = TimeUnit.MILLISECONDS
+          .toNanos(ThreadLocalRandom.current().nextInt(SCHEDULED_MAX_DELAY_MILLIS));
+      final long deadline = System.nanoTime() + delayNanos;
+      loop.schedule(() -> {
+        lateness[index] = System.nanoTime() - deadline;
+        done.countDown();
+      }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+    done.await();
+    Arrays.sort(lateness);
+    System.out.println(String.format(
+        "schedule %8d tasks    late p50=%8.3fms p99=%8.3fms max=%8.3fms", SCHEDULED_TASKS,
+        lateness[SCHEDULED_TASKS / 2] / 1e6, lateness[SCHEDULED_TASKS * 99 / 100] / 1e6,
+        lateness[SCHEDULED_TASKS - 1] / 1e6));
+  }
+
+  private static void await(CountDownLatch ready, CountDownLatch start) {
+    ready.countDown();
+    try {
+      start.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void report(String phase, String queue, int producers, long count,
+      long nanos) {
+    double millis = nanos / 1_000_000.0;
+    System.out.println(String.format("%-8s %-22s producers=%-3d %10d tasks cost=%10.2fms"
+        + " speed=%12.2f op/s", phase, queue, producers, count, millis, count * 1000.0 / millis));
+  }
+
+}
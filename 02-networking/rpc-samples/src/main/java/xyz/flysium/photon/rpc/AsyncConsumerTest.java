@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import xyz.flysium.photon.rpc.container.RpcContainer;
+import xyz.flysium.photon.rpc.proxy.Batch;
+import xyz.flysium.photon.rpc.proxy.ProxyFactory;
+import xyz.flysium.photon.rpc.service.EchoService;
+import xyz.flysium.photon.rpc.service.EchoServiceAsync;
+
+/**
+ * Call the provider of {@link ProviderTest} by the asynchronous proxy and by batches, from one
+ * thread.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class AsyncConsumerTest {
+
+  private static final int CALLS = 3000;
+  private static final int BATCH_SIZE = 100;
+
+  public static void main(String[] args)
+      throws InterruptedException, ExecutionException, IllegalAccessException, InstantiationException {
+    RpcContainer container = new RpcContainer(Constant.CONSUMER_PORT);
+    container.start();
+    container.registerDiscovery(EchoService.class,
+        new InetSocketAddress(Constant.HOST, Constant.PROVIDER_PORT));
+
+    EchoServiceAsync echoService = ProxyFactory
+        .getAsyncProxy(EchoService.class, EchoServiceAsync.class);
+    List<CompletableFuture<String>> futures = new ArrayList<>(CALLS);
+    for (int i = 0; i < CALLS; i++) {
+      futures.add(echoService.echo("rpc test " + i));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    System.out.println("------------------> async calls: " + futures.size());
+
+    List<CompletableFuture<List<Object>>> batches = new ArrayList<>();
+    Batch<EchoService> batch = ProxyFactory.newBatch(EchoService.class);
+    for (int i = 0; i < CALLS; i++) {
+      batch.add().echo("rpc test " + i);
+      if (batch.size() == BATCH_SIZE) {
+        batches.add(batch.execute());
+      }
+    }
+    batches.add(batch.execute());
+    int results = 0;
+    for (CompletableFuture<List<Object>> f : batches) {
+      results += f.get().size();
+    }
+    System.out.println("------------------> batch calls: " + results + " in " + batches.size()
+        + " batches");
+
+    System.out.println("------------------> shutdown");
+    container.shutdown();
+  }
+
+}
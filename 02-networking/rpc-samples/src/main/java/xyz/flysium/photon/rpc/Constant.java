@@ -41,6 +41,73 @@ public final class Constant {
 
   public static final int CONSUMER_POOL_SIZE = 1;
 
+  public static final int CONSUMER_EXPLICIT_FLUSH_AFTER_FLUSHES = 256;
+
+  /**
+   * the default milliseconds to wait for a response, unless the call has its own timeout
+   */
+  public static final long CONSUMER_TIMEOUT = Long.getLong("photon.rpc.timeout", 3000);
+
+  /**
+   * the milliseconds of a tick of the timer expiring the calls, the timeouts are rounded up to it
+   */
+  public static final long CONSUMER_TIMEOUT_TICK = Long.getLong("photon.rpc.timeoutTick", 10);
+
   public static final int PROVIDER_SLEEP_TIME = 0;
 
+  public static final int PROVIDER_EXPLICIT_FLUSH_AFTER_FLUSHES = 256;
+
+  /**
+   * invoke the beans on virtual threads if the JVM supports them (JDK 21+)
+   */
+  public static final boolean PROVIDER_VIRTUAL_THREADS = Boolean
+      .getBoolean("photon.rpc.virtualThreads");
+
+  /**
+   * the max concurrent invocations on virtual threads, the more are answered as overloaded
+   */
+  public static final int PROVIDER_MAX_VIRTUAL_THREADS = Integer
+      .getInteger("photon.rpc.maxVirtualThreads", 10000);
+
+  /**
+   * run the blocking calls of the consumer on virtual threads if the JVM supports them (JDK 21+)
+   */
+  public static final boolean CONSUMER_VIRTUAL_THREADS = Boolean
+      .getBoolean("photon.rpc.consumer.virtualThreads");
+
+  /**
+   * the max length of one frame, including the 14 bytes header
+   */
+  public static final int MAX_FRAME_LENGTH = Integer
+      .getInteger("photon.rpc.maxFrameLength", 64 * 1024);
+
+  /**
+   * the body larger than this is sent as chunks, must be less than the max length of frame
+   */
+  public static final int CHUNK_SIZE = Integer
+      .getInteger("photon.rpc.chunkSize", 16 * 1024);
+
+  /**
+   * the max chunks of a message being written, the sender waits for the earliest one beyond it
+   */
+  public static final int CHUNK_WINDOW = Integer.getInteger("photon.rpc.chunkWindow", 4);
+
+  /**
+   * the milliseconds the provider waits for a chunk of a response being written
+   */
+  public static final long CHUNK_WRITE_TIMEOUT = Long
+      .getLong("photon.rpc.chunkWriteTimeout", 30000);
+
+  /**
+   * the max length of the body of a chunked message
+   */
+  public static final int MAX_CONTENT_LENGTH = Integer
+      .getInteger("photon.rpc.maxContentLength", 64 * 1024 * 1024);
+
+  /**
+   * the max length of the bodies of all the partial chunked messages of a connection
+   */
+  public static final int MAX_PENDING_CONTENT_LENGTH = Integer
+      .getInteger("photon.rpc.maxPendingContentLength", 64 * 1024 * 1024);
+
 }
@@ -27,10 +27,12 @@ package xyz.flysium.photon.rpc;
 import java.net.InetSocketAddress;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import xyz.flysium.photon.rpc.container.RpcContainer;
+import xyz.flysium.photon.rpc.container.VirtualThreads;
 import xyz.flysium.photon.rpc.proxy.ProxyFactory;
 import xyz.flysium.photon.rpc.service.EchoService;
 
@@ -52,9 +54,13 @@ public class ConsumerTest {
     container.registerDiscovery(EchoService.class,
         new InetSocketAddress(Constant.HOST, Constant.PROVIDER_PORT));
 
+    // the proxy blocks the caller until the response, which is cheap on a virtual thread
+    ThreadFactory threadFactory =
+        Constant.CONSUMER_VIRTUAL_THREADS && VirtualThreads.isSupported()
+            ? VirtualThreads.newThreadFactory("consumer-") : Thread::new;
     AtomicInteger num = new AtomicInteger(1);
     for (int i = 0; i < THREADS; i++) {
-      new Thread(() -> {
+      threadFactory.newThread(() -> {
         try {
           EchoService echoService = ProxyFactory.getProxy(EchoService.class);
           afterExecute(echoService.echo("rpc test " + num.getAndIncrement()));
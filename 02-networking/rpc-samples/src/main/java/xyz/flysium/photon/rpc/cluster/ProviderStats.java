@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The statistics of a provider, shared by all the connections to it and fed by them, which the
+ * load balancers choose by.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public final class ProviderStats {
+
+  private static final Map<String, ProviderStats> STATS = new ConcurrentHashMap<>();
+
+  /**
+   * the decay time of the latency, a sample of 10 seconds ago weighs 1/e of a new one
+   */
+  private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  private final AtomicInteger active = new AtomicInteger();
+  private volatile int weight = 100;
+  /**
+   * peak EWMA of the latency in nanoseconds, jumps to a higher sample and decays to a lower one
+   */
+  private double latency;
+  private long stamp = System.nanoTime();
+  /**
+   * whether a call has ended, until then the latency is unknown rather than zero
+   */
+  private volatile boolean sampled;
+
+  private ProviderStats() {
+  }
+
+  public static ProviderStats of(String host, int port) {
+    return STATS.computeIfAbsent(host + ":" + port, k -> new ProviderStats());
+  }
+
+  public static ProviderStats of(InetSocketAddress inetSocketAddress) {
+    return of(inetSocketAddress.getHostString(), inetSocketAddress.getPort());
+  }
+
+  /**
+   * @return the start time of the call, in nanoseconds
+   */
+  public long begin() {
+    active.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  public void end(long begin) {
+    active.decrementAndGet();
+    observe(System.nanoTime() - begin);
+    sampled = true;
+  }
+
+  /**
+   * @return whether any call to the provider has ended, so that {@link #getLatency()} is known
+   */
+  public boolean isSampled() {
+    return sampled;
+  }
+
+  /**
+   * @return the number of in-flight calls
+   */
+  public int getActive() {
+    return active.get();
+  }
+
+  public int getWeight() {
+    return weight;
+  }
+
+  public void setWeight(int weight) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("weight must be positive: " + weight);
+    }
+    this.weight = weight;
+  }
+
+  /**
+   * @return the peak EWMA of the latency in nanoseconds, decayed to now
+   */
+  public synchronized double getLatency() {
+    observe(0);
+    return latency;
+  }
+
+  private synchronized void observe(long rtt) {
+    long now = System.nanoTime();
+    double w = Math.exp(-Math.max(now - stamp, 0) / DECAY_NANOS);
+    stamp = now;
+    if (rtt > latency) {
+      latency = rtt;
+    } else {
+      latency = latency * w + rtt * (1 - w);
+    }
+  }
+
+}
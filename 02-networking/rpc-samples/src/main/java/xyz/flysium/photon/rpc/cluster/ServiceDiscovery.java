@@ -27,10 +27,13 @@ package xyz.flysium.photon.rpc.cluster;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
+import xyz.flysium.photon.rpc.cluster.loadbalance.LoadBalancer;
+import xyz.flysium.photon.rpc.cluster.loadbalance.RandomLoadBalancer;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
 
 /**
  * @author zeno (Sven Augustus)
@@ -39,6 +42,8 @@ import java.util.concurrent.ThreadLocalRandom;
 public class ServiceDiscovery {
 
   private final Map<Class<?>, List<InetSocketAddress>> rpc = new ConcurrentHashMap<>();
+  private final Map<Class<?>, LoadBalancer> loadBalancers = new ConcurrentHashMap<>();
+  private volatile LoadBalancer defaultLoadBalancer = new RandomLoadBalancer();
 
   private ServiceDiscovery() {
   }
@@ -47,24 +52,46 @@ public class ServiceDiscovery {
     return ServiceDiscoveryHolder.INSTANCE;
   }
 
-  private final ThreadLocalRandom random = ThreadLocalRandom.current();
-
   public void register(Class<?> interfaceClass, InetSocketAddress... inetSocketAddress)
       throws IllegalAccessException, InstantiationException {
     rpc.putIfAbsent(interfaceClass,
-        new ArrayList<InetSocketAddress>(Arrays.asList(inetSocketAddress)));
+        Collections.unmodifiableList(new ArrayList<>(Arrays.asList(inetSocketAddress))));
+  }
+
+  /**
+   * Choose the providers of the service by the load balancer, instead of the default one
+   */
+  public void setLoadBalancer(Class<?> interfaceClass, LoadBalancer loadBalancer) {
+    loadBalancers.put(interfaceClass, loadBalancer);
+  }
+
+  public void setDefaultLoadBalancer(LoadBalancer loadBalancer) {
+    this.defaultLoadBalancer = loadBalancer;
+  }
+
+  /**
+   * Set the relative weight of the provider, 100 by default
+   */
+  public void setWeight(InetSocketAddress inetSocketAddress, int weight) {
+    ProviderStats.of(inetSocketAddress).setWeight(weight);
   }
 
   public InetSocketAddress choose(Class<?> interfaceClass) {
-    List<InetSocketAddress> list = rpc.getOrDefault(interfaceClass, new ArrayList<>());
-    // 随机负载均衡
+    return choose(interfaceClass, null);
+  }
+
+  /**
+   * @param req the call, for the load balancers which choose by its arguments
+   */
+  public InetSocketAddress choose(Class<?> interfaceClass, RpcRequest req) {
+    List<InetSocketAddress> list = rpc.getOrDefault(interfaceClass, Collections.emptyList());
     if (list.isEmpty()) {
       return null;
     }
     if (list.size() == 1) {
       return list.get(0);
     }
-    return list.get(random.nextInt(list.size()));
+    return loadBalancers.getOrDefault(interfaceClass, defaultLoadBalancer).select(list, req);
   }
 
   private static class ServiceDiscoveryHolder {
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster.loadbalance;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+
+/**
+ * The calls with the same argument go to the same provider, e.g. for its local cache, and only
+ * about 1/n of the arguments move when a provider joins or leaves.
+ * <p>
+ * The providers are placed on a hash ring by their virtual nodes, the ring is rebuilt only when
+ * the providers change.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class ConsistentHashLoadBalancer implements LoadBalancer {
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final int argumentIndex;
+  private final int virtualNodes;
+  private volatile Ring ring;
+
+  /**
+   * hash on the first argument, with 160 virtual nodes per provider
+   */
+  public ConsistentHashLoadBalancer() {
+    this(0, 160);
+  }
+
+  /**
+   * @param argumentIndex the index of the argument to hash on
+   * @param virtualNodes  the number of virtual nodes per provider
+   */
+  public ConsistentHashLoadBalancer(int argumentIndex, int virtualNodes) {
+    this.argumentIndex = argumentIndex;
+    this.virtualNodes = virtualNodes;
+  }
+
+  @Override
+  public InetSocketAddress select(List<InetSocketAddress> providers, RpcRequest req) {
+    Ring r = ring;
+    if (r == null || !r.providers.equals(providers)) {
+      r = new Ring(providers, virtualNodes);
+      ring = r;
+    }
+    Object[] args = req == null ? null : req.getArgs();
+    Object key = args != null && argumentIndex < args.length ? args[argumentIndex] : null;
+    return r.select(hash(String.valueOf(key)));
+  }
+
+  private static long hash(String key) {
+    return HASH.hashString(key, StandardCharsets.UTF_8).asLong();
+  }
+
+  private static final class Ring {
+
+    private final List<InetSocketAddress> providers;
+    private final TreeMap<Long, InetSocketAddress> nodes = new TreeMap<>();
+
+    private Ring(List<InetSocketAddress> providers, int virtualNodes) {
+      this.providers = new ArrayList<>(providers);
+      for (InetSocketAddress provider : providers) {
+        String name = provider.getHostString() + ":" + provider.getPort();
+        for (int i = 0; i < virtualNodes; i++) {
+          nodes.put(hash(name + "#" + i), provider);
+        }
+      }
+    }
+
+    private InetSocketAddress select(long hash) {
+      Map.Entry<Long, InetSocketAddress> entry = nodes.ceilingEntry(hash);
+      return entry != null ? entry.getValue() : nodes.firstEntry().getValue();
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster.loadbalance;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import xyz.flysium.photon.rpc.cluster.ProviderStats;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+
+/**
+ * The provider with the fewest in-flight calls per weight, a random one of the ties.
+ * <p>
+ * A slow provider accumulates in-flight calls, so it gets fewer new ones.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class LeastActiveLoadBalancer implements LoadBalancer {
+
+  @Override
+  public InetSocketAddress select(List<InetSocketAddress> providers, RpcRequest req) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    InetSocketAddress best = null;
+    double least = Double.MAX_VALUE;
+    int ties = 0;
+    for (InetSocketAddress provider : providers) {
+      ProviderStats stats = ProviderStats.of(provider);
+      double load = (double) stats.getActive() / stats.getWeight();
+      if (load < least) {
+        least = load;
+        best = provider;
+        ties = 1;
+      } else if (load == least && random.nextInt(++ties) == 0) {
+        // reservoir sampling, each of the ties is chosen with the same probability
+        best = provider;
+      }
+    }
+    return best;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster.loadbalance;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import xyz.flysium.photon.rpc.cluster.ProviderStats;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+
+/**
+ * Power of two choices: the one of two random providers with the lower peak EWMA cost.
+ * <p>
+ * It avoids the slow providers nearly as well as comparing all of them, in O(1), and without
+ * herding all the consumers onto the same best provider.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class P2CLoadBalancer implements LoadBalancer {
+
+  @Override
+  public InetSocketAddress select(List<InetSocketAddress> providers, RpcRequest req) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int size = providers.size();
+    int a = random.nextInt(size);
+    int b = random.nextInt(size - 1);
+    if (b >= a) {
+      b++;
+    }
+    InetSocketAddress pa = providers.get(a);
+    InetSocketAddress pb = providers.get(b);
+    return PeakEwmaLoadBalancer.cost(ProviderStats.of(pa))
+        <= PeakEwmaLoadBalancer.cost(ProviderStats.of(pb)) ? pa : pb;
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster.loadbalance;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import xyz.flysium.photon.rpc.cluster.ProviderStats;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+
+/**
+ * The provider with the lowest cost, that is the peak EWMA of its latency multiplied by its
+ * in-flight calls plus the new one, per weight.
+ * <p>
+ * The peak EWMA reacts to a slow response at once but forgets it slowly, so a provider which
+ * starts to stall is avoided before its in-flight calls pile up.
+ * <p>
+ * The latency is at least {@link #LATENCY_FLOOR_NANOS}, so the in-flight calls always count even
+ * when it has decayed to zero. A provider without any sample yet costs {@link #PENALTY_NANOS} per
+ * in-flight call, so it takes one call at a time until its first response, instead of all of them.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class PeakEwmaLoadBalancer implements LoadBalancer {
+
+  static final double LATENCY_FLOOR_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  static final double PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  @Override
+  public InetSocketAddress select(List<InetSocketAddress> providers, RpcRequest req) {
+    InetSocketAddress best = null;
+    double lowest = Double.MAX_VALUE;
+    for (InetSocketAddress provider : providers) {
+      double cost = cost(ProviderStats.of(provider));
+      if (cost < lowest) {
+        lowest = cost;
+        best = provider;
+      }
+    }
+    return best;
+  }
+
+  static double cost(ProviderStats stats) {
+    int active = stats.getActive();
+    double latency;
+    if (stats.isSampled()) {
+      latency = Math.max(stats.getLatency(), LATENCY_FLOOR_NANOS);
+    } else {
+      latency = active == 0 ? LATENCY_FLOOR_NANOS : PENALTY_NANOS;
+    }
+    return latency * (active + 1) / stats.getWeight();
+  }
+
+}
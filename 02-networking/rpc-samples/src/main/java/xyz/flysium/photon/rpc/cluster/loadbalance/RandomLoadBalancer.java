@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster.loadbalance;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import xyz.flysium.photon.rpc.cluster.ProviderStats;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+
+/**
+ * Random by the weights of the providers.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class RandomLoadBalancer implements LoadBalancer {
+
+  @Override
+  public InetSocketAddress select(List<InetSocketAddress> providers, RpcRequest req) {
+    int total = 0;
+    boolean same = true;
+    int[] weights = new int[providers.size()];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = ProviderStats.of(providers.get(i)).getWeight();
+      total += weights[i];
+      same = same && weights[i] == weights[0];
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (same) {
+      return providers.get(random.nextInt(providers.size()));
+    }
+    int offset = random.nextInt(total);
+    for (int i = 0; i < weights.length; i++) {
+      offset -= weights[i];
+      if (offset < 0) {
+        return providers.get(i);
+      }
+    }
+    return providers.get(weights.length - 1);
+  }
+
+}
@@ -24,15 +24,22 @@
 
 package xyz.flysium.photon.rpc.container;
 
+import io.netty.util.concurrent.ImmediateExecutor;
 import java.net.InetSocketAddress;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import xyz.flysium.photon.rpc.Constant;
 import xyz.flysium.photon.rpc.cluster.ServiceDiscovery;
+import xyz.flysium.photon.rpc.cluster.loadbalance.LoadBalancer;
 import xyz.flysium.photon.rpc.invoker.Invoker;
 import xyz.flysium.photon.rpc.remoting.Dispatcher;
+import xyz.flysium.photon.rpc.remoting.serializer.SerializerUtils;
 import xyz.flysium.photon.rpc.remoting.transport.ClientFactory;
 import xyz.flysium.photon.rpc.remoting.transport.NettyServer;
 
@@ -43,13 +50,31 @@ import xyz.flysium.photon.rpc.remoting.transport.NettyServer;
 public class RpcContainer {
 
   private final NettyServer server;
-  private ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 8,
-      60,
-      TimeUnit.SECONDS,
-      new ArrayBlockingQueue<>(1024));
+  private ThreadPoolExecutor executor;
+  /**
+   * service -> the executor of the service, if not the default one
+   */
+  private final Map<String, Executor> serviceExecutors = new ConcurrentHashMap<>();
 
   public RpcContainer(int port) {
+    this(port, Constant.PROVIDER_VIRTUAL_THREADS);
+  }
+
+  /**
+   * @param virtualThreads invoke the beans on virtual threads, falls back to the platform thread
+   *                       pool if they are not supported by the running JVM
+   */
+  public RpcContainer(int port, boolean virtualThreads) {
     server = new NettyServer(this, port);
+    if (virtualThreads && VirtualThreads.isSupported()) {
+      executor = VirtualThreads.newExecutor("rpc-invoker-", Constant.PROVIDER_MAX_VIRTUAL_THREADS);
+    } else {
+      executor = new ThreadPoolExecutor(4, 8,
+          60,
+          TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(1024),
+          VirtualThreads.newPlatformThreadFactory("rpc-invoker-"));
+    }
   }
 
   public void start() throws InterruptedException, ExecutionException {
@@ -65,14 +90,48 @@ public class RpcContainer {
     this.executor = executor;
   }
 
+  public Executor getExecutor(String service) {
+    return serviceExecutors.getOrDefault(service, executor);
+  }
+
   public void registerDiscovery(Class<?> interfaceClass, InetSocketAddress... inetSocketAddress)
       throws InstantiationException, IllegalAccessException {
     ServiceDiscovery.getInstance().register(interfaceClass, inetSocketAddress);
   }
 
+  /**
+   * Choose the providers of the service by the load balancer, instead of the weighted random one
+   */
+  public void registerLoadBalancer(Class<?> interfaceClass, LoadBalancer loadBalancer) {
+    ServiceDiscovery.getInstance().setLoadBalancer(interfaceClass, loadBalancer);
+  }
+
+  public void registerSerializer(Class<?> interfaceClass, byte serializerId) {
+    SerializerUtils.bind(interfaceClass.getCanonicalName(), serializerId);
+  }
+
   public void registerBean(Class<?> interfaceClass, Class<?> implClass)
       throws InstantiationException, IllegalAccessException {
+    registerBean(interfaceClass, implClass, DispatchMode.EXECUTOR);
+  }
+
+  public void registerBean(Class<?> interfaceClass, Class<?> implClass, DispatchMode mode)
+      throws InstantiationException, IllegalAccessException {
+    Dispatcher.getInstance().registerBean(interfaceClass, implClass);
+    if (mode == DispatchMode.DIRECT) {
+      serviceExecutors.put(interfaceClass.getCanonicalName(), ImmediateExecutor.INSTANCE);
+    } else {
+      serviceExecutors.remove(interfaceClass.getCanonicalName());
+    }
+  }
+
+  /**
+   * Register the bean with its own executor, which isolates it from the other services
+   */
+  public void registerBean(Class<?> interfaceClass, Class<?> implClass, Executor executor)
+      throws InstantiationException, IllegalAccessException {
     Dispatcher.getInstance().registerBean(interfaceClass, implClass);
+    serviceExecutors.put(interfaceClass.getCanonicalName(), executor);
   }
 
   public Invoker getInvoker(String service) throws ClassNotFoundException {
@@ -82,6 +141,7 @@ public class RpcContainer {
   public void shutdown() {
     ClientFactory.getFactory().shutdown();
     server.stop();
+    executor.shutdown();
   }
 
 }
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.container;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual threads (JDK 21+), looked up by reflection so that this module still runs on Java 8.
+ * <p>
+ * A blocking invocation parks a virtual thread instead of holding a platform thread, so the
+ * number of concurrent blocking calls is no longer bounded by the size of a thread pool.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Thread.Builder.OfVirtual#name(String, long), or null if virtual threads are not supported
+   */
+  private static final Method NAME;
+  private static final Method FACTORY;
+
+  static {
+    Method name = null;
+    Method factory = null;
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      name = builderClass.getMethod("name", String.class, long.class);
+      factory = builderClass.getMethod("factory");
+      // fail early if they are a preview feature which is not enabled
+      factory.invoke(name.invoke(builder, "probe-", 0L));
+    } catch (Throwable e) {
+      name = null;
+      factory = null;
+    }
+    NAME = name;
+    FACTORY = factory;
+  }
+
+  public static boolean isSupported() {
+    return FACTORY != null;
+  }
+
+  /**
+   * @param prefix the prefix of the thread names, followed by a counter
+   * @throws UnsupportedOperationException if virtual threads are not supported
+   */
+  public static ThreadFactory newThreadFactory(String prefix) {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException("virtual threads require JDK 21 or later");
+    }
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) FACTORY.invoke(NAME.invoke(builder, prefix, 0L));
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException(e);
+    }
+  }
+
+  /**
+   * A platform thread factory, for the fallback when virtual threads are not supported. The threads
+   * are not daemons, as those of the default factory, so that the JVM does not exit amid a call.
+   */
+  public static ThreadFactory newPlatformThreadFactory(String prefix) {
+    final AtomicLong counter = new AtomicLong();
+    return r -> new Thread(r, prefix + counter.getAndIncrement());
+  }
+
+  /**
+   * An executor which starts a new virtual thread per task, until <code>maxConcurrency</code>
+   * tasks are running, then it rejects the task so that the caller can answer with an overloaded
+   * response instead of queuing without bound.
+   * <p>
+   * Idle threads are kept for a short while and then terminate, they are cheap to start again.
+   *
+   * @throws UnsupportedOperationException if virtual threads are not supported
+   */
+  public static ThreadPoolExecutor newExecutor(String prefix, int maxConcurrency) {
+    return new ThreadPoolExecutor(0, maxConcurrency,
+        1, TimeUnit.SECONDS,
+        new SynchronousQueue<>(),
+        newThreadFactory(prefix));
+  }
+
+}
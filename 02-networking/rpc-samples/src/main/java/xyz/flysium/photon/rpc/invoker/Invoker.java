@@ -24,49 +24,129 @@
 
 package xyz.flysium.photon.rpc.invoker;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
 
 /**
+ * Invoke the service bean by a dispatch table built once at registration.
+ * <p>
+ * Every method of the service interface is bound to a pre-spread {@link MethodHandle} keyed by
+ * its signature, so overloads are resolved correctly and there is no reflection lookup on the
+ * request path.
+ *
  * @author zeno (Sven Augustus)
  * @version 1.0
  */
 public class Invoker {
 
+  private static final MethodType GENERIC_TYPE = MethodType
+      .methodType(Object.class, Object[].class);
+  private static final Object[] EMPTY_ARGS = new Object[0];
+
   private final Object beanImpl;
+  /**
+   * method signature -> handle
+   */
+  private final Map<MethodKey, MethodHandle> handles = new HashMap<>();
+  /**
+   * method name -> handle, only for the method names without overloads
+   */
+  private final Map<String, MethodHandle> uniqueHandles = new HashMap<>();
 
-  public Invoker(Class<?> implClass) throws IllegalAccessException, InstantiationException {
+  public Invoker(Class<?> interfaceClass, Class<?> implClass)
+      throws IllegalAccessException, InstantiationException {
     this.beanImpl = implClass.newInstance();
+    Map<String, Integer> overloads = new HashMap<>();
+    for (Method method : interfaceClass.getMethods()) {
+      MethodHandle handle = toHandle(method);
+      handles.put(new MethodKey(method.getName(), typeNames(method.getParameterTypes())), handle);
+      uniqueHandles.put(method.getName(), handle);
+      overloads.merge(method.getName(), 1, Integer::sum);
+    }
+    overloads.forEach((name, count) -> {
+      if (count > 1) {
+        uniqueHandles.remove(name);
+      }
+    });
   }
 
   public RpcResponse invoke(RpcRequest req) {
     Object result = null;
     try {
       result = doInvoke(req);
-    } catch (ClassNotFoundException | InvocationTargetException | IllegalAccessException | NoSuchMethodException e) {
+    } catch (NoSuchMethodException e) {
       return new RpcResponse(req.getId(), e);
+    } catch (Throwable e) {
+      return new RpcResponse(req.getId(), new InvocationTargetException(e));
     }
     return new RpcResponse(req.getId(), result);
   }
 
-  private Object doInvoke(RpcRequest req)
-      throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-    String service = req.getService();
-    String method = req.getMethod();
+  private Object doInvoke(RpcRequest req) throws Throwable {
+    String[] parameterTypes = req.getParameterTypes();
+    MethodHandle handle = (parameterTypes == null)
+        ? uniqueHandles.get(req.getMethod())
+        : handles.get(new MethodKey(req.getMethod(), parameterTypes));
+    if (handle == null) {
+      throw new NoSuchMethodException(req.getService() + "." + req.getMethod()
+          + (parameterTypes == null ? "" : "(" + String.join(",", parameterTypes) + ")"));
+    }
     Object[] args = req.getArgs();
-    Class<?> clazz = Thread.currentThread().getContextClassLoader()
-        .loadClass(service);
-    Method clazzMethod = null;
-    for (int i = 0; i < clazz.getMethods().length; i++) {
-      Method method1 = clazz.getMethods()[i];
-      if (method1.getName().equals(method)) {
-        clazzMethod = method1;
-        break;
+    return (Object) handle.invokeExact(args == null ? EMPTY_ARGS : args);
+  }
+
+  private MethodHandle toHandle(Method method) throws IllegalAccessException {
+    method.setAccessible(true);
+    return MethodHandles.lookup().unreflect(method)
+        .bindTo(beanImpl)
+        .asSpreader(Object[].class, method.getParameterCount())
+        .asType(GENERIC_TYPE);
+  }
+
+  private static String[] typeNames(Class<?>[] parameterTypes) {
+    String[] names = new String[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      names[i] = parameterTypes[i].getName();
+    }
+    return names;
+  }
+
+  private static final class MethodKey {
+
+    private final String name;
+    private final String[] parameterTypes;
+    private final int hash;
+
+    MethodKey(String name, String[] parameterTypes) {
+      this.name = name;
+      this.parameterTypes = parameterTypes;
+      this.hash = 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof MethodKey)) {
+        return false;
       }
+      MethodKey that = (MethodKey) o;
+      return name.equals(that.name) && Arrays.equals(parameterTypes, that.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
     }
-    return clazzMethod.invoke(beanImpl, args);
   }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.proxy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+
+/**
+ * A batch of calls to one service, sent to one provider in one frame, e.g.
+ * <pre>
+ *   Batch&lt;EchoService&gt; batch = ProxyFactory.newBatch(EchoService.class);
+ *   batch.add().echo("a");
+ *   batch.add().echo("b");
+ *   List&lt;Object&gt; results = batch.execute().get();
+ * </pre>
+ * The calls on the proxy of {@link #add()} are only recorded, and return the default value of
+ * their return type. Not thread safe.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public final class Batch<T> {
+
+  private final Class<T> interfaceClass;
+  private final List<RpcRequest> requests = new ArrayList<>();
+  private final T recorder;
+
+  Batch(Class<T> interfaceClass, long timeout) {
+    this.interfaceClass = interfaceClass;
+    this.recorder = (T) Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+        new Class[]{interfaceClass},
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args);
+          }
+          RpcRequest req = new RpcRequest(interfaceClass.getCanonicalName(),
+              method.getName(),
+              method.getParameterTypes(),
+              args);
+          req.setTimeout(timeout);
+          requests.add(req);
+          return defaultValue(method);
+        });
+  }
+
+  /**
+   * @return the proxy which records the call on it into this batch
+   */
+  public T add() {
+    return recorder;
+  }
+
+  public int size() {
+    return requests.size();
+  }
+
+  /**
+   * Send the recorded calls, then clear them
+   *
+   * @return the results in the order of the calls, or the failure of the first call which failed
+   */
+  public CompletableFuture<List<Object>> execute() {
+    if (requests.isEmpty()) {
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+    List<RpcRequest> calls = new ArrayList<>(requests);
+    requests.clear();
+    return ProxyFactory.invokeBatch(interfaceClass, calls);
+  }
+
+  private static Object defaultValue(Method method) {
+    Class<?> type = method.getReturnType();
+    if (!type.isPrimitive() || type == void.class) {
+      return null;
+    }
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == char.class) {
+      return '\0';
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    if (type == float.class) {
+      return 0F;
+    }
+    if (type == double.class) {
+      return 0D;
+    }
+    if (type == byte.class) {
+      return (byte) 0;
+    }
+    if (type == short.class) {
+      return (short) 0;
+    }
+    return 0;
+  }
+
+}
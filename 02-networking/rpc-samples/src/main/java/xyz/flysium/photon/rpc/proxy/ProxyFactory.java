@@ -28,13 +28,18 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.rpc.Constant;
 import xyz.flysium.photon.rpc.cluster.ServiceDiscovery;
 import xyz.flysium.photon.rpc.invoker.Invoker;
 import xyz.flysium.photon.rpc.remoting.Dispatcher;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchRequest;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
 import xyz.flysium.photon.rpc.remoting.transport.ClientFactory;
@@ -53,6 +58,15 @@ public final class ProxyFactory {
 
   public static <T> T getProxy(Class<T> interfaceClass)
       throws InterruptedException, ExecutionException {
+    return getProxy(interfaceClass, Constant.CONSUMER_TIMEOUT);
+  }
+
+  /**
+   * @param timeout the milliseconds to wait for the response of a call, then it fails with a
+   *                <code>TimeoutException</code>
+   */
+  public static <T> T getProxy(Class<T> interfaceClass, long timeout)
+      throws InterruptedException, ExecutionException {
 
     return (T) Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
         new Class[]{interfaceClass},
@@ -62,7 +76,9 @@ public final class ProxyFactory {
           public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             RpcRequest req = new RpcRequest(interfaceClass.getCanonicalName(),
                 method.getName(),
+                method.getParameterTypes(),
                 args);
+            req.setTimeout(timeout);
 
             Invoker invoker = Dispatcher.getInstance().getInvoker(interfaceClass);
             // local (FC)
@@ -72,19 +88,183 @@ public final class ProxyFactory {
             }
             // remote (RPC)
             InetSocketAddress inetSocketAddress = ServiceDiscovery.getInstance()
-                .choose(interfaceClass);
+                .choose(interfaceClass, req);
             NettyClient client = ClientFactory.getFactory().getClient(inetSocketAddress);
 
+            // bounded by the timeout of the call, which fails the future when it expires
             CompletableFuture<RpcResponse> future = client.send(req);
-            RpcResponse resp = future.get();
+            RpcResponse resp;
+            try {
+              resp = future.get();
+            } catch (ExecutionException e) {
+              throw e.getCause();
+            }
+            if (resp.isOverloaded()) {
+              throw overloaded(inetSocketAddress);
+            }
             return resp.getResult();
           }
         });
   }
 
-  public static Invoker getInvoker(Class<?> implClass)
+  /**
+   * Get an asynchronous proxy of the service <code>interfaceClass</code>.
+   * <p>
+   * The <code>asyncInterfaceClass</code> declares the methods of the service, with the same names
+   * and parameter types, but returning a <code>CompletableFuture</code> of their results, e.g.
+   * <code>CompletableFuture&lt;String&gt; echo(String message)</code>. The calls never block the
+   * caller, the future completes exceptionally if the call fails or the provider is overloaded.
+   */
+  public static <A> A getAsyncProxy(Class<?> interfaceClass, Class<A> asyncInterfaceClass) {
+    return getAsyncProxy(interfaceClass, asyncInterfaceClass, Constant.CONSUMER_TIMEOUT);
+  }
+
+  /**
+   * @param timeout the milliseconds to wait for the response of a call, then its future fails
+   *                with a <code>TimeoutException</code>
+   */
+  public static <A> A getAsyncProxy(Class<?> interfaceClass, Class<A> asyncInterfaceClass,
+      long timeout) {
+    for (Method method : asyncInterfaceClass.getMethods()) {
+      if (!CompletableFuture.class.equals(method.getReturnType())) {
+        throw new IllegalArgumentException(method + " must return CompletableFuture");
+      }
+      try {
+        interfaceClass.getMethod(method.getName(), method.getParameterTypes());
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException(method + " is not a method of " + interfaceClass, e);
+      }
+    }
+    return (A) Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+        new Class[]{asyncInterfaceClass},
+        new InvocationHandler() {
+
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            RpcRequest req = new RpcRequest(interfaceClass.getCanonicalName(),
+                method.getName(),
+                method.getParameterTypes(),
+                args);
+            req.setTimeout(timeout);
+
+            Invoker invoker = Dispatcher.getInstance().getInvoker(interfaceClass);
+            // local (FC)
+            if (invoker != null) {
+              logger.debug("-> local (FC) ");
+              CompletableFuture<Object> result = new CompletableFuture<>();
+              complete(result, invoker.invoke(req), null);
+              return result;
+            }
+            // remote (RPC)
+            InetSocketAddress inetSocketAddress = ServiceDiscovery.getInstance()
+                .choose(interfaceClass, req);
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            try {
+              NettyClient client = ClientFactory.getFactory().getClient(inetSocketAddress);
+              client.send(req).whenComplete((resp, e) -> {
+                if (e != null) {
+                  result.completeExceptionally(e);
+                } else {
+                  complete(result, resp, inetSocketAddress);
+                }
+              });
+            } catch (Exception e) {
+              result.completeExceptionally(e);
+            }
+            return result;
+          }
+        });
+  }
+
+  /**
+   * Create a batch of calls to the service <code>interfaceClass</code>, which are sent to one
+   * provider in one frame.
+   */
+  public static <T> Batch<T> newBatch(Class<T> interfaceClass) {
+    return newBatch(interfaceClass, Constant.CONSUMER_TIMEOUT);
+  }
+
+  /**
+   * @param timeout the milliseconds to wait for the results of the batch
+   */
+  public static <T> Batch<T> newBatch(Class<T> interfaceClass, long timeout) {
+    return new Batch<>(interfaceClass, timeout);
+  }
+
+  static CompletableFuture<List<Object>> invokeBatch(Class<?> interfaceClass,
+      List<RpcRequest> requests) {
+    CompletableFuture<List<Object>> result = new CompletableFuture<>();
+    try {
+      Invoker invoker = Dispatcher.getInstance().getInvoker(interfaceClass);
+      // local (FC)
+      if (invoker != null) {
+        logger.debug("-> local (FC) ");
+        List<RpcResponse> responses = new ArrayList<>(requests.size());
+        for (RpcRequest req : requests) {
+          responses.add(invoker.invoke(req));
+        }
+        completeBatch(result, responses, null);
+        return result;
+      }
+      // remote (RPC)
+      // the calls of a batch go to one provider, chosen by the first one
+      InetSocketAddress inetSocketAddress = ServiceDiscovery.getInstance()
+          .choose(interfaceClass, requests.get(0));
+      NettyClient client = ClientFactory.getFactory().getClient(inetSocketAddress);
+      client.sendBatch(new RpcBatchRequest(requests)).whenComplete((resp, e) -> {
+        if (e != null) {
+          result.completeExceptionally(e);
+        } else if (resp.getException() != null) {
+          result.completeExceptionally(resp.getException());
+        } else {
+          completeBatch(result, resp.getResponses(), inetSocketAddress);
+        }
+      });
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  private static void completeBatch(CompletableFuture<List<Object>> result,
+      List<RpcResponse> responses, InetSocketAddress inetSocketAddress) {
+    List<Object> results = new ArrayList<>(responses.size());
+    for (RpcResponse resp : responses) {
+      Exception failure = failureOf(resp, inetSocketAddress);
+      if (failure != null) {
+        // the first failure fails the batch
+        result.completeExceptionally(failure);
+        return;
+      }
+      results.add(resp.getResult());
+    }
+    result.complete(results);
+  }
+
+  private static void complete(CompletableFuture<Object> result, RpcResponse resp,
+      InetSocketAddress inetSocketAddress) {
+    Exception failure = failureOf(resp, inetSocketAddress);
+    if (failure != null) {
+      result.completeExceptionally(failure);
+    } else {
+      result.complete(resp.getResult());
+    }
+  }
+
+  private static Exception failureOf(RpcResponse resp, InetSocketAddress inetSocketAddress) {
+    if (resp.isOverloaded()) {
+      return overloaded(inetSocketAddress);
+    }
+    return resp.getException();
+  }
+
+  private static RejectedExecutionException overloaded(InetSocketAddress inetSocketAddress) {
+    return new RejectedExecutionException("provider " + inetSocketAddress + " is overloaded");
+  }
+
+  public static Invoker getInvoker(Class<?> interfaceClass, Class<?> implClass)
       throws InstantiationException, IllegalAccessException {
-    return new Invoker(implClass);
+    return new Invoker(interfaceClass, implClass);
   }
 
 }
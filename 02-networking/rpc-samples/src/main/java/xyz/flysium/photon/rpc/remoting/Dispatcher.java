@@ -37,6 +37,12 @@ public class Dispatcher {
 
   private final Map<Class<?>, Invoker> beans = new ConcurrentHashMap<>();
 
+  /**
+   * canonical name of the interface -> invoker, the request carries the canonical name, so
+   * dispatching is a single lookup without loading the class
+   */
+  private final Map<String, Invoker> services = new ConcurrentHashMap<>();
+
   private Dispatcher() {
   }
 
@@ -46,14 +52,18 @@ public class Dispatcher {
 
   public void registerBean(Class<?> interfaceClass, Class<?> implClass)
       throws IllegalAccessException, InstantiationException {
-    Invoker invoker = ProxyFactory.getInvoker(implClass);
-    beans.putIfAbsent(interfaceClass, invoker);
+    Invoker invoker = ProxyFactory.getInvoker(interfaceClass, implClass);
+    Invoker registered = beans.putIfAbsent(interfaceClass, invoker);
+    services.putIfAbsent(interfaceClass.getCanonicalName(),
+        registered == null ? invoker : registered);
   }
 
   public Invoker getInvoker(String service) throws ClassNotFoundException {
-    Class<?> interfaceClass = Thread.currentThread().getContextClassLoader()
-        .loadClass(service);
-    return getInvoker(interfaceClass);
+    Invoker invoker = services.get(service);
+    if (invoker == null) {
+      throw new ClassNotFoundException("No service registered: " + service);
+    }
+    return invoker;
   }
 
   public Invoker getInvoker(Class<?> interfaceClass) throws ClassNotFoundException {
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.portocol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Many requests to the same provider, sent in one frame.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class RpcBatchRequest {
+
+  private final long mId;
+  private List<RpcRequest> requests;
+
+  public RpcBatchRequest(List<RpcRequest> requests) {
+    this.mId = RpcRequest.newId();
+    this.requests = new ArrayList<>(requests);
+  }
+
+  public long getId() {
+    return mId;
+  }
+
+  public List<RpcRequest> getRequests() {
+    return requests;
+  }
+
+  public void setRequests(List<RpcRequest> requests) {
+    this.requests = requests;
+  }
+
+  public int size() {
+    return requests == null ? 0 : requests.size();
+  }
+
+}
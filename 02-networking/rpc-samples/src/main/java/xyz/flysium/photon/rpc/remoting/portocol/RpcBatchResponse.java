@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.portocol;
+
+import java.util.List;
+
+/**
+ * The responses of a batch request, in the order of its requests.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class RpcBatchResponse {
+
+  private final long mId;
+  private List<RpcResponse> responses;
+  /**
+   * the failure of the batch as a whole, e.g. it could not be decoded
+   */
+  private Exception e;
+
+  public RpcBatchResponse(long mId, List<RpcResponse> responses) {
+    this.mId = mId;
+    this.responses = responses;
+  }
+
+  public RpcBatchResponse(long mId, Exception e) {
+    this.mId = mId;
+    this.e = e;
+  }
+
+  public long getId() {
+    return mId;
+  }
+
+  public List<RpcResponse> getResponses() {
+    return responses;
+  }
+
+  public void setResponses(List<RpcResponse> responses) {
+    this.responses = responses;
+  }
+
+  public Exception getException() {
+    return e;
+  }
+
+  public void setException(Exception e) {
+    this.e = e;
+  }
+
+}
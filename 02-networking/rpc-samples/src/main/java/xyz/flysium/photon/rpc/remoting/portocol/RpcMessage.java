@@ -24,56 +24,162 @@
 
 package xyz.flysium.photon.rpc.remoting.portocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.DefaultByteBufHolder;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.DecoderResultProvider;
+
 /**
+ * The frame of the RPC protocol: <code>type(2) + id(8) + length(4) + body</code>.
+ * <p>
+ * The body is a reference counted {@link ByteBuf}, the decoder hands out a retained slice of the
+ * inbound frame and the encoder writes the (pooled) body buffer to the socket as-is, so whoever
+ * consumes a message is responsible for releasing it.
+ * <p>
+ * The low bits of <code>type</code> are the kind of the message, a body larger than one frame is
+ * sent as a sequence of frames with the same id flagged by {@link #FLAG_CHUNK}, the last one also
+ * by {@link #FLAG_LAST_CHUNK}. The high byte is the id of the serializer of the body.
+ *
  * @author zeno (Sven Augustus)
  * @version 1.0
  */
-public class RpcMessage {
+public class RpcMessage extends DefaultByteBufHolder implements DecoderResultProvider {
+
+  public static final short TYPE_REQUEST = 1;
+  public static final short TYPE_RESPONSE = 2;
+  /**
+   * many requests to the same provider in one frame, answered by one batch response
+   */
+  public static final short TYPE_BATCH_REQUEST = 3;
+  public static final short TYPE_BATCH_RESPONSE = 4;
+  public static final short TYPE_MASK = 0x000F;
+
+  public static final short FLAG_CHUNK = 0x0010;
+  public static final short FLAG_LAST_CHUNK = 0x0020;
+  public static final short FLAG_MASK = FLAG_CHUNK | FLAG_LAST_CHUNK;
+
+  public static final int SERIALIZER_SHIFT = 8;
 
-  private short type;
-  private long mId;
-  private int length;
-  private byte[] body;
+  private final short type;
+  private final long mId;
+  private DecoderResult decoderResult = DecoderResult.SUCCESS;
 
-  public RpcMessage() {
+  public static short type(int kind, byte serializerId) {
+    return (short) (((serializerId & 0xFF) << SERIALIZER_SHIFT) | (kind & TYPE_MASK));
   }
 
-  public RpcMessage(short type, long mId, byte[] body) {
+  public RpcMessage(short type, long mId, ByteBuf body) {
+    super(body == null ? Unpooled.EMPTY_BUFFER : body);
     this.type = type;
     this.mId = mId;
-    this.setBody(body);
   }
 
-  public short getType() {
-    return type;
+  public RpcMessage(short type, long mId, byte[] body) {
+    this(type, mId, body == null ? null : Unpooled.wrappedBuffer(body));
   }
 
-  public void setType(short type) {
-    this.type = type;
+  public short getType() {
+    return type;
   }
 
   public long getId() {
     return mId;
   }
 
-  public void setId(long mId) {
-    this.mId = mId;
+  public int getKind() {
+    return type & TYPE_MASK;
+  }
+
+  public byte getSerializerId() {
+    return (byte) ((type >>> SERIALIZER_SHIFT) & 0xFF);
+  }
+
+  public boolean isChunk() {
+    return (type & FLAG_CHUNK) != 0;
+  }
+
+  public boolean isLastChunk() {
+    return (type & FLAG_LAST_CHUNK) != 0;
+  }
+
+  /**
+   * A failure means the body could not be received, e.g. it was too long and has been discarded,
+   * the message carries only the id and the kind then.
+   */
+  @Override
+  public DecoderResult decoderResult() {
+    return decoderResult;
+  }
+
+  @Override
+  public void setDecoderResult(DecoderResult result) {
+    this.decoderResult = result;
   }
 
   public int getLength() {
-    return length;
+    return content().readableBytes();
   }
 
+  /**
+   * Copy the body out of the buffer, prefer {@link #content()}.
+   *
+   * @return the body bytes
+   */
   public byte[] getBody() {
-    return body;
+    return ByteBufUtil.getBytes(content());
+  }
+
+  @Override
+  public RpcMessage replace(ByteBuf content) {
+    RpcMessage msg = new RpcMessage(type, mId, content);
+    msg.setDecoderResult(decoderResult);
+    return msg;
+  }
+
+  @Override
+  public RpcMessage copy() {
+    return (RpcMessage) super.copy();
+  }
+
+  @Override
+  public RpcMessage duplicate() {
+    return (RpcMessage) super.duplicate();
+  }
+
+  @Override
+  public RpcMessage retainedDuplicate() {
+    return (RpcMessage) super.retainedDuplicate();
+  }
+
+  @Override
+  public RpcMessage retain() {
+    super.retain();
+    return this;
+  }
+
+  @Override
+  public RpcMessage retain(int increment) {
+    super.retain(increment);
+    return this;
+  }
+
+  @Override
+  public RpcMessage touch() {
+    super.touch();
+    return this;
+  }
+
+  @Override
+  public RpcMessage touch(Object hint) {
+    super.touch(hint);
+    return this;
   }
 
-  public void setBody(byte[] body) {
-    if (body == null) {
-      body = new byte[0];
-    }
-    this.body = body;
-    this.length = body.length;
+  @Override
+  public String toString() {
+    return "RpcMessage{type=" + type + ", id=" + mId + ", length=" + getLength() + '}';
   }
 
 }
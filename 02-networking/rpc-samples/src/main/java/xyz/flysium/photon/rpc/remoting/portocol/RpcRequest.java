@@ -37,13 +37,29 @@ public class RpcRequest {
   private final long mId;
   private String service;
   private String method;
+  private String[] parameterTypes;
   private Object[] args;
+  /**
+   * the milliseconds the caller waits for the response, 0 for the default of the consumer
+   */
+  private long timeout;
 
-  private static long newId() {
+  static long newId() {
     // getAndIncrement() When it grows to MAX_VALUE, it will grow to MIN_VALUE, and the negative can be used as ID
     return INVOKE_ID.getAndIncrement();
   }
 
+  private static String[] typeNames(Class<?>[] types) {
+    if (types == null) {
+      return null;
+    }
+    String[] names = new String[types.length];
+    for (int i = 0; i < types.length; i++) {
+      names[i] = types[i].getName();
+    }
+    return names;
+  }
+
   public RpcRequest() {
     this.mId = newId();
   }
@@ -55,6 +71,11 @@ public class RpcRequest {
     this.args = args;
   }
 
+  public RpcRequest(String service, String method, Class<?>[] parameterTypes, Object[] args) {
+    this(service, method, args);
+    this.parameterTypes = typeNames(parameterTypes);
+  }
+
   public long getId() {
     return mId;
   }
@@ -75,6 +96,14 @@ public class RpcRequest {
     this.method = method;
   }
 
+  public String[] getParameterTypes() {
+    return parameterTypes;
+  }
+
+  public void setParameterTypes(String[] parameterTypes) {
+    this.parameterTypes = parameterTypes;
+  }
+
   public Object[] getArgs() {
     return args;
   }
@@ -83,4 +112,12 @@ public class RpcRequest {
     this.args = args;
   }
 
+  public long getTimeout() {
+    return timeout;
+  }
+
+  public void setTimeout(long timeout) {
+    this.timeout = timeout;
+  }
+
 }
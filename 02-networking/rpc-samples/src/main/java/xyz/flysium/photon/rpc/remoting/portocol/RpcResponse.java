@@ -30,8 +30,12 @@ package xyz.flysium.photon.rpc.remoting.portocol;
  */
 public class RpcResponse {
 
+  public static final byte STATUS_OK = 0;
+  public static final byte STATUS_ERROR = 1;
+  public static final byte STATUS_OVERLOADED = 2;
+
   private final long mId;
-  private boolean success = true;
+  private byte status = STATUS_OK;
   private Object result;
   private Exception e;
 
@@ -49,12 +53,26 @@ public class RpcResponse {
     this.setException(e);
   }
 
+  public static RpcResponse overloaded(long mId) {
+    RpcResponse resp = new RpcResponse(mId);
+    resp.status = STATUS_OVERLOADED;
+    return resp;
+  }
+
   public long getId() {
     return mId;
   }
 
+  public byte getStatus() {
+    return status;
+  }
+
   public boolean isSuccess() {
-    return success;
+    return status == STATUS_OK;
+  }
+
+  public boolean isOverloaded() {
+    return status == STATUS_OVERLOADED;
   }
 
   public Object getResult() {
@@ -71,7 +89,7 @@ public class RpcResponse {
 
   public void setException(Exception e) {
     this.e = e;
-    this.success = (e == null);
+    this.status = (e == null) ? STATUS_OK : STATUS_ERROR;
   }
 
 }
@@ -24,6 +24,10 @@
 
 package xyz.flysium.photon.rpc.remoting.serializer;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.io.OutputStream;
+
 /**
  * Serializer Interface.
  *
@@ -39,6 +43,13 @@ public interface Serializer {
    */
   String name();
 
+  /**
+   * Get The id of Serializer, which is addressed by the header of the RPC message
+   *
+   * @return The id of Serializer
+   */
+  byte id();
+
   /**
    * serialize object to byte array.
    *
@@ -58,4 +69,38 @@ public interface Serializer {
    */
   <T> T deserialize(byte[] data, Class<T> type) throws Exception;
 
+  /**
+   * serialize object into the buffer, starting at its writer index.
+   *
+   * @param object Object
+   * @param out    the buffer to write
+   * @throws Exception any exception while in serialize
+   */
+  default <T> void serialize(T object, ByteBuf out) throws Exception {
+    out.writeBytes(serialize(object));
+  }
+
+  /**
+   * serialize object into the stream, without closing it.
+   *
+   * @param object Object
+   * @param out    the stream to write
+   * @throws Exception any exception while in serialize
+   */
+  default <T> void serialize(T object, OutputStream out) throws Exception {
+    out.write(serialize(object));
+  }
+
+  /**
+   * deserialize the readable bytes of the buffer to object.
+   *
+   * @param in   the buffer to read
+   * @param type Type of data
+   * @return object
+   * @throws Exception any exception while in deserialize
+   */
+  default <T> T deserialize(ByteBuf in, Class<T> type) throws Exception {
+    return deserialize(ByteBufUtil.getBytes(in), type);
+  }
+
 }
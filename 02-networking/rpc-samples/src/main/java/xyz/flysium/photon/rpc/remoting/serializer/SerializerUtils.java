@@ -24,11 +24,20 @@
 
 package xyz.flysium.photon.rpc.remoting.serializer;
 
-
+import io.netty.buffer.ByteBuf;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import xyz.flysium.photon.rpc.remoting.serializer.binary.FSTSerializer;
+import xyz.flysium.photon.rpc.remoting.serializer.binary.HessianSerializer;
 import xyz.flysium.photon.rpc.remoting.serializer.binary.KryoSerializer;
+import xyz.flysium.photon.rpc.remoting.serializer.binary.ProtostuffSerializer;
 
 /**
- * <code>Serializer</code> Utils
+ * <code>Serializer</code> Utils, the registry of <code>Serializer</code>s addressed by id.
+ * <p>
+ * The client picks the serializer bound to the service (Kryo by default) and puts its id in the
+ * header of the request, the server answers with the same serializer.
  *
  * @author Sven Augustus
  * @version 1.0
@@ -38,16 +47,74 @@ public final class SerializerUtils {
   private SerializerUtils() {
   }
 
-  private static final Serializer SERIALIZER
-//      = new JDKSerializer();
-      = new KryoSerializer();
-//      = new ProtostuffSerializer();
-//      = new HessionSerializer();
-//      = new FSTSerializer();
-//      = new GsonSerializer();
-//      = new JacksonSerializer();
-//      = new FastJsonSerializer();
+  private static final Serializer DEFAULT_SERIALIZER = new KryoSerializer();
+
+  private static final Serializer[] SERIALIZERS = new Serializer[256];
+
+  private static final Map<String, Serializer> SERVICE_SERIALIZERS = new ConcurrentHashMap<>();
+
+  static {
+    register(DEFAULT_SERIALIZER);
+    register(new ProtostuffSerializer());
+    register(new HessianSerializer());
+    register(new FSTSerializer());
+  }
+
+  /**
+   * Register a <code>Serializer</code>
+   *
+   * @param serializer <code>Serializer</code>
+   */
+  public static synchronized void register(Serializer serializer) {
+    int id = serializer.id() & 0xFF;
+    if (id == 0) {
+      throw new IllegalArgumentException("id 0 is reserved for the default serializer");
+    }
+    if (SERIALIZERS[id] != null && SERIALIZERS[id] != serializer) {
+      throw new IllegalStateException(
+          "duplicate serializer id " + id + ": " + SERIALIZERS[id].name() + ", " + serializer
+              .name());
+    }
+    SERIALIZERS[id] = serializer;
+  }
+
+  /**
+   * Get the <code>Serializer</code> by id
+   *
+   * @param id the id of <code>Serializer</code>, 0 for the default one
+   * @return <code>Serializer</code>
+   * @throws IllegalArgumentException if no such serializer
+   */
+  public static Serializer getSerializer(byte id) {
+    if (id == 0) {
+      return DEFAULT_SERIALIZER;
+    }
+    Serializer serializer = SERIALIZERS[id & 0xFF];
+    if (serializer == null) {
+      throw new IllegalArgumentException("unknown serializer id: " + (id & 0xFF));
+    }
+    return serializer;
+  }
+
+  /**
+   * Use the <code>Serializer</code> for the calls of the service
+   *
+   * @param service      the name of service
+   * @param serializerId the id of <code>Serializer</code>
+   */
+  public static void bind(String service, byte serializerId) {
+    SERVICE_SERIALIZERS.put(service, getSerializer(serializerId));
+  }
 
+  /**
+   * Get the <code>Serializer</code> for the calls of the service
+   *
+   * @param service the name of service
+   * @return <code>Serializer</code>
+   */
+  public static Serializer getSerializer(String service) {
+    return SERVICE_SERIALIZERS.getOrDefault(service, DEFAULT_SERIALIZER);
+  }
 
   /**
    * To bytes
@@ -57,13 +124,8 @@ public final class SerializerUtils {
    * @throws Exception any Exception while writing
    */
   public static <T> byte[] toBytes(T msg) throws Exception {
-//    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-//        ObjectOutputStream oos = new ObjectOutputStream(baos);) {
-//      oos.writeObject(msg);
-//      return baos.toByteArray();
-//    }
     try {
-      return SERIALIZER.serialize(msg);
+      return DEFAULT_SERIALIZER.serialize(msg);
     } catch (Exception e) {
       e.printStackTrace();
       throw e;
@@ -78,12 +140,82 @@ public final class SerializerUtils {
    * @throws Exception any Exception while reading
    */
   public static <T> T fromBytes(byte[] bytes, Class<T> type) throws Exception {
-//    try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-//        ObjectInputStream ois = new ObjectInputStream(bais);) {
-//      return (InstantMessage) ois.readObject();
-//    }
     try {
-      return (T) SERIALIZER.deserialize(bytes, type);
+      return DEFAULT_SERIALIZER.deserialize(bytes, type);
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw e;
+    }
+  }
+
+  /**
+   * To the buffer
+   *
+   * @param msg <code>InstantMessage</code>
+   * @param out the buffer to write
+   * @throws Exception any Exception while writing
+   */
+  public static <T> void toByteBuf(T msg, ByteBuf out) throws Exception {
+    toByteBuf((byte) 0, msg, out);
+  }
+
+  /**
+   * To the buffer
+   *
+   * @param serializerId the id of <code>Serializer</code>
+   * @param msg          <code>InstantMessage</code>
+   * @param out          the buffer to write
+   * @throws Exception any Exception while writing
+   */
+  public static <T> void toByteBuf(byte serializerId, T msg, ByteBuf out) throws Exception {
+    try {
+      getSerializer(serializerId).serialize(msg, out);
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw e;
+    }
+  }
+
+  /**
+   * To the stream
+   *
+   * @param serializerId the id of <code>Serializer</code>
+   * @param msg          <code>InstantMessage</code>
+   * @param out          the stream to write
+   * @throws Exception any Exception while writing
+   */
+  public static <T> void toStream(byte serializerId, T msg, OutputStream out) throws Exception {
+    try {
+      getSerializer(serializerId).serialize(msg, out);
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw e;
+    }
+  }
+
+  /**
+   * From the buffer
+   *
+   * @param in the buffer to read
+   * @return <code>InstantMessage</code>
+   * @throws Exception any Exception while reading
+   */
+  public static <T> T fromByteBuf(ByteBuf in, Class<T> type) throws Exception {
+    return fromByteBuf((byte) 0, in, type);
+  }
+
+  /**
+   * From the buffer
+   *
+   * @param serializerId the id of <code>Serializer</code>
+   * @param in           the buffer to read
+   * @return <code>InstantMessage</code>
+   * @throws Exception any Exception while reading
+   */
+  public static <T> T fromByteBuf(byte serializerId, ByteBuf in, Class<T> type)
+      throws Exception {
+    try {
+      return getSerializer(serializerId).deserialize(in, type);
     } catch (Exception e) {
       e.printStackTrace();
       throw e;
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.serializer.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import java.io.OutputStream;
+import org.nustaq.serialization.FSTConfiguration;
+import xyz.flysium.photon.rpc.remoting.serializer.Serializer;
+
+/**
+ * FST Serializer.
+ * <p>
+ * On JDK 16+ FST needs <code>--add-opens java.base/java.lang=ALL-UNNAMED</code> (and friends).
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class FSTSerializer implements Serializer {
+
+  public static final byte ID = 4;
+
+  /**
+   * lazy, so that registering FST does not fail on the JDK where it can not initialize
+   */
+  private static class ConfigurationHolder {
+
+    private static final FSTConfiguration CONFIGURATION = FSTConfiguration
+        .createDefaultConfiguration();
+
+    static {
+      // the protocol classes are not java.io.Serializable
+      CONFIGURATION.setForceSerializable(true);
+    }
+  }
+
+  @Override
+  public String name() {
+    return "FST";
+  }
+
+  @Override
+  public byte id() {
+    return ID;
+  }
+
+  @Override
+  public <T> byte[] serialize(T object) throws Exception {
+    return ConfigurationHolder.CONFIGURATION.asByteArray(object);
+  }
+
+  @Override
+  public <T> T deserialize(byte[] data, Class<T> type) throws Exception {
+    return type.cast(ConfigurationHolder.CONFIGURATION.asObject(data));
+  }
+
+  @Override
+  public <T> void serialize(T object, ByteBuf out) throws Exception {
+    serialize(object, new ByteBufOutputStream(out));
+  }
+
+  @Override
+  public <T> void serialize(T object, OutputStream out) throws Exception {
+    ConfigurationHolder.CONFIGURATION.encodeToStream(out, object);
+  }
+
+  @Override
+  public <T> T deserialize(ByteBuf in, Class<T> type) throws Exception {
+    return type.cast(ConfigurationHolder.CONFIGURATION.decodeFromStream(new ByteBufInputStream(in)));
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.serializer.binary;
+
+import com.caucho.hessian.io.Hessian2Input;
+import com.caucho.hessian.io.Hessian2Output;
+import com.caucho.hessian.io.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import xyz.flysium.photon.rpc.remoting.serializer.Serializer;
+
+/**
+ * Hessian Serializer.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class HessianSerializer implements Serializer {
+
+  public static final byte ID = 3;
+
+  private static final SerializerFactory SERIALIZER_FACTORY = new SerializerFactory();
+
+  static {
+    // the protocol classes are not java.io.Serializable
+    SERIALIZER_FACTORY.setAllowNonSerializable(true);
+  }
+
+  @Override
+  public String name() {
+    return "Hessian";
+  }
+
+  @Override
+  public byte id() {
+    return ID;
+  }
+
+  @Override
+  public <T> byte[] serialize(T object) throws Exception {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+    write(object, bos);
+    return bos.toByteArray();
+  }
+
+  @Override
+  public <T> T deserialize(byte[] data, Class<T> type) throws Exception {
+    return read(new ByteArrayInputStream(data), type);
+  }
+
+  @Override
+  public <T> void serialize(T object, ByteBuf out) throws Exception {
+    write(object, new ByteBufOutputStream(out));
+  }
+
+  @Override
+  public <T> void serialize(T object, OutputStream out) throws Exception {
+    write(object, out);
+  }
+
+  @Override
+  public <T> T deserialize(ByteBuf in, Class<T> type) throws Exception {
+    return read(new ByteBufInputStream(in), type);
+  }
+
+  private <T> void write(T object, OutputStream os) throws Exception {
+    Hessian2Output output = new Hessian2Output(os);
+    output.setSerializerFactory(SERIALIZER_FACTORY);
+    output.writeObject(object);
+    output.flush();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T read(InputStream is, Class<T> type) throws Exception {
+    Hessian2Input input = new Hessian2Input(is);
+    input.setSerializerFactory(SERIALIZER_FACTORY);
+    return (T) input.readObject(type);
+  }
+
+}
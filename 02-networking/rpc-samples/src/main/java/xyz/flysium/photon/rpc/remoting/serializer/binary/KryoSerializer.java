@@ -27,75 +27,139 @@ package xyz.flysium.photon.rpc.remoting.serializer.binary;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import org.objenesis.strategy.StdInstantiatorStrategy;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchRequest;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchResponse;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
 import xyz.flysium.photon.rpc.remoting.serializer.Serializer;
 
 /**
  * Kryo Serializer.
+ * <p>
+ * The <code>Kryo</code>, <code>Output</code> and <code>Input</code> instances are thread-local and
+ * reused, and the protocol classes are registered, so only the class id is written for them.
  *
  * @author Sven Augustus
  * @version 1.0
  */
 public class KryoSerializer implements Serializer {
 
-  //  private final Kryo kryo = new Kryo();
-//
-//  {
-//    kryo.setReferences(false);
-//    kryo.setRegistrationRequired(true);
-//  }
+  public static final byte ID = 1;
+
   private static final ThreadLocal<Kryo> THREAD_LOCAL = new ThreadLocal<Kryo>() {
     @Override
     protected Kryo initialValue() {
       Kryo kryo = new Kryo();
       kryo.setInstantiatorStrategy(
           new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+      // the registration order is the wire id, append only
+      kryo.register(RpcRequest.class);
+      kryo.register(RpcResponse.class);
+      kryo.register(Object[].class);
+      kryo.register(String[].class);
+      kryo.register(ArrayList.class);
+      kryo.register(LinkedList.class);
+      kryo.register(HashMap.class);
+      kryo.register(LinkedHashMap.class);
+      kryo.register(RpcBatchRequest.class);
+      kryo.register(RpcBatchResponse.class);
       return kryo;
     }
   };
 
-//  private final byte[] buffer = new byte[512];
-//  private final Output output = new Output(buffer, -1);
-//  private final Input input = new Input(buffer);
-//  public KryoSerializer(Class... types) {
-//    if (types != null) {
-//      for (Class type : types) {
-//        kryo.register(type);
-//      }
-//    }
-//  }
+  /**
+   * growable scratch buffer for byte array, flushes to the stream when set
+   */
+  private static final ThreadLocal<Output> OUTPUT = ThreadLocal
+      .withInitial(() -> new Output(4096, -1));
+  /**
+   * buffer to read a non-heap {@link ByteBuf} through its stream
+   */
+  private static final ThreadLocal<Input> STREAM_INPUT = ThreadLocal
+      .withInitial(() -> new Input(4096));
+  private static final byte[] EMPTY_BUFFER = new byte[0];
+  /**
+   * wrapper to read a byte array in place, reset to empty after use
+   */
+  private static final ThreadLocal<Input> ARRAY_INPUT = ThreadLocal.withInitial(Input::new);
 
   @Override
   public String name() {
     return "Kryo";
   }
 
+  @Override
+  public byte id() {
+    return ID;
+  }
+
   @Override
   public <T> byte[] serialize(T object) throws Exception {
-    // reset
-//    output.setBuffer(buffer, -1);
-//    kryo.writeObject(output, object);
-//    return output.toBytes();
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        Output output = new Output(bos)) {
+    Output output = OUTPUT.get();
+    output.clear();
+    THREAD_LOCAL.get().writeObject(output, object);
+    return output.toBytes();
+  }
 
-      Kryo kryo = THREAD_LOCAL.get();
-      kryo.writeObject(output, object);
-      return output.toBytes();
+  @Override
+  public <T> T deserialize(byte[] data, Class<T> type) throws Exception {
+    Input input = ARRAY_INPUT.get();
+    input.setBuffer(data);
+    try {
+      return THREAD_LOCAL.get().readObject(input, type);
+    } finally {
+      input.setBuffer(EMPTY_BUFFER, 0, 0);
     }
   }
 
   @Override
-  public <T> T deserialize(byte[] data, Class<T> type) throws Exception {
-//    input.setBuffer(data);
-//    return kryo.readObject(input, type);
-    try (ByteArrayInputStream bis = new ByteArrayInputStream(data);
-        Input input = new Input(bis)) {
+  public <T> void serialize(T object, ByteBuf out) throws Exception {
+    serialize(object, new ByteBufOutputStream(out));
+  }
 
-      Kryo kryo = THREAD_LOCAL.get();
+  @Override
+  public <T> void serialize(T object, OutputStream out) throws Exception {
+    Output output = OUTPUT.get();
+    output.setOutputStream(out);
+    try {
+      THREAD_LOCAL.get().writeObject(output, object);
+      output.flush();
+    } finally {
+      output.setOutputStream(null);
+    }
+  }
+
+  @Override
+  public <T> T deserialize(ByteBuf in, Class<T> type) throws Exception {
+    Kryo kryo = THREAD_LOCAL.get();
+    if (in.hasArray()) {
+      // read the backing array in place
+      int offset = in.arrayOffset() + in.readerIndex();
+      Input input = ARRAY_INPUT.get();
+      input.setBuffer(in.array(), offset, in.readableBytes());
+      try {
+        T object = kryo.readObject(input, type);
+        in.skipBytes(input.position() - offset);
+        return object;
+      } finally {
+        input.setBuffer(EMPTY_BUFFER, 0, 0);
+      }
+    }
+    Input input = STREAM_INPUT.get();
+    input.setInputStream(new ByteBufInputStream(in));
+    try {
       return kryo.readObject(input, type);
+    } finally {
+      input.setInputStream(null);
     }
   }
 
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.serializer.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+import java.io.OutputStream;
+import xyz.flysium.photon.rpc.remoting.serializer.Serializer;
+
+/**
+ * Protostuff Serializer.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class ProtostuffSerializer implements Serializer {
+
+  public static final byte ID = 2;
+
+  private static final ThreadLocal<LinkedBuffer> BUFFER = ThreadLocal
+      .withInitial(() -> LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+
+  @Override
+  public String name() {
+    return "Protostuff";
+  }
+
+  @Override
+  public byte id() {
+    return ID;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> byte[] serialize(T object) throws Exception {
+    Schema<T> schema = RuntimeSchema.getSchema((Class<T>) object.getClass());
+    LinkedBuffer buffer = BUFFER.get();
+    try {
+      return ProtostuffIOUtil.toByteArray(object, schema, buffer);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public <T> T deserialize(byte[] data, Class<T> type) throws Exception {
+    Schema<T> schema = RuntimeSchema.getSchema(type);
+    T object = schema.newMessage();
+    ProtostuffIOUtil.mergeFrom(data, object, schema);
+    return object;
+  }
+
+  @Override
+  public <T> void serialize(T object, ByteBuf out) throws Exception {
+    serialize(object, new ByteBufOutputStream(out));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> void serialize(T object, OutputStream out) throws Exception {
+    Schema<T> schema = RuntimeSchema.getSchema((Class<T>) object.getClass());
+    LinkedBuffer buffer = BUFFER.get();
+    try {
+      ProtostuffIOUtil.writeTo(out, object, schema, buffer);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public <T> T deserialize(ByteBuf in, Class<T> type) throws Exception {
+    Schema<T> schema = RuntimeSchema.getSchema(type);
+    T object = schema.newMessage();
+    if (in.hasArray()) {
+      ProtostuffIOUtil.mergeFrom(in.array(), in.arrayOffset() + in.readerIndex(),
+          in.readableBytes(), object, schema);
+      in.skipBytes(in.readableBytes());
+      return object;
+    }
+    ProtostuffIOUtil.mergeFrom(new ByteBufInputStream(in), object, schema);
+    return object;
+  }
+
+}
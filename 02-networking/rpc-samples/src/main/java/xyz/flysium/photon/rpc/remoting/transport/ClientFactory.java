@@ -29,7 +29,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ThreadLocalRandom;
 import xyz.flysium.photon.rpc.Constant;
 
 /**
@@ -40,7 +39,6 @@ public class ClientFactory {
 
   private final int poolSize;
   private final Map<String, ClientPool> pools = new ConcurrentHashMap<>();
-  private final ThreadLocalRandom random = ThreadLocalRandom.current();
 
   public static ClientFactory getFactory() {
     return ClientFactoryHolder.INSTANCE;
@@ -50,23 +48,17 @@ public class ClientFactory {
     this.poolSize = poolSize;
   }
 
-  public synchronized NettyClient getClient(InetSocketAddress inetSocketAddress)
+  /**
+   * lock-free unless the pool of the provider or the connection is created
+   */
+  public NettyClient getClient(InetSocketAddress inetSocketAddress)
       throws InterruptedException, ExecutionException {
     String key = keyFor(inetSocketAddress);
     ClientPool clientPool = pools.get(key);
     if (clientPool == null) {
-      synchronized (this) {
-        clientPool = pools.get(key);
-        if (clientPool == null) {
-          clientPool = new ClientPool(poolSize);
-          pools.putIfAbsent(key, clientPool);
-        }
-      }
+      clientPool = pools.computeIfAbsent(key, k -> new ClientPool(poolSize));
     }
-
-    int i = random.nextInt(poolSize);
-
-    return clientPool.getOrCreateClient(i, inetSocketAddress);
+    return clientPool.getClient(inetSocketAddress);
   }
 
   public void shutdown() {
@@ -76,7 +68,8 @@ public class ClientFactory {
   }
 
   private String keyFor(InetSocketAddress inetSocketAddress) {
-    return inetSocketAddress.getHostName() + ":" + inetSocketAddress.getPort();
+    // not getHostName(), which may look up the name of the address on every call
+    return inetSocketAddress.getHostString() + ":" + inetSocketAddress.getPort();
   }
 
   private static class ClientFactoryHolder {
@@ -27,6 +27,9 @@ package xyz.flysium.photon.rpc.remoting.transport;
 import java.net.InetSocketAddress;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author zeno (Sven Augustus)
@@ -34,35 +37,89 @@ import java.util.concurrent.ExecutionException;
  */
 public class ClientPool {
 
-  private final NettyClient[] clients;
-  private final Object[] locks;
+  /**
+   * published only once connected, so the lookup needs no lock
+   */
+  private final AtomicReferenceArray<NettyClient> clients;
+  /**
+   * not synchronized, a virtual thread waiting for the connection must not pin its carrier
+   */
+  private final ReentrantLock[] locks;
 
   public ClientPool(int poolSize) {
-    clients = new NettyClient[poolSize];
-    locks = new Object[poolSize];
+    clients = new AtomicReferenceArray<>(poolSize);
+    locks = new ReentrantLock[poolSize];
     for (int i = 0; i < locks.length; i++) {
-      locks[i] = new Object();
+      locks[i] = new ReentrantLock();
     }
   }
 
+  /**
+   * Get the connection with fewer in-flight calls of two random ones
+   */
+  public NettyClient getClient(InetSocketAddress inetSocketAddress)
+      throws ExecutionException, InterruptedException {
+    int size = clients.length();
+    if (size == 1) {
+      return getOrCreateClient(0, inetSocketAddress);
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int a = random.nextInt(size);
+    int b = random.nextInt(size - 1);
+    if (b >= a) {
+      b++;
+    }
+    NettyClient ca = clients.get(a);
+    NettyClient cb = clients.get(b);
+    // an absent connection has no in-flight call, it is created
+    int activeA = ca == null ? 0 : ca.getActive();
+    int activeB = cb == null ? 0 : cb.getActive();
+    return getOrCreateClient(activeA <= activeB ? a : b, inetSocketAddress);
+  }
+
   public NettyClient getOrCreateClient(int index, InetSocketAddress inetSocketAddress)
       throws ExecutionException, InterruptedException {
-    if (clients[index] != null && clients[index].isActive()) {
-      return clients[index];
+    NettyClient client = clients.get(index);
+    if (client != null && client.isActive()) {
+      return client;
     }
-    synchronized (locks[index]) {
-      clients[index] = new NettyClient(inetSocketAddress.getHostName(),
-          inetSocketAddress.getPort());
-      CompletableFuture<Void> future = clients[index].start();
-      future.get();
-      return clients[index];
+    locks[index].lock();
+    try {
+      // connected by another thread while waiting for the lock
+      client = clients.get(index);
+      if (client != null && client.isActive()) {
+        return client;
+      }
+      if (client != null) {
+        // closed by the peer
+        client.stop();
+      }
+      client = new NettyClient(inetSocketAddress.getHostString(), inetSocketAddress.getPort());
+      CompletableFuture<Void> future = client.start();
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        client.stop();
+        clients.set(index, null);
+        throw e;
+      }
+      clients.set(index, client);
+      return client;
+    } finally {
+      locks[index].unlock();
     }
   }
 
   public void shutdownAll() {
-    for (int i = 0; i < clients.length; i++) {
-      synchronized (locks[i]) {
-        clients[i].stop();
+    for (int i = 0; i < clients.length(); i++) {
+      locks[i].lock();
+      try {
+        NettyClient client = clients.getAndSet(i, null);
+        if (client != null) {
+          client.stop();
+        }
+      } finally {
+        locks[i].unlock();
       }
     }
   }
@@ -35,11 +35,24 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.nio.channels.ClosedChannelException;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.rpc.Constant;
+import xyz.flysium.photon.rpc.cluster.ProviderStats;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchRequest;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchResponse;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
@@ -53,16 +66,38 @@ import xyz.flysium.photon.rpc.remoting.serializer.SerializerUtils;
  */
 public class NettyClient {
 
+  /**
+   * expires the calls of all clients, a timeout is O(1) to add and cancel whatever the number of
+   * in-flight calls
+   */
+  private static final HashedWheelTimer TIMER = new HashedWheelTimer(
+      new DefaultThreadFactory("rpc-timeout", true),
+      Constant.CONSUMER_TIMEOUT_TICK, TimeUnit.MILLISECONDS, 512);
+
   private Logger logger = LoggerFactory.getLogger(getClass());
   private final String host;
   private final int port;
-  private Channel channel = null;
+  private volatile Channel channel = null;
   private volatile boolean inited = false;
   private NioEventLoopGroup workerGroup;
+  /**
+   * in-flight requests of this connection, keyed by request id
+   */
+  private final Map<Long, CompletableFuture<RpcResponse>> futures = new ConcurrentHashMap<>();
+  /**
+   * in-flight batches of this connection, keyed by batch id
+   */
+  private final Map<Long, CompletableFuture<RpcBatchResponse>> batches = new ConcurrentHashMap<>();
+  /**
+   * in-flight calls of this connection
+   */
+  private final AtomicInteger active = new AtomicInteger();
+  private final ProviderStats stats;
 
   public NettyClient(String host, int port) {
     this.host = host;
     this.port = port;
+    this.stats = ProviderStats.of(host, port);
   }
 
   public CompletableFuture<Void> start() throws InterruptedException {
@@ -93,8 +128,14 @@ public class NettyClient {
           @Override
           protected void initChannel(SocketChannel ch) throws Exception {
 
-            ch.pipeline().addLast(new RpcMessageDecoder())
+            // coalesce the flushes of pipelined requests into fewer syscalls
+            ch.pipeline().addLast(new FlushConsolidationHandler(
+                Constant.CONSUMER_EXPLICIT_FLUSH_AFTER_FLUSHES, true))
+                .addLast(new RpcMessageDecoder(Constant.MAX_FRAME_LENGTH))
+                .addLast(new RpcMessageAggregator(Constant.MAX_CONTENT_LENGTH,
+                    Constant.MAX_PENDING_CONTENT_LENGTH))
                 .addLast(new RpcMessageEncoder())
+                .addLast(new RpcChunkedWriteHandler(Constant.CHUNK_SIZE))
                 .addLast(new SimpleChannelInboundHandler<RpcMessage>() {
 
                   @Override
@@ -102,6 +143,12 @@ public class NettyClient {
                       throws Exception {
                     receive(ctx, msg);
                   }
+
+                  @Override
+                  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+                    failAll(new ClosedChannelException());
+                    super.channelInactive(ctx);
+                  }
                 });
           }
         }).connect(host, port)
@@ -111,6 +158,8 @@ public class NettyClient {
             if (future.isSuccess()) {
               channel = future.channel();
               completableFuture.complete(null);
+            } else {
+              completableFuture.completeExceptionally(future.cause());
             }
           }
         });
@@ -118,26 +167,101 @@ public class NettyClient {
   }
 
   public void stop() {
-    channel.close();
-    workerGroup.shutdownGracefully();
+    if (channel != null) {
+      channel.close();
+    }
+    if (workerGroup != null) {
+      workerGroup.shutdownGracefully();
+    }
   }
 
   public boolean isActive() {
     return channel != null && channel.isActive();
   }
 
-  private static final Map<Long, CompletableFuture<RpcResponse>> FUTURES = new ConcurrentHashMap<>();
+  /**
+   * @return the number of in-flight calls of this connection
+   */
+  public int getActive() {
+    return active.get();
+  }
 
   public CompletableFuture<RpcResponse> send(RpcRequest req) throws Exception {
-    final long mId = req.getId();
-    CompletableFuture<RpcResponse> future = new CompletableFuture<>();
-    FUTURES.putIfAbsent(mId, future);
+    byte serializerId = SerializerUtils.getSerializer(req.getService()).id();
+    return send(RpcMessage.TYPE_REQUEST, req.getId(), serializerId, req, timeoutOf(req),
+        futures);
+  }
+
+  /**
+   * send the requests in one frame, encoded by the serializer of the service of the first one
+   */
+  public CompletableFuture<RpcBatchResponse> sendBatch(RpcBatchRequest batch) throws Exception {
+    byte serializerId = batch.size() == 0 ? 0
+        : SerializerUtils.getSerializer(batch.getRequests().get(0).getService()).id();
+    // the batch waits as long as its most patient call
+    long timeout = 0;
+    for (RpcRequest req : batch.getRequests()) {
+      timeout = Math.max(timeout, timeoutOf(req));
+    }
+    return send(RpcMessage.TYPE_BATCH_REQUEST, batch.getId(), serializerId, batch, timeout,
+        batches);
+  }
+
+  private static long timeoutOf(RpcRequest req) {
+    return req.getTimeout() > 0 ? req.getTimeout() : Constant.CONSUMER_TIMEOUT;
+  }
+
+  private <R> CompletableFuture<R> send(short kind, long mId, byte serializerId, Object payload,
+      long timeout, Map<Long, CompletableFuture<R>> inflight) throws Exception {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    inflight.putIfAbsent(mId, future);
+    // the response, the failure of the write or the close of the channel cancels the timeout
+    Timeout t = TIMER.newTimeout(new TimerTask() {
+      @Override
+      public void run(Timeout handle) throws Exception {
+        CompletableFuture<R> expired = inflight.remove(mId);
+        if (expired != null) {
+          expired.completeExceptionally(new TimeoutException(
+              "call " + mId + " to " + host + ":" + port + " timed out"));
+        }
+      }
+    }, timeout, TimeUnit.MILLISECONDS);
+    // feed the load balancers with the in-flight calls and the latency, failures included
+    final long begin = stats.begin();
+    active.incrementAndGet();
+    future.whenComplete((r, e) -> {
+      t.cancel();
+      active.decrementAndGet();
+      stats.end(begin);
+    });
     try {
-      byte[] body = SerializerUtils.toBytes(req);
-      RpcMessage msg = new RpcMessage((short) 1, mId, body);
-      channel.writeAndFlush(msg).sync();
+      // pipelining: do not wait for the write, fail the call only if the write fails
+      ChannelFutureListener listener = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture f) throws Exception {
+          if (!f.isSuccess()) {
+            CompletableFuture<R> failed = inflight.remove(mId);
+            if (failed != null) {
+              failed.completeExceptionally(f.cause());
+            }
+          }
+        }
+      };
+      // a large body is written by chunks while it is serialized, waiting for a slow server
+      RpcChunkedOutputStream out = new RpcChunkedOutputStream(channel,
+          RpcMessage.type(kind, serializerId), mId, Constant.CHUNK_SIZE, Constant.CHUNK_WINDOW,
+          timeout, listener);
+      try {
+        SerializerUtils.toStream(serializerId, payload, out);
+        out.close();
+      } catch (Exception e) {
+        out.abort();
+        throw e;
+      }
     } catch (Exception e) {
-      FUTURES.remove(mId);
+      inflight.remove(mId);
+      // releases the timeout and the counters
+      future.completeExceptionally(e);
       throw e;
     }
     return future;
@@ -145,13 +269,70 @@ public class NettyClient {
 
   private void receive(ChannelHandlerContext ctx, RpcMessage msg) throws Exception {
     long mId = msg.getId();
-    byte[] body = msg.getBody();
-    RpcResponse resp = SerializerUtils.fromBytes(body, RpcResponse.class);
-    CompletableFuture<RpcResponse> future = FUTURES.remove(mId);
+    if (msg.decoderResult().isFailure()) {
+      // e.g. too long, the body has been discarded
+      if (msg.getKind() == RpcMessage.TYPE_BATCH_RESPONSE) {
+        fail(batches, mId, msg.decoderResult().cause());
+      } else {
+        fail(futures, mId, msg.decoderResult().cause());
+      }
+      return;
+    }
+    if (msg.getKind() == RpcMessage.TYPE_BATCH_RESPONSE) {
+      RpcBatchResponse resp;
+      try {
+        resp = SerializerUtils
+            .fromByteBuf(msg.getSerializerId(), msg.content(), RpcBatchResponse.class);
+      } catch (Exception e) {
+        // e.g. the chunks of the response were aborted
+        fail(batches, mId, e);
+        return;
+      }
+      complete(batches, mId, resp);
+      return;
+    }
+    RpcResponse resp;
+    try {
+      resp = SerializerUtils.fromByteBuf(msg.getSerializerId(), msg.content(), RpcResponse.class);
+    } catch (Exception e) {
+      fail(futures, mId, e);
+      return;
+    }
+    complete(futures, mId, resp);
+  }
+
+  private <R> void complete(Map<Long, CompletableFuture<R>> inflight, long mId, R resp) {
+    CompletableFuture<R> future = inflight.remove(mId);
     if (future == null) {
-      logger.error("err ---->" + mId);
+      // expired, or failed when the write failed
+      logger.warn("no call waits for the response " + mId);
+      return;
     }
     future.complete(resp);
   }
 
+  private <R> void fail(Map<Long, CompletableFuture<R>> inflight, long mId, Throwable cause) {
+    CompletableFuture<R> future = inflight.remove(mId);
+    if (future != null) {
+      future.completeExceptionally(cause);
+    }
+  }
+
+  /**
+   * fail the in-flight calls of the connection, they will never be answered
+   */
+  private void failAll(Throwable cause) {
+    failAll(futures, cause);
+    failAll(batches, cause);
+  }
+
+  private <R> void failAll(Map<Long, CompletableFuture<R>> inflight, Throwable cause) {
+    for (Long mId : inflight.keySet()) {
+      CompletableFuture<R> future = inflight.remove(mId);
+      if (future != null) {
+        future.completeExceptionally(cause);
+      }
+    }
+  }
+
 }
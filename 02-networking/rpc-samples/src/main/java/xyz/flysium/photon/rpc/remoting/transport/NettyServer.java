@@ -35,10 +35,22 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.rpc.Constant;
 import xyz.flysium.photon.rpc.container.RpcContainer;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchRequest;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcBatchResponse;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
@@ -96,8 +108,14 @@ public class NettyServer {
           @Override
           protected void initChannel(SocketChannel ch) throws Exception {
 
-            ch.pipeline().addLast(new RpcMessageDecoder())
+            // coalesce the flushes of the responses written by the workers
+            ch.pipeline().addLast(new FlushConsolidationHandler(
+                Constant.PROVIDER_EXPLICIT_FLUSH_AFTER_FLUSHES, true))
+                .addLast(new RpcMessageDecoder(Constant.MAX_FRAME_LENGTH))
+                .addLast(new RpcMessageAggregator(Constant.MAX_CONTENT_LENGTH,
+                    Constant.MAX_PENDING_CONTENT_LENGTH))
                 .addLast(new RpcMessageEncoder())
+                .addLast(new RpcChunkedWriteHandler(Constant.CHUNK_SIZE))
                 .addLast(new SimpleChannelInboundHandler<RpcMessage>() {
 
                   @Override
@@ -126,34 +144,164 @@ public class NettyServer {
     workerGroup.shutdownGracefully();
   }
 
-  private void send(Channel channel, RpcResponse resp)
+  private void send(Channel channel, short kind, long mId, byte serializerId, Object resp)
       throws Exception {
-    long mId = resp.getId();
-    byte[] body = SerializerUtils.toBytes(resp);
-    RpcMessage msg = new RpcMessage((short) 2, mId, body);
-    channel.writeAndFlush(msg).sync();
+    // never wait for the write of a small response, a slow peer must not pin the worker
+    ChannelFutureListener listener = new ChannelFutureListener() {
+      @Override
+      public void operationComplete(ChannelFuture f) throws Exception {
+        if (!f.isSuccess()) {
+          logger.error("write response " + mId + " failed", f.cause());
+        }
+      }
+    };
+    // a large one is written by chunks while it is serialized, the worker waits for a slow peer
+    RpcChunkedOutputStream out = new RpcChunkedOutputStream(channel,
+        RpcMessage.type(kind, serializerId), mId, Constant.CHUNK_SIZE, Constant.CHUNK_WINDOW,
+        Constant.CHUNK_WRITE_TIMEOUT, listener);
+    try {
+      SerializerUtils.toStream(serializerId, resp, out);
+      out.close();
+    } catch (Exception e) {
+      out.abort();
+      throw e;
+    }
   }
 
+  /**
+   * decode the request on the event loop, then invoke it by the dispatch mode of the service
+   */
   private void receive(ChannelHandlerContext ctx, RpcMessage msg) {
-    container.getExecutor().submit(() -> {
-      long mId = msg.getId();
-      RpcResponse resp = null;
+    final Channel ch = ctx.channel();
+    final long mId = msg.getId();
+    final boolean batch = msg.getKind() == RpcMessage.TYPE_BATCH_REQUEST;
+    // answer with the serializer of the request, or the default one if it is unknown here
+    byte id = msg.getSerializerId();
+    try {
+      SerializerUtils.getSerializer(id);
+    } catch (IllegalArgumentException e) {
+      id = 0;
+      replyError(ch, batch, id, mId, e);
+      return;
+    }
+    final byte serializerId = id;
+    if (msg.decoderResult().isFailure()) {
+      // e.g. too long, the body has been discarded
+      replyError(ch, batch, serializerId, mId, new DecoderException(msg.decoderResult().cause()));
+      return;
+    }
+    try {
+      if (batch) {
+        receiveBatch(ch, serializerId, SerializerUtils
+            .fromByteBuf(serializerId, msg.content(), RpcBatchRequest.class));
+      } else {
+        receive(ch, serializerId, SerializerUtils
+            .fromByteBuf(serializerId, msg.content(), RpcRequest.class));
+      }
+    } catch (Exception e) {
+      replyError(ch, batch, serializerId, mId, e);
+    }
+  }
+
+  private void receive(Channel ch, byte serializerId, RpcRequest req) {
+    final long mId = req.getId();
+    final long receivedAt = System.nanoTime();
+    Executor executor = container.getExecutor(req.getService());
+    try {
+      executor.execute(() -> {
+        // the caller has given up while it was queued, nobody waits for the response
+        if (!expired(req, receivedAt)) {
+          reply(ch, serializerId, invoke(req));
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      logger.warn("overloaded, reject request " + mId + " of " + req.getService());
+      reply(ch, serializerId, RpcResponse.overloaded(mId));
+    }
+  }
+
+  /**
+   * invoke each request by the dispatch mode of its service, and answer once all of them are done
+   */
+  private void receiveBatch(Channel ch, byte serializerId, RpcBatchRequest batch) {
+    final long mId = batch.getId();
+    final int size = batch.size();
+    final RpcResponse[] responses = new RpcResponse[size];
+    final AtomicInteger remaining = new AtomicInteger(size);
+    final long receivedAt = System.nanoTime();
+    if (size == 0) {
+      replyBatch(ch, serializerId, mId, responses);
+      return;
+    }
+    for (int i = 0; i < size; i++) {
+      final int index = i;
+      final RpcRequest req = batch.getRequests().get(i);
+      Executor executor = container.getExecutor(req.getService());
       try {
-        byte[] body = msg.getBody();
-        RpcRequest req = SerializerUtils.fromBytes(body, RpcRequest.class);
-
-        resp = container.getInvoker(req.getService()).invoke(req);
-      } catch (Exception e) {
-        resp = new RpcResponse(mId, e);
-      } finally {
-        try {
-          logger.info("resp:----->" + resp.getId());
-          send(ctx.channel(), resp);
-        } catch (Exception e) {
-          e.printStackTrace();
+        executor.execute(() -> {
+          if (expired(req, receivedAt)) {
+            responses[index] = new RpcResponse(req.getId(),
+                new TimeoutException("call " + req.getId() + " expired before it was invoked"));
+          } else {
+            responses[index] = invoke(req);
+          }
+          if (remaining.decrementAndGet() == 0) {
+            replyBatch(ch, serializerId, mId, responses);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        logger.warn("overloaded, reject request " + req.getId() + " of " + req.getService());
+        responses[index] = RpcResponse.overloaded(req.getId());
+        if (remaining.decrementAndGet() == 0) {
+          replyBatch(ch, serializerId, mId, responses);
         }
       }
-    });
+    }
+  }
+
+  private static boolean expired(RpcRequest req, long receivedAt) {
+    return req.getTimeout() > 0
+        && System.nanoTime() - receivedAt > TimeUnit.MILLISECONDS.toNanos(req.getTimeout());
+  }
+
+  private RpcResponse invoke(RpcRequest req) {
+    try {
+      return container.getInvoker(req.getService()).invoke(req);
+    } catch (Exception e) {
+      return new RpcResponse(req.getId(), e);
+    }
+  }
+
+  private void replyError(Channel ch, boolean batch, byte serializerId, long mId, Exception e) {
+    if (batch) {
+      // the requests are unknown, so the batch fails as a whole
+      replyBatch(ch, serializerId, new RpcBatchResponse(mId, e));
+    } else {
+      reply(ch, serializerId, new RpcResponse(mId, e));
+    }
+  }
+
+  private void reply(Channel ch, byte serializerId, RpcResponse resp) {
+    try {
+      logger.info("resp:----->" + resp.getId());
+      send(ch, RpcMessage.TYPE_RESPONSE, resp.getId(), serializerId, resp);
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void replyBatch(Channel ch, byte serializerId, long mId, RpcResponse[] responses) {
+    replyBatch(ch, serializerId,
+        new RpcBatchResponse(mId, new ArrayList<>(Arrays.asList(responses))));
+  }
+
+  private void replyBatch(Channel ch, byte serializerId, RpcBatchResponse resp) {
+    try {
+      logger.info("batch resp:----->" + resp.getId());
+      send(ch, RpcMessage.TYPE_BATCH_RESPONSE, resp.getId(), serializerId, resp);
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
   }
 
 }
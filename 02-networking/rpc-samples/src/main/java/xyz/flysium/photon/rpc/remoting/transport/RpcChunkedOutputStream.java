@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
+
+/**
+ * Serialize the body of a message straight into the chunk frames of the channel.
+ * <p>
+ * Only one chunk is buffered, not the whole body: a full chunk is written as soon as a byte
+ * follows it, and the last one on {@link #close()}. A body no longer than the chunk size is
+ * written as one plain message on {@link #close()}.
+ * <p>
+ * Off the event loop, at most <code>window</code> chunks are being written, the writer waits for
+ * the earliest one before the next, so a slow peer blocks the writer instead of growing the
+ * outbound buffer. On the event loop it never waits.
+ * <p>
+ * If the serializer fails after the first chunk, {@link #abort()} ends the message by an empty
+ * last chunk, so the peer fails to decode that message only.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class RpcChunkedOutputStream extends OutputStream {
+
+  private final Channel channel;
+  private final short type;
+  private final long mId;
+  private final int chunkSize;
+  private final long writeTimeout;
+  private final ChannelFutureListener listener;
+  /**
+   * the futures of the last written chunks, a ring indexed by the count of them
+   */
+  private final ChannelFuture[] writing;
+  private int written;
+  private ByteBuf chunk;
+  private boolean closed;
+
+  /**
+   * @param channel      the channel to write
+   * @param type         the type of the message, without the flags of chunk
+   * @param mId          the id of the message
+   * @param chunkSize    the max length of the body of a frame
+   * @param window       the max chunks being written, before the writer waits
+   * @param writeTimeout the milliseconds to wait for the earliest chunk being written
+   * @param listener     notified of the write of each frame
+   */
+  public RpcChunkedOutputStream(Channel channel, short type, long mId, int chunkSize, int window,
+      long writeTimeout, ChannelFutureListener listener) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize: " + chunkSize);
+    }
+    if (window <= 0) {
+      throw new IllegalArgumentException("window: " + window);
+    }
+    this.channel = channel;
+    this.type = type;
+    this.mId = mId;
+    this.chunkSize = chunkSize;
+    this.writeTimeout = writeTimeout;
+    this.listener = listener;
+    this.writing = new ChannelFuture[window];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureWritable();
+    chunk.writeByte(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      ensureWritable();
+      int n = Math.min(len, chunkSize - chunk.readableBytes());
+      chunk.writeBytes(b, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  private void ensureWritable() throws IOException {
+    if (closed) {
+      throw new IOException("message " + mId + " has been closed");
+    }
+    if (chunk != null && chunk.readableBytes() == chunkSize) {
+      // the body goes on, so the full chunk is not the last one
+      writeChunk(RpcMessage.FLAG_CHUNK);
+    }
+    if (chunk == null) {
+      chunk = channel.alloc().directBuffer(chunkSize, chunkSize);
+    }
+  }
+
+  private void writeChunk(int flags) throws IOException {
+    awaitWindow();
+    ByteBuf body = chunk;
+    chunk = null;
+    ChannelFuture f = channel.writeAndFlush(new RpcMessage((short) (type | flags), mId, body));
+    f.addListener(listener);
+    writing[written++ % writing.length] = f;
+  }
+
+  private void awaitWindow() throws IOException {
+    if (written < writing.length || channel.eventLoop().inEventLoop()) {
+      return;
+    }
+    ChannelFuture earliest = writing[written % writing.length];
+    try {
+      if (!earliest.await(writeTimeout, TimeUnit.MILLISECONDS)) {
+        throw new IOException(
+            "write a chunk of message " + mId + " timed out after " + writeTimeout + "ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("write a chunk of message " + mId + " interrupted");
+    }
+    if (!earliest.isSuccess()) {
+      throw new IOException("write a chunk of message " + mId + " failed", earliest.cause());
+    }
+  }
+
+  /**
+   * write the rest of the body, as the last chunk or as the whole message
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    if (written > 0) {
+      writeChunk(RpcMessage.FLAG_CHUNK | RpcMessage.FLAG_LAST_CHUNK);
+    } else {
+      ByteBuf body = chunk != null ? chunk : Unpooled.EMPTY_BUFFER;
+      chunk = null;
+      channel.writeAndFlush(new RpcMessage(type, mId, body)).addListener(listener);
+    }
+    closed = true;
+  }
+
+  /**
+   * drop the rest of the body, and end the message if its chunks have been written
+   */
+  public void abort() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (chunk != null) {
+      chunk.release();
+      chunk = null;
+    }
+    if (written > 0) {
+      channel.writeAndFlush(new RpcMessage(
+          (short) (type | RpcMessage.FLAG_CHUNK | RpcMessage.FLAG_LAST_CHUNK), mId,
+          Unpooled.EMPTY_BUFFER)).addListener(listener);
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
+
+/**
+ * Split the {@link RpcMessage} whose body is larger than the chunk size into chunk frames.
+ * <p>
+ * The chunks are retained slices of the body, and they are written only while the channel is
+ * writable, so a large payload never floods the outbound buffer of a slow peer.
+ * <p>
+ * The calls and responses are streamed into chunks by {@link RpcChunkedOutputStream} already,
+ * this keeps any message built whole within the max length of frame.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class RpcChunkedWriteHandler extends ChunkedWriteHandler {
+
+  private final int chunkSize;
+
+  public RpcChunkedWriteHandler(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize: " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+      throws Exception {
+    if (msg instanceof RpcMessage && ((RpcMessage) msg).getLength() > chunkSize) {
+      super.write(ctx, new RpcChunkedInput((RpcMessage) msg, chunkSize), promise);
+      return;
+    }
+    super.write(ctx, msg, promise);
+  }
+
+  static class RpcChunkedInput implements ChunkedInput<RpcMessage> {
+
+    private final RpcMessage msg;
+    private final ByteBuf body;
+    private final int chunkSize;
+    private final long length;
+
+    RpcChunkedInput(RpcMessage msg, int chunkSize) {
+      this.msg = msg;
+      this.body = msg.content();
+      this.chunkSize = chunkSize;
+      this.length = body.readableBytes();
+    }
+
+    @Override
+    public boolean isEndOfInput() throws Exception {
+      return !body.isReadable();
+    }
+
+    @Override
+    public void close() throws Exception {
+      msg.release();
+    }
+
+    @Deprecated
+    @Override
+    public RpcMessage readChunk(ChannelHandlerContext ctx) throws Exception {
+      return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public RpcMessage readChunk(ByteBufAllocator allocator) throws Exception {
+      if (!body.isReadable()) {
+        return null;
+      }
+      ByteBuf chunk = body.readRetainedSlice(Math.min(chunkSize, body.readableBytes()));
+      int flags = body.isReadable() ? RpcMessage.FLAG_CHUNK
+          : RpcMessage.FLAG_CHUNK | RpcMessage.FLAG_LAST_CHUNK;
+      return new RpcMessage((short) (msg.getType() | flags), msg.getId(), chunk);
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public long progress() {
+      return length - body.readableBytes();
+    }
+  }
+
+}
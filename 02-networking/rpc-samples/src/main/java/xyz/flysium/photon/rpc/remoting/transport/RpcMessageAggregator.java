@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.remoting.transport;
+
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
+
+/**
+ * Join the chunk frames of a message into one {@link RpcMessage}.
+ * <p>
+ * The chunks are composed without copying, the whole body is bounded by
+ * <code>maxContentLength</code>, and the bodies of all the partial messages of the channel by
+ * <code>maxPendingLength</code>, however many messages the peer interleaves. A message beyond
+ * either is discarded: its remaining chunks are dropped and its last chunk is passed on as an
+ * empty message whose {@link RpcMessage#decoderResult()} is a {@link TooLongFrameException}, so
+ * the handler fails that call only.
+ * <p>
+ * The reading is never paused: a complete message is decoded and released by the handler at
+ * once, only the partial ones are held, and only more reads can complete them.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class RpcMessageAggregator extends MessageToMessageDecoder<RpcMessage> {
+
+  private final int maxContentLength;
+  private final int maxPendingLength;
+  private final Map<Long, CompositeByteBuf> pending = new HashMap<>();
+  /**
+   * the length of the bodies in {@link #pending}
+   */
+  private long pendingLength;
+  /**
+   * the reasons of the messages being discarded by id, until their last chunk
+   */
+  private final Map<Long, String> discarded = new HashMap<>();
+
+  public RpcMessageAggregator(int maxContentLength, int maxPendingLength) {
+    this.maxContentLength = maxContentLength;
+    this.maxPendingLength = maxPendingLength;
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, RpcMessage msg, List<Object> out)
+      throws Exception {
+    if (!msg.isChunk()) {
+      out.add(msg.retain());
+      return;
+    }
+    long mId = msg.getId();
+    if (discarded.containsKey(mId)) {
+      if (msg.isLastChunk()) {
+        out.add(tooLong(msg, discarded.remove(mId)));
+      }
+      return;
+    }
+    CompositeByteBuf body = pending.get(mId);
+    if (body == null) {
+      body = ctx.alloc().compositeBuffer(Integer.MAX_VALUE);
+      pending.put(mId, body);
+    }
+    String reason = null;
+    if (body.readableBytes() + msg.getLength() > maxContentLength) {
+      reason = "content length of message " + mId + " exceeds " + maxContentLength;
+    } else if (pendingLength + msg.getLength() > maxPendingLength) {
+      reason = "pending content length of the channel exceeds " + maxPendingLength;
+    }
+    if (reason != null) {
+      pendingLength -= body.readableBytes();
+      pending.remove(mId).release();
+      if (msg.isLastChunk()) {
+        out.add(tooLong(msg, reason));
+      } else {
+        discarded.put(mId, reason);
+      }
+      return;
+    }
+    body.addComponent(true, msg.content().retain());
+    pendingLength += msg.getLength();
+    if (msg.isLastChunk()) {
+      pending.remove(mId);
+      pendingLength -= body.readableBytes();
+      out.add(new RpcMessage((short) (msg.getType() & ~RpcMessage.FLAG_MASK), mId, body));
+    }
+  }
+
+  private RpcMessage tooLong(RpcMessage msg, String reason) {
+    RpcMessage failed = new RpcMessage((short) (msg.getType() & ~RpcMessage.FLAG_MASK),
+        msg.getId(), (byte[]) null);
+    failed.setDecoderResult(DecoderResult.failure(new TooLongFrameException(reason)));
+    return failed;
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    releasePending();
+    super.channelInactive(ctx);
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    releasePending();
+    super.handlerRemoved(ctx);
+  }
+
+  private void releasePending() {
+    for (CompositeByteBuf body : pending.values()) {
+      body.release();
+    }
+    pending.clear();
+    pendingLength = 0;
+    discarded.clear();
+  }
+
+}
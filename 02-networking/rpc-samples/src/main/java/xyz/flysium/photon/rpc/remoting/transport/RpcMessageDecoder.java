@@ -27,8 +27,6 @@ package xyz.flysium.photon.rpc.remoting.transport;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
 
 /**
@@ -41,37 +39,26 @@ public class RpcMessageDecoder extends LengthFieldBasedFrameDecoder {
   public static final int LENGTH_FIELD_OFFSET = 10;
   public static final int LENGTH_FIELD_LENGTH = 4;
   public static final int BASE_LENGTH = LENGTH_FIELD_OFFSET + LENGTH_FIELD_LENGTH;
-  private Logger logger = LoggerFactory.getLogger(getClass());
 
-  public RpcMessageDecoder() {
-    super(4096, LENGTH_FIELD_OFFSET, LENGTH_FIELD_LENGTH);
+  public RpcMessageDecoder(int maxFrameLength) {
+    super(maxFrameLength, LENGTH_FIELD_OFFSET, LENGTH_FIELD_LENGTH);
   }
 
   @Override
   protected Object decode(ChannelHandlerContext ctx, ByteBuf buf) throws Exception {
+    // the frame is a retained slice of the cumulation, not a copy
     ByteBuf in = (ByteBuf) super.decode(ctx, buf);
     if (in == null) {
-      logger.info("------decode remaining 0----->" + in);
       return null;
     }
-//    if (in.readableBytes() <= BASE_LENGTH) {
-//      logger.info("------decode remaining 1----->" + in);
-//      return null;
-//    }
-//    in.markReaderIndex();
-    short type = in.readShort();
-    long mId = in.readLong();
-    int length = in.readInt();
-
-//    if (in.readableBytes() < length) {
-//      logger.info("------decode remaining 2----->" + in);
-//      in.resetReaderIndex();
-//      return null;
-//    }
-    byte[] body = new byte[length];
-    in.readBytes(body);
-
-    return new RpcMessage(type, mId, body);
+    try {
+      short type = in.readShort();
+      long mId = in.readLong();
+      int length = in.readInt();
+      return new RpcMessage(type, mId, in.readRetainedSlice(length));
+    } finally {
+      in.release();
+    }
   }
 
 }
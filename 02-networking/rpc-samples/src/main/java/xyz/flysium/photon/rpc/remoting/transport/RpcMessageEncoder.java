@@ -26,20 +26,30 @@ package xyz.flysium.photon.rpc.remoting.transport;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import java.util.List;
 import xyz.flysium.photon.rpc.remoting.portocol.RpcMessage;
 
 /**
+ * Write the header into a small buffer and pass the body buffer through without copying it.
+ * <p>
+ * The header and the body go down as one composite buffer: if they were two writes, a flush
+ * between them (eg. on a writability change) could let another message slip in between.
+ *
  * @author zeno (Sven Augustus)
  * @version 1.0
  */
-public class RpcMessageEncoder extends MessageToByteEncoder<RpcMessage> {
+public class RpcMessageEncoder extends MessageToMessageEncoder<RpcMessage> {
 
   @Override
-  protected void encode(ChannelHandlerContext ctx, RpcMessage msg, ByteBuf out) throws Exception {
-    out.writeShort(msg.getType());
-    out.writeLong(msg.getId());
-    out.writeInt(msg.getLength());
-    out.writeBytes(msg.getBody());
+  protected void encode(ChannelHandlerContext ctx, RpcMessage msg, List<Object> out)
+      throws Exception {
+    ByteBuf header = ctx.alloc().buffer(RpcMessageDecoder.BASE_LENGTH);
+    header.writeShort(msg.getType());
+    header.writeLong(msg.getId());
+    header.writeInt(msg.getLength());
+    // the message is released after encode, so retain the body for the socket
+    out.add(ctx.alloc().compositeBuffer(2)
+        .addComponents(true, header, msg.content().retain()));
   }
 }
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.cluster.loadbalance;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.flysium.photon.rpc.cluster.ProviderStats;
+
+/**
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class PeakEwmaLoadBalancerTest {
+
+  private static final String HOST = "127.0.0.1";
+
+  /**
+   * the statistics are global by address, every test uses its own ports
+   */
+  private static final int PORT = 39000;
+
+  @Test
+  public void coldProviderWithCallsInFlight() {
+    InetSocketAddress cold = new InetSocketAddress(HOST, PORT + 1);
+    InetSocketAddress warm = new InetSocketAddress(HOST, PORT + 2);
+    sample(warm, TimeUnit.MILLISECONDS.toNanos(5));
+    // no call has been answered yet, the first one is a probe
+    assertSelected(cold, cold, warm);
+    inFlight(cold, 50);
+    assertSelected(warm, warm, cold);
+  }
+
+  @Test
+  public void zeroLatencyProviderWithCallsInFlight() {
+    InetSocketAddress fast = new InetSocketAddress(HOST, PORT + 3);
+    InetSocketAddress busy = new InetSocketAddress(HOST, PORT + 4);
+    sample(fast, TimeUnit.MILLISECONDS.toNanos(1));
+    // decayed to zero as well
+    sample(busy, 0);
+    assertSelected(busy, fast, busy);
+    inFlight(busy, 50);
+    assertSelected(fast, fast, busy);
+  }
+
+  private static void sample(InetSocketAddress provider, long latencyNanos) {
+    ProviderStats stats = ProviderStats.of(provider);
+    stats.begin();
+    stats.end(System.nanoTime() - latencyNanos);
+  }
+
+  private static void inFlight(InetSocketAddress provider, int calls) {
+    for (int i = 0; i < calls; i++) {
+      ProviderStats.of(provider).begin();
+    }
+  }
+
+  private static void assertSelected(InetSocketAddress expected, InetSocketAddress a,
+      InetSocketAddress b) {
+    List<InetSocketAddress> providers = Arrays.asList(a, b);
+    Assert.assertEquals(expected, new PeakEwmaLoadBalancer().select(providers, null));
+    // with two providers P2C compares both of them
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(expected, new P2CLoadBalancer().select(providers, null));
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.rpc.container;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.flysium.photon.rpc.Constant;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
+import xyz.flysium.photon.rpc.remoting.transport.NettyClient;
+import xyz.flysium.photon.rpc.service.EchoService;
+
+/**
+ * Load the provider with more concurrent blocking calls than the platform thread pool has threads,
+ * and compare the throughput of the pool with the one of virtual threads.
+ * <p>
+ * The <code>virtual</code> case falls back to the pool on a JVM before JDK 21, so run it on JDK 21
+ * or later to see the difference.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput) //基准测试类型
+@Warmup(iterations = 2, time = 5) //预热的迭代次数
+@Measurement(iterations = 3, time = 5)    // 度量:iterations进行测试的轮次，time每轮进行的时长，timeUnit时长单位,batchSize批次数量
+@Threads(64) // 测试线程数量
+@Fork(1) // 测试进程数量
+@OutputTimeUnit(TimeUnit.SECONDS) //基准测试结果的时间类型
+@State(Scope.Benchmark)
+public class VirtualThreadsLoadBenchmark {
+
+  private static final int PORT = 29195;
+  private static final int SLEEP_MILLIS = 10;
+
+  @Param({"pool", "virtual"})
+  private String executor;
+
+  private RpcContainer container;
+  private NettyClient client;
+
+  /**
+   * a service blocking like a call to the database
+   */
+  public static class BlockingEchoService implements EchoService {
+
+    @Override
+    public String echo(String message) {
+      try {
+        TimeUnit.MILLISECONDS.sleep(SLEEP_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return message;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    boolean virtual = "virtual".equals(executor);
+    if (virtual && !VirtualThreads.isSupported()) {
+      System.out.println("virtual threads are not supported, fall back to the thread pool");
+    }
+    container = new RpcContainer(PORT, virtual);
+    container.start();
+    container.registerBean(EchoService.class, BlockingEchoService.class);
+    // call the provider by the client directly, the proxy would invoke the bean locally
+    client = new NettyClient(Constant.HOST, PORT);
+    client.start().get();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    client.stop();
+    container.shutdown();
+  }
+
+  @Benchmark
+  public RpcResponse echo() throws Exception {
+    RpcRequest req = new RpcRequest(EchoService.class.getCanonicalName(), "echo",
+        new Class<?>[]{String.class}, new Object[]{"rpc test"});
+    RpcResponse resp = client.send(req).get();
+    if (!resp.isSuccess()) {
+      throw new IllegalStateException("call failed, status " + resp.getStatus());
+    }
+    return resp;
+  }
+
+}
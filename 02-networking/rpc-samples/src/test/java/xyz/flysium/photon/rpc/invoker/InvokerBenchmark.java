@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package xyz.flysium.photon.rpc.invoker;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcRequest;
+import xyz.flysium.photon.rpc.remoting.portocol.RpcResponse;
+import xyz.flysium.photon.rpc.service.EchoService;
+import xyz.flysium.photon.rpc.service.EchoServiceImpl;
+
+/**
+ * Compare the reflective dispatch of the old <code>Invoker</code> with the method handle dispatch
+ * table.
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime) //基准测试类型
+@Warmup(iterations = 3) //预热的迭代次数
+@Measurement(iterations = 3)    // 度量:iterations进行测试的轮次，time每轮进行的时长，timeUnit时长单位,batchSize批次数量
+@Threads(4) // 测试线程数量
+@Fork(1) // 测试进程数量
+@OutputTimeUnit(TimeUnit.NANOSECONDS) //基准测试结果的时间类型
+@State(Scope.Benchmark)
+public class InvokerBenchmark {
+
+  private Object beanImpl;
+  private Invoker invoker;
+  private RpcRequest request;
+
+  @Setup
+  public void setup() throws Exception {
+    beanImpl = new EchoServiceImpl();
+    invoker = new Invoker(EchoService.class, EchoServiceImpl.class);
+    request = new RpcRequest(EchoService.class.getCanonicalName(), "echo",
+        new Class[]{String.class}, new Object[]{"rpc test"});
+  }
+
+  @Benchmark
+  public RpcResponse reflect() throws Exception {
+    // the dispatch of the old Invoker: load the class, scan the methods by name, Method.invoke
+    Class<?> clazz = Thread.currentThread().getContextClassLoader()
+        .loadClass(request.getService());
+    Method clazzMethod = null;
+    for (int i = 0; i < clazz.getMethods().length; i++) {
+      Method method1 = clazz.getMethods()[i];
+      if (method1.getName().equals(request.getMethod())) {
+        clazzMethod = method1;
+        break;
+      }
+    }
+    return new RpcResponse(request.getId(), clazzMethod.invoke(beanImpl, request.getArgs()));
+  }
+
+  @Benchmark
+  public RpcResponse methodHandle() {
+    return invoker.invoke(request);
+  }
+
+}
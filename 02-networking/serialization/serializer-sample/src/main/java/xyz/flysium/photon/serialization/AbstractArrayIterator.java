@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * The base of the iterators of {@link ArrayStreamDeserializer}, which decodes an element only
+ * when it is asked for.
+ *
+ * @param <E> the element type
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public abstract class AbstractArrayIterator<E> implements CloseableIterator<E> {
+
+  private static final int UNKNOWN = 0;
+  private static final int READY = 1;
+  private static final int DONE = 2;
+
+  private int state = UNKNOWN;
+  private E next;
+
+  /**
+   * move to the next element, or consume the end of the array
+   *
+   * @return false at the end of the array
+   */
+  protected abstract boolean nextElement() throws IOException;
+
+  /**
+   * decode the element moved to
+   */
+  protected abstract E readElement() throws IOException;
+
+  @Override
+  public boolean hasNext() {
+    if (state == UNKNOWN) {
+      try {
+        if (nextElement()) {
+          next = readElement();
+          state = READY;
+        } else {
+          state = DONE;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return state == READY;
+  }
+
+  @Override
+  public E next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    E e = next;
+    next = null;
+    state = UNKNOWN;
+    return e;
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A deserializer which decodes the elements of a top-level array one by one, while the caller
+ * consumes them, with a buffer of constant size, instead of the whole document at once.
+ * <p>
+ * Closing the iterator or the stream closes the source.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public interface ArrayStreamDeserializer {
+
+  /**
+   * Iterate the elements of the top-level array of the stream. The iterator throws an
+   * {@link UncheckedIOException} if it fails to read.
+   *
+   * @param inputStream the input stream
+   * @param elementType the element type
+   * @return the iterator, which must be closed
+   * @throws IOException if the stream does not start with an array
+   */
+  <E> CloseableIterator<E> iterateArray(InputStream inputStream, Class<E> elementType)
+    throws IOException;
+
+  /**
+   * Iterate the elements of the top-level array of the channel.
+   *
+   * @see #iterateArray(InputStream, Class)
+   */
+  default <E> CloseableIterator<E> iterateArray(ReadableByteChannel channel,
+    Class<E> elementType) throws IOException {
+    return iterateArray(Channels.newInputStream(channel), elementType);
+  }
+
+  /**
+   * Stream the elements of the top-level array of the stream. A parallel stream decodes the
+   * elements in one thread, and processes them in batches of
+   * {@link BatchSpliterator#DEFAULT_BATCH_SIZE} in the others.
+   *
+   * @param inputStream the input stream
+   * @param elementType the element type
+   * @param parallel    whether the stream is parallel
+   * @return the stream, which must be closed
+   * @throws IOException if the stream does not start with an array
+   */
+  default <E> Stream<E> streamArray(InputStream inputStream, Class<E> elementType,
+    boolean parallel) throws IOException {
+    final CloseableIterator<E> iterator = iterateArray(inputStream, elementType);
+    return StreamSupport.stream(new BatchSpliterator<>(iterator), parallel).onClose(() -> {
+      try {
+        iterator.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Stream the elements of the top-level array of the channel.
+   *
+   * @see #streamArray(InputStream, Class, boolean)
+   */
+  default <E> Stream<E> streamArray(ReadableByteChannel channel, Class<E> elementType,
+    boolean parallel) throws IOException {
+    return streamArray(Channels.newInputStream(channel), elementType, parallel);
+  }
+
+}
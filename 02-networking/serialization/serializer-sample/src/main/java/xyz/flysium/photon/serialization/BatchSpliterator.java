@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over an {@link Iterator} of unknown size, which splits off a batch of a
+ * fixed number of elements at a time.
+ * <p>
+ * Unlike {@link Spliterators#spliteratorUnknownSize(Iterator, int)}, whose batches grow up to
+ * millions of elements, the elements held by a parallel stream are bounded by the batch size and
+ * the parallelism.
+ *
+ * @param <E> the element type
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class BatchSpliterator<E> implements Spliterator<E> {
+
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private final Iterator<? extends E> iterator;
+  private final int batchSize;
+
+  public BatchSpliterator(Iterator<? extends E> iterator) {
+    this(iterator, DEFAULT_BATCH_SIZE);
+  }
+
+  public BatchSpliterator(Iterator<? extends E> iterator, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
+    this.iterator = Objects.requireNonNull(iterator, "Iterator must not be null");
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super E> action) {
+    if (!iterator.hasNext()) {
+      return false;
+    }
+    action.accept(iterator.next());
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super E> action) {
+    while (iterator.hasNext()) {
+      action.accept(iterator.next());
+    }
+  }
+
+  @Override
+  public Spliterator<E> trySplit() {
+    if (!iterator.hasNext()) {
+      return null;
+    }
+    Object[] batch = new Object[batchSize];
+    int n = 0;
+    do {
+      batch[n++] = iterator.next();
+    } while (n < batchSize && iterator.hasNext());
+    return Spliterators.spliterator(batch, 0, n, ORDERED);
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+
+}
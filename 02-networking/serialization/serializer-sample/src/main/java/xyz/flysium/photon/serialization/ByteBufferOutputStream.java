@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An {@link OutputStream} which writes into a {@link ByteBuffer}, heap or direct, from its
+ * position. It never grows the buffer, a write beyond the limit throws a
+ * {@link java.nio.BufferOverflowException}.
+ * <p>
+ * It may be reused for another buffer by {@link #reset(ByteBuffer)}.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class ByteBufferOutputStream extends OutputStream {
+
+  private ByteBuffer buffer;
+
+  public ByteBufferOutputStream(ByteBuffer buffer) {
+    this.buffer = Objects.requireNonNull(buffer, "ByteBuffer must not be null");
+  }
+
+  /**
+   * Write into another buffer
+   */
+  public ByteBufferOutputStream reset(ByteBuffer buffer) {
+    this.buffer = buffer;
+    return this;
+  }
+
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  public void write(int b) {
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    buffer.put(b, off, len);
+  }
+
+}
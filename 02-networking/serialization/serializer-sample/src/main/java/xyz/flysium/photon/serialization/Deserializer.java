@@ -3,6 +3,7 @@ package xyz.flysium.photon.serialization;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * A strategy interface for converting from data in an InputStream to an Object.
@@ -39,4 +40,21 @@ public interface Deserializer<T> {
     return deserialize(new ByteArrayInputStream(serialized), type);
   }
 
+  /**
+   * Read (assemble) an object of type T from the remaining bytes of the given buffer, heap or
+   * direct, which hold exactly the serialized object, e.g. a slice of a frame.
+   * <p>The position is advanced to the limit. Implementations should read the buffer directly,
+   * with thread-local scratch state, instead of copying it out first.
+   *
+   * @param buffer the buffer to read from
+   * @param type   the object type
+   * @return the deserialized object
+   * @throws IOException in case of deserialization failure
+   */
+  default T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+    T object = deserialize(new ByteBufferInputStream(buffer), type);
+    buffer.position(buffer.limit());
+    return object;
+  }
+
 }
@@ -4,6 +4,7 @@ package xyz.flysium.photon.serialization;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -46,4 +47,14 @@ public class SerializationDelegate<T> implements Serializer<T>, Deserializer<T>
     return this.deserializer.deserialize(inputStream, type);
   }
 
+  @Override
+  public int serialize(T object, ByteBuffer buffer) throws IOException {
+    return this.serializer.serialize(object, buffer);
+  }
+
+  @Override
+  public T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+    return this.deserializer.deserialize(buffer, type);
+  }
+
 }
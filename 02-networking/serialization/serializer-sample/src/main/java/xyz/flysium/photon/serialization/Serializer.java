@@ -27,6 +27,7 @@ package xyz.flysium.photon.serialization;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * A strategy interface for streaming an object to an OutputStream.
@@ -63,4 +64,27 @@ public interface Serializer<T> {
     return out.toByteArray();
   }
 
+  /**
+   * Write an object of type T into the given buffer, heap or direct, from its position.
+   * <p>The position is advanced past the written bytes, or left unchanged if it fails, e.g. with
+   * a {@link java.nio.BufferOverflowException} if the object does not fit. Implementations should
+   * write into the buffer directly, with thread-local scratch state, instead of an intermediate
+   * byte array.
+   *
+   * @param object the object to serialize
+   * @param buffer the buffer to write into
+   * @return the number of bytes written
+   * @throws IOException in case of serialization failure
+   */
+  default int serialize(T object, ByteBuffer buffer) throws IOException {
+    final int start = buffer.position();
+    try {
+      serialize(object, new ByteBufferOutputStream(buffer));
+    } catch (IOException | RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    }
+    return buffer.position() - start;
+  }
+
 }
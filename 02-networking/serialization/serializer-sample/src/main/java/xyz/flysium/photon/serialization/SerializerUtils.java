@@ -46,6 +46,7 @@ public final class SerializerUtils {
 //      = new GsonSerializer();
 //      = new JacksonSerializer();
 //      = new FastJsonSerializer();
+//      = new CompiledSerialization();
 
   /**
    * To bytes
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization.binary;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import xyz.flysium.photon.serialization.SerializationDelegate;
+import xyz.flysium.photon.serialization.binary.compiled.CodecGenerator;
+import xyz.flysium.photon.serialization.binary.compiled.CompactInput;
+import xyz.flysium.photon.serialization.binary.compiled.CompactOutput;
+
+/**
+ * Compiled Serializer, by a codec generated for each message type on first use, see
+ * {@link CodecGenerator} for the types it supports.
+ * <p>
+ * The message is written as its properties in order, without names or tags, so it is compact but
+ * not compatible across versions of the class.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+@SuppressWarnings("rawtypes")
+public class CompiledSerialization extends SerializationDelegate {
+
+  /**
+   * do not keep a scratch buffer grown by a huge message
+   */
+  private static final int MAX_RETAINED = 1 << 20;
+
+  private static final ThreadLocal<CompactOutput> OUTPUT = ThreadLocal
+    .withInitial(() -> new CompactOutput(1024));
+  private static final ThreadLocal<CompactInput> INPUT = ThreadLocal
+    .withInitial(CompactInput::new);
+
+  private static CompactOutput output() {
+    return OUTPUT.get().reset();
+  }
+
+  private static void release(CompactOutput out) {
+    if (out.buffer().length > MAX_RETAINED) {
+      OUTPUT.remove();
+    }
+  }
+
+  private static Object read(Class<?> type, byte[] buf, int offset, int length)
+    throws IOException {
+    CompactInput in = INPUT.get().setBuffer(buf, offset, length);
+    try {
+      return CodecGenerator.codecOf(type).read(in);
+    } finally {
+      in.clear();
+    }
+  }
+
+  public CompiledSerialization() {
+    super((t, os) -> {
+      CompactOutput out = output();
+      try {
+        CodecGenerator.codecOf(t.getClass()).write(t, out);
+        out.writeTo(os);
+      } finally {
+        release(out);
+      }
+    }, (is, type) -> {
+      // the message is not delimited, so it is the rest of the stream
+      CompactOutput out = output();
+      try {
+        out.writeFrom(is);
+        return read(type, out.buffer(), 0, out.size());
+      } finally {
+        release(out);
+      }
+    });
+  }
+
+  @Override
+  public int serialize(Object object, ByteBuffer buffer) throws IOException {
+    CompactOutput out = output();
+    try {
+      CodecGenerator.codecOf(object.getClass()).write(object, out);
+      if (out.size() > buffer.remaining()) {
+        throw new BufferOverflowException();
+      }
+      out.writeTo(buffer);
+      return out.size();
+    } finally {
+      release(out);
+    }
+  }
+
+  @Override
+  public Object deserialize(ByteBuffer buffer, Class type) throws IOException {
+    Object object;
+    if (buffer.hasArray()) {
+      object = read(type, buffer.array(), buffer.arrayOffset() + buffer.position(),
+        buffer.remaining());
+    } else {
+      CompactOutput out = output();
+      try {
+        out.writeFrom(buffer);
+        object = read(type, out.buffer(), 0, out.size());
+      } finally {
+        release(out);
+      }
+    }
+    buffer.position(buffer.limit());
+    return object;
+  }
+
+  @Override
+  public String name() {
+    return "Compiled";
+  }
+
+}
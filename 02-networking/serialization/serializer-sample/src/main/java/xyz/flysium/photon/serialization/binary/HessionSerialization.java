@@ -37,15 +37,32 @@ import xyz.flysium.photon.serialization.SerializationDelegate;
 @SuppressWarnings("rawtypes")
 public class HessionSerialization extends SerializationDelegate {
 
+  /**
+   * the output and input with their internal buffers, re-initialized for each stream
+   */
+  private static final ThreadLocal<Hessian2Output> OUTPUT = ThreadLocal
+    .withInitial(() -> new Hessian2Output(null));
+  private static final ThreadLocal<Hessian2Input> INPUT = ThreadLocal
+    .withInitial(() -> new Hessian2Input(null));
+
   public HessionSerialization() {
     super((t, os) -> {
-      Hessian2Output output = new Hessian2Output(os);
-      output.writeObject(t);
-      output.flush();
-      output.close(); // flush to avoid EOF error
+      Hessian2Output output = OUTPUT.get();
+      output.init(os);
+      try {
+        output.writeObject(t);
+        output.flush(); // flush to avoid EOF error
+      } finally {
+        output.init(null);
+      }
     }, (is, type) -> {
-      Hessian2Input input = new Hessian2Input(is);
-      return input.readObject(type);
+      Hessian2Input input = INPUT.get();
+      input.init(is);
+      try {
+        return input.readObject(type);
+      } finally {
+        input.init(null);
+      }
     });
   }
 
@@ -25,9 +25,15 @@
 package xyz.flysium.photon.serialization.binary;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import xyz.flysium.photon.serialization.SerializationDelegate;
 
@@ -56,6 +62,25 @@ public class KryoSerialization extends SerializationDelegate {
     }
   };
 
+  /**
+   * the scratch output and input of the {@link ByteBuffer} API, pointed to the caller's buffer on
+   * each call and released after it
+   */
+  private static final ThreadLocal<ByteBufferOutput> BUFFER_OUTPUT = ThreadLocal
+    .withInitial(() -> new ByteBufferOutput(0));
+  private static final ThreadLocal<ByteBufferInput> BUFFER_INPUT = ThreadLocal
+    .withInitial(ByteBufferInput::new);
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+  /**
+   * the growable output of an object which Kryo cannot write into the rest of the buffer in place
+   */
+  private static final ThreadLocal<Output> SCRATCH_OUTPUT = ThreadLocal
+    .withInitial(() -> new Output(1024, -1));
+  /**
+   * do not keep a scratch output grown by a huge object
+   */
+  private static final int MAX_RETAINED = 1 << 20;
+
 //  private final byte[] buffer = new byte[512];
 //  private final Output output = new Output(buffer, -1);
 //  private final Input input = new Input(buffer);
@@ -91,6 +116,82 @@ public class KryoSerialization extends SerializationDelegate {
     });
   }
 
+  @Override
+  public int serialize(Object object, ByteBuffer buffer) {
+    final int start = buffer.position();
+    ByteBufferOutput output = BUFFER_OUTPUT.get();
+    try {
+      // Kryo grows its buffer from the capacity, not the limit, so give it exactly the remaining
+      // bytes as capacity and max capacity: it overflows instead of growing. A slice is also
+      // big-endian, the order Output writes fixed-size values in.
+      output.setBuffer(buffer.slice(), buffer.remaining());
+      THREAD_LOCAL.get().writeObject(output, object);
+      output.flush();
+      buffer.position(start + output.position());
+    } catch (KryoException e) {
+      buffer.position(start);
+      if (isOverflow(e)) {
+        // Kryo reserves the longest encoding of a value before writing it, so it may overflow
+        // a buffer the object just fits in, encode it aside then
+        return serializeAside(object, buffer, e);
+      }
+      throw e;
+    } catch (RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    } finally {
+      output.setBuffer(EMPTY, 0);
+    }
+    return buffer.position() - start;
+  }
+
+  private static int serializeAside(Object object, ByteBuffer buffer, KryoException cause) {
+    Output output = SCRATCH_OUTPUT.get();
+    try {
+      output.clear();
+      THREAD_LOCAL.get().writeObject(output, object);
+      if (output.position() > buffer.remaining()) {
+        BufferOverflowException overflow = new BufferOverflowException();
+        overflow.initCause(cause);
+        throw overflow;
+      }
+      buffer.put(output.getBuffer(), 0, output.position());
+      return output.position();
+    } finally {
+      if (output.getBuffer().length > MAX_RETAINED) {
+        SCRATCH_OUTPUT.remove();
+      }
+    }
+  }
+
+  private static boolean isOverflow(KryoException e) {
+    if (e.getMessage() != null && e.getMessage().startsWith("Buffer overflow")) {
+      return true;
+    }
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof BufferOverflowException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Object deserialize(ByteBuffer buffer, Class type) {
+    final ByteOrder order = buffer.order();
+    ByteBufferInput input = BUFFER_INPUT.get();
+    try {
+      buffer.order(ByteOrder.BIG_ENDIAN);
+      input.setBuffer(buffer);
+      Object object = THREAD_LOCAL.get().readObject(input, type);
+      buffer.position(buffer.limit());
+      return object;
+    } finally {
+      input.setBuffer(EMPTY);
+      buffer.order(order);
+    }
+  }
+
   @Override
   public String name() {
     return "Kryo";
@@ -32,7 +32,10 @@ import io.protostuff.ProtostuffIOUtil;
 import io.protostuff.Schema;
 import io.protostuff.runtime.RuntimeSchema;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutionException;
+import xyz.flysium.photon.serialization.ByteBufferInputStream;
+import xyz.flysium.photon.serialization.ByteBufferOutputStream;
 import xyz.flysium.photon.serialization.SerializationDelegate;
 
 /**
@@ -53,6 +56,24 @@ public class ProtostuffSerialization extends SerializationDelegate {
       }
     });
 
+  /**
+   * the scratch buffer, cleared after each use
+   */
+  private static final ThreadLocal<LinkedBuffer> BUFFER = ThreadLocal
+    .withInitial(() -> LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+
+  /**
+   * the stream into the caller's buffer, pointed to it on each call
+   */
+  private static final ThreadLocal<ByteBufferOutputStream> OUT = ThreadLocal
+    .withInitial(() -> new ByteBufferOutputStream(ByteBuffer.allocate(0)));
+
+  /**
+   * the stream from the caller's buffer, pointed to it on each call
+   */
+  private static final ThreadLocal<ByteBufferInputStream> IN = ThreadLocal
+    .withInitial(() -> new ByteBufferInputStream(ByteBuffer.allocate(0)));
+
   private static Schema getSchema(Class<?> cls) throws IOException {
     try {
       return SCHEMAS.get(cls);
@@ -66,10 +87,10 @@ public class ProtostuffSerialization extends SerializationDelegate {
 //    byte[] data = ProtobufIOUtil.toByteArray(object, schema, buffer);
 //    buffer.clear();
 //    return data;
-      LinkedBuffer buffer = LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE);
+      LinkedBuffer buffer = BUFFER.get();
       try {
         Schema schema = getSchema(t.getClass());
-        os.write(ProtostuffIOUtil.toByteArray(t, schema, buffer));
+        ProtostuffIOUtil.writeTo(os, t, schema, buffer);
       } finally {
         buffer.clear();
       }
@@ -88,6 +109,46 @@ public class ProtostuffSerialization extends SerializationDelegate {
 //    schema = RuntimeSchema.getSchema(type);
 //  }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public int serialize(Object object, ByteBuffer buffer) throws IOException {
+    final int start = buffer.position();
+    LinkedBuffer scratch = BUFFER.get();
+    final ByteBufferOutputStream out = OUT.get().reset(buffer);
+    try {
+      ProtostuffIOUtil.writeTo(out, object, getSchema(object.getClass()), scratch);
+    } catch (IOException | RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    } finally {
+      out.reset(null);
+      scratch.clear();
+    }
+    return buffer.position() - start;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Object deserialize(ByteBuffer buffer, Class type) throws IOException {
+    Schema<Object> schema = getSchema(type);
+    Object obj = schema.newMessage();
+    if (buffer.hasArray()) {
+      ProtostuffIOUtil.mergeFrom(buffer.array(), buffer.arrayOffset() + buffer.position(),
+        buffer.remaining(), obj, schema);
+    } else {
+      LinkedBuffer scratch = BUFFER.get();
+      final ByteBufferInputStream in = IN.get().reset(buffer);
+      try {
+        ProtostuffIOUtil.mergeFrom(in, obj, schema, scratch);
+      } finally {
+        in.reset(null);
+        scratch.clear();
+      }
+    }
+    buffer.position(buffer.limit());
+    return obj;
+  }
+
   @Override
   public String name() {
     return "Protostuff";
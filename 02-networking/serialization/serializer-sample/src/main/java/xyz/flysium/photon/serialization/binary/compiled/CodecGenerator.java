@@ -0,0 +1,460 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization.binary.compiled;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+/**
+ * Generate a {@link MessageCodec} class for a message type on first use, which calls the getters
+ * and setters of its properties directly instead of discovering them by reflection on each call.
+ * <p>
+ * A message type is a public concrete class with a public no-arg constructor. Its schema is the
+ * properties which have both a public getter and setter, in the order of their names, so both
+ * sides must have the same version of the class. A property may be:
+ * <ul>
+ * <li>a primitive, its wrapper, a <code>String</code>, a <code>byte[]</code> or an enum</li>
+ * <li>another message type, which may refer back to this one</li>
+ * <li>a <code>Collection</code>, <code>List</code>, <code>Set</code> or <code>Map</code> of the
+ * above, except primitives</li>
+ * </ul>
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class CodecGenerator {
+
+  private static final String PACKAGE = CodecGenerator.class.getPackage().getName() + ".generated";
+  private static final String OUT = CompactOutput.class.getName();
+  private static final String IN = CompactInput.class.getName();
+  private static final String CODEC = MessageCodec.class.getName();
+
+  private static final Map<Class<?>, MessageCodec> CODECS = new ConcurrentHashMap<>();
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+  private static final Object LOCK = new Object();
+
+  /**
+   * the codecs being generated, published together once the references among them are resolved
+   */
+  private static final Map<Class<?>, MessageCodec> GENERATING = new HashMap<>();
+
+  private CodecGenerator() {
+  }
+
+  /**
+   * the codec of the message type, generated on first use
+   *
+   * @throws IllegalArgumentException if the type is not a supported message type
+   */
+  public static MessageCodec codecOf(Class<?> type) {
+    MessageCodec codec = CODECS.get(type);
+    if (codec != null) {
+      return codec;
+    }
+    synchronized (LOCK) {
+      try {
+        codec = generate(type);
+        CODECS.putAll(GENERATING);
+        return codec;
+      } finally {
+        GENERATING.clear();
+      }
+    }
+  }
+
+  private static MessageCodec generate(Class<?> type) {
+    MessageCodec codec = CODECS.get(type);
+    if (codec == null) {
+      codec = GENERATING.get(type);
+    }
+    if (codec != null) {
+      return codec;
+    }
+    checkMessageType(type);
+    List<Object> refs = new ArrayList<>();
+    String name = PACKAGE + "." + type.getSimpleName() + "Codec$" + SEQUENCE.incrementAndGet();
+    try {
+      Class<?> cls = define(type, name, writeMethod(type, refs), readMethod(type, refs));
+      codec = (MessageCodec) cls.getDeclaredConstructor().newInstance();
+    } catch (CannotCompileException | NotFoundException | ReflectiveOperationException e) {
+      throw new IllegalStateException("generate the codec of " + type.getName() + " failed", e);
+    }
+    GENERATING.put(type, codec);
+    // resolve the nested message types after registering this one, so that they may refer to it
+    Object[] resolved = refs.toArray();
+    for (int i = 0; i < resolved.length; i++) {
+      if (resolved[i] instanceof Class) {
+        resolved[i] = generate((Class<?>) resolved[i]);
+      }
+    }
+    codec.refs = resolved;
+    return codec;
+  }
+
+  private static Class<?> define(Class<?> type, String name, String write, String read)
+    throws CannotCompileException, NotFoundException {
+    ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+    pool.appendClassPath(new LoaderClassPath(CodecGenerator.class.getClassLoader()));
+    CtClass ct = pool.makeClass(name, pool.get(CODEC));
+    try {
+      ct.addConstructor(CtNewConstructor.defaultConstructor(ct));
+      ct.addMethod(CtNewMethod.make(write, ct));
+      ct.addMethod(CtNewMethod.make(read, ct));
+      return new CodecClassLoader(type.getClassLoader()).define(name, ct.toBytecode());
+    } catch (java.io.IOException e) {
+      throw new CannotCompileException(e);
+    } finally {
+      ct.detach();
+    }
+  }
+
+  private static void checkMessageType(Class<?> type) {
+    if (!isMessageType(type)) {
+      throw new IllegalArgumentException(type.getName()
+        + " is not a message type, which is a public concrete class with a public no-arg constructor");
+    }
+  }
+
+  private static boolean isMessageType(Class<?> type) {
+    if (type.isPrimitive() || type.isArray() || type.isInterface() || type.isEnum()
+      || Modifier.isAbstract(type.getModifiers()) || !Modifier.isPublic(type.getModifiers())
+      || type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+      return false;
+    }
+    if (type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers())) {
+      return false;
+    }
+    try {
+      return Modifier.isPublic(type.getConstructor().getModifiers());
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static List<PropertyDescriptor> properties(Class<?> type) {
+    BeanInfo info;
+    try {
+      info = Introspector.getBeanInfo(type, Object.class);
+    } catch (IntrospectionException e) {
+      throw new IllegalArgumentException("introspect " + type.getName() + " failed", e);
+    }
+    List<PropertyDescriptor> properties = new ArrayList<>();
+    for (PropertyDescriptor property : info.getPropertyDescriptors()) {
+      Method getter = property.getReadMethod();
+      Method setter = property.getWriteMethod();
+      if (getter != null && setter != null
+        && Modifier.isPublic(getter.getDeclaringClass().getModifiers())
+        && Modifier.isPublic(setter.getDeclaringClass().getModifiers())) {
+        properties.add(property);
+      }
+    }
+    // the order of the Introspector is not specified, the wire layout must not depend on the JVM
+    properties.sort(Comparator.comparing(PropertyDescriptor::getName));
+    return properties;
+  }
+
+  private static String writeMethod(Class<?> type, List<Object> refs) {
+    StringBuilder src = new StringBuilder();
+    src.append("public void write(Object message, ").append(OUT)
+      .append(" out) throws java.io.IOException {\n");
+    src.append(sourceName(type)).append(" m = (").append(sourceName(type)).append(") message;\n");
+    int index = 0;
+    for (PropertyDescriptor property : properties(type)) {
+      Type genericType = property.getReadMethod().getGenericReturnType();
+      String get = "m." + property.getReadMethod().getName() + "()";
+      String where = type.getName() + "." + property.getName();
+      Class<?> cls = property.getPropertyType();
+      if (cls.isPrimitive()) {
+        src.append(writePrimitive(cls, get)).append('\n');
+      } else if (Collection.class.isAssignableFrom(cls)) {
+        Class<?> element = typeArgument(genericType, 0, where);
+        String v = "c" + index, it = "it" + index;
+        src.append("java.util.Collection ").append(v).append(" = ").append(get).append(";\n")
+          .append("if (").append(v).append(" == null) { out.writeVarInt(0); } else {\n")
+          .append("out.writeVarInt(").append(v).append(".size() + 1);\n")
+          .append("java.util.Iterator ").append(it).append(" = ").append(v).append(".iterator();\n")
+          .append("while (").append(it).append(".hasNext()) {\n")
+          .append(writeValue(element, it + ".next()", refs, where)).append("\n}\n}\n");
+      } else if (Map.class.isAssignableFrom(cls)) {
+        Class<?> key = typeArgument(genericType, 0, where);
+        Class<?> value = typeArgument(genericType, 1, where);
+        String v = "c" + index, it = "it" + index, e = "e" + index;
+        src.append("java.util.Map ").append(v).append(" = ").append(get).append(";\n")
+          .append("if (").append(v).append(" == null) { out.writeVarInt(0); } else {\n")
+          .append("out.writeVarInt(").append(v).append(".size() + 1);\n")
+          .append("java.util.Iterator ").append(it).append(" = ").append(v)
+          .append(".entrySet().iterator();\n")
+          .append("while (").append(it).append(".hasNext()) {\n")
+          .append("java.util.Map.Entry ").append(e).append(" = (java.util.Map.Entry) ")
+          .append(it).append(".next();\n")
+          .append(writeValue(key, e + ".getKey()", refs, where)).append('\n')
+          .append(writeValue(value, e + ".getValue()", refs, where)).append("\n}\n}\n");
+      } else {
+        src.append(writeValue(cls, get, refs, where)).append('\n');
+      }
+      index++;
+    }
+    return src.append("}").toString();
+  }
+
+  private static String readMethod(Class<?> type, List<Object> refs) {
+    StringBuilder src = new StringBuilder();
+    src.append("public Object read(").append(IN).append(" in) throws java.io.IOException {\n");
+    src.append(sourceName(type)).append(" m = new ").append(sourceName(type)).append("();\n");
+    int index = 0;
+    for (PropertyDescriptor property : properties(type)) {
+      Type genericType = property.getReadMethod().getGenericReturnType();
+      String set = "m." + property.getWriteMethod().getName();
+      String where = type.getName() + "." + property.getName();
+      Class<?> cls = property.getPropertyType();
+      if (cls.isPrimitive()) {
+        src.append(set).append('(').append(readPrimitive(cls)).append(");\n");
+      } else if (Collection.class.isAssignableFrom(cls) || Map.class.isAssignableFrom(cls)) {
+        boolean map = Map.class.isAssignableFrom(cls);
+        String n = "n" + index, v = "c" + index, i = "i" + index;
+        String impl = implementationOf(cls, where);
+        src.append("int ").append(n).append(" = in.readVarInt();\n")
+          .append("if (").append(n).append(" == 0) { ").append(set).append("(null); } else {\n")
+          .append(impl).append(' ').append(v).append(" = new ").append(impl);
+        if (ArrayList.class.getName().equals(impl)) {
+          // every element takes a byte at least, do not trust the size for the capacity
+          src.append("(Math.min(").append(n).append(" - 1, in.remaining()));\n");
+        } else {
+          src.append("();\n");
+        }
+        src.append("for (int ").append(i).append(" = 1; ").append(i).append(" < ").append(n)
+          .append("; ").append(i).append("++) {\n");
+        if (map) {
+          String k = "k" + index;
+          src.append("Object ").append(k).append(" = ")
+            .append(readValue(typeArgument(genericType, 0, where), refs, where)).append(";\n")
+            .append(v).append(".put(").append(k).append(", ")
+            .append(readValue(typeArgument(genericType, 1, where), refs, where)).append(");\n");
+        } else {
+          src.append(v).append(".add(")
+            .append(readValue(typeArgument(genericType, 0, where), refs, where)).append(");\n");
+        }
+        src.append("}\n").append(set).append('(').append(v).append(");\n}\n");
+      } else {
+        src.append(set).append('(').append(readValue(cls, refs, where)).append(");\n");
+      }
+      index++;
+    }
+    return src.append("return m;\n}").toString();
+  }
+
+  private static String writePrimitive(Class<?> cls, String expr) {
+    if (cls == int.class || cls == short.class || cls == byte.class) {
+      return "out.writeSInt((int) " + expr + ");";
+    } else if (cls == long.class) {
+      return "out.writeSLong(" + expr + ");";
+    } else if (cls == boolean.class) {
+      return "out.writeBoolean(" + expr + ");";
+    } else if (cls == char.class) {
+      return "out.writeVarInt((int) " + expr + ");";
+    } else if (cls == float.class) {
+      return "out.writeFloat(" + expr + ");";
+    }
+    return "out.writeDouble(" + expr + ");";
+  }
+
+  private static String readPrimitive(Class<?> cls) {
+    if (cls == int.class) {
+      return "in.readSInt()";
+    } else if (cls == short.class) {
+      return "(short) in.readSInt()";
+    } else if (cls == byte.class) {
+      return "(byte) in.readSInt()";
+    } else if (cls == long.class) {
+      return "in.readSLong()";
+    } else if (cls == boolean.class) {
+      return "in.readBoolean()";
+    } else if (cls == char.class) {
+      return "(char) in.readVarInt()";
+    } else if (cls == float.class) {
+      return "in.readFloat()";
+    }
+    return "in.readDouble()";
+  }
+
+  /**
+   * the statement to write a value of a reference type
+   */
+  private static String writeValue(Class<?> cls, String expr, List<Object> refs, String where) {
+    if (isBoxed(cls)) {
+      return "out.writeBoxed((" + cls.getName() + ") " + expr + ");";
+    } else if (cls == String.class) {
+      return "out.writeString((String) " + expr + ");";
+    } else if (cls == byte[].class) {
+      return "out.writeBytes((byte[]) " + expr + ");";
+    } else if (cls.isEnum()) {
+      return "out.writeEnum((Enum) " + expr + ");";
+    } else if (isMessageType(cls)) {
+      return "out.writeMessage(" + expr + ", (" + CODEC + ") this.refs[" + ref(refs, cls) + "]);";
+    }
+    throw unsupported(cls, where);
+  }
+
+  /**
+   * the expression to read a value of a reference type
+   */
+  private static String readValue(Class<?> cls, List<Object> refs, String where) {
+    if (isBoxed(cls)) {
+      String simple = cls.getSimpleName();
+      return "in.readBoxed" + ("Integer".equals(simple) ? "Int"
+        : "Character".equals(simple) ? "Char" : simple) + "()";
+    } else if (cls == String.class) {
+      return "in.readString()";
+    } else if (cls == byte[].class) {
+      return "in.readBytes()";
+    } else if (cls.isEnum()) {
+      return "(" + sourceName(cls) + ") in.readEnum((Object[]) this.refs[" + ref(refs, cls)
+        + "])";
+    } else if (isMessageType(cls)) {
+      return "(" + sourceName(cls) + ") in.readMessage((" + CODEC + ") this.refs["
+        + ref(refs, cls) + "])";
+    }
+    throw unsupported(cls, where);
+  }
+
+  /**
+   * the index of the codec of a message type, or the constants of an enum type
+   */
+  private static int ref(List<Object> refs, Class<?> cls) {
+    Object ref = cls.isEnum() ? cls.getEnumConstants() : cls;
+    for (int i = 0; i < refs.size(); i++) {
+      Object r = refs.get(i);
+      if (r == cls || (cls.isEnum() && r instanceof Object[]
+        && r.getClass().getComponentType() == cls)) {
+        return i;
+      }
+    }
+    refs.add(ref);
+    return refs.size() - 1;
+  }
+
+  private static boolean isBoxed(Class<?> cls) {
+    return cls == Integer.class || cls == Long.class || cls == Short.class || cls == Byte.class
+      || cls == Character.class || cls == Boolean.class || cls == Float.class
+      || cls == Double.class;
+  }
+
+  private static Class<?> typeArgument(Type type, int index, String where) {
+    if (type instanceof ParameterizedType) {
+      Type arg = ((ParameterizedType) type).getActualTypeArguments()[index];
+      if (arg instanceof Class) {
+        return (Class<?>) arg;
+      }
+    }
+    throw new IllegalArgumentException(
+      where + " must declare the element types of " + type.getTypeName());
+  }
+
+  private static String implementationOf(Class<?> cls, String where) {
+    if (!cls.isInterface() && !Modifier.isAbstract(cls.getModifiers())) {
+      try {
+        cls.getConstructor();
+        return cls.getName();
+      } catch (NoSuchMethodException e) {
+        throw unsupported(cls, where);
+      }
+    }
+    // keep the iteration order, so that a message is encoded the same after a round trip
+    if (cls.isAssignableFrom(ArrayList.class)) {
+      return ArrayList.class.getName();
+    } else if (cls.isAssignableFrom(LinkedHashSet.class)) {
+      return LinkedHashSet.class.getName();
+    } else if (cls.isAssignableFrom(TreeSet.class) && SortedSet.class.isAssignableFrom(cls)) {
+      return TreeSet.class.getName();
+    } else if (cls.isAssignableFrom(LinkedHashMap.class)) {
+      return LinkedHashMap.class.getName();
+    } else if (cls.isAssignableFrom(TreeMap.class) && SortedMap.class.isAssignableFrom(cls)) {
+      return TreeMap.class.getName();
+    }
+    throw unsupported(cls, where);
+  }
+
+  private static IllegalArgumentException unsupported(Class<?> cls, String where) {
+    return new IllegalArgumentException(
+      "the type " + cls.getName() + " of " + where + " is not supported");
+  }
+
+  /**
+   * the name of a class in the source, <code>Outer$Inner</code> is resolved by javassist
+   */
+  private static String sourceName(Class<?> cls) {
+    return cls.getName();
+  }
+
+  /**
+   * define the generated class in a child of the loader of the message type, which sees the
+   * message types and this package
+   */
+  private static class CodecClassLoader extends ClassLoader {
+
+    CodecClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      return CodecGenerator.class.getClassLoader().loadClass(name);
+    }
+  }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization.binary.compiled;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The input of the generated codecs, over a range of a byte array, in the layout of
+ * {@link CompactOutput}.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class CompactInput {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private byte[] buf = EMPTY;
+  private int pos;
+  private int limit;
+
+  public CompactInput setBuffer(byte[] buf, int offset, int length) {
+    this.buf = buf;
+    this.pos = offset;
+    this.limit = offset + length;
+    return this;
+  }
+
+  /**
+   * release the array
+   */
+  public void clear() {
+    setBuffer(EMPTY, 0, 0);
+  }
+
+  public int remaining() {
+    return limit - pos;
+  }
+
+  private void require(int n) throws EOFException {
+    if (n < 0 || limit - pos < n) {
+      throw new EOFException("need " + n + " bytes, but " + (limit - pos) + " remaining");
+    }
+  }
+
+  public int readByte() throws IOException {
+    require(1);
+    return buf[pos++];
+  }
+
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  public int readVarInt() throws IOException {
+    int v = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = readByte();
+      v |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new IOException("malformed varint");
+  }
+
+  public int readSInt() throws IOException {
+    int v = readVarInt();
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  public long readVarLong() throws IOException {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      v |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new IOException("malformed varlong");
+  }
+
+  public long readSLong() throws IOException {
+    long v = readVarLong();
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  public float readFloat() throws IOException {
+    require(4);
+    int bits = (buf[pos] & 0xFF) | (buf[pos + 1] & 0xFF) << 8 | (buf[pos + 2] & 0xFF) << 16
+      | (buf[pos + 3] & 0xFF) << 24;
+    pos += 4;
+    return Float.intBitsToFloat(bits);
+  }
+
+  public double readDouble() throws IOException {
+    require(8);
+    long bits = 0;
+    for (int i = 0; i < 8; i++) {
+      bits |= (long) (buf[pos++] & 0xFF) << (i << 3);
+    }
+    return Double.longBitsToDouble(bits);
+  }
+
+  public String readString() throws IOException {
+    int n = readVarInt();
+    if (n == 0) {
+      return null;
+    }
+    require(n - 1);
+    String s = new String(buf, pos, n - 1, StandardCharsets.UTF_8);
+    pos += n - 1;
+    return s;
+  }
+
+  public byte[] readBytes() throws IOException {
+    int n = readVarInt();
+    if (n == 0) {
+      return null;
+    }
+    require(n - 1);
+    byte[] v = new byte[n - 1];
+    System.arraycopy(buf, pos, v, 0, v.length);
+    pos += v.length;
+    return v;
+  }
+
+  public Object readEnum(Object[] constants) throws IOException {
+    int n = readVarInt();
+    if (n == 0) {
+      return null;
+    }
+    if (n > constants.length) {
+      throw new IOException("unknown ordinal " + (n - 1) + " of " + constants.length + " constants");
+    }
+    return constants[n - 1];
+  }
+
+  public Object readMessage(MessageCodec codec) throws IOException {
+    return readBoolean() ? codec.read(this) : null;
+  }
+
+  public Integer readBoxedInt() throws IOException {
+    return readBoolean() ? Integer.valueOf(readSInt()) : null;
+  }
+
+  public Long readBoxedLong() throws IOException {
+    return readBoolean() ? Long.valueOf(readSLong()) : null;
+  }
+
+  public Short readBoxedShort() throws IOException {
+    return readBoolean() ? Short.valueOf((short) readSInt()) : null;
+  }
+
+  public Byte readBoxedByte() throws IOException {
+    return readBoolean() ? Byte.valueOf((byte) readSInt()) : null;
+  }
+
+  public Character readBoxedChar() throws IOException {
+    return readBoolean() ? Character.valueOf((char) readVarInt()) : null;
+  }
+
+  public Boolean readBoxedBoolean() throws IOException {
+    int b = readByte();
+    return b == 0 ? null : Boolean.valueOf(b == 2);
+  }
+
+  public Float readBoxedFloat() throws IOException {
+    return readBoolean() ? Float.valueOf(readFloat()) : null;
+  }
+
+  public Double readBoxedDouble() throws IOException {
+    return readBoolean() ? Double.valueOf(readDouble()) : null;
+  }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization.binary.compiled;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The output of the generated codecs, a growable byte array which is reused by {@link #reset()}.
+ * <p>
+ * Integers are zigzag varints, floating point numbers are little-endian, strings are UTF-8
+ * prefixed by their length, and references are prefixed by their presence, <code>0</code> for
+ * <code>null</code>.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class CompactOutput {
+
+  private byte[] buf;
+  private int pos;
+
+  public CompactOutput(int capacity) {
+    this.buf = new byte[Math.max(capacity, 16)];
+  }
+
+  public CompactOutput reset() {
+    this.pos = 0;
+    return this;
+  }
+
+  public int size() {
+    return pos;
+  }
+
+  public byte[] buffer() {
+    return buf;
+  }
+
+  public void writeTo(OutputStream os) throws IOException {
+    os.write(buf, 0, pos);
+  }
+
+  public void writeTo(ByteBuffer buffer) {
+    buffer.put(buf, 0, pos);
+  }
+
+  /**
+   * append all the remaining bytes of the stream
+   */
+  public void writeFrom(InputStream is) throws IOException {
+    int n;
+    do {
+      require(Math.max(is.available(), 256));
+      n = is.read(buf, pos, buf.length - pos);
+      if (n > 0) {
+        pos += n;
+      }
+    } while (n >= 0);
+  }
+
+  /**
+   * append the remaining bytes of the buffer, without moving its position
+   */
+  public void writeFrom(ByteBuffer buffer) {
+    int n = buffer.remaining();
+    require(n);
+    buffer.duplicate().get(buf, pos, n);
+    pos += n;
+  }
+
+  private void require(int n) {
+    if (buf.length - pos < n) {
+      buf = Arrays.copyOf(buf, Math.max(pos + n, buf.length << 1));
+    }
+  }
+
+  public void writeByte(int v) {
+    require(1);
+    buf[pos++] = (byte) v;
+  }
+
+  public void writeBoolean(boolean v) {
+    writeByte(v ? 1 : 0);
+  }
+
+  /**
+   * an unsigned varint, 1 byte for 0..127
+   */
+  public void writeVarInt(int v) {
+    require(5);
+    while ((v & ~0x7F) != 0) {
+      buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    buf[pos++] = (byte) v;
+  }
+
+  /**
+   * a zigzag varint, 1 byte for -64..63
+   */
+  public void writeSInt(int v) {
+    writeVarInt((v << 1) ^ (v >> 31));
+  }
+
+  public void writeVarLong(long v) {
+    require(10);
+    while ((v & ~0x7FL) != 0) {
+      buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    buf[pos++] = (byte) v;
+  }
+
+  public void writeSLong(long v) {
+    writeVarLong((v << 1) ^ (v >> 63));
+  }
+
+  public void writeFloat(float v) {
+    int bits = Float.floatToRawIntBits(v);
+    require(4);
+    buf[pos++] = (byte) bits;
+    buf[pos++] = (byte) (bits >>> 8);
+    buf[pos++] = (byte) (bits >>> 16);
+    buf[pos++] = (byte) (bits >>> 24);
+  }
+
+  public void writeDouble(double v) {
+    long bits = Double.doubleToRawLongBits(v);
+    require(8);
+    for (int i = 0; i < 8; i++) {
+      buf[pos++] = (byte) (bits >>> (i << 3));
+    }
+  }
+
+  /**
+   * the length in UTF-8 bytes plus 1, then the bytes, a lone surrogate is written as '?'
+   */
+  public void writeString(String s) {
+    if (s == null) {
+      writeVarInt(0);
+      return;
+    }
+    final int len = s.length();
+    int utf8 = 0;
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        utf8++;
+      } else if (c < 0x800) {
+        utf8 += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < len
+        && Character.isLowSurrogate(s.charAt(i + 1))) {
+        utf8 += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        utf8++;
+      } else {
+        utf8 += 3;
+      }
+    }
+    writeVarInt(utf8 + 1);
+    require(utf8);
+    if (utf8 == len) {
+      for (int i = 0; i < len; i++) {
+        buf[pos++] = (byte) s.charAt(i);
+      }
+      return;
+    }
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        buf[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        buf[pos++] = (byte) (0xC0 | (c >> 6));
+        buf[pos++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < len
+        && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        buf[pos++] = (byte) (0xF0 | (cp >> 18));
+        buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        buf[pos++] = (byte) '?';
+      } else {
+        buf[pos++] = (byte) (0xE0 | (c >> 12));
+        buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buf[pos++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  public void writeBytes(byte[] v) {
+    if (v == null) {
+      writeVarInt(0);
+      return;
+    }
+    writeVarInt(v.length + 1);
+    require(v.length);
+    System.arraycopy(v, 0, buf, pos, v.length);
+    pos += v.length;
+  }
+
+  /**
+   * the ordinal plus 1
+   */
+  public void writeEnum(Enum<?> v) {
+    writeVarInt(v == null ? 0 : v.ordinal() + 1);
+  }
+
+  public void writeMessage(Object v, MessageCodec codec) throws IOException {
+    writeBoolean(v != null);
+    if (v != null) {
+      codec.write(v, this);
+    }
+  }
+
+  public void writeBoxed(Integer v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeSInt(v);
+    }
+  }
+
+  public void writeBoxed(Long v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeSLong(v);
+    }
+  }
+
+  public void writeBoxed(Short v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeSInt(v);
+    }
+  }
+
+  public void writeBoxed(Byte v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeSInt(v);
+    }
+  }
+
+  public void writeBoxed(Character v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeVarInt(v);
+    }
+  }
+
+  public void writeBoxed(Boolean v) {
+    writeByte(v == null ? 0 : v ? 2 : 1);
+  }
+
+  public void writeBoxed(Float v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeFloat(v);
+    }
+  }
+
+  public void writeBoxed(Double v) {
+    writeBoolean(v != null);
+    if (v != null) {
+      writeDouble(v);
+    }
+  }
+
+}
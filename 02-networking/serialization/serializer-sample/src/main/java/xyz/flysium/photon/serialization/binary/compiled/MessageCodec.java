@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization.binary.compiled;
+
+import java.io.IOException;
+
+/**
+ * The encoder and decoder of a message type, generated by {@link CodecGenerator} on first use.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public abstract class MessageCodec {
+
+  /**
+   * the codecs of the nested message types and the constants of the enum types, by the index the
+   * generated code refers to them
+   */
+  protected Object[] refs;
+
+  /**
+   * write the properties of the message, which is not null
+   */
+  public abstract void write(Object message, CompactOutput out) throws IOException;
+
+  /**
+   * read the properties into a new message
+   */
+  public abstract Object read(CompactInput in) throws IOException;
+
+}
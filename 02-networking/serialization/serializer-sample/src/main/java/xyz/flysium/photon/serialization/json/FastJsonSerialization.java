@@ -25,6 +25,10 @@
 package xyz.flysium.photon.serialization.json;
 
 import com.alibaba.fastjson.JSON;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import xyz.flysium.photon.serialization.ByteBufferOutputStream;
 import xyz.flysium.photon.serialization.SerializationDelegate;
 
 /**
@@ -36,12 +40,59 @@ import xyz.flysium.photon.serialization.SerializationDelegate;
 @SuppressWarnings("rawtypes")
 public class FastJsonSerialization extends SerializationDelegate {
 
+  /**
+   * the scratch array to parse a direct buffer from, grown on demand
+   */
+  private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[1024]);
+
+  /**
+   * the stream into the caller's buffer, pointed to it on each call
+   */
+  private static final ThreadLocal<ByteBufferOutputStream> OUT = ThreadLocal
+    .withInitial(() -> new ByteBufferOutputStream(ByteBuffer.allocate(0)));
+
   public FastJsonSerialization() {
     super((t, os) -> {
       os.write(JSON.toJSONBytes(t));
     }, JSON::parseObject);
   }
 
+  @Override
+  public int serialize(Object object, ByteBuffer buffer) throws IOException {
+    final int start = buffer.position();
+    final ByteBufferOutputStream out = OUT.get().reset(buffer);
+    try {
+      // encoded into the thread-local buffers of fastjson, then written into the buffer
+      JSON.writeJSONString(out, object);
+    } catch (IOException | RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    } finally {
+      out.reset(null);
+    }
+    return buffer.position() - start;
+  }
+
+  @Override
+  public Object deserialize(ByteBuffer buffer, Class type) {
+    final int len = buffer.remaining();
+    Object object;
+    if (buffer.hasArray()) {
+      object = JSON.parseObject(buffer.array(), buffer.arrayOffset() + buffer.position(), len,
+        StandardCharsets.UTF_8, type);
+    } else {
+      byte[] scratch = SCRATCH.get();
+      if (scratch.length < len) {
+        scratch = new byte[Math.max(len, scratch.length << 1)];
+        SCRATCH.set(scratch);
+      }
+      buffer.duplicate().get(scratch, 0, len);
+      object = JSON.parseObject(scratch, 0, len, StandardCharsets.UTF_8, type);
+    }
+    buffer.position(buffer.limit());
+    return object;
+  }
+
   @Override
   public String name() {
     return "FastJson";
@@ -27,6 +27,22 @@ package xyz.flysium.photon.serialization.json;
 import com.google.common.io.ByteStreams;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import xyz.flysium.photon.serialization.AbstractArrayIterator;
+import xyz.flysium.photon.serialization.ArrayStreamDeserializer;
+import xyz.flysium.photon.serialization.ByteBufferInputStream;
+import xyz.flysium.photon.serialization.ByteBufferOutputStream;
+import xyz.flysium.photon.serialization.CloseableIterator;
 import xyz.flysium.photon.serialization.SerializationDelegate;
 
 /**
@@ -36,18 +52,128 @@ import xyz.flysium.photon.serialization.SerializationDelegate;
  * @version 1.0
  */
 @SuppressWarnings("rawtypes")
-public class GsonSerialization extends SerializationDelegate {
+public class GsonSerialization extends SerializationDelegate implements
+  ArrayStreamDeserializer {
 
   private static final Gson GSON = new GsonBuilder().create();
 
+  /**
+   * an UTF-8 writer with its encoder buffer, pointed to the caller's buffer on each call
+   */
+  private static final ThreadLocal<BufferWriter> WRITER = ThreadLocal
+    .withInitial(BufferWriter::new);
+
+  private static class BufferWriter {
+
+    private final ByteBufferOutputStream out = new ByteBufferOutputStream(ByteBuffer.allocate(0));
+    private final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * an UTF-8 reader with its decoder buffer, pointed to the caller's buffer on each call
+   */
+  private static final ThreadLocal<BufferReader> READER = ThreadLocal
+    .withInitial(BufferReader::new);
+
+  private static class BufferReader {
+
+    private final ByteBufferInputStream in = new ByteBufferInputStream(ByteBuffer.allocate(0));
+    private final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+  }
+
   public GsonSerialization() {
     super((t, os) -> {
-      os.write(GSON.toJson(t).getBytes());
+      os.write(GSON.toJson(t).getBytes(StandardCharsets.UTF_8));
     }, (is, type) -> {
-      return GSON.fromJson(new String(ByteStreams.toByteArray(is)), type);
+      return GSON
+        .fromJson(new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8), type);
     });
   }
 
+  @Override
+  public int serialize(Object object, ByteBuffer buffer) throws IOException {
+    final int start = buffer.position();
+    BufferWriter w = WRITER.get();
+    w.out.reset(buffer);
+    try {
+      GSON.toJson(object, w.writer);
+      w.writer.flush();
+    } catch (IOException | RuntimeException e) {
+      // the encoder may still hold the bytes of the failed object
+      WRITER.remove();
+      buffer.position(start);
+      throw e;
+    } finally {
+      w.out.reset(null);
+    }
+    return buffer.position() - start;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Object deserialize(ByteBuffer buffer, Class type) throws IOException {
+    // decode through a buffer of constant size, Gson reads up to the end of the document
+    BufferReader r = READER.get();
+    r.in.reset(buffer);
+    try {
+      return GSON.fromJson(r.reader, type);
+    } catch (RuntimeException e) {
+      // the decoder may still hold the bytes of the failed document
+      READER.remove();
+      throw e;
+    } finally {
+      r.in.reset(null);
+    }
+  }
+
+  @Override
+  public <E> CloseableIterator<E> iterateArray(InputStream inputStream, Class<E> elementType)
+    throws IOException {
+    // the decoder and the reader read through buffers of constant size
+    final JsonReader reader = new JsonReader(
+      new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    try {
+      if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+        throw new IOException("expect a JSON array, but " + reader.peek());
+      }
+      reader.beginArray();
+    } catch (IOException | RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+    return new AbstractArrayIterator<E>() {
+
+      @Override
+      protected boolean nextElement() throws IOException {
+        try {
+          if (reader.hasNext()) {
+            return true;
+          }
+          reader.endArray();
+          return false;
+        } catch (IllegalStateException e) {
+          // not the end of the array where it is expected
+          throw new IOException(e.getMessage(), e);
+        }
+      }
+
+      @Override
+      protected E readElement() throws IOException {
+        try {
+          return GSON.fromJson(reader, elementType);
+        } catch (JsonParseException e) {
+          // JsonSyntaxException or JsonIOException, the iterator throws UncheckedIOException
+          throw new IOException(e.getMessage(), e);
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        reader.close();
+      }
+    };
+  }
+
   @Override
   public String name() {
     return "Gson";
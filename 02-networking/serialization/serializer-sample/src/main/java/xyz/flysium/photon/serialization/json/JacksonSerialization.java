@@ -24,7 +24,19 @@
 
 package xyz.flysium.photon.serialization.json;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import xyz.flysium.photon.serialization.AbstractArrayIterator;
+import xyz.flysium.photon.serialization.ArrayStreamDeserializer;
+import xyz.flysium.photon.serialization.ByteBufferInputStream;
+import xyz.flysium.photon.serialization.ByteBufferOutputStream;
+import xyz.flysium.photon.serialization.CloseableIterator;
 import xyz.flysium.photon.serialization.SerializationDelegate;
 
 /**
@@ -34,16 +46,102 @@ import xyz.flysium.photon.serialization.SerializationDelegate;
  * @version 1.0
  */
 @SuppressWarnings("rawtypes")
-public class JacksonSerialization extends SerializationDelegate {
+public class JacksonSerialization extends SerializationDelegate implements
+  ArrayStreamDeserializer {
 
   private static final ObjectMapper MAPPER = new ObjectMapper();
 
+  /**
+   * the stream into the caller's buffer, pointed to it on each call
+   */
+  private static final ThreadLocal<ByteBufferOutputStream> OUT = ThreadLocal
+    .withInitial(() -> new ByteBufferOutputStream(ByteBuffer.allocate(0)));
+
+  /**
+   * the stream from the caller's buffer, pointed to it on each call
+   */
+  private static final ThreadLocal<ByteBufferInputStream> IN = ThreadLocal
+    .withInitial(() -> new ByteBufferInputStream(ByteBuffer.allocate(0)));
+
   public JacksonSerialization() {
     super((t, os) -> {
       os.write(MAPPER.writeValueAsBytes(t));
     }, MAPPER::readValue);
   }
 
+  @Override
+  public int serialize(Object object, ByteBuffer buffer) throws IOException {
+    final int start = buffer.position();
+    final ByteBufferOutputStream out = OUT.get().reset(buffer);
+    try {
+      // the generator encodes into its recycled buffers, and flushes into the buffer
+      MAPPER.writeValue(out, object);
+    } catch (IOException | RuntimeException e) {
+      buffer.position(start);
+      throw e;
+    } finally {
+      out.reset(null);
+    }
+    return buffer.position() - start;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Object deserialize(ByteBuffer buffer, Class type) throws IOException {
+    Object object;
+    if (buffer.hasArray()) {
+      object = MAPPER.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(),
+        buffer.remaining(), type);
+    } else {
+      final ByteBufferInputStream in = IN.get().reset(buffer);
+      try {
+        object = MAPPER.readValue(in, type);
+      } finally {
+        in.reset(null);
+      }
+    }
+    buffer.position(buffer.limit());
+    return object;
+  }
+
+  @Override
+  public <E> CloseableIterator<E> iterateArray(InputStream inputStream, Class<E> elementType)
+    throws IOException {
+    // the parser reads through a recycled buffer of constant size
+    final JsonParser parser = MAPPER.getFactory().createParser(inputStream);
+    try {
+      JsonToken token = parser.nextToken();
+      if (token != JsonToken.START_ARRAY) {
+        throw new IOException("expect a JSON array, but " + token);
+      }
+    } catch (IOException | RuntimeException e) {
+      parser.close();
+      throw e;
+    }
+    final ObjectReader reader = MAPPER.readerFor(elementType);
+    return new AbstractArrayIterator<E>() {
+
+      @Override
+      protected boolean nextElement() throws IOException {
+        JsonToken t = parser.nextToken();
+        if (t == null) {
+          throw new EOFException("the JSON array is not closed");
+        }
+        return t != JsonToken.END_ARRAY;
+      }
+
+      @Override
+      protected E readElement() throws IOException {
+        return reader.readValue(parser);
+      }
+
+      @Override
+      public void close() throws IOException {
+        parser.close();
+      }
+    };
+  }
+
   @Override
   public String name() {
     return "Jackson";
@@ -0,0 +1,115 @@
+package xyz.flysium.photon.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import xyz.flysium.photon.serialization.json.GsonSerialization;
+import xyz.flysium.photon.serialization.json.JacksonSerialization;
+import xyz.flysium.photon.serialization.payload.SmallPayload;
+
+/**
+ * The contract of {@link ArrayStreamDeserializer#iterateArray(InputStream, Class)}: a failure to
+ * read an element is an {@link UncheckedIOException}, and the source is closed whenever the
+ * iterator is not returned.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+@RunWith(Parameterized.class)
+public class ArrayStreamDeserializerTest {
+
+  private final ArrayStreamDeserializer deserializer;
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> deserializers() {
+    return Arrays.asList(new Object[]{"Gson", new GsonSerialization()},
+      new Object[]{"Jackson", new JacksonSerialization()});
+  }
+
+  public ArrayStreamDeserializerTest(String name, ArrayStreamDeserializer deserializer) {
+    this.deserializer = deserializer;
+  }
+
+  @Test
+  public void elements() throws Exception {
+    TrackedInputStream in = json("[{\"id\":1,\"name\":\"a\"},{\"id\":2},{}]");
+    try (CloseableIterator<SmallPayload> it = deserializer.iterateArray(in, SmallPayload.class)) {
+      Assert.assertEquals(1, it.next().getId());
+      Assert.assertEquals(2, it.next().getId());
+      Assert.assertEquals(0, it.next().getId());
+      Assert.assertFalse(it.hasNext());
+    }
+    Assert.assertTrue(in.closed);
+  }
+
+  @Test
+  public void malformedElement() throws Exception {
+    assertUnchecked("[{\"id\":1},{\"id\":\"not a number\"}]");
+    assertUnchecked("[{\"id\":1},{\"id\":}]");
+  }
+
+  @Test
+  public void truncated() throws Exception {
+    assertUnchecked("[{\"id\":1},");
+    assertUnchecked("[{\"id\":1}");
+  }
+
+  @Test
+  public void notAnArray() throws Exception {
+    for (String json : Arrays.asList("{\"id\":1}", "}", "")) {
+      TrackedInputStream in = json(json);
+      try {
+        deserializer.iterateArray(in, SmallPayload.class);
+        Assert.fail("not an array: " + json);
+      } catch (IOException e) {
+        // no iterator to close it, so the source is closed already
+        Assert.assertTrue(json, in.closed);
+      }
+    }
+  }
+
+  private void assertUnchecked(String json) throws IOException {
+    TrackedInputStream in = json(json);
+    try (CloseableIterator<SmallPayload> it = deserializer.iterateArray(in, SmallPayload.class)) {
+      Assert.assertEquals(1, it.next().getId());
+      try {
+        it.next();
+        Assert.fail("read " + json);
+      } catch (UncheckedIOException e) {
+        Assert.assertNotNull(e.getCause());
+      }
+    }
+    Assert.assertTrue(in.closed);
+  }
+
+  private static TrackedInputStream json(String json) {
+    return new TrackedInputStream(
+      new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static class TrackedInputStream extends FilterInputStream {
+
+    boolean closed;
+
+    TrackedInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+package xyz.flysium.photon.serialization;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import xyz.flysium.photon.serialization.payload.Payloads;
+
+/**
+ * The contract of the {@link java.nio.ByteBuffer} overloads of
+ * {@link Serializer#serialize(Object, ByteBuffer)} and
+ * {@link Deserializer#deserialize(ByteBuffer, Class)}, for every codec.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+@RunWith(Parameterized.class)
+public class ByteBufferSerializationTest {
+
+  private static final int OFFSET = 7;
+
+  private final String codec;
+  private final SerializationDelegate<Object> delegate;
+  private final Object object;
+  private final Class<Object> type;
+  private final byte[] bytes;
+
+  @Parameters(name = "{0}")
+  public static Collection<String> codecs() {
+    return Arrays.asList(Codecs.NAMES);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ByteBufferSerializationTest(String codec) throws Exception {
+    this.codec = codec;
+    this.delegate = Codecs.create(codec);
+    this.object = Payloads.nested();
+    this.type = (Class<Object>) object.getClass();
+    this.bytes = delegate.serializeToByteArray(object);
+  }
+
+  @Test
+  public void heapBuffer() throws Exception {
+    roundTrip(ByteBuffer.allocate(OFFSET + bytes.length + 64));
+  }
+
+  @Test
+  public void directBuffer() throws Exception {
+    roundTrip(ByteBuffer.allocateDirect(OFFSET + bytes.length + 64));
+  }
+
+  @Test
+  public void exactlyFits() throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocate(OFFSET + bytes.length);
+    buffer.position(OFFSET);
+    Assert.assertEquals(bytes.length, delegate.serialize(object, buffer));
+    Assert.assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void tooSmall() throws Exception {
+    for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(OFFSET + bytes.length - 1),
+      ByteBuffer.allocateDirect(OFFSET + bytes.length - 1))) {
+      buffer.position(OFFSET);
+      try {
+        delegate.serialize(object, buffer);
+        Assert.fail(codec + " wrote " + bytes.length + " bytes into " + (bytes.length - 1));
+      } catch (BufferOverflowException e) {
+        // the position is left unchanged
+        Assert.assertEquals(OFFSET, buffer.position());
+        Assert.assertEquals(OFFSET + bytes.length - 1, buffer.limit());
+      }
+    }
+  }
+
+  /**
+   * write from a non-zero position, then read back the slice between the position and the limit
+   */
+  private void roundTrip(ByteBuffer buffer) throws Exception {
+    final int capacity = buffer.capacity();
+    buffer.position(OFFSET);
+    Assert.assertEquals(bytes.length, delegate.serialize(object, buffer));
+    Assert.assertEquals(OFFSET + bytes.length, buffer.position());
+    Assert.assertEquals(capacity, buffer.limit());
+
+    // the same bytes as the stream API
+    ByteBuffer written = buffer.duplicate();
+    written.flip().position(OFFSET);
+    byte[] actual = new byte[written.remaining()];
+    written.get(actual);
+    Assert.assertArrayEquals(bytes, actual);
+
+    buffer.limit(OFFSET + bytes.length).position(OFFSET);
+    Object read = delegate.deserialize(buffer, type);
+    Assert.assertEquals(OFFSET + bytes.length, buffer.position());
+    Assert.assertEquals(OFFSET + bytes.length, buffer.limit());
+    Assert.assertNotNull(read);
+    Assert.assertSame(type, read.getClass());
+    // the payloads have no equals, a lossy codec would encode the result differently
+    Assert.assertArrayEquals(bytes, delegate.serializeToByteArray(read));
+  }
+
+}
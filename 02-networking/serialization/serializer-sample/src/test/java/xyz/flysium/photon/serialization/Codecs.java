@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import xyz.flysium.photon.serialization.binary.CompiledSerialization;
+import xyz.flysium.photon.serialization.binary.FSTSerialization;
+import xyz.flysium.photon.serialization.binary.HessionSerialization;
+import xyz.flysium.photon.serialization.binary.JDKSerialization;
+import xyz.flysium.photon.serialization.binary.KryoSerialization;
+import xyz.flysium.photon.serialization.binary.ProtostuffSerialization;
+import xyz.flysium.photon.serialization.json.FastJsonSerialization;
+import xyz.flysium.photon.serialization.json.GsonSerialization;
+import xyz.flysium.photon.serialization.json.JacksonSerialization;
+
+/**
+ * The codecs of the benchmarks, by name.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class Codecs {
+
+  public static final String[] NAMES = {"JDK", "Kryo", "FST", "Hessian", "Protostuff",
+    "Compiled", "Jackson", "Gson", "FastJson"};
+
+  private Codecs() {
+  }
+
+  @SuppressWarnings("unchecked")
+  public static SerializationDelegate<Object> create(String name) {
+    switch (name) {
+      case "JDK":
+        return new JDKSerialization();
+      case "Kryo":
+        return new KryoSerialization();
+      case "FST":
+        return new FSTSerialization();
+      case "Hessian":
+        return new HessionSerialization();
+      case "Protostuff":
+        return new ProtostuffSerialization();
+      case "Compiled":
+        return new CompiledSerialization();
+      case "Jackson":
+        return new JacksonSerialization();
+      case "Gson":
+        return new GsonSerialization();
+      case "FastJson":
+        return new FastJsonSerialization();
+      default:
+        throw new IllegalArgumentException("unknown codec: " + name);
+    }
+  }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import xyz.flysium.photon.serialization.payload.Item;
+
+/**
+ * Decode a large JSON array of items, generated on the fly so that the input is never in memory,
+ * as a whole document, by the iterator of {@link ArrayStreamDeserializer}, and by a parallel
+ * stream of it.
+ * <p>
+ * The heap is limited, and the peak heap usage of each iteration is printed, which grows with the
+ * number of items for the document only.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime) //基准测试类型
+@Warmup(iterations = 2) //预热的迭代次数
+@Measurement(iterations = 3)    // 度量:iterations进行测试的轮次，time每轮进行的时长，timeUnit时长单位,batchSize批次数量
+@Threads(1) // 测试线程数量
+@Fork(value = 1, jvmArgsAppend = {"-Xmx256m"}) // 测试进程数量
+@OutputTimeUnit(TimeUnit.MILLISECONDS) //基准测试结果的时间类型
+@State(Scope.Thread)
+public class JsonArrayStreamBenchmark {
+
+  @Param({"Jackson", "Gson"})
+  private String codec;
+
+  @Param({"document", "iterator", "parallel"})
+  private String mode;
+
+  /**
+   * the number of items of the array
+   */
+  @Param({"200000"})
+  private int count;
+
+  private SerializationDelegate<Object> delegate;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    delegate = Codecs.create(codec);
+  }
+
+  @Setup(Level.Iteration)
+  public void resetPeak() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void printPeak() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    System.out.println(" peak heap " + (peak >> 20) + " MB");
+  }
+
+  @Benchmark
+  public double decode() throws Exception {
+    InputStream in = new GeneratedArrayInputStream(count);
+    double total = 0;
+    switch (mode) {
+      case "document":
+        for (Object item : (Object[]) delegate.deserialize(in, (Class) Item[].class)) {
+          total += ((Item) item).getPrice();
+        }
+        return total;
+      case "iterator":
+        try (CloseableIterator<Item> it = ((ArrayStreamDeserializer) delegate)
+          .iterateArray(in, Item.class)) {
+          while (it.hasNext()) {
+            total += it.next().getPrice();
+          }
+        }
+        return total;
+      default:
+        try (Stream<Item> items = ((ArrayStreamDeserializer) delegate)
+          .streamArray(in, Item.class, true)) {
+          return items.mapToDouble(Item::getPrice).sum();
+        }
+    }
+  }
+
+  /**
+   * <code>[{"sku":"sku-0","quantity":0,"price":0.5}, ...]</code>, generated element by element
+   */
+  public static class GeneratedArrayInputStream extends InputStream {
+
+    private final int count;
+    private final StringBuilder element = new StringBuilder(64);
+    private byte[] bytes = "[".getBytes(StandardCharsets.UTF_8);
+    private int pos;
+    private int next;
+
+    public GeneratedArrayInputStream(int count) {
+      this.count = count;
+    }
+
+    private boolean fill() {
+      if (next > count) {
+        return false;
+      }
+      element.setLength(0);
+      if (next == count) {
+        element.append(']');
+      } else {
+        if (next > 0) {
+          element.append(',');
+        }
+        element.append("{\"sku\":\"sku-").append(next).append("\",\"quantity\":")
+          .append(next % 100).append(",\"price\":").append(next * 0.5 + 0.5).append('}');
+      }
+      next++;
+      bytes = element.toString().getBytes(StandardCharsets.UTF_8);
+      pos = 0;
+      return true;
+    }
+
+    @Override
+    public int read() {
+      if (pos == bytes.length && !fill()) {
+        return -1;
+      }
+      return bytes[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      int n = 0;
+      while (n < len) {
+        if (pos == bytes.length && !fill()) {
+          return n == 0 ? -1 : n;
+        }
+        int chunk = Math.min(len - n, bytes.length - pos);
+        System.arraycopy(bytes, pos, b, off + n, chunk);
+        pos += chunk;
+        n += chunk;
+      }
+      return n;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder()
+      .parent(new CommandLineOptions(args))
+      .include(JsonArrayStreamBenchmark.class.getSimpleName())
+      .build()).run();
+  }
+
+}
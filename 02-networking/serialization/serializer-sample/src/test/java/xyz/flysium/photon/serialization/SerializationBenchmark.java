@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import xyz.flysium.photon.serialization.payload.Payloads;
+
+/**
+ * The throughput of all the codecs, for each payload shape.
+ * <p>
+ * Run {@link #main(String[])} to print the encoded size of each codec and payload, then run the
+ * benchmarks with the gc profiler, whose <code>gc.alloc.rate.norm</code> is the bytes allocated
+ * per operation. Select a part of the matrix by the arguments, e.g. <code>-p codec=Kryo,Jackson
+ * -p payload=collection</code>.
+ * <p>
+ * The <code>*Buffer</code> benchmarks encode into and decode from a reused direct buffer, as a
+ * transport would, to compare the {@link java.nio.ByteBuffer} API with the byte array one, e.g.
+ * <code>-p codec=Kryo serializeToBuffer serialize</code>.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput) //基准测试类型
+@Warmup(iterations = 3, time = 1) //预热的迭代次数
+@Measurement(iterations = 3, time = 1)    // 度量:iterations进行测试的轮次，time每轮进行的时长，timeUnit时长单位,batchSize批次数量
+@Threads(1) // 测试线程数量
+@Fork(1) // 测试进程数量
+@OutputTimeUnit(TimeUnit.MILLISECONDS) //基准测试结果的时间类型
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+  @Param({"JDK", "Kryo", "FST", "Hessian", "Protostuff", "Compiled", "Jackson", "Gson",
+    "FastJson"})
+  private String codec;
+
+  @Param({Payloads.SMALL, Payloads.NESTED, Payloads.COLLECTION})
+  private String payload;
+
+  /**
+   * the number of elements of each collection of the collection payload
+   */
+  @Param({"50"})
+  private int size;
+
+  private SerializationDelegate<Object> delegate;
+  private Object object;
+  private Class<Object> type;
+  private byte[] bytes;
+  private ByteBuffer buffer;
+  private ByteBuffer encoded;
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setup() throws Exception {
+    delegate = Codecs.create(codec);
+    object = Payloads.create(payload, size);
+    type = (Class<Object>) object.getClass();
+    bytes = delegate.serializeToByteArray(object);
+    // a codec which loses data would look fast, so check that it round trips
+    byte[] again = delegate.serializeToByteArray(delegate.deserializeFromByteArray(bytes, type));
+    if (again.length != bytes.length) {
+      throw new IllegalStateException(
+        codec + " does not round trip " + payload + ": " + bytes.length + " != " + again.length);
+    }
+    buffer = ByteBuffer.allocateDirect(Math.max(bytes.length * 2, 64 * 1024));
+    encoded = ByteBuffer.allocateDirect(bytes.length);
+    encoded.put(bytes).flip();
+    System.out.println(codec + " encodes " + payload + " in " + bytes.length + " bytes");
+  }
+
+  @Benchmark
+  public byte[] serialize() throws Exception {
+    return delegate.serializeToByteArray(object);
+  }
+
+  @Benchmark
+  public Object deserialize() throws Exception {
+    return delegate.deserializeFromByteArray(bytes, type);
+  }
+
+  @Benchmark
+  public int serializeToBuffer() throws Exception {
+    buffer.clear();
+    return delegate.serialize(object, buffer);
+  }
+
+  @Benchmark
+  public Object deserializeFromBuffer() throws Exception {
+    encoded.rewind();
+    return delegate.deserialize(encoded, type);
+  }
+
+  /**
+   * the encoded size in bytes of each codec and payload
+   */
+  public static void printEncodedSizes(int size) {
+    String[] shapes = {Payloads.SMALL, Payloads.NESTED, Payloads.COLLECTION};
+    System.out.printf("%-12s", "bytes");
+    for (String shape : shapes) {
+      System.out.printf("%12s", shape);
+    }
+    System.out.println();
+    for (String name : Codecs.NAMES) {
+      System.out.printf("%-12s", name);
+      for (String shape : shapes) {
+        String encoded;
+        try {
+          encoded = String.valueOf(
+            Codecs.create(name).serializeToByteArray(Payloads.create(shape, size)).length);
+        } catch (Throwable e) {
+          encoded = "n/a";
+        }
+        System.out.printf("%12s", encoded);
+      }
+      System.out.println();
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    printEncodedSizes(50);
+    ChainedOptionsBuilder options = new OptionsBuilder()
+      .parent(new CommandLineOptions(args))
+      .include(SerializationBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class);
+    if (!System.getProperty("java.specification.version").startsWith("1.")) {
+      // FST needs the deep reflection into java.base on JDK 9+
+      options.jvmArgsAppend("--add-opens", "java.base/java.lang=ALL-UNNAMED",
+        "--add-opens", "java.base/java.util=ALL-UNNAMED",
+        "--add-opens", "java.base/java.math=ALL-UNNAMED",
+        "--add-opens", "java.base/java.net=ALL-UNNAMED",
+        "--add-opens", "java.base/java.text=ALL-UNNAMED",
+        "--add-opens", "java.base/java.util.concurrent=ALL-UNNAMED");
+    }
+    new Runner(options.build()).run();
+  }
+
+}
@@ -0,0 +1,554 @@
+package xyz.flysium.photon.serialization.binary;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.flysium.photon.serialization.binary.compiled.CodecGenerator;
+
+/**
+ * Round trips of the codecs generated by {@link CodecGenerator}, compared field by field.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public class CompiledSerializationTest {
+
+  private final CompiledSerialization serialization = new CompiledSerialization();
+
+  @Test
+  public void boundaryNumbers() throws Exception {
+    for (Scalars expected : Arrays.asList(scalars(0), scalars(-1), scalars(1), minimums(),
+      maximums(), specialFloats())) {
+      assertScalars(expected, roundTrip(expected));
+    }
+  }
+
+  @Test
+  public void nulls() throws Exception {
+    // the wrappers, strings, byte[], enum, nested message and collections are all null
+    Scalars scalars = new Scalars();
+    assertScalars(scalars, roundTrip(scalars));
+
+    Node node = new Node();
+    Node actual = roundTrip(node);
+    assertNode(node, actual);
+    Assert.assertNull(actual.getName());
+    Assert.assertNull(actual.getScalars());
+    Assert.assertNull(actual.getChildren());
+    Assert.assertNull(actual.getTags());
+    Assert.assertNull(actual.getCounts());
+    Assert.assertNull(actual.getSorted());
+  }
+
+  @Test
+  public void strings() throws Exception {
+    for (String s : Arrays.asList("", "a", "\u0000", "中文", "😀 emoji",
+      repeat('x', 127), repeat('y', 128), repeat('é', 70000))) {
+      Scalars expected = new Scalars();
+      expected.setText(s);
+      Assert.assertEquals(s, roundTrip(expected).getText());
+    }
+  }
+
+  @Test
+  public void nestedAndCollections() throws Exception {
+    Node root = node("root");
+    Node child = node("child");
+    child.setChildren(new ArrayList<>(Arrays.asList(node("grandchild"), null, node(null))));
+    root.setChild(child);
+    root.setChildren(new ArrayList<>(Arrays.asList(child, node("sibling"))));
+    root.setTags(new LinkedHashSet<>(Arrays.asList("b", "a", null)));
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    counts.put("z", Integer.MIN_VALUE);
+    counts.put("a", null);
+    counts.put(null, 0);
+    root.setCounts(counts);
+    SortedMap<String, Long> sorted = new TreeMap<>();
+    sorted.put("b", Long.MAX_VALUE);
+    sorted.put("a", -1L);
+    root.setSorted(sorted);
+    root.setColors(Arrays.asList(Color.BLUE, null, Color.RED));
+    assertNode(root, roundTrip(root));
+  }
+
+  @Test
+  public void emptyCollections() throws Exception {
+    Node node = node("empty");
+    node.setChildren(new ArrayList<>());
+    node.setTags(Collections.emptySet());
+    node.setCounts(Collections.emptyMap());
+    node.setSorted(new TreeMap<>());
+    node.setColors(Collections.emptyList());
+    Node actual = roundTrip(node);
+    assertNode(node, actual);
+    // empty, not null
+    Assert.assertNotNull(actual.getChildren());
+    Assert.assertNotNull(actual.getCounts());
+  }
+
+  @Test
+  public void noFields() throws Exception {
+    byte[] bytes = serialization.serializeToByteArray(new Empty());
+    Assert.assertEquals(0, bytes.length);
+    Assert.assertNotNull(serialization.deserializeFromByteArray(bytes, Empty.class));
+    // and as a nested message
+    Node node = node("with empty");
+    node.setEmpty(new Empty());
+    Assert.assertNotNull(roundTrip(node).getEmpty());
+  }
+
+  @Test
+  public void byteBuffers() throws Exception {
+    Node expected = node("buffer");
+    expected.setChild(node("child"));
+    for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(1024),
+      ByteBuffer.allocateDirect(1024))) {
+      int length = serialization.serialize(expected, buffer);
+      buffer.flip();
+      Assert.assertEquals(length, buffer.remaining());
+      assertNode(expected, (Node) serialization.deserialize(buffer, Node.class));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void notMessageType() throws Exception {
+    serialization.serializeToByteArray(Collections.singletonList("not a message"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T roundTrip(T message) throws Exception {
+    byte[] bytes = serialization.serializeToByteArray(message);
+    T actual = (T) serialization.deserializeFromByteArray(bytes, message.getClass());
+    Assert.assertNotSame(message, actual);
+    return actual;
+  }
+
+  private static Scalars scalars(int n) {
+    Scalars s = new Scalars();
+    s.setI(n);
+    s.setL(n);
+    s.setS((short) n);
+    s.setB((byte) n);
+    s.setC((char) Math.abs(n));
+    s.setZ(n != 0);
+    s.setF(n);
+    s.setD(n);
+    s.setBoxedInt(n);
+    s.setBoxedLong((long) n);
+    s.setBoxedShort((short) n);
+    s.setBoxedByte((byte) n);
+    s.setBoxedChar((char) Math.abs(n));
+    s.setBoxedBoolean(n == 0);
+    s.setBoxedFloat((float) n);
+    s.setBoxedDouble((double) n);
+    s.setText(String.valueOf(n));
+    s.setBytes(new byte[]{(byte) n, 0, (byte) -n});
+    s.setColor(Color.values()[Math.abs(n) % Color.values().length]);
+    return s;
+  }
+
+  private static Scalars minimums() {
+    Scalars s = scalars(0);
+    s.setI(Integer.MIN_VALUE);
+    s.setL(Long.MIN_VALUE);
+    s.setS(Short.MIN_VALUE);
+    s.setB(Byte.MIN_VALUE);
+    s.setC(Character.MIN_VALUE);
+    s.setF(-Float.MAX_VALUE);
+    s.setD(-Double.MAX_VALUE);
+    s.setBoxedInt(Integer.MIN_VALUE);
+    s.setBoxedLong(Long.MIN_VALUE);
+    s.setBoxedShort(Short.MIN_VALUE);
+    s.setBoxedByte(Byte.MIN_VALUE);
+    s.setBoxedChar(Character.MIN_VALUE);
+    s.setBoxedFloat(Float.MIN_VALUE);
+    s.setBoxedDouble(Double.MIN_VALUE);
+    s.setBytes(new byte[0]);
+    return s;
+  }
+
+  private static Scalars maximums() {
+    Scalars s = scalars(0);
+    s.setI(Integer.MAX_VALUE);
+    s.setL(Long.MAX_VALUE);
+    s.setS(Short.MAX_VALUE);
+    s.setB(Byte.MAX_VALUE);
+    s.setC(Character.MAX_VALUE);
+    s.setF(Float.MAX_VALUE);
+    s.setD(Double.MAX_VALUE);
+    s.setBoxedInt(Integer.MAX_VALUE);
+    s.setBoxedLong(Long.MAX_VALUE);
+    s.setBoxedShort(Short.MAX_VALUE);
+    s.setBoxedByte(Byte.MAX_VALUE);
+    s.setBoxedChar(Character.MAX_VALUE);
+    s.setBoxedFloat(Float.MAX_VALUE);
+    s.setBoxedDouble(Double.MAX_VALUE);
+    return s;
+  }
+
+  private static Scalars specialFloats() {
+    Scalars s = scalars(0);
+    s.setF(Float.NaN);
+    s.setD(-0.0d);
+    s.setBoxedFloat(Float.NEGATIVE_INFINITY);
+    s.setBoxedDouble(Double.POSITIVE_INFINITY);
+    return s;
+  }
+
+  private static Node node(String name) {
+    Node node = new Node();
+    node.setName(name);
+    node.setScalars(scalars(name == null ? 0 : name.length()));
+    return node;
+  }
+
+  private static String repeat(char c, int n) {
+    char[] chars = new char[n];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
+  private static void assertScalars(Scalars expected, Scalars actual) {
+    if (expected == null) {
+      Assert.assertNull(actual);
+      return;
+    }
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(expected.getI(), actual.getI());
+    Assert.assertEquals(expected.getL(), actual.getL());
+    Assert.assertEquals(expected.getS(), actual.getS());
+    Assert.assertEquals(expected.getB(), actual.getB());
+    Assert.assertEquals(expected.getC(), actual.getC());
+    Assert.assertEquals(expected.isZ(), actual.isZ());
+    // the same bits, so NaN and -0.0 too
+    Assert.assertEquals(Float.floatToRawIntBits(expected.getF()),
+      Float.floatToRawIntBits(actual.getF()));
+    Assert.assertEquals(Double.doubleToRawLongBits(expected.getD()),
+      Double.doubleToRawLongBits(actual.getD()));
+    Assert.assertEquals(expected.getBoxedInt(), actual.getBoxedInt());
+    Assert.assertEquals(expected.getBoxedLong(), actual.getBoxedLong());
+    Assert.assertEquals(expected.getBoxedShort(), actual.getBoxedShort());
+    Assert.assertEquals(expected.getBoxedByte(), actual.getBoxedByte());
+    Assert.assertEquals(expected.getBoxedChar(), actual.getBoxedChar());
+    Assert.assertEquals(expected.getBoxedBoolean(), actual.getBoxedBoolean());
+    Assert.assertEquals(expected.getBoxedFloat(), actual.getBoxedFloat());
+    Assert.assertEquals(expected.getBoxedDouble(), actual.getBoxedDouble());
+    Assert.assertEquals(expected.getText(), actual.getText());
+    Assert.assertArrayEquals(expected.getBytes(), actual.getBytes());
+    Assert.assertEquals(expected.getColor(), actual.getColor());
+  }
+
+  private static void assertNode(Node expected, Node actual) {
+    if (expected == null) {
+      Assert.assertNull(actual);
+      return;
+    }
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(expected.getName(), actual.getName());
+    assertScalars(expected.getScalars(), actual.getScalars());
+    assertNode(expected.getChild(), actual.getChild());
+    if (expected.getChildren() == null) {
+      Assert.assertNull(actual.getChildren());
+    } else {
+      Assert.assertEquals(expected.getChildren().size(), actual.getChildren().size());
+      for (int i = 0; i < expected.getChildren().size(); i++) {
+        assertNode(expected.getChildren().get(i), actual.getChildren().get(i));
+      }
+    }
+    // in the same iteration order
+    Assert.assertEquals(list(expected.getTags()), list(actual.getTags()));
+    Assert.assertEquals(expected.getCounts(), actual.getCounts());
+    Assert.assertEquals(expected.getCounts() == null ? null
+      : new ArrayList<>(expected.getCounts().keySet()), actual.getCounts() == null ? null
+      : new ArrayList<>(actual.getCounts().keySet()));
+    Assert.assertEquals(expected.getSorted(), actual.getSorted());
+    Assert.assertEquals(expected.getColors(), actual.getColors());
+    Assert.assertEquals(expected.getEmpty() == null, actual.getEmpty() == null);
+  }
+
+  private static List<String> list(Set<String> set) {
+    return set == null ? null : new ArrayList<>(set);
+  }
+
+  public enum Color {
+    RED, GREEN, BLUE
+  }
+
+  public static class Empty {
+
+  }
+
+  public static class Scalars {
+
+    private int i;
+    private long l;
+    private short s;
+    private byte b;
+    private char c;
+    private boolean z;
+    private float f;
+    private double d;
+    private Integer boxedInt;
+    private Long boxedLong;
+    private Short boxedShort;
+    private Byte boxedByte;
+    private Character boxedChar;
+    private Boolean boxedBoolean;
+    private Float boxedFloat;
+    private Double boxedDouble;
+    private String text;
+    private byte[] bytes;
+    private Color color;
+
+    public int getI() {
+      return i;
+    }
+
+    public void setI(int i) {
+      this.i = i;
+    }
+
+    public long getL() {
+      return l;
+    }
+
+    public void setL(long l) {
+      this.l = l;
+    }
+
+    public short getS() {
+      return s;
+    }
+
+    public void setS(short s) {
+      this.s = s;
+    }
+
+    public byte getB() {
+      return b;
+    }
+
+    public void setB(byte b) {
+      this.b = b;
+    }
+
+    public char getC() {
+      return c;
+    }
+
+    public void setC(char c) {
+      this.c = c;
+    }
+
+    public boolean isZ() {
+      return z;
+    }
+
+    public void setZ(boolean z) {
+      this.z = z;
+    }
+
+    public float getF() {
+      return f;
+    }
+
+    public void setF(float f) {
+      this.f = f;
+    }
+
+    public double getD() {
+      return d;
+    }
+
+    public void setD(double d) {
+      this.d = d;
+    }
+
+    public Integer getBoxedInt() {
+      return boxedInt;
+    }
+
+    public void setBoxedInt(Integer boxedInt) {
+      this.boxedInt = boxedInt;
+    }
+
+    public Long getBoxedLong() {
+      return boxedLong;
+    }
+
+    public void setBoxedLong(Long boxedLong) {
+      this.boxedLong = boxedLong;
+    }
+
+    public Short getBoxedShort() {
+      return boxedShort;
+    }
+
+    public void setBoxedShort(Short boxedShort) {
+      this.boxedShort = boxedShort;
+    }
+
+    public Byte getBoxedByte() {
+      return boxedByte;
+    }
+
+    public void setBoxedByte(Byte boxedByte) {
+      this.boxedByte = boxedByte;
+    }
+
+    public Character getBoxedChar() {
+      return boxedChar;
+    }
+
+    public void setBoxedChar(Character boxedChar) {
+      this.boxedChar = boxedChar;
+    }
+
+    public Boolean getBoxedBoolean() {
+      return boxedBoolean;
+    }
+
+    public void setBoxedBoolean(Boolean boxedBoolean) {
+      this.boxedBoolean = boxedBoolean;
+    }
+
+    public Float getBoxedFloat() {
+      return boxedFloat;
+    }
+
+    public void setBoxedFloat(Float boxedFloat) {
+      this.boxedFloat = boxedFloat;
+    }
+
+    public Double getBoxedDouble() {
+      return boxedDouble;
+    }
+
+    public void setBoxedDouble(Double boxedDouble) {
+      this.boxedDouble = boxedDouble;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    public void setText(String text) {
+      this.text = text;
+    }
+
+    public byte[] getBytes() {
+      return bytes;
+    }
+
+    public void setBytes(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    public Color getColor() {
+      return color;
+    }
+
+    public void setColor(Color color) {
+      this.color = color;
+    }
+  }
+
+  /**
+   * refers to itself, directly and in a list
+   */
+  public static class Node {
+
+    private String name;
+    private Scalars scalars;
+    private Node child;
+    private List<Node> children;
+    private Set<String> tags;
+    private Map<String, Integer> counts;
+    private SortedMap<String, Long> sorted;
+    private List<Color> colors;
+    private Empty empty;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Scalars getScalars() {
+      return scalars;
+    }
+
+    public void setScalars(Scalars scalars) {
+      this.scalars = scalars;
+    }
+
+    public Node getChild() {
+      return child;
+    }
+
+    public void setChild(Node child) {
+      this.child = child;
+    }
+
+    public List<Node> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<Node> children) {
+      this.children = children;
+    }
+
+    public Set<String> getTags() {
+      return tags;
+    }
+
+    public void setTags(Set<String> tags) {
+      this.tags = tags;
+    }
+
+    public Map<String, Integer> getCounts() {
+      return counts;
+    }
+
+    public void setCounts(Map<String, Integer> counts) {
+      this.counts = counts;
+    }
+
+    public SortedMap<String, Long> getSorted() {
+      return sorted;
+    }
+
+    public void setSorted(SortedMap<String, Long> sorted) {
+      this.sorted = sorted;
+    }
+
+    public List<Color> getColors() {
+      return colors;
+    }
+
+    public void setColors(List<Color> colors) {
+      this.colors = colors;
+    }
+
+    public Empty getEmpty() {
+      return empty;
+    }
+
+    public void setEmpty(Empty empty) {
+      this.empty = empty;
+    }
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 SvenAugustus
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package xyz.flysium.photon.serialization.payload;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The payload shapes of the benchmarks.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ */
+public final class Payloads {
+
+  public static final String SMALL = "small";
+  public static final String NESTED = "nested";
+  public static final String COLLECTION = "collection";
+
+  private Payloads() {
+  }
+
+  /**
+   * @param shape small, nested or collection
+   * @param size  the number of elements of each collection, for the collection shape
+   */
+  public static Object create(String shape, int size) {
+    switch (shape) {
+      case SMALL:
+        return small(1);
+      case NESTED:
+        return nested();
+      case COLLECTION:
+        return collection(size);
+      default:
+        throw new IllegalArgumentException("unknown payload shape: " + shape);
+    }
+  }
+
+  public static SmallPayload small(int id) {
+    SmallPayload payload = new SmallPayload();
+    payload.setId(id);
+    payload.setName("payload-" + id);
+    payload.setTimestamp(1600000000000L + id);
+    payload.setActive(id % 2 == 0);
+    payload.setScore(id * 0.75);
+    return payload;
+  }
+
+  public static NestedPayload nested() {
+    Address home = address("Huangpu Road 100", "Shanghai", "200000");
+    Customer customer = new Customer();
+    customer.setId(10001L);
+    customer.setName("Sven Augustus");
+    customer.setEmail("sven@example.com");
+    customer.setAddress(home);
+    NestedPayload payload = new NestedPayload();
+    payload.setOrderId("ORDER-20200101-0001");
+    payload.setCreatedAt(1600000000000L);
+    payload.setCustomer(customer);
+    payload.setShippingAddress(address("Nanjing Road 200", "Shanghai", "200001"));
+    payload.setStatus(small(7));
+    return payload;
+  }
+
+  public static CollectionPayload collection(int size) {
+    List<Item> items = new ArrayList<>(size);
+    List<Long> ids = new ArrayList<>(size);
+    Map<String, String> attributes = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      Item item = new Item();
+      item.setSku("SKU-" + i);
+      item.setQuantity(i % 10 + 1);
+      item.setPrice(9.99 + i);
+      items.add(item);
+      ids.add(1000000L + i);
+      attributes.put("key-" + i, "value-" + i);
+    }
+    CollectionPayload payload = new CollectionPayload();
+    payload.setItems(items);
+    payload.setIds(ids);
+    payload.setAttributes(attributes);
+    return payload;
+  }
+
+  private static Address address(String street, String city, String zipCode) {
+    Address address = new Address();
+    address.setStreet(street);
+    address.setCity(city);
+    address.setZipCode(zipCode);
+    return address;
+  }
+
+}
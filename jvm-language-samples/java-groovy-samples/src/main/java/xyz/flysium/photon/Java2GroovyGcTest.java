@@ -31,12 +31,17 @@ import groovy.lang.Script;
 import groovy.util.GroovyScriptEngine;
 import groovy.util.ResourceException;
 import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import xyz.flysium.photon.util.GroovyClassCache;
 import xyz.flysium.photon.util.GroovyClassLoaderUtil;
 import xyz.flysium.photon.util.GroovyScriptEngineJsr223Util;
 import xyz.flysium.photon.util.GroovyScriptEngineUtil;
@@ -53,6 +58,7 @@ public class Java2GroovyGcTest {
   private static final String S11 = "11";
   private static final String S20 = "20";
   private static final String S21 = "21";
+  private static final String S22 = "22";
   private static final String S30 = "30";
   private static final String S31 = "31";
   private static final String S40 = "40";
@@ -96,6 +102,11 @@ public class Java2GroovyGcTest {
       // -Xmx50m -verbose : 1565ms
       // -Xmx250m -verbose : 1592ms
     }
+    if (S22.equals(args[0])) {
+      testGroovyClassCacheBounded();
+      // -Xmx50m -XX:MaxMetaspaceSize=64m -verbose:class
+      // 类随淘汰持续卸载，Metaspace 保持平稳
+    }
     if (S30.equals(args[0])) {
       testGroovyScriptEngineNative();
       // -Xmx50m -verbose : 19723ms, 其中 Old Gen gc 86次，耗时 3s, GC 相对频繁
@@ -203,6 +214,35 @@ public class Java2GroovyGcTest {
     System.out.println((System.currentTimeMillis() - start) + "ms");
   }
 
+  /**
+   * 动态脚本各不相同（例如每个规则一个脚本）时，缓存按数量与权重有界，淘汰的脚本随其 GroovyClassLoader 一起被卸载；
+   * 多个线程同时未命中同一脚本时，只编译一次。
+   */
+  public static void testGroovyClassCacheBounded() throws InterruptedException {
+    long start = System.currentTimeMillis();
+    GroovyClassCache cache = new GroovyClassCache(100, 1L << 20);
+
+    int times = 10000;
+    for (int i = 0; i < times; i++) {
+      final String text = "def mul(x, y) { x * y * " + i + " }";
+      cache.get("rule-" + i, 1, () -> text);
+    }
+    // the same script missed by the threads together
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8; i++) {
+      executor.execute(() -> cache.get("shared", 1, () -> scriptText));
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    TimeUnit.SECONDS.sleep(1);
+    System.gc();
+    ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    System.out.println((System.currentTimeMillis() - start) + "ms, " + cache + ", loaded classes="
+        + classLoading.getLoadedClassCount() + ", unloaded classes="
+        + classLoading.getUnloadedClassCount());
+  }
+
   public static void testGroovyScriptEngineNative() throws groovy.util.ScriptException, IOException,
       ResourceException, InterruptedException, IllegalAccessException, InstantiationException {
     long start = System.currentTimeMillis();
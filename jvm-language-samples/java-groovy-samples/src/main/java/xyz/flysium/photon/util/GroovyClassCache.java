@@ -24,45 +24,341 @@
 
 package xyz.flysium.photon.util;
 
+import groovy.lang.GroovyClassLoader;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import org.apache.commons.codec.binary.Hex;
+import org.codehaus.groovy.control.CompilerConfiguration;
 
 /**
  * Groovy Class Cache.
+ * <p>
+ * The cache is bounded both by the number of the scripts and by their weight (the length of the
+ * script text, as the metaspace taken by the classes grows with it), the least recently used
+ * script is evicted first.
+ * <p>
+ * Every script is compiled by its own <code>GroovyClassLoader</code>, which shares the compiler
+ * configuration. The loader is the unit of class unloading: once a script is evicted, its loader
+ * is dropped and the classes can be unloaded as soon as no instance of them is alive.
+ * <p>
+ * A script is identified by an id supplied by the caller and a version, so that the text is neither
+ * hashed nor read on a hit. Threads missing the same script at the same time wait for a single
+ * compilation.
  *
  * @author Sven Augustus
  */
 public class GroovyClassCache {
 
-	/**
-	 * Groovy Class Cache.
-	 */
-	private final Map<String, Class<?>> classCache;
+  /**
+   * default max number of the scripts.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 1024;
+  /**
+   * default max weight, in chars of the script text.
+   */
+  public static final long DEFAULT_MAX_WEIGHT = 16L << 20;
 
-	public GroovyClassCache() {
-		classCache = new ConcurrentHashMap<>();
-	}
+  private final int maxEntries;
+  private final long maxWeight;
+  private final CompilerConfiguration config;
+  /**
+   * Groovy Class Cache, in access order, guarded by itself.
+   */
+  private final LinkedHashMap<String, Entry> classCache = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight = 0;
+  /**
+   * the compilations in flight.
+   */
+  private final Map<Key, FutureTask<Entry>> compiling = new ConcurrentHashMap<>();
 
-	public String keyOf(String text) throws NoSuchAlgorithmException {
-		MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-		messageDigest.update(text.getBytes(StandardCharsets.UTF_8));
-		return new String(Hex.encodeHex(messageDigest.digest(), true));
-	}
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder compiles = new LongAdder();
+  private final LongAdder compileFailures = new LongAdder();
+  private final LongAdder compileNanos = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
 
-	public Class<?> get(String key) {
-		return classCache.get(key);
-	}
+  public GroovyClassCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+  }
 
-	public Class<?> put(String key, Class<?> value) {
-		return classCache.put(key, value);
-	}
+  public GroovyClassCache(int maxEntries, long maxWeight) {
+    this(maxEntries, maxWeight, defaultConfig());
+  }
 
-	public Class<?> putIfAbsent(String key, Class<?> value) {
-		return classCache.putIfAbsent(key, value);
-	}
+  public GroovyClassCache(int maxEntries, long maxWeight, CompilerConfiguration config) {
+    if (maxEntries <= 0 || maxWeight <= 0) {
+      throw new IllegalArgumentException(
+          "maxEntries and maxWeight must be positive: " + maxEntries + ", " + maxWeight);
+    }
+    this.maxEntries = maxEntries;
+    this.maxWeight = maxWeight;
+    this.config = config;
+  }
+
+  private static CompilerConfiguration defaultConfig() {
+    CompilerConfiguration config = new CompilerConfiguration();
+    config.setSourceEncoding(StandardCharsets.UTF_8.name());
+    return config;
+  }
+
+  /**
+   * the SHA-256 of the script text, as an id of the script whose caller has none.
+   */
+  public String keyOf(String text) throws NoSuchAlgorithmException {
+    MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+    messageDigest.update(text.getBytes(StandardCharsets.UTF_8));
+    return new String(Hex.encodeHex(messageDigest.digest(), true));
+  }
+
+  /**
+   * Get the cached class of the script, whatever its version.
+   *
+   * @param scriptId the id of the script
+   * @return the class, or null if not cached
+   */
+  public Class<?> get(String scriptId) {
+    Entry entry;
+    synchronized (classCache) {
+      entry = classCache.get(scriptId);
+    }
+    return entry == null ? null : entry.clazz;
+  }
+
+  /**
+   * Get the class of the script, compile it on a miss.
+   * <p>
+   * A newer version replaces the cached one, an older version is compiled but not cached.
+   *
+   * @param scriptId   the id of the script
+   * @param version    the version of the script
+   * @param scriptText the text of the script, only read on a miss
+   * @return the class
+   */
+  public Class<?> get(String scriptId, long version, Supplier<String> scriptText) {
+    Entry entry;
+    synchronized (classCache) {
+      entry = classCache.get(scriptId);
+    }
+    if (entry != null && entry.version == version) {
+      hits.increment();
+      return entry.clazz;
+    }
+    misses.increment();
+
+    Key key = new Key(scriptId, version);
+    FutureTask<Entry> task = new FutureTask<>(() -> compile(key, scriptText));
+    FutureTask<Entry> existing = compiling.putIfAbsent(key, task);
+    if (existing == null) {
+      try {
+        task.run();
+      } finally {
+        compiling.remove(key, task);
+      }
+      existing = task;
+    } else {
+      coalesced.increment();
+    }
+    try {
+      return existing.get().clazz;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while compiling " + scriptId, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private Entry compile(Key key, Supplier<String> scriptText) {
+    long start = System.nanoTime();
+    String text;
+    GroovyClassLoader classLoader;
+    Class<?> clazz;
+    // loading the text is a part of the compile, a failure of either is a failure to load
+    try {
+      text = scriptText.get();
+      classLoader = new GroovyClassLoader(Thread.currentThread().getContextClassLoader(), config);
+      clazz = classLoader.parseClass(text);
+    } catch (RuntimeException | Error e) {
+      compileFailures.increment();
+      throw e;
+    } finally {
+      compileNanos.add(System.nanoTime() - start);
+    }
+    compiles.increment();
+
+    Entry entry = new Entry(key.version, clazz, classLoader, text.length());
+    synchronized (classCache) {
+      Entry cached = classCache.get(key.scriptId);
+      if (cached != null && cached.version > key.version) {
+        return entry;
+      }
+      if (cached != null) {
+        classCache.remove(key.scriptId);
+        weight -= cached.weight;
+        cached.unload();
+      }
+      classCache.put(key.scriptId, entry);
+      weight += entry.weight;
+      evict();
+    }
+    return entry;
+  }
+
+  /**
+   * evict the least recently used, but never the latest one.
+   */
+  private void evict() {
+    Iterator<Entry> iterator = classCache.values().iterator();
+    while ((classCache.size() > maxEntries || weight > maxWeight) && classCache.size() > 1) {
+      Entry eldest = iterator.next();
+      iterator.remove();
+      weight -= eldest.weight;
+      eldest.unload();
+      evictions.increment();
+    }
+  }
+
+  /**
+   * Remove the script, its classes can be unloaded then.
+   *
+   * @param scriptId the id of the script
+   */
+  public void remove(String scriptId) {
+    synchronized (classCache) {
+      Entry entry = classCache.remove(scriptId);
+      if (entry != null) {
+        weight -= entry.weight;
+        entry.unload();
+      }
+    }
+  }
+
+  public int size() {
+    synchronized (classCache) {
+      return classCache.size();
+    }
+  }
+
+  public long weight() {
+    synchronized (classCache) {
+      return weight;
+    }
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * the misses waiting for the compilation of another thread.
+   */
+  public long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  public long compileCount() {
+    return compiles.sum();
+  }
+
+  public long compileFailureCount() {
+    return compileFailures.sum();
+  }
+
+  public long totalCompileNanos() {
+    return compileNanos.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    long compiled = compileCount() + compileFailureCount();
+    return "GroovyClassCache{size=" + size() + "/" + maxEntries
+        + ", weight=" + weight() + "/" + maxWeight
+        + ", hits=" + hitCount()
+        + ", misses=" + missCount()
+        + ", coalesced=" + coalescedCount()
+        + ", compiles=" + compileCount()
+        + ", compileFailures=" + compileFailureCount()
+        + ", avgCompileMillis=" + (compiled == 0 ? 0
+        : totalCompileNanos() / compiled / 1_000_000.0)
+        + ", evictions=" + evictionCount() + '}';
+  }
+
+  private static final class Key {
+
+    private final String scriptId;
+    private final long version;
+
+    private Key(String scriptId, long version) {
+      this.scriptId = Objects.requireNonNull(scriptId, "scriptId");
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return version == key.version && scriptId.equals(key.scriptId);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * scriptId.hashCode() + Long.hashCode(version);
+    }
+  }
+
+  private static final class Entry {
+
+    private final long version;
+    private final Class<?> clazz;
+    private final GroovyClassLoader classLoader;
+    private final int weight;
+
+    private Entry(long version, Class<?> clazz, GroovyClassLoader classLoader, int weight) {
+      this.version = version;
+      this.clazz = clazz;
+      this.classLoader = classLoader;
+      this.weight = weight;
+    }
+
+    /**
+     * drop the references of the loader to the classes, the loader itself is dropped with the
+     * entry.
+     */
+    private void unload() {
+      classLoader.clearCache();
+    }
+  }
 
 }
@@ -27,13 +27,15 @@ package xyz.flysium.photon.util;
 import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyObject;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
 import javax.script.Bindings;
-import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.runtime.IOGroovyMethods;
 
 /**
@@ -67,34 +69,42 @@ public class GroovyClassLoaderUtil {
   }
 
   /**
-   * Class Cache for Groovy Class Loader.
+   * Class Cache for Groovy Class Loader, bounded by
+   * <code>-Dphoton.groovy.cache.maxEntries</code> and <code>-Dphoton.groovy.cache.maxWeight</code>
+   * (in chars of the script text).
    */
-  private static final GroovyClassCache CLASS_CACHE = new GroovyClassCache();
+  private static final GroovyClassCache CLASS_CACHE = new GroovyClassCache(
+      Integer.getInteger("photon.groovy.cache.maxEntries", GroovyClassCache.DEFAULT_MAX_ENTRIES),
+      Long.getLong("photon.groovy.cache.maxWeight", GroovyClassCache.DEFAULT_MAX_WEIGHT));
 
+  /**
+   * Get the class cache, for its metrics.
+   */
+  public static GroovyClassCache getClassCache() {
+    return CLASS_CACHE;
+  }
+
+  /**
+   * Load the class of the script, the script text is its id, prefer
+   * {@link #loadClass(String, long, Supplier)} with a cheaper id.
+   */
   @SuppressWarnings("unchecked")
   public static <T> Class<T> loadClass(String scriptText)
       throws InstantiationException, IllegalAccessException {
-    String key = null;
-    try {
-      key = CLASS_CACHE.keyOf(scriptText);
-    } catch (NoSuchAlgorithmException e) {
-      // do nothing
-    }
-    Class groovyClass = null;
-    if (key != null) {
-      groovyClass = CLASS_CACHE.get(key);
-    }
-    if (groovyClass == null) {
-      CompilerConfiguration config = new CompilerConfiguration();
-      config.setSourceEncoding(StandardCharsets.UTF_8.name());
-
-      GroovyClassLoader classLoader = new GroovyClassLoader(
-          Thread.currentThread().getContextClassLoader(), config);
-      groovyClass = classLoader.parseClass(scriptText);
-      CLASS_CACHE.putIfAbsent(key, groovyClass);
-    }
+    return (Class<T>) CLASS_CACHE.get(scriptText, 0, () -> scriptText);
+  }
 
-    return groovyClass;
+  /**
+   * Load the class of the script, the text is only read if the version is not cached.
+   *
+   * @param scriptId   the id of the script
+   * @param version    the version of the script, a newer one replaces the cached one
+   * @param scriptText the text of the script
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> Class<T> loadClass(String scriptId, long version,
+      Supplier<String> scriptText) {
+    return (Class<T>) CLASS_CACHE.get(scriptId, version, scriptText);
   }
 
   public static <T> Class<T> loadClass(Reader reader)
@@ -104,10 +114,41 @@ public class GroovyClassLoaderUtil {
     return loadClass(scriptText);
   }
 
+  /**
+   * Load the class of the script file, its path is the id and its last modified time the version.
+   */
   public static <T> Class<T> loadClassByFile(String scriptFileName)
       throws IOException, IllegalAccessException, InstantiationException {
+    File file = new File(GroovyUtil.getRoot(), scriptFileName);
+    if (!file.isFile()) {
+      throw new FileNotFoundException(file.getPath());
+    }
+
+    return loadClass(file.getPath(), file.lastModified(), () -> {
+      try (Reader reader = new InputStreamReader(new FileInputStream(file),
+          StandardCharsets.UTF_8)) {
+        return IOGroovyMethods.getText(reader);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  public static Object eval(String scriptId, long version, Supplier<String> scriptText,
+      Bindings binding) throws IllegalAccessException, InstantiationException {
+    GroovyObject groovyObject = (GroovyObject) loadClass(scriptId, version, scriptText)
+        .newInstance();
 
-    return loadClass(new FileReader(new File(GroovyUtil.getRoot(), scriptFileName)));
+    return GroovyUtil.eval(groovyObject, binding);
+  }
+
+  public static Object invoke(String scriptId, long version, Supplier<String> scriptText,
+      Bindings binding, String name, Object... args)
+      throws IllegalAccessException, InstantiationException {
+    GroovyObject groovyObject = (GroovyObject) loadClass(scriptId, version, scriptText)
+        .newInstance();
+
+    return GroovyUtil.invoke(groovyObject, binding, name, args);
   }
 
   private static GroovyObject getGroovyObject(String scriptText)
@@ -2,6 +2,10 @@ package com.github.flysium.io.sample.java2python;
 
 import com.github.flysium.io.sample.java2python.util.JythonUtil;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.python.core.PySystemState;
 import org.python.util.PythonInterpreter;
@@ -17,6 +21,8 @@ public class Java2PythonGcTest {
 
   private static final String S2 = "2";
 
+  private static final String S3 = "3";
+
   private static final int TIMES = 10000;
 
   private static String scriptText =
@@ -46,6 +52,9 @@ public class Java2PythonGcTest {
       // -Xmx50m : 3113ms
       // -Xmx250m : 2883ms
     }
+    if (S3.equals(args[0])) {
+      testJythonUtilBatch();
+    }
   }
 
   /**
@@ -81,4 +90,30 @@ public class Java2PythonGcTest {
     System.out.println(("" + (System.currentTimeMillis() - start)) + "ms");
   }
 
+  /**
+   * 规则按脚本 ID 预编译一次，再整批求值，一批只借用一个解释器
+   */
+  private static void testJythonUtilBatch() throws InterruptedException {
+    long start = System.currentTimeMillis();
+
+    JythonUtil.register("mul", "result = a * b\n");
+    List<Map<String, Object>> argumentsList = new ArrayList<>(TIMES);
+    for (int i = 0; i < TIMES; i++) {
+      Map<String, Object> arguments = new HashMap<>(4);
+      arguments.put("a", i);
+      arguments.put("b", 7);
+      argumentsList.add(arguments);
+    }
+    List<Integer> results = JythonUtil
+      .computeAllToJavaResult("mul", argumentsList, "result", Integer.class);
+    for (int i = 0; i < TIMES; i++) {
+      if (results.get(i) != i * 7) {
+        System.out.println("Error test !, result = " + results.get(i));
+      }
+    }
+    TimeUnit.SECONDS.sleep(1);
+    System.gc();
+    System.out.println(("" + (System.currentTimeMillis() - start)) + "ms");
+  }
+
 }
@@ -2,13 +2,16 @@ package com.github.flysium.io.sample.java2python.util;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.python.core.PyCode;
 import org.python.core.PyObject;
+import org.python.core.PyStringMap;
 import org.python.core.PySystemState;
 import org.python.google.common.cache.Cache;
 import org.python.google.common.cache.CacheBuilder;
@@ -30,11 +33,16 @@ public final class JythonUtil {
   }
 
   /**
-   * 编译结果缓存
+   * 编译结果缓存，按脚本内容缓存
    */
   private static final Cache<String, PyCode> CODE_CACHE = CacheBuilder.newBuilder()
     .maximumSize(1000).build();
 
+  /**
+   * 已注册的编译结果，按稳定的脚本 ID 寻址
+   */
+  private static final Map<String, PyCode> SCRIPTS = new ConcurrentHashMap<>();
+
   /**
    * Python 环境配置
    */
@@ -48,30 +56,28 @@ public final class JythonUtil {
   }
 
   /**
-   * 获取 Python 解释器
+   * Python 解释器池，大小可通过 -Dphoton.jython.pool.maxSize 指定
+   */
+  private static final PythonInterpreterPool INTERPRETER_POOL = new PythonInterpreterPool(
+    PY_SYSTEM_STATE,
+    Integer.getInteger("photon.jython.pool.maxSize", PythonInterpreterPool.DEFAULT_MAX_SIZE));
+
+  /**
+   * 获取 Python 解释器池
    *
-   * @return Python 解释器
+   * @return Python 解释器池
    */
-  private static PythonInterpreter getPythonInterpreter() {
+  public static PythonInterpreterPool getInterpreterPool() {
     //
     // Notice: PythonInterpreter is thread-safe.
-    // But the exec and execfile methods of PythonInterpreter are not.
+    // But the exec and execfile methods of PythonInterpreter are not,
+    // so an interpreter of the pool is leased to one thread at a time.
     //
-    return new PythonInterpreter(null, PY_SYSTEM_STATE);
+    return INTERPRETER_POOL;
   }
 
   /**
-   * 获取缓存 key
-   *
-   * @param scriptText 脚本内容
-   * @return 缓存 key
-   */
-  private static String cacheKey(String scriptText) {
-    return DigestUtils.sha256Hex(scriptText);
-  }
-
-  /**
-   * 对 Python 脚本预编译
+   * 对 Python 脚本预编译，按脚本内容缓存
    *
    * @param interpreter Python 解释器实例
    * @param scriptText  Python 脚本内容
@@ -82,10 +88,9 @@ public final class JythonUtil {
     if (interpreter == null || "".equals(scriptText)) {
       return null;
     }
-    String key = cacheKey(scriptText);
-
+    // 脚本内容本身即为 key，避免每次计算摘要
     try {
-      return CODE_CACHE.get(key, () -> interpreter.compile(scriptText));
+      return CODE_CACHE.get(scriptText, () -> interpreter.compile(scriptText));
     } catch (ExecutionException | UncheckedExecutionException e) {
       throw new IllegalStateException("Failed to compile Python script", e.getCause());
     } catch (RuntimeException e) {
@@ -99,9 +104,41 @@ public final class JythonUtil {
    * @param scriptText Python 脚本内容
    */
   public static void precompile(String scriptText) {
-    PythonInterpreter interpreter = getPythonInterpreter();
+    INTERPRETER_POOL.execute(interpreter -> precompile(interpreter, scriptText));
+  }
 
-    precompile(interpreter, scriptText);
+  /**
+   * 注册 Python 脚本，预编译后可按脚本 ID 执行，重复注册则替换
+   *
+   * @param scriptId   脚本 ID
+   * @param scriptText Python 脚本内容
+   */
+  public static void register(String scriptId, String scriptText) {
+    PyCode pycode = INTERPRETER_POOL.execute(interpreter -> {
+      try {
+        return interpreter.compile(scriptText);
+      } catch (RuntimeException e) {
+        throw new IllegalStateException("Failed to compile Python script " + scriptId, e);
+      }
+    });
+    SCRIPTS.put(scriptId, pycode);
+  }
+
+  /**
+   * 注销 Python 脚本
+   *
+   * @param scriptId 脚本 ID
+   */
+  public static void unregister(String scriptId) {
+    SCRIPTS.remove(scriptId);
+  }
+
+  private static PyCode registered(String scriptId) {
+    PyCode pycode = SCRIPTS.get(scriptId);
+    if (pycode == null) {
+      throw new IllegalStateException("Python script " + scriptId + " is not registered");
+    }
+    return pycode;
   }
 
   /**
@@ -120,15 +157,31 @@ public final class JythonUtil {
     if (pycode == null) {
       return;
     }
+    exec(interpreter, pycode, arguments);
+  }
+
+  /**
+   * 执行 Python 编译结果
+   *
+   * @param interpreter Python 解释器实例
+   * @param pycode      Python 编译结果
+   * @param arguments   绑定变量
+   */
+  private static void exec(PythonInterpreter interpreter, PyCode pycode,
+    Map<String, Object> arguments) {
     // 设置 Python 属性, Python 脚本中可以使用
+    setArguments(interpreter, arguments);
+
+    // 执行 Python 脚本
+    interpreter.exec(pycode);
+  }
+
+  private static void setArguments(PythonInterpreter interpreter, Map<String, Object> arguments) {
     if (MapUtils.isNotEmpty(arguments)) {
       for (Entry<String, Object> entry : arguments.entrySet()) {
         interpreter.set(entry.getKey(), entry.getValue());
       }
     }
-
-    // 执行 Python 脚本
-    interpreter.exec(pycode);
   }
 
   /**
@@ -147,9 +200,28 @@ public final class JythonUtil {
    * @param arguments  绑定变量
    */
   public static void exec(String scriptText, Map<String, Object> arguments) {
-    PythonInterpreter interpreter = getPythonInterpreter();
+    INTERPRETER_POOL.execute(interpreter -> {
+      exec(interpreter, scriptText, arguments);
+      return null;
+    });
+  }
 
-    exec(interpreter, scriptText, arguments);
+  /**
+   * 按脚本 ID 批量执行已注册的 Python 脚本，整批借用同一个解释器，每次执行前恢复局部变量
+   *
+   * @param scriptId      脚本 ID
+   * @param argumentsList 每次执行的绑定变量
+   */
+  public static void execAll(String scriptId, List<Map<String, Object>> argumentsList) {
+    PyCode pycode = registered(scriptId);
+    INTERPRETER_POOL.execute(interpreter -> {
+      PyStringMap initialLocals = ((PyStringMap) interpreter.getLocals()).copy();
+      for (Map<String, Object> arguments : argumentsList) {
+        interpreter.setLocals(initialLocals.copy());
+        exec(interpreter, pycode, arguments);
+      }
+      return null;
+    });
   }
 
   /**
@@ -174,18 +246,65 @@ public final class JythonUtil {
    * @param returnType         返回结果变量Java类型
    * @return 执行结果
    */
-  @SuppressWarnings("unchecked")
   public static <T> T computeToJavaResult(String scriptText, Map<String, Object> arguments,
     String returnVariableName,
     Class<T> returnType) {
+    return INTERPRETER_POOL.execute(interpreter -> {
+      exec(interpreter, scriptText, arguments);
+
+      return toJava(interpreter, returnVariableName, returnType);
+    });
+  }
+
+  /**
+   * 按脚本 ID 执行已注册的 Python 脚本并返回 Java 结果
+   *
+   * @param scriptId           脚本 ID
+   * @param arguments          绑定变量
+   * @param returnVariableName 返回结果变量名
+   * @param returnType         返回结果变量Java类型
+   * @return 执行结果
+   */
+  public static <T> T computeToJavaResultById(String scriptId, Map<String, Object> arguments,
+    String returnVariableName, Class<T> returnType) {
+    PyCode pycode = registered(scriptId);
+    return INTERPRETER_POOL.execute(interpreter -> {
+      exec(interpreter, pycode, arguments);
 
-    PythonInterpreter interpreter = getPythonInterpreter();
+      return toJava(interpreter, returnVariableName, returnType);
+    });
+  }
 
-    exec(interpreter, scriptText, arguments);
+  /**
+   * 按脚本 ID 批量执行已注册的 Python 脚本并返回 Java 结果，整批借用同一个解释器，每次执行前恢复局部变量
+   *
+   * @param scriptId           脚本 ID
+   * @param argumentsList      每次执行的绑定变量
+   * @param returnVariableName 返回结果变量名
+   * @param returnType         返回结果变量Java类型
+   * @return 执行结果，与绑定变量一一对应
+   */
+  public static <T> List<T> computeAllToJavaResult(String scriptId,
+    List<Map<String, Object>> argumentsList, String returnVariableName, Class<T> returnType) {
+    PyCode pycode = registered(scriptId);
+    return INTERPRETER_POOL.execute(interpreter -> {
+      List<T> results = new ArrayList<>(argumentsList.size());
+      PyStringMap initialLocals = ((PyStringMap) interpreter.getLocals()).copy();
+      for (Map<String, Object> arguments : argumentsList) {
+        interpreter.setLocals(initialLocals.copy());
+        exec(interpreter, pycode, arguments);
+        results.add(toJava(interpreter, returnVariableName, returnType));
+      }
+      return results;
+    });
+  }
 
+  @SuppressWarnings("unchecked")
+  private static <T> T toJava(PythonInterpreter interpreter, String returnVariableName,
+    Class<T> returnType) {
     PyObject result = interpreter.get(returnVariableName);
 
-    return (T) result.__tojava__(returnType);
+    return result == null ? null : (T) result.__tojava__(returnType);
   }
 
   /**
@@ -195,17 +314,14 @@ public final class JythonUtil {
    * @param arguments  绑定变量
    */
   public static void execfile(File scriptFile, Map<String, Object> arguments) {
-    PythonInterpreter interpreter = getPythonInterpreter();
-
-    // 设置 Python 属性, Python 脚本中可以使用
-    if (MapUtils.isNotEmpty(arguments)) {
-      for (Entry<String, Object> entry : arguments.entrySet()) {
-        interpreter.set(entry.getKey(), entry.getValue());
-      }
-    }
+    INTERPRETER_POOL.execute(interpreter -> {
+      // 设置 Python 属性, Python 脚本中可以使用
+      setArguments(interpreter, arguments);
 
-    // 执行 Python 脚本
-    interpreter.execfile(scriptFile.getAbsolutePath());
+      // 执行 Python 脚本
+      interpreter.execfile(scriptFile.getAbsolutePath());
+      return null;
+    });
   }
 
 }
@@ -0,0 +1,188 @@
+package com.github.flysium.io.sample.java2python.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.python.core.CompilerFlags;
+import org.python.core.PyObject;
+import org.python.core.PyStringMap;
+import org.python.core.PySystemState;
+import org.python.util.PythonInterpreter;
+
+/**
+ * Python 解释器池
+ * <p>
+ * PythonInterpreter 的 exec 不是线程安全的，而每次新建解释器的代价又很高。 池中的解释器共享同一个 Python 系统状态，每次只借给一个线程使用，
+ * 归还时恢复为新建时的局部变量与编译标志（例如 from __future__ 及源码编码），不会把上一次执行的状态带给下一次。
+ *
+ * @author Sven Augustus
+ */
+public final class PythonInterpreterPool implements AutoCloseable {
+
+  /**
+   * 默认的最大解释器数
+   */
+  public static final int DEFAULT_MAX_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+  private final PySystemState systemState;
+  /**
+   * 每个借出的解释器占用一个许可，丢弃的解释器归还许可后由等待的线程新建
+   */
+  private final Semaphore permits;
+  private final Queue<Lease> idle = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private volatile boolean closed = false;
+
+  public PythonInterpreterPool(PySystemState systemState) {
+    this(systemState, DEFAULT_MAX_SIZE);
+  }
+
+  public PythonInterpreterPool(PySystemState systemState, int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.systemState = systemState;
+    this.permits = new Semaphore(maxSize);
+  }
+
+  /**
+   * 借用一个解释器执行，池满时等待其他线程归还
+   *
+   * @param action 使用解释器的操作，不能把解释器泄露到操作之外
+   * @return 操作的结果
+   */
+  public <R> R execute(Function<PythonInterpreter, R> action) {
+    Lease lease = borrow();
+    try {
+      return action.apply(lease.interpreter);
+    } finally {
+      release(lease);
+    }
+  }
+
+  private Lease borrow() {
+    checkOpen();
+    // 池满时等待归还或丢弃
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a Python interpreter", e);
+    }
+    try {
+      checkOpen();
+      Lease lease = idle.poll();
+      if (lease != null) {
+        return lease;
+      }
+      // 没有空闲的解释器，说明已创建的都已借出，或者已被丢弃
+      lease = new Lease(new PooledInterpreter(systemState));
+      size.incrementAndGet();
+      return lease;
+    } catch (RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("PythonInterpreterPool is closed");
+    }
+  }
+
+  private void release(Lease lease) {
+    boolean reusable;
+    try {
+      lease.reset();
+      reusable = !closed;
+    } catch (RuntimeException e) {
+      // 无法恢复的解释器直接丢弃
+      reusable = false;
+    }
+    try {
+      if (!reusable) {
+        discard(lease);
+      } else {
+        idle.offer(lease);
+        // 与 close 并发时，可能在其清空后才放入
+        if (closed && idle.remove(lease)) {
+          discard(lease);
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void discard(Lease lease) {
+    size.decrementAndGet();
+    lease.interpreter.cleanup();
+  }
+
+  /**
+   * 已创建的解释器数
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * 空闲的解释器数
+   */
+  public int idle() {
+    return idle.size();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    Lease lease;
+    while ((lease = idle.poll()) != null) {
+      discard(lease);
+    }
+  }
+
+  /**
+   * 可重置编译标志的解释器
+   */
+  private static final class PooledInterpreter extends PythonInterpreter {
+
+    private PooledInterpreter(PySystemState systemState) {
+      super(null, systemState);
+    }
+
+    private void resetFlags() {
+      cflags = new CompilerFlags();
+    }
+  }
+
+  /**
+   * 解释器及其新建时的局部变量
+   */
+  private static final class Lease {
+
+    private final PooledInterpreter interpreter;
+    private final PyStringMap initialLocals;
+
+    private Lease(PooledInterpreter interpreter) {
+      this.interpreter = interpreter;
+      this.initialLocals = ((PyStringMap) interpreter.getLocals()).copy();
+    }
+
+    private void reset() {
+      interpreter.resetFlags();
+      PyObject locals = interpreter.getLocals();
+      if (locals instanceof PyStringMap) {
+        PyStringMap map = (PyStringMap) locals;
+        map.clear();
+        map.update(initialLocals);
+      } else {
+        interpreter.setLocals(initialLocals.copy());
+      }
+    }
+  }
+
+}
@@ -18,15 +18,15 @@ package xyz.flysium.photon.crypto;
 
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
+import java.security.Key;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.Provider;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
-import javax.crypto.BadPaddingException;
+import java.security.spec.AlgorithmParameterSpec;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
 import xyz.flysium.photon.crypto.support.CryptoUtil;
 
 /**
@@ -41,11 +41,11 @@ public abstract class AbstractAsymmetric extends AbstractAsyCryptoSpi implements
   /**
    * the public key
    */
-  protected PublicKey publicKey;
+  protected volatile PublicKey publicKey;
   /**
    * the private key
    */
-  protected PrivateKey privateKey;
+  protected volatile PrivateKey privateKey;
   /**
    * the signature algorithm name
    */
@@ -126,50 +126,16 @@ public abstract class AbstractAsymmetric extends AbstractAsyCryptoSpi implements
   }
 
   @Override
-  public byte[] encrypt(byte[] plainText) {
-    Cipher cipher = getCipher();
-    try {
-      if (cipher != null) {
-        if (algorithmParameterSpec != null) {
-          cipher.init(Cipher.ENCRYPT_MODE, this.publicKey, algorithmParameterSpec);
-        } else {
-          cipher.init(Cipher.ENCRYPT_MODE, this.publicKey);
-        }
-
-        return doFinal(cipher, Cipher.ENCRYPT_MODE, plainText);
-      }
-    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
-      fail(e);
-    }
-    return new byte[0];
-  }
-
-  @Override
-  public byte[] decrypt(byte[] cipherText) {
-    Cipher cipher = getCipher();
-    try {
-      if (cipher != null) {
-        if (algorithmParameterSpec != null) {
-          cipher.init(Cipher.DECRYPT_MODE, this.privateKey, algorithmParameterSpec);
-        } else {
-          cipher.init(Cipher.DECRYPT_MODE, this.privateKey);
-        }
-
-        return doFinal(cipher, Cipher.DECRYPT_MODE, cipherText);
-      }
-    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
-      fail(e);
+  protected void init(Cipher cipher, int mode)
+    throws InvalidKeyException, InvalidAlgorithmParameterException {
+    // encrypt by the public key, decrypt by the private key
+    Key key = (Cipher.DECRYPT_MODE == mode) ? this.privateKey : this.publicKey;
+    AlgorithmParameterSpec spec = this.algorithmParameterSpec;
+    if (spec != null) {
+      cipher.init(mode, key, spec);
+    } else {
+      cipher.init(mode, key);
     }
-    return new byte[0];
-  }
-
-  protected byte[] doFinal(Cipher cipher, int mode, byte[] input) {
-    try {
-      return cipher.doFinal(input);
-    } catch (IllegalBlockSizeException | BadPaddingException e) {
-      fail(e);
-    }
-    return new byte[0];
   }
 
   @Override
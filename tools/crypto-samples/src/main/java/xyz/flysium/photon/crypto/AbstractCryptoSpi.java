@@ -16,14 +16,28 @@
 
 package xyz.flysium.photon.crypto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
 import java.security.Provider;
+import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
+import xyz.flysium.photon.crypto.support.CryptoPool;
 import xyz.flysium.photon.crypto.support.CryptoUtil;
 
 /**
  * Encryption and decryption SPI (reversible SPI)
  *
+ * <p>
+ * The instance is thread-safe: every operation borrows a {@link Cipher} from a pool, initializes it
+ * by {@link #init(Cipher, int)} and releases it back when done.
+ *
  * @author Sven Augustus
  * @version 1.0
  * @since JDK 1.7
@@ -36,17 +50,187 @@ abstract class AbstractCryptoSpi extends AbstractSecretSpi implements CryptoSpi
    * <a>https://docs.oracle.com/javase/7/docs/technotes/guides/security/StandardNames.html#Cipher</a>
    */
   protected final String transforms;
-  private final Cipher cipher;
-
-  protected Cipher getCipher() {
-    return cipher;
-  }
+  /**
+   * the size of the chunk read from the stream
+   */
+  protected static final int STREAM_BUFFER_SIZE = 8192;
+  private final CryptoPool<Cipher> ciphers;
 
   public AbstractCryptoSpi(String algorithm, Provider provider, String transforms) {
     super(algorithm, provider);
     this.transforms = transforms;
-    this.cipher = CryptoUtil
-      .getCipher(AbstractCryptoSpi.this.transforms, AbstractCryptoSpi.this.provider);
+    this.ciphers = new CryptoPool<>(() -> CryptoUtil
+      .getCipher(AbstractCryptoSpi.this.transforms, AbstractCryptoSpi.this.provider));
+    // fail fast on an unknown transformation
+    this.ciphers.release(this.ciphers.borrow());
+  }
+
+  /**
+   * Borrow a cipher, it must be released by {@link #releaseCipher(Cipher)} after use
+   *
+   * @return the cipher
+   */
+  protected Cipher borrowCipher() {
+    return ciphers.borrow();
+  }
+
+  /**
+   * Release a cipher borrowed by {@link #borrowCipher()}
+   *
+   * @param cipher the cipher
+   */
+  protected void releaseCipher(Cipher cipher) {
+    ciphers.release(cipher);
+  }
+
+  /**
+   * Initialize the cipher with the key of the mode
+   *
+   * @param cipher the cipher
+   * @param mode   {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+   * @throws InvalidKeyException                if the key is invalid
+   * @throws InvalidAlgorithmParameterException if the parameter is invalid
+   */
+  protected abstract void init(Cipher cipher, int mode)
+    throws InvalidKeyException, InvalidAlgorithmParameterException;
+
+  protected byte[] doFinal(Cipher cipher, int mode, byte[] input) {
+    try {
+      return cipher.doFinal(input);
+    } catch (IllegalBlockSizeException | BadPaddingException e) {
+      fail(e);
+    }
+    return new byte[0];
+  }
+
+  @Override
+  public byte[] encrypt(byte[] plainText) {
+    return doFinal(Cipher.ENCRYPT_MODE, plainText);
+  }
+
+  @Override
+  public byte[] decrypt(byte[] cipherText) {
+    return doFinal(Cipher.DECRYPT_MODE, cipherText);
+  }
+
+  @Override
+  public int encrypt(ByteBuffer input, ByteBuffer output) {
+    return doFinal(Cipher.ENCRYPT_MODE, input, output);
+  }
+
+  @Override
+  public int decrypt(ByteBuffer input, ByteBuffer output) {
+    return doFinal(Cipher.DECRYPT_MODE, input, output);
+  }
+
+  @Override
+  public long encrypt(InputStream input, OutputStream output) {
+    return doFinal(Cipher.ENCRYPT_MODE, input, output);
+  }
+
+  @Override
+  public long decrypt(InputStream input, OutputStream output) {
+    return doFinal(Cipher.DECRYPT_MODE, input, output);
+  }
+
+  private byte[] doFinal(int mode, byte[] input) {
+    Cipher cipher = borrowCipher();
+    try {
+      init(cipher, mode);
+      return doFinal(cipher, mode, input);
+    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+      fail(e);
+    } finally {
+      releaseCipher(cipher);
+    }
+    return new byte[0];
+  }
+
+  private int doFinal(int mode, ByteBuffer input, ByteBuffer output) {
+    Cipher cipher = borrowCipher();
+    try {
+      init(cipher, mode);
+      if (input != output) {
+        return doFinal(cipher, mode, input, output);
+      }
+      // in place, the cipher reads a view of the buffer and writes the result over it
+      ByteBuffer source = input.duplicate();
+      int start = output.position();
+      output.limit(output.capacity());
+      int n = doFinal(cipher, mode, source, output);
+      output.limit(start + n);
+      output.position(start);
+      return n;
+    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+      fail(e);
+    } finally {
+      releaseCipher(cipher);
+    }
+    return 0;
+  }
+
+  private long doFinal(int mode, InputStream input, OutputStream output) {
+    Cipher cipher = borrowCipher();
+    try {
+      init(cipher, mode);
+      return doFinal(cipher, mode, input, output);
+    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+      fail(e);
+    } finally {
+      releaseCipher(cipher);
+    }
+    return 0;
+  }
+
+  /**
+   * Encryption or decryption operations from buffer to buffer
+   *
+   * @param cipher Cipher object
+   * @param mode   mode
+   * @param input  the input buffer, consumed up to its limit
+   * @param output the output buffer
+   * @return the number of bytes stored in the output buffer
+   */
+  protected int doFinal(Cipher cipher, int mode, ByteBuffer input, ByteBuffer output) {
+    try {
+      return cipher.doFinal(input, output);
+    } catch (ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+      fail(e);
+    }
+    return 0;
+  }
+
+  /**
+   * Encryption or decryption operations from stream to stream, chunk by chunk
+   *
+   * @param cipher Cipher object
+   * @param mode   mode
+   * @param input  the input stream, read up to its end but not closed
+   * @param output the output stream, not closed
+   * @return the number of bytes written to the output stream
+   */
+  protected long doFinal(Cipher cipher, int mode, InputStream input, OutputStream output) {
+    try {
+      byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+      byte[] result = new byte[cipher.getOutputSize(buffer.length)];
+      long written = 0;
+      int n;
+      while ((n = input.read(buffer)) != -1) {
+        n = cipher.update(buffer, 0, n, result);
+        output.write(result, 0, n);
+        written += n;
+      }
+      if (cipher.getOutputSize(0) > result.length) {
+        result = new byte[cipher.getOutputSize(0)];
+      }
+      n = cipher.doFinal(result, 0);
+      output.write(result, 0, n);
+      return written + n;
+    } catch (IOException | ShortBufferException | IllegalBlockSizeException
+      | BadPaddingException e) {
+      fail(e);
+    }
+    return 0;
   }
 
   @Override
@@ -45,7 +45,7 @@ public abstract class AbstractSecretSpi implements SecretSpi {
   /**
    * the encryption parameter specification object
    */
-  protected AlgorithmParameterSpec algorithmParameterSpec;
+  protected volatile AlgorithmParameterSpec algorithmParameterSpec;
   /**
    * is it Support byte[] encryption ?
    */
@@ -20,9 +20,7 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Provider;
 import java.security.spec.AlgorithmParameterSpec;
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import xyz.flysium.photon.crypto.support.CryptoUtil;
@@ -39,7 +37,7 @@ public abstract class AbstractSymmetric extends AbstractCryptoSpi {
   /**
    * Symmetric secret
    */
-  protected SecretKey secretKey = null;
+  protected volatile SecretKey secretKey = null;
   private static final int IV_LENGTH = 16;
 
   public AbstractSymmetric(String algorithm, Provider provider, String transforms) {
@@ -72,51 +70,14 @@ public abstract class AbstractSymmetric extends AbstractCryptoSpi {
   }
 
   @Override
-  public byte[] encrypt(byte[] plainText) {
-    Cipher cipher = getCipher();
-
-    try {
-      if (cipher != null) {
-        if (algorithmParameterSpec != null) {
-          cipher.init(Cipher.ENCRYPT_MODE, this.secretKey, algorithmParameterSpec);
-        } else {
-          cipher.init(Cipher.ENCRYPT_MODE, this.secretKey);
-        }
-
-        return doFinal(cipher, Cipher.ENCRYPT_MODE, plainText);
-      }
-    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
-      fail(e);
-    }
-    return new byte[0];
-  }
-
-  @Override
-  public byte[] decrypt(byte[] cipherText) {
-    Cipher cipher = getCipher();
-    try {
-      if (cipher != null) {
-        if (algorithmParameterSpec != null) {
-          cipher.init(Cipher.DECRYPT_MODE, this.secretKey, algorithmParameterSpec);
-        } else {
-          cipher.init(Cipher.DECRYPT_MODE, this.secretKey);
-        }
-
-        return doFinal(cipher, Cipher.DECRYPT_MODE, cipherText);
-      }
-    } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
-      fail(e);
-    }
-    return new byte[0];
-  }
-
-  protected byte[] doFinal(Cipher cipher, int mode, byte[] input) {
-    try {
-      return cipher.doFinal(input);
-    } catch (IllegalBlockSizeException | BadPaddingException e) {
-      fail(e);
+  protected void init(Cipher cipher, int mode)
+    throws InvalidKeyException, InvalidAlgorithmParameterException {
+    AlgorithmParameterSpec spec = this.algorithmParameterSpec;
+    if (spec != null) {
+      cipher.init(mode, this.secretKey, spec);
+    } else {
+      cipher.init(mode, this.secretKey);
     }
-    return new byte[0];
   }
 
 }
@@ -16,6 +16,9 @@
 
 package xyz.flysium.photon.crypto;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import xyz.flysium.photon.crypto.support.CryptoUtil;
 
 /**
@@ -73,6 +76,51 @@ public interface CryptoSpi extends SecretSpi {
    */
   byte[] decrypt(byte[] cipherText);
 
+  /**
+   * encrypt the remaining bytes of the input buffer into the output buffer
+   *
+   * <p>
+   * The output may be the input buffer itself to encrypt in place: the cipher text overwrites the
+   * plain text from the position of the buffer, which needs the capacity for the padding, and on
+   * return the remaining bytes of the buffer are the cipher text.
+   *
+   * @param input  plain data
+   * @param output the buffer for the cipher text data
+   * @return the number of bytes stored in the output buffer
+   */
+  int encrypt(ByteBuffer input, ByteBuffer output);
+
+  /**
+   * decrypt the remaining bytes of the input buffer into the output buffer
+   *
+   * <p>
+   * The output may be the input buffer itself to decrypt in place, on return the remaining bytes
+   * of the buffer are the plain data. The cipher may ask for the room of a padding block too.
+   *
+   * @param input  cipher text data
+   * @param output the buffer for the plain data
+   * @return the number of bytes stored in the output buffer
+   */
+  int decrypt(ByteBuffer input, ByteBuffer output);
+
+  /**
+   * encrypt the stream chunk by chunk, neither stream is closed
+   *
+   * @param input  plain data
+   * @param output the stream for the cipher text data
+   * @return the number of bytes written to the output stream
+   */
+  long encrypt(InputStream input, OutputStream output);
+
+  /**
+   * decrypt the stream chunk by chunk, neither stream is closed
+   *
+   * @param input  cipher text data
+   * @param output the stream for the plain data
+   * @return the number of bytes written to the output stream
+   */
+  long decrypt(InputStream input, OutputStream output);
+
   /**
    * decrypt string
    *
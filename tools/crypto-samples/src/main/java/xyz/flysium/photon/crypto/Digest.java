@@ -16,32 +16,83 @@
 
 package xyz.flysium.photon.crypto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.Provider;
+import xyz.flysium.photon.crypto.support.CryptoPool;
 import xyz.flysium.photon.crypto.support.CryptoUtil;
 
 /**
  * Information digest, irreversible encryption algorithm
  *
+ * <p>
+ * The instance is thread-safe, every digest borrows a {@link MessageDigest} from a pool.
+ *
  * @author Sven Augustus
  * @version 1.0
  * @since JDK 1.7
  */
 public class Digest extends AbstractSecretSpi {
 
-  private final MessageDigest messageDigest;
+  private final CryptoPool<MessageDigest> messageDigests;
 
   public Digest(String algorithm, Provider provider) {
     super(algorithm, provider);
-    this.messageDigest = CryptoUtil
-      .getMessageDigest(Digest.this.algorithm, Digest.this.provider);
+    this.messageDigests = new CryptoPool<>(() -> CryptoUtil
+      .getMessageDigest(Digest.this.algorithm, Digest.this.provider));
+    // fail fast on an unknown algorithm
+    this.messageDigests.release(this.messageDigests.borrow());
   }
 
   @Override
   public byte[] encrypt(byte[] plainText) {
-    if (this.messageDigest != null) {
-      this.messageDigest.update(plainText);
-      return this.messageDigest.digest();
+    MessageDigest messageDigest = messageDigests.borrow();
+    try {
+      return messageDigest.digest(plainText);
+    } finally {
+      messageDigests.release(messageDigest);
+    }
+  }
+
+  /**
+   * digest the remaining bytes of the buffer
+   *
+   * @param plainText plain data, consumed up to its limit
+   * @return the digest
+   */
+  public byte[] encrypt(ByteBuffer plainText) {
+    MessageDigest messageDigest = messageDigests.borrow();
+    try {
+      messageDigest.update(plainText);
+      return messageDigest.digest();
+    } finally {
+      messageDigest.reset();
+      messageDigests.release(messageDigest);
+    }
+  }
+
+  /**
+   * digest the stream chunk by chunk, the stream is not closed
+   *
+   * @param plainText plain data, read up to its end
+   * @return the digest
+   */
+  public byte[] encrypt(InputStream plainText) {
+    MessageDigest messageDigest = messageDigests.borrow();
+    try {
+      byte[] buffer = new byte[AbstractCryptoSpi.STREAM_BUFFER_SIZE];
+      int n;
+      while ((n = plainText.read(buffer)) != -1) {
+        messageDigest.update(buffer, 0, n);
+      }
+      return messageDigest.digest();
+    } catch (IOException e) {
+      fail(e);
+    } finally {
+      messageDigest.reset();
+      messageDigests.release(messageDigest);
     }
     return new byte[0];
   }
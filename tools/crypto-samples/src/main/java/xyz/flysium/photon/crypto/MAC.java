@@ -16,16 +16,23 @@
 
 package xyz.flysium.photon.crypto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.Provider;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import xyz.flysium.photon.crypto.support.CryptoPool;
 import xyz.flysium.photon.crypto.support.CryptoUtil;
 
 /**
  * MAC
  *
+ * <p>
+ * The instance is thread-safe, every operation borrows a {@link Mac} from a pool.
+ *
  * @author Sven Augustus
  * @version 1.0
  * @since JDK 1.7
@@ -37,14 +44,16 @@ public class MAC extends AbstractSecretSpi implements MacSpi, SecretSpi {
    */
   private static final String DEFAULT_ALGORITHM = "HmacSHA256";
 
-  private Key key;
+  private volatile Key key;
+  private final CryptoPool<Mac> macs;
 
   public MAC() {
-    super(DEFAULT_ALGORITHM, null);
+    this(null);
   }
 
   public MAC(Provider provider) {
     super(DEFAULT_ALGORITHM, provider);
+    this.macs = new CryptoPool<>(() -> CryptoUtil.getMac(MAC.this.algorithm, MAC.this.provider));
   }
 
   @Override
@@ -64,14 +73,58 @@ public class MAC extends AbstractSecretSpi implements MacSpi, SecretSpi {
 
   @Override
   public byte[] encrypt(byte[] plainText) {
-    Mac mac = CryptoUtil.getMac(algorithm, provider);
+    Mac mac = macs.borrow();
     try {
-      if (mac != null) {
-        mac.init(key);
-        return mac.doFinal(plainText);
-      }
+      mac.init(key);
+      return mac.doFinal(plainText);
+    } catch (InvalidKeyException e) {
+      fail(e);
+    } finally {
+      macs.release(mac);
+    }
+    return new byte[0];
+  }
+
+  /**
+   * compute the MAC of the remaining bytes of the buffer
+   *
+   * @param plainText plain data, consumed up to its limit
+   * @return the MAC
+   */
+  public byte[] encrypt(ByteBuffer plainText) {
+    Mac mac = macs.borrow();
+    try {
+      mac.init(key);
+      mac.update(plainText);
+      return mac.doFinal();
     } catch (InvalidKeyException e) {
       fail(e);
+    } finally {
+      macs.release(mac);
+    }
+    return new byte[0];
+  }
+
+  /**
+   * compute the MAC of the stream chunk by chunk, the stream is not closed
+   *
+   * @param plainText plain data, read up to its end
+   * @return the MAC
+   */
+  public byte[] encrypt(InputStream plainText) {
+    Mac mac = macs.borrow();
+    try {
+      mac.init(key);
+      byte[] buffer = new byte[AbstractCryptoSpi.STREAM_BUFFER_SIZE];
+      int n;
+      while ((n = plainText.read(buffer)) != -1) {
+        mac.update(buffer, 0, n);
+      }
+      return mac.doFinal();
+    } catch (InvalidKeyException | IOException e) {
+      fail(e);
+    } finally {
+      macs.release(mac);
     }
     return new byte[0];
   }
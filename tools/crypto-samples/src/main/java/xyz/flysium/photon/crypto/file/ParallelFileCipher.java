@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import xyz.flysium.photon.crypto.CryptoSpi;
+import xyz.flysium.photon.crypto.support.CryptoPool;
+import xyz.flysium.photon.crypto.support.CryptoUtil;
+
+/**
+ * Encrypt and decrypt a large file by AES, chunk by chunk in parallel.
+ *
+ * <p>
+ * The input file is memory-mapped chunk by chunk, every chunk is processed by a task of the
+ * ForkJoinPool with the IV derived from the chunk index, and the result is written at its position
+ * of the output file through a FileChannel. So the file is never loaded into the memory as a whole.
+ *
+ * <p>
+ * The output file starts with a random IV (nonce) generated for every encryption, then:
+ * <ul>
+ *   <li>{@link Mode#CTR}: the cipher text, the same as the one of encrypting the whole file by
+ *   AES/CTR/NoPadding with that IV, as the counter of a chunk starts at its block offset.</li>
+ *   <li>{@link Mode#GCM}: the cipher text and the 16 bytes tag of every chunk. The nonce of a chunk
+ *   is the one of the file xor its index, and the last chunk is marked in the additional
+ *   authenticated data, so that the chunks can be neither reordered nor truncated.</li>
+ * </ul>
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class ParallelFileCipher {
+
+  /**
+   * the mode of the block cipher, both of them make the chunks independent of each other
+   */
+  public enum Mode {
+    /**
+     * Counter mode, no authentication
+     */
+    CTR("AES/CTR/NoPadding", 16, 0),
+    /**
+     * Galois/Counter mode, every chunk is authenticated
+     */
+    GCM("AES/GCM/NoPadding", 12, 16);
+
+    private final String transforms;
+    private final int ivLength;
+    private final int tagLength;
+
+    Mode(String transforms, int ivLength, int tagLength) {
+      this.transforms = transforms;
+      this.ivLength = ivLength;
+      this.tagLength = tagLength;
+    }
+
+    public String getTransforms() {
+      return transforms;
+    }
+  }
+
+  /**
+   * default chunk size, 4 MB
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+  private static final String ALGORITHM = "AES";
+  private static final int BLOCK_SIZE = 16;
+
+  private final SecretKey secretKey;
+  private final Mode mode;
+  private final int chunkSize;
+  private final ForkJoinPool pool;
+  private final CryptoPool<Cipher> ciphers;
+  private final CryptoPool<ByteBuffer> buffers;
+  private final SecureRandom random = new SecureRandom();
+
+  public ParallelFileCipher(CryptoSpi aes, Mode mode) {
+    this(aes.getSecret(), mode, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(), null);
+  }
+
+  public ParallelFileCipher(byte[] secret, Mode mode, int chunkSize, ForkJoinPool pool,
+    Provider provider) {
+    if (chunkSize <= 0 || chunkSize % BLOCK_SIZE != 0) {
+      throw new IllegalArgumentException(
+        "chunkSize must be a positive multiple of " + BLOCK_SIZE + ": " + chunkSize);
+    }
+    this.secretKey = new SecretKeySpec(secret, ALGORITHM);
+    this.mode = mode;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+    this.ciphers = new CryptoPool<>(() -> CryptoUtil.getCipher(mode.transforms, provider),
+      pool.getParallelism());
+    this.buffers = new CryptoPool<>(() -> ByteBuffer.allocateDirect(chunkSize + mode.tagLength),
+      pool.getParallelism());
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * encrypt the file, the target file is created or truncated, and deleted if it fails
+   *
+   * @param source the plain file
+   * @param target the cipher file
+   * @return the length of the cipher file
+   * @throws IOException if an I/O error occurs
+   */
+  public long encrypt(Path source, Path target) throws IOException {
+    byte[] iv = new byte[mode.ivLength];
+    random.nextBytes(iv);
+    return process(Cipher.ENCRYPT_MODE, source, target, iv);
+  }
+
+  /**
+   * decrypt the file, the target file is created or truncated, and deleted if it fails
+   *
+   * @param source the cipher file
+   * @param target the plain file
+   * @return the length of the plain file
+   * @throws IOException if an I/O error occurs
+   */
+  public long decrypt(Path source, Path target) throws IOException {
+    return process(Cipher.DECRYPT_MODE, source, target, null);
+  }
+
+  private long process(int cipherMode, Path source, Path target, byte[] iv) throws IOException {
+    try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+      FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      Layout layout;
+      if (cipherMode == Cipher.ENCRYPT_MODE) {
+        write(out, ByteBuffer.wrap(iv), 0);
+        layout = new Layout(cipherMode, iv, in.size(), 0, chunkSize, mode.ivLength,
+          chunkSize + mode.tagLength);
+      } else {
+        iv = new byte[mode.ivLength];
+        if (in.size() < mode.ivLength) {
+          throw new IllegalStateException("Invalid cipher file, too short to have the IV");
+        }
+        read(in, ByteBuffer.wrap(iv), 0);
+        layout = new Layout(cipherMode, iv, in.size(), mode.ivLength,
+          chunkSize + mode.tagLength, 0, chunkSize);
+      }
+      pool.invoke(new ChunkAction(layout, in, out, 0, layout.chunks));
+      return out.size();
+    } catch (RuntimeException | IOException e) {
+      Files.deleteIfExists(target);
+      if (e instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e).getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * where the chunks are in the input and output files
+   */
+  private final class Layout {
+
+    private final int cipherMode;
+    private final byte[] iv;
+    private final long inLength;
+    private final long inBase;
+    private final int inStride;
+    private final long outBase;
+    private final int outStride;
+    private final int chunks;
+
+    private Layout(int cipherMode, byte[] iv, long inLength, long inBase, int inStride,
+      long outBase, int outStride) {
+      this.cipherMode = cipherMode;
+      this.iv = iv;
+      this.inLength = inLength;
+      this.inBase = inBase;
+      this.inStride = inStride;
+      this.outBase = outBase;
+      this.outStride = outStride;
+      long chunks = (inLength - inBase + inStride - 1) / inStride;
+      // an empty file has a chunk yet in GCM, so that it is authenticated too
+      if (chunks == 0 && mode == Mode.GCM) {
+        chunks = 1;
+      }
+      if (chunks > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many chunks, increase the chunk size");
+      }
+      this.chunks = (int) chunks;
+    }
+  }
+
+  /**
+   * process the chunks [from, to), split in halves until a single chunk
+   */
+  private final class ChunkAction extends RecursiveAction {
+
+    private final Layout layout;
+    private final FileChannel in;
+    private final FileChannel out;
+    private final int from;
+    private final int to;
+
+    private ChunkAction(Layout layout, FileChannel in, FileChannel out, int from, int to) {
+      this.layout = layout;
+      this.in = in;
+      this.out = out;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        if (to > from) {
+          processChunk(layout, in, out, from);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new ChunkAction(layout, in, out, from, middle),
+        new ChunkAction(layout, in, out, middle, to));
+    }
+  }
+
+  private void processChunk(Layout layout, FileChannel in, FileChannel out, int index) {
+    long inOffset = layout.inBase + (long) index * layout.inStride;
+    int inLength = (int) Math.min(layout.inStride, layout.inLength - inOffset);
+    long outOffset = layout.outBase + (long) index * layout.outStride;
+    if (inLength < (layout.cipherMode == Cipher.DECRYPT_MODE ? mode.tagLength : 0)) {
+      throw new IllegalStateException("Invalid cipher file, the last chunk is truncated");
+    }
+    Cipher cipher = ciphers.borrow();
+    ByteBuffer buffer = buffers.borrow();
+    try {
+      MappedByteBuffer input = in.map(MapMode.READ_ONLY, inOffset, inLength);
+      init(cipher, layout, index);
+      buffer.clear();
+      cipher.doFinal(input, buffer);
+      buffer.flip();
+      write(out, buffer, outOffset);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to process the chunk " + index, e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      buffers.release(buffer);
+      ciphers.release(cipher);
+    }
+  }
+
+  private void init(Cipher cipher, Layout layout, int index) throws GeneralSecurityException {
+    if (mode == Mode.CTR) {
+      // the counter of the chunk starts at its block offset in the plain text
+      long blocks = (long) index * (chunkSize / BLOCK_SIZE);
+      cipher.init(layout.cipherMode, secretKey, new IvParameterSpec(add(layout.iv, blocks)));
+      return;
+    }
+    byte[] nonce = layout.iv.clone();
+    for (int i = 0; i < Long.BYTES; i++) {
+      nonce[nonce.length - 1 - i] ^= (byte) ((long) index >>> (i * 8));
+    }
+    cipher.init(layout.cipherMode, secretKey, new GCMParameterSpec(mode.tagLength * 8, nonce));
+    cipher.updateAAD(new byte[]{(byte) (index == layout.chunks - 1 ? 1 : 0)});
+  }
+
+  /**
+   * add to the big-endian counter
+   */
+  private static byte[] add(byte[] counter, long n) {
+    byte[] result = counter.clone();
+    long carry = n;
+    for (int i = result.length - 1; i >= 0 && carry != 0; i--) {
+      long sum = (result[i] & 0xFF) + (carry & 0xFF);
+      result[i] = (byte) sum;
+      carry = (carry >>> 8) + (sum >>> 8);
+    }
+    return result;
+  }
+
+  private static void write(FileChannel channel, ByteBuffer buffer, long position)
+    throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static void read(FileChannel channel, ByteBuffer buffer, long position)
+    throws IOException {
+    while (buffer.hasRemaining()) {
+      int n = channel.read(buffer, position);
+      if (n < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+      position += n;
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import xyz.flysium.photon.crypto.Digest;
+import xyz.flysium.photon.crypto.MAC;
+
+/**
+ * Tree hash of a large file, the chunks are hashed in parallel.
+ *
+ * <p>
+ * The file is split into chunks, every chunk is memory-mapped and hashed by a task of the
+ * ForkJoinPool as a leaf, then the hashes of two adjacent nodes are concatenated and hashed as
+ * their parent up to the root, like the tree hash of Amazon Glacier. A node of n leaves has the
+ * left subtree of the largest power of 2 less than n.
+ *
+ * <p>
+ * The root is the plain hash of the file if it has a single chunk, otherwise it differs from the
+ * plain one: both sides must use the same chunk size.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class TreeHash {
+
+  /**
+   * default chunk size, 1 MB
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+  private final Function<ByteBuffer, byte[]> leaf;
+  private final Function<byte[], byte[]> node;
+  private final int chunkSize;
+  private final ForkJoinPool pool;
+
+  public TreeHash(Digest digest) {
+    this(digest, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+  }
+
+  public TreeHash(Digest digest, int chunkSize, ForkJoinPool pool) {
+    this(digest::encrypt, digest::encrypt, chunkSize, pool);
+  }
+
+  public TreeHash(MAC mac) {
+    this(mac, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+  }
+
+  public TreeHash(MAC mac, int chunkSize, ForkJoinPool pool) {
+    this(mac::encrypt, mac::encrypt, chunkSize, pool);
+  }
+
+  private TreeHash(Function<ByteBuffer, byte[]> leaf, Function<byte[], byte[]> node,
+    int chunkSize, ForkJoinPool pool) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    this.leaf = leaf;
+    this.node = node;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * hash the file
+   *
+   * @param file the file
+   * @return the root hash
+   * @throws IOException if an I/O error occurs
+   */
+  public byte[] hash(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long length = channel.size();
+      long leaves = Math.max(1, (length + chunkSize - 1) / chunkSize);
+      if (leaves > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many chunks, increase the chunk size");
+      }
+      return pool.invoke(new NodeTask(channel, length, 0, (int) leaves));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * hash the node of the leaves [from, to)
+   */
+  private final class NodeTask extends RecursiveTask<byte[]> {
+
+    private final FileChannel channel;
+    private final long length;
+    private final int from;
+    private final int to;
+
+    private NodeTask(FileChannel channel, long length, int from, int to) {
+      this.channel = channel;
+      this.length = length;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected byte[] compute() {
+      if (to - from == 1) {
+        long offset = (long) from * chunkSize;
+        try {
+          return leaf.apply(
+            channel.map(MapMode.READ_ONLY, offset, Math.min(chunkSize, length - offset)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      int split = Integer.highestOneBit(to - from - 1);
+      NodeTask left = new NodeTask(channel, length, from, from + split);
+      left.fork();
+      byte[] right = new NodeTask(channel, length, from + split, to).compute();
+      byte[] l = left.join();
+      byte[] concat = new byte[l.length + right.length];
+      System.arraycopy(l, 0, concat, 0, l.length);
+      System.arraycopy(right, 0, concat, l.length, right.length);
+      return node.apply(concat);
+    }
+  }
+
+}
@@ -18,6 +18,9 @@ package xyz.flysium.photon.crypto.impl;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.KeyFactory;
 import java.security.Provider;
 import java.security.interfaces.RSAPublicKey;
@@ -27,6 +30,7 @@ import java.security.spec.X509EncodedKeySpec;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
 import org.apache.commons.lang3.StringUtils;
 import xyz.flysium.photon.crypto.AbstractAsymmetric;
 import xyz.flysium.photon.crypto.AsyCryptoSpi;
@@ -147,14 +151,7 @@ public class RSA extends AbstractAsymmetric implements AsyCryptoSpi, SecretSpi {
   @Override
   protected byte[] doFinal(Cipher cipher, int mode, byte[] input) {
     try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-      // java.lang.ArrayIndexOutOfBoundsException: too much data for RSA block
-      // Padding模式下，其中PKCS#1建议的Padding就占用了11个字节
-      // In Padding mode, Padding, which is recommended by PKCS#1, occupies 11 bytes.
-      final int keyLength = ((RSAPublicKey) publicKey).getModulus().bitLength();
-      final int defaultBlockLength =
-        (Cipher.DECRYPT_MODE == mode) ? (keyLength / 8) : (keyLength / 8 - 11);
-      final int maxBlockLength =
-        (cipher.getBlockSize() > 0) ? cipher.getBlockSize() : defaultBlockLength;
+      final int maxBlockLength = maxBlockLength(cipher, mode);
       int length = input.length;
       if (length <= maxBlockLength) {
         return cipher.doFinal(input);
@@ -181,4 +178,80 @@ public class RSA extends AbstractAsymmetric implements AsyCryptoSpi, SecretSpi {
     return new byte[0];
   }
 
+  /**
+   * Encryption or decryption operations from buffer to buffer
+   *
+   * <p>
+   * The cipher text block is longer than the plain text one, the input is read at once, so that it
+   * is never overwritten before read when in place.
+   *
+   * @param cipher Cipher object
+   * @param mode   mode
+   * @param input  the input buffer, consumed up to its limit
+   * @param output the output buffer
+   * @return the number of bytes stored in the output buffer
+   */
+  @Override
+  protected int doFinal(Cipher cipher, int mode, ByteBuffer input, ByteBuffer output) {
+    byte[] bytes = new byte[input.remaining()];
+    input.get(bytes);
+    byte[] result = doFinal(cipher, mode, bytes);
+    if (result.length > output.remaining()) {
+      fail(new ShortBufferException(
+        "Need " + result.length + " bytes, but " + output.remaining() + " remaining"));
+    }
+    output.put(result);
+    return result.length;
+  }
+
+  /**
+   * Encryption or decryption operations from stream to stream, block by block
+   *
+   * @param cipher Cipher object
+   * @param mode   mode
+   * @param input  the input stream, read up to its end but not closed
+   * @param output the output stream, not closed
+   * @return the number of bytes written to the output stream
+   */
+  @Override
+  protected long doFinal(Cipher cipher, int mode, InputStream input, OutputStream output) {
+    final byte[] block = new byte[maxBlockLength(cipher, mode)];
+    final byte[] result = new byte[cipher.getOutputSize(block.length)];
+    long written = 0;
+    try {
+      int length;
+      while ((length = read(input, block)) > 0) {
+        int n = cipher.doFinal(block, 0, length, result, 0);
+        output.write(result, 0, n);
+        written += n;
+      }
+    } catch (IOException | ShortBufferException | IllegalBlockSizeException
+      | BadPaddingException e) {
+      fail(e);
+    }
+    return written;
+  }
+
+  /**
+   * read until the block is full or the end of the stream, a block must not be split
+   */
+  private static int read(InputStream input, byte[] block) throws IOException {
+    int length = 0;
+    int n;
+    while (length < block.length && (n = input.read(block, length, block.length - length)) != -1) {
+      length += n;
+    }
+    return length;
+  }
+
+  private int maxBlockLength(Cipher cipher, int mode) {
+    // java.lang.ArrayIndexOutOfBoundsException: too much data for RSA block
+    // Padding模式下，其中PKCS#1建议的Padding就占用了11个字节
+    // In Padding mode, Padding, which is recommended by PKCS#1, occupies 11 bytes.
+    final int keyLength = ((RSAPublicKey) publicKey).getModulus().bitLength();
+    final int defaultBlockLength =
+      (Cipher.DECRYPT_MODE == mode) ? (keyLength / 8) : (keyLength / 8 - 11);
+    return (cipher.getBlockSize() > 0) ? cipher.getBlockSize() : defaultBlockLength;
+  }
+
 }
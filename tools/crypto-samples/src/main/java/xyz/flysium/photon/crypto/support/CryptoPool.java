@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto.support;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of the engines ({@link javax.crypto.Cipher}, {@link javax.crypto.Mac}, {@link
+ * java.security.MessageDigest}...) which are stateful and not thread-safe.
+ *
+ * <p>
+ * Looking up an engine by the provider is expensive, so the engines are borrowed from the pool and
+ * released back to it after use. The pool never blocks: a new engine is created if no one is idle,
+ * and an engine released into a full pool is dropped.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public final class CryptoPool<T> {
+
+  /**
+   * the default max number of the idle engines
+   */
+  public static final int DEFAULT_MAX_IDLE = Math
+    .max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+  private final Supplier<T> factory;
+  private final BlockingQueue<T> idle;
+
+  public CryptoPool(Supplier<T> factory) {
+    this(factory, DEFAULT_MAX_IDLE);
+  }
+
+  public CryptoPool(Supplier<T> factory, int maxIdle) {
+    if (maxIdle <= 0) {
+      throw new IllegalArgumentException("maxIdle must be positive: " + maxIdle);
+    }
+    this.factory = factory;
+    this.idle = new ArrayBlockingQueue<>(maxIdle);
+  }
+
+  /**
+   * Borrow an engine, the caller owns it until {@link #release(Object)}
+   *
+   * @return an idle engine, or a new one
+   */
+  public T borrow() {
+    T engine = idle.poll();
+    return engine != null ? engine : factory.get();
+  }
+
+  /**
+   * Release an engine back to the pool, it must not be used by the caller any more
+   *
+   * @param engine the engine borrowed
+   */
+  public void release(T engine) {
+    if (engine != null) {
+      idle.offer(engine);
+    }
+  }
+
+  /**
+   * Get the number of the idle engines
+   *
+   * @return the number of the idle engines
+   */
+  public int idle() {
+    return idle.size();
+  }
+
+}
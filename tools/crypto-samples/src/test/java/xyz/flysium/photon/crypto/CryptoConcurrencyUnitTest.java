@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.flysium.photon.crypto.impl.AES;
+import xyz.flysium.photon.crypto.impl.SHA256;
+import xyz.flysium.photon.crypto.support.CryptoSpiUnitTest;
+import xyz.flysium.photon.crypto.support.CryptoUtil;
+import xyz.flysium.photon.crypto.support.SpecUtil;
+
+/**
+ * Share one instance between threads Test.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class CryptoConcurrencyUnitTest extends CryptoSpiUnitTest {
+
+  private static final int THREADS = 8;
+  private static final int TIMES = 2000;
+
+  @Test
+  public void test() throws Exception {
+    final CryptoSpi aes = new AES("AES/CBC/PKCS5Padding");
+    aes.generateKey(128);
+    aes.setAlgorithmParameterSpec(SpecUtil.buildIV("0123456789abcdef".getBytes()));
+    final Digest sha256 = new SHA256();
+    final MAC mac = new MAC();
+    mac.setKey("17851d5650c868de");
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        final int thread = t;
+        futures.add(executor.submit((Callable<Void>) () -> {
+          for (int i = 0; i < TIMES; i++) {
+            byte[] plainText = ("thread " + thread + " message " + i).getBytes();
+            Assert.assertArrayEquals(plainText, aes.decrypt(aes.encrypt(plainText)));
+            Assert.assertEquals(CryptoUtil.hex(sha256.encrypt(plainText)),
+              CryptoUtil.hex(new SHA256().encrypt(plainText)));
+            Assert.assertEquals(32, mac.encrypt(plainText).length);
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    LOGGER.info("{} threads x {} times passed", THREADS, TIMES);
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.flysium.photon.crypto.impl.AES;
+import xyz.flysium.photon.crypto.impl.RSA;
+import xyz.flysium.photon.crypto.impl.SHA256;
+import xyz.flysium.photon.crypto.support.CryptoSpiUnitTest;
+import xyz.flysium.photon.crypto.support.SpecUtil;
+
+/**
+ * ByteBuffer and stream Test.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class CryptoStreamUnitTest extends CryptoSpiUnitTest {
+
+  private static final byte[] IV = "0123456789abcdef".getBytes();
+
+  @Test
+  public void testByteBuffer() {
+    CryptoSpi aes = aes();
+    byte[] plainText = random(100_000);
+    byte[] expected = aes.encrypt(plainText);
+
+    ByteBuffer cipherText = ByteBuffer.allocateDirect(plainText.length + 16);
+    int n = aes.encrypt(ByteBuffer.wrap(plainText), cipherText);
+    Assert.assertEquals(expected.length, n);
+    cipherText.flip();
+    Assert.assertArrayEquals(expected, bytes(cipherText.duplicate()));
+
+    // the cipher asks for the room of the padding to decrypt too
+    ByteBuffer decrypted = ByteBuffer.allocate(plainText.length + 16);
+    Assert.assertEquals(plainText.length, aes.decrypt(cipherText, decrypted));
+    decrypted.flip();
+    Assert.assertArrayEquals(plainText, bytes(decrypted));
+  }
+
+  @Test
+  public void testByteBufferInPlace() {
+    CryptoSpi aes = aes();
+    byte[] plainText = random(100_000);
+    byte[] expected = aes.encrypt(plainText);
+
+    for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(plainText.length + 32),
+      ByteBuffer.allocateDirect(plainText.length + 32)}) {
+      // not from the start of the buffer
+      buffer.position(10);
+      buffer.put(plainText).flip().position(10);
+
+      Assert.assertEquals(expected.length, aes.encrypt(buffer, buffer));
+      Assert.assertEquals(10, buffer.position());
+      Assert.assertArrayEquals(expected, bytes(buffer.duplicate()));
+
+      Assert.assertEquals(plainText.length, aes.decrypt(buffer, buffer));
+      Assert.assertArrayEquals(plainText, bytes(buffer.duplicate()));
+    }
+  }
+
+  @Test
+  public void testStream() {
+    CryptoSpi aes = aes();
+    byte[] plainText = random(1_000_003);
+    byte[] expected = aes.encrypt(plainText);
+
+    ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+    long n = aes.encrypt(new ByteArrayInputStream(plainText), cipherText);
+    Assert.assertEquals(expected.length, n);
+    Assert.assertArrayEquals(expected, cipherText.toByteArray());
+
+    ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+    aes.decrypt(new ByteArrayInputStream(cipherText.toByteArray()), decrypted);
+    Assert.assertArrayEquals(plainText, decrypted.toByteArray());
+  }
+
+  @Test
+  public void testRSA() {
+    CryptoSpi rsa = new RSA();
+    rsa.generateKey(RSA.DEFAULT_KEY_SIZE);
+    // more than one block
+    byte[] plainText = random(1000);
+
+    ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+    rsa.encrypt(new ByteArrayInputStream(plainText), cipherText);
+    Assert.assertArrayEquals(plainText, rsa.decrypt(cipherText.toByteArray()));
+
+    ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+    rsa.decrypt(new ByteArrayInputStream(cipherText.toByteArray()), decrypted);
+    Assert.assertArrayEquals(plainText, decrypted.toByteArray());
+
+    ByteBuffer buffer = ByteBuffer.allocate(2048);
+    buffer.put(plainText).flip();
+    rsa.encrypt(buffer, buffer);
+    Assert.assertArrayEquals(plainText, rsa.decrypt(bytes(buffer.duplicate())));
+    rsa.decrypt(buffer, buffer);
+    Assert.assertArrayEquals(plainText, bytes(buffer));
+  }
+
+  @Test
+  public void testDigestAndMac() {
+    byte[] plainText = random(100_000);
+
+    Digest sha256 = new SHA256();
+    byte[] expected = sha256.encrypt(plainText);
+    Assert.assertArrayEquals(expected, sha256.encrypt(ByteBuffer.wrap(plainText)));
+    Assert.assertArrayEquals(expected, sha256.encrypt(new ByteArrayInputStream(plainText)));
+    Assert.assertArrayEquals(expected, sha256.encrypt(plainText));
+
+    MAC mac = new MAC();
+    mac.setKey("17851d5650c868de");
+    expected = mac.encrypt(plainText);
+    Assert.assertArrayEquals(expected, mac.encrypt(ByteBuffer.wrap(plainText)));
+    Assert.assertArrayEquals(expected, mac.encrypt(new ByteArrayInputStream(plainText)));
+  }
+
+  private static CryptoSpi aes() {
+    CryptoSpi aes = new AES("AES/CBC/PKCS5Padding");
+    aes.generateKey(128);
+    aes.setAlgorithmParameterSpec(SpecUtil.buildIV(IV));
+    return aes;
+  }
+
+  private static byte[] random(int length) {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] bytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto.file;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import xyz.flysium.photon.crypto.file.ParallelFileCipher.Mode;
+import xyz.flysium.photon.crypto.support.CryptoSpiUnitTest;
+
+/**
+ * ParallelFileCipher Test.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class ParallelFileCipherUnitTest extends CryptoSpiUnitTest {
+
+  private static final int CHUNK_SIZE = 64 << 10;
+  private static final byte[] KEY = "0123456789abcdef".getBytes();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ForkJoinPool pool;
+
+  @Before
+  public void before() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void after() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testCTR() throws Exception {
+    ParallelFileCipher cipher = new ParallelFileCipher(KEY, Mode.CTR, CHUNK_SIZE, pool, null);
+    byte[] plainText = random(10 * CHUNK_SIZE + 5);
+    Path source = write(plainText);
+    Path encrypted = folder.newFile().toPath();
+    Path decrypted = folder.newFile().toPath();
+
+    Assert.assertEquals(16 + plainText.length, cipher.encrypt(source, encrypted));
+    // the same as encrypting the whole file at once
+    byte[] cipherFile = Files.readAllBytes(encrypted);
+    Cipher ctr = Cipher.getInstance("AES/CTR/NoPadding");
+    ctr.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"),
+      new IvParameterSpec(Arrays.copyOf(cipherFile, 16)));
+    Assert.assertArrayEquals(ctr.doFinal(plainText),
+      Arrays.copyOfRange(cipherFile, 16, cipherFile.length));
+
+    Assert.assertEquals(plainText.length, cipher.decrypt(encrypted, decrypted));
+    Assert.assertArrayEquals(plainText, Files.readAllBytes(decrypted));
+  }
+
+  @Test
+  public void testGCM() throws Exception {
+    ParallelFileCipher cipher = new ParallelFileCipher(KEY, Mode.GCM, CHUNK_SIZE, pool, null);
+    for (int length : new int[]{0, 1, CHUNK_SIZE, 7 * CHUNK_SIZE + 123}) {
+      byte[] plainText = random(length);
+      Path source = write(plainText);
+      Path encrypted = folder.newFile().toPath();
+      Path decrypted = folder.newFile().toPath();
+
+      int chunks = Math.max(1, (length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+      Assert.assertEquals(12 + length + 16L * chunks, cipher.encrypt(source, encrypted));
+      Assert.assertEquals(length, cipher.decrypt(encrypted, decrypted));
+      Assert.assertArrayEquals(plainText, Files.readAllBytes(decrypted));
+    }
+  }
+
+  @Test
+  public void testGCMTampered() throws Exception {
+    ParallelFileCipher cipher = new ParallelFileCipher(KEY, Mode.GCM, CHUNK_SIZE, pool, null);
+    byte[] plainText = random(3 * CHUNK_SIZE + 10);
+    Path encrypted = folder.newFile().toPath();
+    cipher.encrypt(write(plainText), encrypted);
+    byte[] cipherFile = Files.readAllBytes(encrypted);
+
+    // a flipped bit
+    byte[] tampered = cipherFile.clone();
+    tampered[12 + CHUNK_SIZE + 100] ^= 1;
+    assertDecryptFails(cipher, tampered);
+    // the last chunk dropped
+    assertDecryptFails(cipher, Arrays.copyOf(cipherFile, 12 + 3 * (CHUNK_SIZE + 16)));
+    // two chunks swapped
+    byte[] swapped = cipherFile.clone();
+    System.arraycopy(cipherFile, 12, swapped, 12 + CHUNK_SIZE + 16, CHUNK_SIZE + 16);
+    System.arraycopy(cipherFile, 12 + CHUNK_SIZE + 16, swapped, 12, CHUNK_SIZE + 16);
+    assertDecryptFails(cipher, swapped);
+  }
+
+  private void assertDecryptFails(ParallelFileCipher cipher, byte[] cipherFile) throws Exception {
+    Path decrypted = new File(folder.getRoot(), "decrypted").toPath();
+    try {
+      cipher.decrypt(write(cipherFile), decrypted);
+      Assert.fail("decrypted a tampered file");
+    } catch (IllegalStateException e) {
+      LOGGER.info("decrypt failed as expected: {}", e.getMessage());
+    }
+    Assert.assertFalse(Files.exists(decrypted));
+  }
+
+  private Path write(byte[] bytes) throws Exception {
+    Path file = folder.newFile().toPath();
+    Files.write(file, bytes);
+    return file;
+  }
+
+  private static byte[] random(int length) {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+    return bytes;
+  }
+
+}
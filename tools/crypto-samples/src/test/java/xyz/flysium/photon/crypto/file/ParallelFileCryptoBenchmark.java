@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto.file;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.flysium.photon.crypto.CryptoSpi;
+import xyz.flysium.photon.crypto.Digest;
+import xyz.flysium.photon.crypto.MAC;
+import xyz.flysium.photon.crypto.file.ParallelFileCipher.Mode;
+import xyz.flysium.photon.crypto.impl.AES;
+import xyz.flysium.photon.crypto.impl.SHA256;
+import xyz.flysium.photon.crypto.support.SpecUtil;
+
+/**
+ * Throughput of encrypting and hashing a large file, by one thread with the stream and in parallel
+ * across the core counts.
+ *
+ * <p>
+ * usage: ParallelFileCryptoBenchmark [size in MB, 512 by default]
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class ParallelFileCryptoBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelFileCryptoBenchmark.class);
+  private static final int ROUNDS = 3;
+
+  private interface Job {
+
+    void run() throws Exception;
+  }
+
+  public static void main(String[] args) throws Exception {
+    final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+    final Path source = Files.createTempFile("benchmark", ".plain");
+    final Path target = Files.createTempFile("benchmark", ".cipher");
+    try {
+      fill(source, (long) megabytes << 20);
+      final byte[] key = "0123456789abcdef".getBytes();
+      final CryptoSpi aes = new AES("AES/CTR/NoPadding");
+      aes.setSecret(key);
+      aes.setAlgorithmParameterSpec(SpecUtil.buildIV("0123456789abcdef".getBytes()));
+      final Digest sha256 = new SHA256();
+      final MAC mac = new MAC();
+      mac.setKey("17851d5650c868de");
+
+      report("stream  AES/CTR", megabytes, () -> {
+        try (InputStream in = Files.newInputStream(source);
+          OutputStream out = Files.newOutputStream(target)) {
+          aes.encrypt(in, out);
+        }
+      });
+      report("stream  SHA-256", megabytes, () -> {
+        try (InputStream in = Files.newInputStream(source)) {
+          sha256.encrypt(in);
+        }
+      });
+      report("stream  HmacSHA256", megabytes, () -> {
+        try (InputStream in = Files.newInputStream(source)) {
+          mac.encrypt(in);
+        }
+      });
+
+      for (int parallelism : parallelisms()) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+          ParallelFileCipher ctr = new ParallelFileCipher(key, Mode.CTR,
+            ParallelFileCipher.DEFAULT_CHUNK_SIZE, pool, null);
+          ParallelFileCipher gcm = new ParallelFileCipher(key, Mode.GCM,
+            ParallelFileCipher.DEFAULT_CHUNK_SIZE, pool, null);
+          TreeHash sha256Tree = new TreeHash(sha256, TreeHash.DEFAULT_CHUNK_SIZE, pool);
+          TreeHash macTree = new TreeHash(mac, TreeHash.DEFAULT_CHUNK_SIZE, pool);
+          report("x" + parallelism + "      AES/CTR", megabytes, () -> ctr.encrypt(source, target));
+          report("x" + parallelism + "      AES/GCM", megabytes, () -> gcm.encrypt(source, target));
+          report("x" + parallelism + "      tree SHA-256", megabytes, () -> sha256Tree.hash(source));
+          report("x" + parallelism + "      tree HmacSHA256", megabytes, () -> macTree.hash(source));
+        } finally {
+          pool.shutdown();
+        }
+      }
+    } finally {
+      Files.deleteIfExists(source);
+      Files.deleteIfExists(target);
+    }
+  }
+
+  /**
+   * 1, 2, 4 ... up to the number of the processors
+   */
+  private static List<Integer> parallelisms() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    List<Integer> parallelisms = new ArrayList<>();
+    for (int p = 1; p < processors; p <<= 1) {
+      parallelisms.add(p);
+    }
+    parallelisms.add(processors);
+    return parallelisms;
+  }
+
+  private static void report(String name, int megabytes, Job job) throws Exception {
+    // warm up
+    job.run();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      job.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    LOGGER.info(String.format("%-28s %10.1f MB/s", name, megabytes * 1e9 / best));
+  }
+
+  private static void fill(Path file, long length) throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+    new Random(0).nextBytes(buffer.array());
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      for (long position = 0; position < length; position += buffer.capacity()) {
+        buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+        channel.write(buffer, position);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package xyz.flysium.photon.crypto.file;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import xyz.flysium.photon.crypto.Digest;
+import xyz.flysium.photon.crypto.MAC;
+import xyz.flysium.photon.crypto.impl.SHA256;
+import xyz.flysium.photon.crypto.support.CryptoSpiUnitTest;
+import xyz.flysium.photon.crypto.support.CryptoUtil;
+
+/**
+ * TreeHash Test.
+ *
+ * @author Sven Augustus
+ * @version 1.0
+ * @since JDK 1.8
+ */
+public class TreeHashUnitTest extends CryptoSpiUnitTest {
+
+  private static final int CHUNK_SIZE = 64 << 10;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSingleChunk() throws Exception {
+    Digest sha256 = new SHA256();
+    byte[] bytes = random(CHUNK_SIZE);
+    Path file = write(bytes);
+    Assert.assertArrayEquals(sha256.encrypt(bytes),
+      new TreeHash(sha256, CHUNK_SIZE, ForkJoinPool.commonPool()).hash(file));
+    Assert.assertArrayEquals(sha256.encrypt(new byte[0]),
+      new TreeHash(sha256, CHUNK_SIZE, ForkJoinPool.commonPool()).hash(write(new byte[0])));
+  }
+
+  @Test
+  public void testTree() throws Exception {
+    Digest sha256 = new SHA256();
+    for (int chunks = 2; chunks <= 9; chunks++) {
+      byte[] bytes = random(chunks * CHUNK_SIZE - 7);
+      Path file = write(bytes);
+      byte[] expected = tree(sha256, bytes);
+      for (int parallelism : new int[]{1, 4}) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+          byte[] root = new TreeHash(sha256, CHUNK_SIZE, pool).hash(file);
+          Assert.assertEquals(CryptoUtil.hex(expected), CryptoUtil.hex(root));
+        } finally {
+          pool.shutdown();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMAC() throws Exception {
+    MAC mac = new MAC();
+    mac.setKey("17851d5650c868de");
+    byte[] bytes = random(5 * CHUNK_SIZE);
+    byte[] root = new TreeHash(mac, CHUNK_SIZE, ForkJoinPool.commonPool()).hash(write(bytes));
+    Assert.assertEquals(32, root.length);
+
+    MAC other = new MAC();
+    other.setKey("another key");
+    Assert.assertFalse(Arrays.equals(root,
+      new TreeHash(other, CHUNK_SIZE, ForkJoinPool.commonPool()).hash(write(bytes))));
+  }
+
+  /**
+   * the tree hash of Amazon Glacier, level by level from the leaves
+   */
+  private static byte[] tree(Digest digest, byte[] bytes) {
+    int chunks = (bytes.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    byte[][] level = new byte[chunks][];
+    for (int i = 0; i < chunks; i++) {
+      level[i] = digest.encrypt(Arrays.copyOfRange(bytes, i * CHUNK_SIZE,
+        Math.min(bytes.length, (i + 1) * CHUNK_SIZE)));
+    }
+    while (level.length > 1) {
+      byte[][] parents = new byte[(level.length + 1) / 2][];
+      for (int i = 0; i < level.length; i += 2) {
+        if (i + 1 == level.length) {
+          parents[i / 2] = level[i];
+        } else {
+          byte[] concat = Arrays.copyOf(level[i], level[i].length * 2);
+          System.arraycopy(level[i + 1], 0, concat, level[i].length, level[i + 1].length);
+          parents[i / 2] = digest.encrypt(concat);
+        }
+      }
+      level = parents;
+    }
+    return level[0];
+  }
+
+  private Path write(byte[] bytes) throws Exception {
+    Path file = folder.newFile().toPath();
+    Files.write(file, bytes);
+    return file;
+  }
+
+  private static byte[] random(int length) {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+    return bytes;
+  }
+
+}
@@ -24,14 +24,24 @@
 
 package xyz.flysium.photon.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import graphql.GraphQL;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import xyz.flysium.photon.dao.repository.CachingPreparsedDocumentProvider;
 
 /**
  * @author zeno (Sven Augustus)
@@ -40,11 +50,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class GraphQLController {
 
+  public static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+
+  public static final String PERSISTED_QUERY_HASH_MISMATCH = "provided sha does not match query";
+
   private Logger logger = LoggerFactory.getLogger(getClass());
 
   @Autowired
   private GraphQL graphQL;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * sha256 -> query
+   */
+  private final Cache<String, String> persistedQueries;
+
+  public GraphQLController(
+      @Value("${application.graphql.persisted-query.maximum-size:1000}") long maximumSize) {
+    persistedQueries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
   @RequestMapping(value = "/graphql")
   public Map<String, Object> graphql(@RequestBody String query) {
     logger.debug("request:{}", query);
@@ -53,4 +80,40 @@ public class GraphQLController {
     return result;
   }
 
-}
\ No newline at end of file
+  /**
+   * Automatic Persisted Queries：https://github.com/apollographql/apollo-link-persisted-queries
+   * <p>
+   * 客户端只发送 extensions={"persistedQuery":{"version":1,"sha256Hash":"..."}}，服务端没有时返回
+   * PersistedQueryNotFound，客户端带上 query 与 hash 重发，之后只需要 hash
+   */
+  @RequestMapping(value = "/graphql", params = "extensions")
+  public Map<String, Object> persistedQuery(
+      @RequestParam(value = "query", required = false) String query,
+      @RequestParam("extensions") String extensions) throws IOException {
+    final JsonNode hashNode = objectMapper.readTree(extensions).path("persistedQuery")
+        .path("sha256Hash");
+    if (!hashNode.isTextual()) {
+      return graphql(query == null ? "" : query);
+    }
+    final String hash = hashNode.asText().toLowerCase();
+    if (query == null || query.trim().isEmpty()) {
+      query = persistedQueries.getIfPresent(hash);
+      if (query == null) {
+        return error(PERSISTED_QUERY_NOT_FOUND, "PERSISTED_QUERY_NOT_FOUND");
+      }
+    } else if (!hash.equals(CachingPreparsedDocumentProvider.sha256(query))) {
+      return error(PERSISTED_QUERY_HASH_MISMATCH, "PERSISTED_QUERY_HASH_MISMATCH");
+    } else {
+      persistedQueries.put(hash, query);
+    }
+    return graphql(query);
+  }
+
+  private static Map<String, Object> error(String message, String code) {
+    Map<String, Object> error = new LinkedHashMap<>();
+    error.put("message", message);
+    error.put("extensions", Collections.singletonMap("code", code));
+    return Collections.singletonMap("errors", Collections.singletonList(error));
+  }
+
+}
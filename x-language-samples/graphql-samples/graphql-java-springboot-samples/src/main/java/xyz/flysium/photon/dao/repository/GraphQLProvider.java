@@ -55,6 +55,9 @@ public class GraphQLProvider {
   @Autowired
   private GraphQLDataFetchers graphQLDataFetchers;
 
+  @Autowired
+  private CachingPreparsedDocumentProvider preparsedDocumentProvider;
+
   private GraphQL graphQL;
 
   @Value("${application.graphql.schema}")
@@ -70,7 +73,10 @@ public class GraphQLProvider {
       sdl = FileCopyUtils.copyToString(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
     }
     GraphQLSchema graphQLSchema = buildSchema(sdl);
-    this.graphQL = GraphQL.newGraphQL(graphQLSchema).build();
+    this.graphQL = GraphQL.newGraphQL(graphQLSchema)
+        // 相同的查询只解析、校验一次
+        .preparsedDocumentProvider(preparsedDocumentProvider)
+        .build();
   }
 
   private GraphQLSchema buildSchema(String sdl) {
@@ -16,6 +16,7 @@
 
 package xyz.flysium.photon.controller;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,6 +28,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import xyz.flysium.photon.dao.repository.CachingPreparsedDocumentProvider;
 
 /**
  * @author zeno (Sven Augustus)
@@ -39,6 +41,9 @@ public class GraphQLControllerTest {
   @Autowired
   private WebApplicationContext wac;
 
+  @Autowired
+  private CachingPreparsedDocumentProvider preparsedDocumentProvider;
+
   private MockMvc mockMvc;
 
   public static final String URL_TEMPLATE = "/graphql";
@@ -122,4 +127,59 @@ public class GraphQLControllerTest {
             "{\"data\":{\"booksByInput\":[{\"id\":\"book-1\",\"name\":\"Harry Potter and the Philosopher's Stone\",\"pageCount\":223}]}}")
     );
   }
-}
\ No newline at end of file
+
+  @Test
+  public void persistedQuery() throws Exception {
+    final String query = "{bookById(id : \"book-2\"){name}}";
+    final String extensions = "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\""
+        + CachingPreparsedDocumentProvider.sha256(query) + "\"}}";
+    final String expected = "{\"data\":{\"bookById\":{\"name\":\"Moby Dick\"}}}";
+
+    // 只发送 hash，服务端还没有这个查询
+    this.mockMvc.perform(MockMvcRequestBuilders.get(URL_TEMPLATE)
+        .param("extensions", extensions)
+    )
+        .andExpect(MockMvcResultMatchers.status()
+            .isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].message")
+            .value(GraphQLController.PERSISTED_QUERY_NOT_FOUND));
+    // 带上查询重发
+    this.mockMvc.perform(MockMvcRequestBuilders.get(URL_TEMPLATE)
+        .param("query", query)
+        .param("extensions", extensions)
+    )
+        .andExpect(MockMvcResultMatchers.content()
+            .string(expected));
+    // 之后只需要 hash
+    this.mockMvc.perform(MockMvcRequestBuilders.get(URL_TEMPLATE)
+        .param("extensions", extensions)
+    )
+        .andExpect(MockMvcResultMatchers.content()
+            .string(expected));
+  }
+
+  @Test
+  public void persistedQueryHashMismatch() throws Exception {
+    this.mockMvc.perform(MockMvcRequestBuilders.get(URL_TEMPLATE)
+        .param("query", "{hello}")
+        .param("extensions", "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\""
+            + CachingPreparsedDocumentProvider.sha256("mutation{hello}") + "\"}}")
+    )
+        .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].message")
+            .value(GraphQLController.PERSISTED_QUERY_HASH_MISMATCH));
+  }
+
+  @Test
+  public void preparsedDocumentCached() throws Exception {
+    final long hitCount = preparsedDocumentProvider.stats().hitCount();
+    for (int i = 0; i < 2; i++) {
+      this.mockMvc.perform(MockMvcRequestBuilders.get(URL_TEMPLATE)
+          .content("{bookById(id : \"book-3\"){name}}")
+      )
+          .andExpect(MockMvcResultMatchers.content()
+              .string("{\"data\":{\"bookById\":{\"name\":\"Interview with the vampire\"}}}"));
+    }
+    Assert.assertEquals(hitCount + 1, preparsedDocumentProvider.stats().hitCount());
+  }
+
+}
@@ -1,21 +1,27 @@
 package xyz.flysium.photon.api.config;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.kickstart.execution.context.DefaultGraphQLContext;
 import graphql.kickstart.execution.context.GraphQLContext;
 import graphql.kickstart.servlet.context.DefaultGraphQLServletContext;
 import graphql.kickstart.servlet.context.DefaultGraphQLWebSocketContext;
 import graphql.kickstart.servlet.context.GraphQLServletContextBuilder;
 import graphql.kickstart.spring.web.boot.GraphQLWebAutoConfiguration;
-import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.websocket.Session;
 import javax.websocket.server.HandshakeRequest;
-import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
 import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import xyz.flysium.photon.api.dataloader.AuthorBatchLoader;
+import xyz.flysium.photon.api.dataloader.AuthorDataLoader;
 
 /**
  *
@@ -27,47 +33,71 @@ import org.springframework.context.annotation.Configuration;
 @AutoConfigureBefore(GraphQLWebAutoConfiguration.class)
 public class GraphQLInstrumentationConfiguration {
 
-    @Bean
-    public DataLoaderRegistry dataLoaderRegistry(List<DataLoader<?, ?>> loaderList) {
-        DataLoaderRegistry registry = new DataLoaderRegistry();
-        for (DataLoader<?, ?> loader : loaderList) {
-            registry.register(loader.getClass().getSimpleName(), loader);
-        }
-        return registry;
+    /**
+     * 一批最多的 key 数，避免一次查询的 IN 列表过长
+     */
+    @Value("${application.dataloader.max-batch-size:100}")
+    private int maxBatchSize;
+
+    /**
+     * BatchLoader 专用的有界线程池，不占用 ForkJoinPool.commonPool()，队列满时由调用线程执行
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor dataLoaderExecutor(@Value("${application.dataloader.executor.threads:4}") int threads,
+        @Value("${application.dataloader.executor.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new ThreadFactoryBuilder().setNameFormat("dataloader-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     @Bean
-    public GraphQLServletContextBuilder graphQLContextBuilder(DataLoaderRegistry dataLoaderRegistry) {
-        return new CustomGraphQLServletContextBuilder(dataLoaderRegistry);
+    public GraphQLServletContextBuilder graphQLContextBuilder(AuthorBatchLoader authorBatchLoader) {
+        return new CustomGraphQLServletContextBuilder(authorBatchLoader, maxBatchSize);
     }
 
+    /**
+     * 每个 HTTP 请求、每个 websocket 会话各自创建 DataLoaderRegistry，批次与缓存不会在用户之间混用
+     */
     static class CustomGraphQLServletContextBuilder implements GraphQLServletContextBuilder {
 
-        private final DataLoaderRegistry dataLoaderRegistry;
+        private final AuthorBatchLoader authorBatchLoader;
+
+        private final int maxBatchSize;
 
-        CustomGraphQLServletContextBuilder(DataLoaderRegistry dataLoaderRegistry) {
-            this.dataLoaderRegistry = dataLoaderRegistry;
+        CustomGraphQLServletContextBuilder(AuthorBatchLoader authorBatchLoader, int maxBatchSize) {
+            this.authorBatchLoader = authorBatchLoader;
+            this.maxBatchSize = maxBatchSize;
         }
 
-        private DataLoaderRegistry buildDataLoaderRegistry() {
-            return dataLoaderRegistry;
+        /**
+         * @param cachingEnabled websocket 会话可能存活很久，不在会话内缓存，只依赖 AuthorCache
+         */
+        private DataLoaderRegistry buildDataLoaderRegistry(boolean cachingEnabled) {
+            DataLoaderOptions options = DataLoaderOptions.newOptions().setMaxBatchSize(maxBatchSize)
+                .setCachingEnabled(cachingEnabled);
+            DataLoaderRegistry registry = new DataLoaderRegistry();
+            registry.register(AuthorDataLoader.class.getSimpleName(), new AuthorDataLoader(authorBatchLoader, options));
+            return registry;
         }
 
         @Override
         public GraphQLContext build() {
-            return new DefaultGraphQLContext();
+            return new DefaultGraphQLContext(buildDataLoaderRegistry(true), null);
         }
 
         @Override
         public GraphQLContext build(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
             return DefaultGraphQLServletContext.createServletContext().with(httpServletRequest)
-                .with(httpServletResponse).with(buildDataLoaderRegistry()).build();
+                .with(httpServletResponse).with(buildDataLoaderRegistry(true)).build();
         }
 
         @Override
         public GraphQLContext build(Session session, HandshakeRequest handshakeRequest) {
             return DefaultGraphQLWebSocketContext.createWebSocketContext().with(session).with(handshakeRequest)
-                .with(buildDataLoaderRegistry()).build();
+                .with(buildDataLoaderRegistry(false)).build();
         }
 
     }
@@ -0,0 +1,80 @@
+package xyz.flysium.photon.api.dataloader;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import org.dataloader.BatchLoader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import xyz.flysium.photon.dao.entity.Author;
+import xyz.flysium.photon.dao.repository.AuthorRepository;
+
+/**
+ * 批量加载 Author，先查 {@link AuthorCache}，未命中的在独立的有界线程池中一次查库。
+ * <p>
+ * 无状态，由所有请求的 {@link AuthorDataLoader} 共享。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@Component
+public class AuthorBatchLoader implements BatchLoader<Integer, Author> {
+
+    private final AuthorRepository authorRepository;
+
+    private final AuthorCache authorCache;
+
+    private final Executor executor;
+
+    private final DistributionSummary batchSize;
+
+    public AuthorBatchLoader(AuthorRepository authorRepository, AuthorCache authorCache,
+        @Qualifier("dataLoaderExecutor") Executor executor, MeterRegistry meterRegistry) {
+        this.authorRepository = authorRepository;
+        this.authorCache = authorCache;
+        this.executor = executor;
+        this.batchSize = DistributionSummary.builder("graphql.dataloader.batch.size")
+            .tag("loader", AuthorDataLoader.class.getSimpleName()).publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public CompletionStage<List<Author>> load(List<Integer> keys) {
+        batchSize.record(keys.size());
+        final Map<Integer, Author> found = new HashMap<>(authorCache.getAllPresent(keys));
+        final Set<Integer> missing = new LinkedHashSet<>(keys);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(inOrderOf(keys, found));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            final long epoch = authorCache.epoch();
+            List<Author> authors = authorRepository.findAllById(new ArrayList<>(missing));
+            authorCache.putAll(authors, epoch);
+            for (Author author : authors) {
+                found.put(author.getId(), author);
+            }
+            return inOrderOf(keys, found);
+        }, executor);
+    }
+
+    /**
+     * DataLoader 要求结果与 key 一一对应，不存在的 key 对应 null
+     */
+    private static List<Author> inOrderOf(List<Integer> keys, Map<Integer, Author> authors) {
+        List<Author> values = new ArrayList<>(keys.size());
+        for (Integer key : keys) {
+            values.add(authors.get(key));
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,90 @@
+package xyz.flysium.photon.api.dataloader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import xyz.flysium.photon.dao.entity.Author;
+
+/**
+ * 跨请求共享的 Author 二级缓存，位于每个请求的 {@link AuthorDataLoader} 之后。
+ * <p>
+ * 容量有上限，写入后过期；{@link #invalidate(int)} 之前已开始的加载不会把旧值写回缓存。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@Component
+public class AuthorCache {
+
+    private final Cache<Integer, Author> cache;
+
+    /**
+     * 每次失效递增，加载前记下，写回时不一致则丢弃
+     */
+    private final AtomicLong epoch = new AtomicLong();
+
+    public AuthorCache(@Value("${application.dataloader.author-cache.maximum-size:10000}") long maximumSize,
+        @Value("${application.dataloader.author-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds,
+        MeterRegistry meterRegistry) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS).recordStats().build();
+        // cache.size、cache.gets（hit/miss）、cache.evictions 等，见 /actuator/metrics
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "author");
+    }
+
+    public Map<Integer, Author> getAllPresent(Iterable<Integer> keys) {
+        return cache.getAllPresent(keys);
+    }
+
+    /**
+     * 开始加载前调用，返回值交给 {@link #putAll(Collection, long)}
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * 写回加载结果，加载期间发生过失效则不写回
+     */
+    public void putAll(Collection<Author> authors, long loadEpoch) {
+        synchronized (epoch) {
+            if (epoch.get() != loadEpoch) {
+                return;
+            }
+            for (Author author : authors) {
+                cache.put(author.getId(), author);
+            }
+        }
+    }
+
+    public void invalidate(int authorId) {
+        synchronized (epoch) {
+            epoch.incrementAndGet();
+            cache.invalidate(authorId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (epoch) {
+            epoch.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+}
@@ -0,0 +1,161 @@
+package xyz.flysium.photon.api.instrumentation;
+
+import com.google.common.math.LongMath;
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 执行前计算查询的深度与复杂度，超出预算则拒绝执行。
+ * <p>
+ * 每个字段的复杂度为 1，列表字段的子字段乘以列表长度：取字段的 first/last 参数，Relay 连接（如 books(first: 5)
+ * 下的 edges）取父字段的参数，都没有时取 defaultListSize。内省字段（__schema、__type）不计。
+ * <p>
+ * 在 beginExecuteOperation 中计算而不是在校验阶段：解析结果被缓存后不会再次校验，而且参数可能来自变量。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@Component
+public class QueryCostInstrumentation extends SimpleInstrumentation {
+
+    private final int maxDepth;
+
+    private final long maxComplexity;
+
+    private final int defaultListSize;
+
+    private final DistributionSummary depthSummary;
+
+    private final DistributionSummary complexitySummary;
+
+    private final Counter depthRejected;
+
+    private final Counter complexityRejected;
+
+    public QueryCostInstrumentation(@Value("${application.graphql.query-cost.max-depth:10}") int maxDepth,
+        @Value("${application.graphql.query-cost.max-complexity:1000}") long maxComplexity,
+        @Value("${application.graphql.query-cost.default-list-size:10}") int defaultListSize,
+        MeterRegistry meterRegistry) {
+        this.maxDepth = maxDepth;
+        this.maxComplexity = maxComplexity;
+        this.defaultListSize = defaultListSize;
+        this.depthSummary = DistributionSummary.builder("graphql.query.depth").register(meterRegistry);
+        this.complexitySummary = DistributionSummary.builder("graphql.query.complexity").register(meterRegistry);
+        this.depthRejected = Counter.builder("graphql.query.rejected").tag("reason", "depth")
+            .register(meterRegistry);
+        this.complexityRejected = Counter.builder("graphql.query.rejected").tag("reason", "complexity")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+        InstrumentationExecuteOperationParameters parameters) {
+        QueryCost cost = cost(parameters.getExecutionContext());
+        depthSummary.record(cost.depth);
+        complexitySummary.record(cost.complexity);
+        if (cost.depth > maxDepth) {
+            depthRejected.increment();
+            throw new AbortExecutionException("maximum query depth exceeded " + cost.depth + " > " + maxDepth);
+        }
+        if (cost.complexity > maxComplexity) {
+            complexityRejected.increment();
+            throw new AbortExecutionException(
+                "maximum query complexity exceeded " + cost.complexity + " > " + maxComplexity);
+        }
+        return super.beginExecuteOperation(parameters);
+    }
+
+    QueryCost cost(ExecutionContext executionContext) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser().schema(executionContext.getGraphQLSchema())
+            .document(executionContext.getDocument())
+            .operationName(executionContext.getOperationDefinition().getName())
+            .variables(executionContext.getVariables()).build();
+        // 后序遍历，子字段的复杂度累加到父字段上，顶层字段的累加到 null 上
+        final Map<QueryVisitorFieldEnvironment, Long> childComplexity = new HashMap<>();
+        final int[] depth = new int[1];
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                if (isIntrospection(env)) {
+                    return;
+                }
+                // 饱和运算，first 很大时不溢出
+                long complexity = LongMath
+                    .saturatedAdd(1, LongMath.saturatedMultiply(multiplier(env), childComplexity.getOrDefault(env, 0L)));
+                childComplexity.merge(env.getParentEnvironment(), complexity, LongMath::saturatedAdd);
+                depth[0] = Math.max(depth[0], depth(env));
+            }
+        });
+        return new QueryCost(depth[0], childComplexity.getOrDefault(null, 0L));
+    }
+
+    private long multiplier(QueryVisitorFieldEnvironment env) {
+        if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))) {
+            return 1;
+        }
+        Integer size = pageSize(env);
+        QueryVisitorFieldEnvironment parent = env.getParentEnvironment();
+        if (size == null && parent != null) {
+            size = pageSize(parent);
+        }
+        return size == null ? defaultListSize : size;
+    }
+
+    private static Integer pageSize(QueryVisitorFieldEnvironment env) {
+        Object size = env.getArguments().get("first");
+        if (size == null) {
+            size = env.getArguments().get("last");
+        }
+        return size instanceof Number ? Math.max(0, ((Number) size).intValue()) : null;
+    }
+
+    private static int depth(QueryVisitorFieldEnvironment env) {
+        int depth = 0;
+        for (QueryVisitorFieldEnvironment e = env; e != null; e = e.getParentEnvironment()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static boolean isIntrospection(QueryVisitorFieldEnvironment env) {
+        for (QueryVisitorFieldEnvironment e = env; e != null; e = e.getParentEnvironment()) {
+            if (e.isTypeNameIntrospectionField() || e.getField().getName().startsWith("__")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static class QueryCost {
+
+        final int depth;
+
+        final long complexity;
+
+        QueryCost(int depth, long complexity) {
+            this.depth = depth;
+            this.complexity = complexity;
+        }
+
+        @Override
+        public String toString() {
+            return "depth: " + depth + ", complexity: " + complexity;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package xyz.flysium.photon.api.preparsed;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存解析与校验后的查询文档，key 为查询文本的 sha256，客户端的查询种类不多，命中后不再重复解析与校验。
+ * <p>
+ * 只传 hash 的 Automatic Persisted Queries 见 {@link PersistedQueryFilter}。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@Component
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> cache;
+
+    public CachingPreparsedDocumentProvider(
+        @Value("${application.graphql.preparsed-cache.maximum-size:1000}") long maximumSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+        Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        try {
+            // 校验错误只依赖查询与 schema，同样可以缓存
+            return cache.get(sha256(executionInput.getQuery()),
+                () -> parseAndValidateFunction.apply(executionInput));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public static String sha256(String query) {
+        return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+    }
+
+}
@@ -0,0 +1,149 @@
+package xyz.flysium.photon.api.preparsed;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Automatic Persisted Queries：https://github.com/apollographql/apollo-link-persisted-queries
+ * <ul>
+ *   <li>客户端只发送 <code>extensions={"persistedQuery":{"version":1,"sha256Hash":"..."}}</code></li>
+ *   <li>服务端没有这个 hash 时返回错误 <code>PersistedQueryNotFound</code></li>
+ *   <li>客户端带上 query 与 hash 重发，校验 hash 后保存，之后只需要 hash</li>
+ * </ul>
+ * 只处理 GET（apollo 的 useGETForHashedQueries），kickstart 的 POST 请求体不包含 extensions。
+ * 找到的查询文本交给 GraphQL 执行，解析结果由 {@link CachingPreparsedDocumentProvider} 缓存。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@Component
+public class PersistedQueryFilter extends OncePerRequestFilter {
+
+    public static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+
+    public static final String PERSISTED_QUERY_HASH_MISMATCH = "provided sha does not match query";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String mapping;
+
+    private final Cache<String, String> queries;
+
+    public PersistedQueryFilter(@Value("${graphql.servlet.mapping:/graphql}") String mapping,
+        @Value("${application.graphql.persisted-query.maximum-size:1000}") long maximumSize) {
+        this.mapping = mapping;
+        this.queries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !mapping.equals(request.getServletPath())
+            || request.getParameter("extensions") == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        final String hash = persistedQueryHash(request.getParameter("extensions"));
+        if (hash == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String query = request.getParameter("query");
+        if (query == null || query.trim().isEmpty()) {
+            query = queries.getIfPresent(hash);
+            if (query == null) {
+                writeError(response, PERSISTED_QUERY_NOT_FOUND, "PERSISTED_QUERY_NOT_FOUND");
+                return;
+            }
+            filterChain.doFilter(new QueryRequestWrapper(request, query), response);
+            return;
+        }
+        if (!hash.equalsIgnoreCase(CachingPreparsedDocumentProvider.sha256(query))) {
+            writeError(response, PERSISTED_QUERY_HASH_MISMATCH, "PERSISTED_QUERY_HASH_MISMATCH");
+            return;
+        }
+        queries.put(hash.toLowerCase(), query);
+        filterChain.doFilter(request, response);
+    }
+
+    public long size() {
+        return queries.size();
+    }
+
+    /**
+     * @return extensions.persistedQuery.sha256Hash，没有则为 null
+     */
+    private static String persistedQueryHash(String extensions) {
+        try {
+            Map<String, Object> map = OBJECT_MAPPER.readValue(extensions, new TypeReference<Map<String, Object>>() {
+            });
+            Object persistedQuery = map.get("persistedQuery");
+            if (persistedQuery instanceof Map) {
+                Object hash = ((Map<?, ?>) persistedQuery).get("sha256Hash");
+                return hash == null ? null : hash.toString().toLowerCase();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 与 apollo server 一致，HTTP 200 返回 GraphQL 错误，客户端据此重发完整的查询
+     */
+    private static void writeError(HttpServletResponse response, String message, String code) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("message", message);
+        error.put("extensions", Collections.singletonMap("code", code));
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OBJECT_MAPPER.writeValue(response.getWriter(),
+            Collections.singletonMap("errors", Collections.singletonList(error)));
+    }
+
+    static class QueryRequestWrapper extends HttpServletRequestWrapper {
+
+        private final String query;
+
+        QueryRequestWrapper(HttpServletRequest request, String query) {
+            super(request);
+            this.query = query;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            return "query".equals(name) ? query : super.getParameter(name);
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return "query".equals(name) ? new String[]{query} : super.getParameterValues(name);
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            Map<String, String[]> map = new HashMap<>(super.getParameterMap());
+            map.put("query", new String[]{query});
+            return Collections.unmodifiableMap(map);
+        }
+    }
+
+}
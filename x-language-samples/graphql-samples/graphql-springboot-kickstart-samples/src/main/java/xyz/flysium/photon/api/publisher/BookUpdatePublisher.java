@@ -1,15 +1,20 @@
 package xyz.flysium.photon.api.publisher;
 
-import io.reactivex.BackpressureStrategy;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.reactivex.Flowable;
-import io.reactivex.Observable;
-import io.reactivex.ObservableEmitter;
-import io.reactivex.observables.ConnectableObservable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import xyz.flysium.photon.dao.entity.Book;
 
 /**
- *
+ * Book 的创建、更新事件，每个 websocket 订阅者有自己的有界缓冲区，慢订阅者按 overflow-policy 丢弃事件或被断开。
+ * <p>
+ * LATEST_PER_KEY 按 Book 的 id 合并。
  *
  * @author zeno (Sven Augustus)
  * @version 1.0
@@ -17,26 +22,45 @@ import xyz.flysium.photon.dao.entity.Book;
 @Component
 public class BookUpdatePublisher {
 
-    private final Flowable<Book> publisher;
-
-    private ObservableEmitter<Book> observableEmitter;
+    private final ThreadPoolExecutor executor;
 
-    public BookUpdatePublisher() {
-        Observable<Book> stockPriceUpdateObservable = Observable.create(emitter -> {
-            observableEmitter = emitter;
-        });
+    private final SubscriptionHub<Book> hub;
 
-        ConnectableObservable<Book> connectableObservable = stockPriceUpdateObservable.share().publish();
-        connectableObservable.connect();
+    private final Flowable<Book> publisher;
 
-        publisher = connectableObservable.toFlowable(BackpressureStrategy.BUFFER);
+    public BookUpdatePublisher(@Value("${application.subscription.buffer-size:256}") int bufferSize,
+        @Value("${application.subscription.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+        @Value("${application.subscription.executor.threads:4}") int threads, MeterRegistry meterRegistry) {
+        // 同一个订阅者最多一个排队的投递任务，队列长度不超过订阅者数
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("subscription-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        hub = new SubscriptionHub<>("bookUpdated", bufferSize, overflowPolicy, Book::getId, executor,
+            meterRegistry);
+        publisher = Flowable.fromPublisher(hub);
     }
 
     public Flowable<Book> getPublisher() {
         return publisher;
     }
 
+    /**
+     * 可以被多个线程同时调用
+     */
     public void emit(Book book) {
-        observableEmitter.onNext(book);
+        // updateBook 没有更新到记录时为 null
+        if (book != null) {
+            hub.emit(book);
+        }
     }
+
+    public int subscriberCount() {
+        return hub.subscriberCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
 }
@@ -0,0 +1,26 @@
+package xyz.flysium.photon.api.publisher;
+
+/**
+ * 订阅者的缓冲区满时如何处理新的事件
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 丢弃最早的事件，保留最新的
+     */
+    DROP_OLDEST,
+
+    /**
+     * 按 key 合并，同一个 key 只保留最新的事件（位置不变）；不同 key 的事件仍然占满缓冲区时丢弃最早的
+     */
+    LATEST_PER_KEY,
+
+    /**
+     * 断开订阅者，发送 MissingBackpressureException
+     */
+    DISCONNECT
+
+}
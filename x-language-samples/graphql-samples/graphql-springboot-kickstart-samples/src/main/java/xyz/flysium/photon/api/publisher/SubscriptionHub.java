@@ -0,0 +1,318 @@
+package xyz.flysium.photon.api.publisher;
+
+import com.google.common.math.LongMath;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.reactivex.exceptions.MissingBackpressureException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 热的多订阅者 Publisher：每个订阅者一个固定容量的环形缓冲区，满了按 {@link OverflowPolicy} 处理，内存不会随慢订阅者增长。
+ * <p>
+ * {@link #emit(Object)} 可以被多个线程同时调用，只把事件放进各个订阅者的缓冲区，不会阻塞在慢订阅者上；
+ * 按订阅者的 request(n) 在 executor 中投递，同一个订阅者同时最多只有一个投递任务，所以 executor 的队列长度不超过订阅者数。
+ * <p>
+ * 指标：graphql.subscription.subscribers、graphql.subscription.buffered、graphql.subscription.dropped、
+ * graphql.subscription.disconnected，标签 publisher。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class SubscriptionHub<T> implements Publisher<T> {
+
+    /**
+     * 一次投递任务最多连续投递的事件数，之后重新提交，让出线程给其他订阅者
+     */
+    private static final int DRAIN_BATCH = 128;
+
+    private final int bufferSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Function<? super T, ?> keyFunction;
+
+    private final Executor executor;
+
+    private final Set<HubSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final Counter dropped;
+
+    private final Counter disconnected;
+
+    /**
+     * @param keyFunction {@link OverflowPolicy#LATEST_PER_KEY} 合并事件用的 key
+     */
+    public SubscriptionHub(String name, int bufferSize, OverflowPolicy overflowPolicy,
+        Function<? super T, ?> keyFunction, Executor executor, MeterRegistry meterRegistry) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+        this.executor = Objects.requireNonNull(executor);
+        Gauge.builder("graphql.subscription.subscribers", subscriptions, Set::size).tag("publisher", name)
+            .register(meterRegistry);
+        Gauge.builder("graphql.subscription.buffered", this, SubscriptionHub::buffered).tag("publisher", name)
+            .register(meterRegistry);
+        this.dropped = Counter.builder("graphql.subscription.dropped").tag("publisher", name)
+            .tag("policy", overflowPolicy.name()).register(meterRegistry);
+        this.disconnected = Counter.builder("graphql.subscription.disconnected").tag("publisher", name)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        HubSubscription subscription = new HubSubscription(subscriber);
+        // 先 onSubscribe 再加入，保证 onSubscribe 之前不会有 onNext
+        subscriber.onSubscribe(subscription);
+        if (!subscription.cancelled) {
+            subscriptions.add(subscription);
+            if (subscription.cancelled) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * 发布事件，只有已订阅的订阅者能收到
+     */
+    public void emit(T item) {
+        Objects.requireNonNull(item);
+        for (HubSubscription subscription : subscriptions) {
+            subscription.offer(item);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 所有订阅者缓冲区中尚未投递的事件数
+     */
+    public long buffered() {
+        long buffered = 0;
+        for (HubSubscription subscription : subscriptions) {
+            buffered += subscription.size();
+        }
+        return buffered;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    final class HubSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super T> actual;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * 投递任务的进行中标记，同时记录错过的唤醒次数
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /**
+         * 以下由 this 保护，环形缓冲区中第 seq 个事件位于 buffer[seq % bufferSize]
+         */
+        private final Object[] buffer = new Object[bufferSize];
+
+        private long headSeq;
+
+        private int size;
+
+        /**
+         * LATEST_PER_KEY 时 key -> 该 key 的事件的 seq
+         */
+        private final Map<Object, Long> pendingByKey =
+            overflowPolicy == OverflowPolicy.LATEST_PER_KEY ? new HashMap<>() : null;
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable error;
+
+        HubSubscription(Subscriber<? super T> actual) {
+            this.actual = actual;
+        }
+
+        void offer(T item) {
+            synchronized (this) {
+                if (cancelled || error != null) {
+                    return;
+                }
+                Object key = null;
+                if (pendingByKey != null) {
+                    key = keyFunction.apply(item);
+                    Long seq = pendingByKey.get(key);
+                    if (seq != null) {
+                        buffer[slot(seq)] = item;
+                        dropped.increment();
+                        return;
+                    }
+                }
+                if (size == bufferSize) {
+                    if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                        clear();
+                        error = new MissingBackpressureException(
+                            "subscriber is too slow, " + bufferSize + " events are pending");
+                    } else {
+                        poll();
+                        dropped.increment();
+                    }
+                }
+                if (error == null) {
+                    long seq = headSeq + size;
+                    buffer[slot(seq)] = item;
+                    size++;
+                    if (pendingByKey != null) {
+                        pendingByKey.put(key, seq);
+                    }
+                }
+            }
+            if (error != null) {
+                subscriptions.remove(this);
+                disconnected.increment();
+            }
+            drain();
+        }
+
+        @SuppressWarnings("unchecked")
+        private T poll() {
+            if (size == 0) {
+                return null;
+            }
+            int slot = slot(headSeq);
+            T item = (T) buffer[slot];
+            buffer[slot] = null;
+            headSeq++;
+            size--;
+            if (pendingByKey != null) {
+                pendingByKey.remove(keyFunction.apply(item));
+            }
+            return item;
+        }
+
+        private void clear() {
+            while (size > 0) {
+                poll();
+            }
+        }
+
+        private int slot(long seq) {
+            return (int) (seq % bufferSize);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                synchronized (this) {
+                    clear();
+                    error = new IllegalArgumentException("§3.9 violated: positive request amount required");
+                }
+                subscriptions.remove(this);
+            } else {
+                requested.getAndAccumulate(n, LongMath::saturatedAdd);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (this) {
+                clear();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (; ; ) {
+                long r = requested.get();
+                long e = 0;
+                while (e != r) {
+                    if (terminated()) {
+                        return;
+                    }
+                    T item;
+                    synchronized (this) {
+                        item = poll();
+                    }
+                    if (item == null) {
+                        break;
+                    }
+                    try {
+                        actual.onNext(item);
+                    } catch (Throwable ex) {
+                        // §2.13 订阅者不应抛出异常，视为取消
+                        cancel();
+                        return;
+                    }
+                    e++;
+                    if (e == DRAIN_BATCH) {
+                        break;
+                    }
+                }
+                if (terminated()) {
+                    return;
+                }
+                if (e != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-e);
+                }
+                if (e == DRAIN_BATCH) {
+                    // 仍持有 wip，其他线程不会再提交
+                    executor.execute(this);
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * 已取消或已发送 onError 返回 true，此后不再投递
+         */
+        private boolean terminated() {
+            if (cancelled) {
+                return true;
+            }
+            Throwable ex = error;
+            if (ex != null) {
+                cancelled = true;
+                actual.onError(ex);
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,226 @@
+package xyz.flysium.photon;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import xyz.flysium.photon.api.publisher.BookUpdatePublisher;
+import xyz.flysium.photon.api.publisher.OverflowPolicy;
+import xyz.flysium.photon.dao.entity.Book;
+
+/**
+ * 数千个并发订阅，其中一部分只 request(1) 之后不再请求（模拟卡住的 websocket），多个线程同时发布，
+ * 输出堆内存与投递延迟。丢弃或断开时，发布最多领先快的订阅者 {@link #WINDOW} 个事件，
+ * 快的订阅者的缓冲区不会满，溢出策略只作用于卡住的订阅者。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+public class BookUpdatePublisherLoadTest {
+
+    private static final int SUBSCRIBERS = 5000;
+
+    private static final int SLOW_SUBSCRIBERS = SUBSCRIBERS / 10;
+
+    private static final int FAST_SUBSCRIBERS = SUBSCRIBERS - SLOW_SUBSCRIBERS;
+
+    private static final int PRODUCERS = 4;
+
+    private static final int EVENTS = 400;
+
+    private static final int BOOKS = 16;
+
+    private static final int BUFFER_SIZE = 64;
+
+    /**
+     * 发布领先快的订阅者的事件数，小于缓冲区
+     */
+    private static final int WINDOW = BUFFER_SIZE / 2;
+
+    private static final int DELIVERY_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    @Test
+    public void dropOldest() throws Exception {
+        Result result = run(OverflowPolicy.DROP_OLDEST, WINDOW);
+        // 卡住的订阅者的缓冲区保持满
+        Assert.assertEquals(SUBSCRIBERS, result.subscribers);
+        Assert.assertEquals(SLOW_SUBSCRIBERS * BUFFER_SIZE, result.buffered);
+        Assert.assertEquals(0, result.errors);
+        // 快的订阅者不丢事件
+        Assert.assertEquals(0, result.fastMissing);
+    }
+
+    @Test
+    public void latestPerKey() throws Exception {
+        // 合并后快的订阅者也不一定收到每个事件，不限制发布
+        Result result = run(OverflowPolicy.LATEST_PER_KEY, EVENTS);
+        // 每本书只保留最新的一个事件
+        Assert.assertEquals(SUBSCRIBERS, result.subscribers);
+        Assert.assertEquals(SLOW_SUBSCRIBERS * BOOKS, result.buffered);
+        Assert.assertEquals(0, result.errors);
+    }
+
+    @Test
+    public void disconnect() throws Exception {
+        Result result = run(OverflowPolicy.DISCONNECT, WINDOW);
+        // 只有卡住的订阅者被断开
+        Assert.assertEquals(0, result.fastErrors);
+        Assert.assertEquals(SLOW_SUBSCRIBERS, result.errors);
+        Assert.assertEquals(FAST_SUBSCRIBERS, result.subscribers);
+        Assert.assertEquals(0, result.fastMissing);
+    }
+
+    /**
+     * @param window 发布领先快的订阅者的事件数
+     */
+    private Result run(OverflowPolicy policy, int window) throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        BookUpdatePublisher publisher = new BookUpdatePublisher(BUFFER_SIZE, policy, DELIVERY_THREADS, registry);
+        Timer latency = Timer.builder("delivery.latency").publishPercentiles(0.5, 0.99, 0.999).register(registry);
+        // pageCount 作为事件序号，记录发布时间
+        final long[] emittedAt = new long[EVENTS + 1];
+        final CountDownLatch first = new CountDownLatch(SUBSCRIBERS);
+        final CountDownLatch done = new CountDownLatch(FAST_SUBSCRIBERS);
+        // 每个事件已投递给多少个快的订阅者
+        final AtomicIntegerArray delivered = new AtomicIntegerArray(EVENTS + 1);
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger fastErrors = new AtomicInteger();
+        final AtomicInteger fastMissing = new AtomicInteger();
+        final long heapBefore = usedHeap();
+        try {
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                final boolean slow = i < SLOW_SUBSCRIBERS;
+                publisher.getPublisher().subscribe(new Subscriber<Book>() {
+                    private int received;
+
+                    @Override
+                    public void onSubscribe(Subscription s) {
+                        s.request(slow ? 1 : Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(Book book) {
+                        latency.record(System.nanoTime() - emittedAt[book.getPageCount()], TimeUnit.NANOSECONDS);
+                        if (!slow) {
+                            received++;
+                            delivered.incrementAndGet(book.getPageCount());
+                        }
+                        if (book.getPageCount() == 0) {
+                            first.countDown();
+                        } else if (book.getPageCount() == EVENTS) {
+                            if (received != EVENTS + 1) {
+                                fastMissing.incrementAndGet();
+                            }
+                            done.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        errors.incrementAndGet();
+                        if (!slow) {
+                            fastErrors.incrementAndGet();
+                            done.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+            }
+            // 卡住的订阅者先收到第一个事件，之后的都留在缓冲区
+            emit(publisher, emittedAt, 0);
+            Assert.assertTrue(first.await(1, TimeUnit.MINUTES));
+            long start = System.nanoTime();
+            ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+            for (int p = 0; p < PRODUCERS; p++) {
+                final int producer = p;
+                producers.execute(() -> {
+                    for (int seq = 1 + producer; seq < EVENTS; seq += PRODUCERS) {
+                        awaitDelivered(delivered, seq - window, fastErrors);
+                        emit(publisher, emittedAt, seq);
+                    }
+                });
+            }
+            producers.shutdown();
+            Assert.assertTrue(producers.awaitTermination(1, TimeUnit.MINUTES));
+            // 最新的事件不会被丢弃，快的订阅者收到它就说明已经追上
+            emit(publisher, emittedAt, EVENTS);
+            Assert.assertTrue(done.await(1, TimeUnit.MINUTES));
+            long elapsed = System.nanoTime() - start;
+
+            Result result = new Result();
+            result.subscribers = publisher.subscriberCount();
+            result.buffered = (long) registry.get("graphql.subscription.buffered").gauge().value();
+            result.errors = errors.get();
+            result.fastErrors = fastErrors.get();
+            result.fastMissing = fastMissing.get();
+            System.out.printf("%s: %d subscribers (%d slow), %d events from %d producers in %d ms%n", policy,
+                SUBSCRIBERS, SLOW_SUBSCRIBERS, EVENTS, PRODUCERS, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            System.out.printf("  delivered %d, dropped %.0f, disconnected %d, buffered %d, heap +%d KB%n",
+                latency.count(), registry.get("graphql.subscription.dropped").counter().count(), result.errors,
+                result.buffered, (usedHeap() - heapBefore) / 1024);
+            StringBuilder percentiles = new StringBuilder("  latency");
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                percentiles.append(String.format(" p%s %.2f ms,", value.percentile() * 100,
+                    value.value(TimeUnit.MILLISECONDS)));
+            }
+            System.out.println(percentiles.append(String.format(" max %.2f ms", latency.max(TimeUnit.MILLISECONDS))));
+            return result;
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    private static void emit(BookUpdatePublisher publisher, long[] emittedAt, int seq) {
+        emittedAt[seq] = System.nanoTime();
+        publisher.emit(Book.BookBuilder.aBook().id(seq % BOOKS).name("book-" + seq).pageCount(seq).build());
+    }
+
+    /**
+     * 等待序号不超过 seq 的事件都已投递给快的订阅者，这样快的订阅者的缓冲区中最多有 window 个事件
+     */
+    private static void awaitDelivered(AtomicIntegerArray delivered, int seq, AtomicInteger fastErrors) {
+        final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i <= seq; i++) {
+            // 快的订阅者被断开后不会再追上
+            while (delivered.get(i) < FAST_SUBSCRIBERS && fastErrors.get() == 0) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("event " + i + " is not delivered to the fast subscribers");
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class Result {
+
+        int subscribers;
+
+        long buffered;
+
+        int errors;
+
+        int fastErrors;
+
+        int fastMissing;
+    }
+
+}
@@ -0,0 +1,78 @@
+package xyz.flysium.photon;
+
+import graphql.introspection.IntrospectionQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@RunWith(SpringRunner.class)
+// 属性不同，是另一个 Spring 上下文，使用另一个内存数据库
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"application.graphql.query-cost.max-depth=4", "spring.datasource.url=jdbc:h2:mem:instrumentation"})
+public class GraphQLInstrumentationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void maxDepth() {
+        Assert.assertEquals("{\"data\":{\"bookById\":{\"author\":{\"firstName\":\"Joanne\"}}}}",
+            query("{bookById(id: 1){author{firstName}}}"));
+        // books -> edges -> node -> author -> firstName
+        Assert.assertTrue(query("{books(first: 1){edges{node{author{firstName}}}}}")
+            .contains("maximum query depth exceeded 5 > 4"));
+        // 内省不计入，GraphiQL 不受影响
+        Assert.assertFalse(query(IntrospectionQuery.INTROSPECTION_QUERY).contains("\"errors\""));
+    }
+
+    @Test
+    public void maxComplexity() {
+        // books + edges * 2 * (node + id + name) = 1 + 1 + 2 * 3
+        Assert.assertTrue(query("{books(first: 2){edges{node{id name}}}}").contains("\"data\""));
+        // 1 + 1 + 1000 * 3
+        Assert.assertTrue(query("{books(first: 1000){edges{node{id name}}}}")
+            .contains("maximum query complexity exceeded 3002 > 1000"));
+        // 没有 first 的列表按 10 估算：1 + 10 * 100
+        Assert.assertTrue(query("{booksAll{" + repeat("a%d: id ", 100) + "}}")
+            .contains("maximum query complexity exceeded 1001 > 1000"));
+    }
+
+    @Test
+    public void fieldMetrics() {
+        query("{booksAll{name author{firstName}}}");
+        Timer author = meterRegistry.find("graphql.field.fetch").tag("parent", "Book").tag("field", "author")
+            .tag("outcome", "success").timer();
+        Assert.assertNotNull(author);
+        Assert.assertTrue(author.count() >= 3);
+        // 属性字段不记录
+        Assert.assertNull(meterRegistry.find("graphql.field.fetch").tag("parent", "Book").tag("field", "name").timer());
+        Assert.assertTrue(meterRegistry.get("graphql.dataloader.batch.size").summary().count() > 0);
+        Assert.assertNotNull(meterRegistry.find("cache.gets").tag("cache", "author").functionCounter());
+    }
+
+    private String query(String query) {
+        return restTemplate.getForObject("/graphql?query={query}", String.class, query);
+    }
+
+    private static String repeat(String format, int n) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            buf.append(String.format(format, i));
+        }
+        return buf.toString();
+    }
+
+}
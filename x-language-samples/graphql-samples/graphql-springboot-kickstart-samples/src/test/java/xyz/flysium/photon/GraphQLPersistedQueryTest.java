@@ -0,0 +1,66 @@
+package xyz.flysium.photon;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import xyz.flysium.photon.api.preparsed.CachingPreparsedDocumentProvider;
+import xyz.flysium.photon.api.preparsed.PersistedQueryFilter;
+
+/**
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GraphQLPersistedQueryTest {
+
+    private static final String QUERY = "{bookById(id: 2){name}}";
+
+    private static final String EXPECTED = "{\"data\":{\"bookById\":{\"name\":\"Moby Dick\"}}}";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CachingPreparsedDocumentProvider preparsedDocumentProvider;
+
+    @Test
+    public void persistedQuery() {
+        final String hash = CachingPreparsedDocumentProvider.sha256(QUERY);
+
+        // 只发送 hash，服务端还没有这个查询
+        Assert.assertTrue(get("", hash).contains(PersistedQueryFilter.PERSISTED_QUERY_NOT_FOUND));
+        // 带上查询重发，解析后缓存
+        Assert.assertEquals(EXPECTED, get(QUERY, hash));
+        // 之后只需要 hash
+        Assert.assertEquals(EXPECTED, get("", hash));
+    }
+
+    @Test
+    public void persistedQueryHashMismatch() {
+        Assert.assertTrue(get(QUERY, CachingPreparsedDocumentProvider.sha256("{hello}"))
+            .contains(PersistedQueryFilter.PERSISTED_QUERY_HASH_MISMATCH));
+    }
+
+    @Test
+    public void preparsedDocumentCached() {
+        final String query = "{bookById(id: 3){name}}";
+        final long hitCount = preparsedDocumentProvider.stats().hitCount();
+        Assert.assertEquals("{\"data\":{\"bookById\":{\"name\":\"Interview with the vampire\"}}}", get(query, null));
+        Assert.assertEquals("{\"data\":{\"bookById\":{\"name\":\"Interview with the vampire\"}}}", get(query, null));
+        Assert.assertEquals(hitCount + 1, preparsedDocumentProvider.stats().hitCount());
+    }
+
+    private String get(String query, String hash) {
+        if (hash == null) {
+            return restTemplate.getForObject("/graphql?query={query}", String.class, query);
+        }
+        return restTemplate.getForObject("/graphql?query={query}&extensions={extensions}", String.class, query,
+            "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + hash + "\"}}");
+    }
+
+}
@@ -24,6 +24,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
+import xyz.flysium.photon.api.dataloader.AuthorCache;
 
 /**
  * @author zeno (Sven Augustus)
@@ -38,6 +39,9 @@ public class GraphQLQueryTest {
     @Autowired
     private GraphQLTestTemplate graphQLTestTemplate;
 
+    @Autowired
+    private AuthorCache authorCache;
+
     @Test
     public void hello() throws Exception {
         final GraphQLResponse response = graphQLTestTemplate.postForResource("HelloQuery.graphqls");
@@ -73,4 +77,18 @@ public class GraphQLQueryTest {
             response.getRawResponse().getBody());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void booksAuthorCache() throws Exception {
+        Assert.assertTrue(graphQLTestTemplate.postForResource("booksQuery.graphqls").isOk());
+        final long hitCount = authorCache.stats().hitCount();
+        Assert.assertEquals(3, authorCache.size());
+
+        // 第二个请求有自己的 DataLoader，但 Author 来自共享的二级缓存
+        Assert.assertTrue(graphQLTestTemplate.postForResource("booksQuery.graphqls").isOk());
+        Assert.assertEquals(hitCount + 3, authorCache.stats().hitCount());
+
+        authorCache.invalidate(1);
+        Assert.assertEquals(2, authorCache.size());
+    }
+
+}
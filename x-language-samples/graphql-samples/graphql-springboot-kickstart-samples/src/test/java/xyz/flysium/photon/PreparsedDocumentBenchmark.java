@@ -0,0 +1,113 @@
+package xyz.flysium.photon;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.execution.preparsed.NoOpPreparsedDocumentProvider;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.FileCopyUtils;
+import xyz.flysium.photon.api.preparsed.CachingPreparsedDocumentProvider;
+
+/**
+ * 执行 src/test/resources/*.graphqls 中的全部查询，比较每次解析、校验（none）与缓存解析结果（cached）的吞吐。
+ * <p>
+ * schema 与服务相同，但数据获取器不访问数据库，结果的差异即解析与校验的开销。
+ *
+ * @author zeno (Sven Augustus)
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput) //基准测试类型
+@Warmup(iterations = 3, time = 1) //预热的迭代次数
+@Measurement(iterations = 3, time = 1)    // 度量:iterations进行测试的轮次，time每轮进行的时长，timeUnit时长单位,batchSize批次数量
+@Threads(1) // 测试线程数量
+@Fork(1) // 测试进程数量
+@OutputTimeUnit(TimeUnit.MILLISECONDS) //基准测试结果的时间类型
+@State(Scope.Benchmark)
+public class PreparsedDocumentBenchmark {
+
+    @Param({"none", "cached"})
+    private String preparsed;
+
+    private GraphQL graphQL;
+
+    private final List<String> queries = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        // 不在 Spring 中运行，logback 默认 DEBUG 会为每次执行打印日志
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        TypeDefinitionRegistry registry = new TypeDefinitionRegistry();
+        SchemaParser schemaParser = new SchemaParser();
+        for (Resource resource : resolver.getResources("classpath*:graphql/**/*.graphqls")) {
+            registry.merge(schemaParser.parse(read(resource)));
+        }
+        GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
+        PreparsedDocumentProvider provider = "cached".equals(preparsed) ? new CachingPreparsedDocumentProvider(1000)
+            : NoOpPreparsedDocumentProvider.INSTANCE;
+        graphQL = GraphQL.newGraphQL(schema).preparsedDocumentProvider(provider).build();
+
+        queries.clear();
+        for (Resource resource : resolver.getResources("classpath*:*.graphqls")) {
+            queries.add(read(resource));
+        }
+        for (String query : queries) {
+            // 数据获取器返回 null，只检查解析与校验的错误
+            for (GraphQLError error : graphQL.execute(query).getErrors()) {
+                if (error.getErrorType() == ErrorType.InvalidSyntax
+                    || error.getErrorType() == ErrorType.ValidationError) {
+                    throw new IllegalStateException(query + " -> " + error.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String read(Resource resource) throws IOException {
+        return FileCopyUtils.copyToString(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void execute(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(graphQL.execute(ExecutionInput.newExecutionInput().query(query).build()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+            .include(PreparsedDocumentBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}